@@ -0,0 +1,406 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 IDML 파일을 한 JVM에서 HWPX로 일괄 변환한다.
+ *
+ * 파일마다 작업자 풀의 스레드 하나에서 변환하며 동시에 최대 jobs개를 변환한다.
+ * 한 파일의 실패(예외, 메모리 부족 포함)는 다른 파일에 영향을 주지 않는다.
+ * 결과는 파일이 끝나는 순서대로 한 줄에 하나씩 JSON으로 출력한다 (JsonProgressReporter와 같은 형식).
+ *
+ * <pre>
+ * {"type": "file", "index": 0, "input": "...", "output": "...", "status": "ok", "elapsed_ms": 1234,
+ *  "phases": {"load": 120, ...}, "pages_converted": 12, "warnings": [...]}
+ * {"type": "file", ..., "status": "failed", "error": "...", "phase": "PARSING"}
+ * {"type": "file", ..., "status": "timeout", "error": "..."}
+ * {"type": "batch_complete", "total": 3, "succeeded": 1, "failed": 1, "timed_out": 1, "elapsed_ms": 5678}
+ * </pre>
+ *
+ * 제한 시간을 넘긴 파일은 즉시 timeout으로 보고하고 작업자 스레드를 interrupt한 뒤 출력 파일을 지운다.
+ * 변환은 페이지마다 인터럽트를 확인하므로 보통 곧 멈춘다. 자바 스레드는 강제로 멈출 수 없으므로
+ * 자리는 그 스레드가 실제로 끝날 때 돌려준다 (동시에 실행되는 변환은 늘 jobs개 이하).
+ * 나중에 끝난 변환의 결과는 버리고 출력 파일을 다시 지운다. 모든 자리를 멈추지 않는 변환이 차지한 채로
+ * 제한 시간이 한 번 더 지나면 남은 파일은 변환하지 않고 failed로 보고한다.
+ */
+public class BatchConverter {
+
+    /**
+     * 변환할 파일 하나.
+     */
+    public static class Job {
+        private final String input;
+        private final String output;
+
+        public Job(String input, String output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        public String input() {
+            return input;
+        }
+
+        public String output() {
+            return output;
+        }
+    }
+
+    /**
+     * 일괄 변환 결과 집계.
+     */
+    public static class Summary {
+        private final int total;
+        private final int succeeded;
+        private final int failed;
+        private final int timedOut;
+
+        Summary(int total, int succeeded, int failed, int timedOut) {
+            this.total = total;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.timedOut = timedOut;
+        }
+
+        public int total() {
+            return total;
+        }
+
+        public int succeeded() {
+            return succeeded;
+        }
+
+        public int failed() {
+            return failed;
+        }
+
+        public int timedOut() {
+            return timedOut;
+        }
+    }
+
+    /**
+     * 기본 동시 변환 수. 파일 하나도 렌더링/section 생성에 여러 스레드를 쓰므로 코어 수의 절반.
+     */
+    public static int defaultJobs() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * 매니페스트 파일 또는 디렉토리에서 변환 목록을 만든다.
+     *
+     * 매니페스트는 한 줄에 "입력" 또는 "입력\t출력"이며 '#'로 시작하는 줄과 빈 줄은 무시한다.
+     * 상대 경로는 매니페스트가 있는 디렉토리 기준이다.
+     * 디렉토리면 그 안의 *.idml 파일을 이름 순으로 변환한다 (하위 디렉토리는 보지 않음).
+     *
+     * @param source 매니페스트 파일 또는 디렉토리
+     * @param outDir 출력 디렉토리 (null이면 입력 파일 옆에 .hwpx로 쓴다. 매니페스트에 출력이 있으면 그것이 우선)
+     */
+    public static List<Job> jobsFrom(File source, File outDir) throws IOException {
+        List<Job> jobs = new ArrayList<Job>();
+        if (source.isDirectory()) {
+            File[] files = source.listFiles();
+            if (files == null) {
+                throw new IOException("Cannot list directory: " + source);
+            }
+            Arrays.sort(files);
+            for (File file : files) {
+                if (file.isFile() && file.getName().toLowerCase().endsWith(".idml")) {
+                    jobs.add(new Job(file.getPath(), outputFor(file, outDir).getPath()));
+                }
+            }
+            return jobs;
+        }
+
+        File baseDir = source.getAbsoluteFile().getParentFile();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                File input = resolve(baseDir, tab < 0 ? line : line.substring(0, tab).trim());
+                File output = tab < 0
+                        ? outputFor(input, outDir)
+                        : resolve(baseDir, line.substring(tab + 1).trim());
+                jobs.add(new Job(input.getPath(), output.getPath()));
+            }
+        } finally {
+            reader.close();
+        }
+        return jobs;
+    }
+
+    private static File resolve(File baseDir, String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(baseDir, path);
+    }
+
+    private static File outputFor(File input, File outDir) {
+        String name = input.getName();
+        int dot = name.lastIndexOf('.');
+        String hwpxName = (dot > 0 ? name.substring(0, dot) : name) + ".hwpx";
+        return outDir != null ? new File(outDir, hwpxName) : new File(input.getParentFile(), hwpxName);
+    }
+
+    private final ConvertOptions options;
+    private final int jobs;
+    private final long timeoutMillis;
+    private final PrintStream out;
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger timedOut = new AtomicInteger();
+    // timeout으로 보고했지만 아직 끝나지 않은 작업자 수
+    private final AtomicInteger stuck = new AtomicInteger();
+
+    /**
+     * @param options       모든 파일에 공통인 변환 옵션
+     * @param jobs          동시에 변환할 파일 수
+     * @param timeoutMillis 파일 하나의 제한 시간 (0 이하면 제한 없음)
+     * @param out           JSONL 결과 출력
+     */
+    public BatchConverter(ConvertOptions options, int jobs, long timeoutMillis, PrintStream out) {
+        this.options = options;
+        this.jobs = Math.max(1, jobs);
+        this.timeoutMillis = timeoutMillis;
+        this.out = out;
+    }
+
+    /**
+     * 목록의 파일을 모두 변환한다. 모든 파일이 끝나거나 제한 시간을 넘길 때까지 기다린다.
+     */
+    public Summary run(List<Job> jobList) throws InterruptedException {
+        long start = System.nanoTime();
+        final Semaphore slots = new Semaphore(jobs);
+        final CountDownLatch done = new CountDownLatch(jobList.size());
+        ExecutorService workers = Executors.newFixedThreadPool(jobs, daemonThreads("idml-batch"));
+        ScheduledExecutorService watchdog = timeoutMillis > 0
+                ? Executors.newSingleThreadScheduledExecutor(daemonThreads("idml-batch-watchdog"))
+                : null;
+        try {
+            for (int i = 0; i < jobList.size(); i++) {
+                if (!acquireSlot(slots)) {
+                    // 모든 자리를 멈추지 않는 변환이 차지하고 있다: 남은 파일은 기다리지 않는다
+                    long now = System.nanoTime();
+                    for (int j = i; j < jobList.size(); j++) {
+                        failed.incrementAndGet();
+                        emit(fileLine(j, jobList.get(j), "failed", now, null,
+                                "No worker available: " + stuck.get() + " timed-out conversions are still running",
+                                null));
+                        done.countDown();
+                    }
+                    break;
+                }
+                submit(i, jobList.get(i), workers, watchdog, slots, done);
+            }
+            done.await();
+        } finally {
+            workers.shutdownNow();
+            if (watchdog != null) {
+                watchdog.shutdownNow();
+            }
+        }
+
+        Summary summary = new Summary(jobList.size(), succeeded.get(), failed.get(), timedOut.get());
+        emit("{\"type\": \"batch_complete\", \"total\": " + summary.total()
+                + ", \"succeeded\": " + summary.succeeded()
+                + ", \"failed\": " + summary.failed()
+                + ", \"timed_out\": " + summary.timedOut()
+                + ", \"elapsed_ms\": " + (System.nanoTime() - start) / 1000000 + "}");
+        return summary;
+    }
+
+    /**
+     * 자리를 하나 받는다. 제한 시간이 있으면 한 번에 제한 시간만큼 기다리며,
+     * 그동안 모든 자리를 timeout된 작업자가 차지하고 있으면 false.
+     */
+    private boolean acquireSlot(Semaphore slots) throws InterruptedException {
+        if (timeoutMillis <= 0) {
+            slots.acquire();
+            return true;
+        }
+        while (!slots.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            if (stuck.get() >= jobs) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void submit(final int index, final Job job, ExecutorService workers,
+                        ScheduledExecutorService watchdog, final Semaphore slots, final CountDownLatch done) {
+        // 작업자와 감시자 중 먼저 차지한 쪽만 결과를 보고한다. 자리는 작업자가 끝날 때 돌려준다
+        final AtomicBoolean finished = new AtomicBoolean();
+        final WorkerState state = new WorkerState();
+        final long start = System.nanoTime();
+        final ScheduledFuture<?>[] timer = new ScheduledFuture<?>[1];
+
+        final Future<?> task = workers.submit(new Runnable() {
+            public void run() {
+                synchronized (state) {
+                    if (state.timedOut) {
+                        return;  // 시작 전에 timeout: 자리는 감시자가 돌려주었다
+                    }
+                    state.started = true;
+                }
+                try {
+                    String line;
+                    boolean ok = false;
+                    try {
+                        ConvertResult result = convert(job);
+                        line = fileLine(index, job, "ok", start, result, null, null);
+                        ok = true;
+                    } catch (ConvertException e) {
+                        line = fileLine(index, job, "failed", start, null, e.getMessage(), e.phase());
+                    } catch (Throwable t) {
+                        line = fileLine(index, job, "failed", start, null, String.valueOf(t), null);
+                    }
+                    if (!finished.compareAndSet(false, true)) {
+                        // 이미 timeout으로 보고됨: 늦게 만든 결과는 버린다
+                        new File(job.output()).delete();
+                        return;
+                    }
+                    synchronized (timer) {
+                        if (timer[0] != null) {
+                            timer[0].cancel(false);
+                        }
+                    }
+                    (ok ? succeeded : failed).incrementAndGet();
+                    emit(line);
+                    done.countDown();
+                } finally {
+                    synchronized (state) {
+                        state.exited = true;
+                        if (state.timedOut) {
+                            stuck.decrementAndGet();
+                        }
+                    }
+                    slots.release();
+                }
+            }
+        });
+
+        if (watchdog != null) {
+            synchronized (timer) {
+                timer[0] = watchdog.schedule(new Runnable() {
+                    public void run() {
+                        if (!finished.compareAndSet(false, true)) {
+                            return;
+                        }
+                        task.cancel(true);
+                        new File(job.output()).delete();
+                        timedOut.incrementAndGet();
+                        emit(fileLine(index, job, "timeout", start, null,
+                                "Conversion exceeded " + timeoutMillis + "ms", null));
+                        synchronized (state) {
+                            state.timedOut = true;
+                            if (!state.started) {
+                                slots.release();
+                            } else if (!state.exited) {
+                                stuck.incrementAndGet();
+                            }
+                        }
+                        done.countDown();
+                    }
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 작업자 하나의 상태 (작업자와 감시자가 이 객체로 잠그고 고친다).
+     */
+    private static class WorkerState {
+        boolean started;
+        boolean exited;
+        boolean timedOut;
+    }
+
+    /**
+     * 파일 하나를 변환한다. 작업자 스레드에서 불린다 (테스트에서 변환을 바꿔 끼울 수 있도록 분리).
+     */
+    ConvertResult convert(Job job) throws ConvertException {
+        return IDMLToHwpxConverter.convert(job.input(), job.output(), options);
+    }
+
+    private static String fileLine(int index, Job job, String status, long start,
+                                   ConvertResult result, String error, ConvertException.Phase phase) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"type\": \"file\", \"index\": ").append(index);
+        sb.append(", \"input\": ").append(JsonProgressReporter.jsonString(job.input()));
+        sb.append(", \"output\": ").append(JsonProgressReporter.jsonString(job.output()));
+        sb.append(", \"status\": \"").append(status).append('"');
+        sb.append(", \"elapsed_ms\": ").append((System.nanoTime() - start) / 1000000);
+        if (result != null) {
+            sb.append(", \"phases\": {");
+            boolean first = true;
+            for (Map.Entry<String, Long> entry : result.phaseMillis().entrySet()) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append(JsonProgressReporter.jsonString(entry.getKey())).append(": ").append(entry.getValue());
+            }
+            sb.append('}');
+            sb.append(", \"pages_converted\": ").append(result.pagesConverted());
+            sb.append(", \"warnings\": [");
+            first = true;
+            for (String warning : result.warnings()) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append(JsonProgressReporter.jsonString(warning));
+            }
+            sb.append(']');
+        }
+        if (error != null) {
+            sb.append(", \"error\": ").append(JsonProgressReporter.jsonString(error));
+        }
+        if (phase != null) {
+            sb.append(", \"phase\": \"").append(phase.name()).append('"');
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private void emit(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,353 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 변환 농장용 HTTP 변환 서버 (JDK com.sun.net.httpserver).
+ *
+ * <pre>
+ * POST   /jobs?include-images&amp;vector-dpi=300   본문: IDML → 202 작업 상태 (대기열에 넣고 바로 반환)
+ * GET    /jobs/{id}                              작업 상태
+ * GET    /jobs/{id}/result                       변환된 HWPX (끝나지 않았으면 409)
+ * DELETE /jobs/{id}                              대기 중이거나 끝난 작업과 파일 삭제
+ * POST   /convert?...                            본문: IDML → 끝날 때까지 기다려 HWPX 반환
+ * GET    /metrics                                대기열, 단계별 소요 시간, 힙 최고치 (JSON)
+ * GET    /health                                 200 ok
+ * </pre>
+ *
+ * 쿼리 인자는 --convert 옵션에서 "--"를 뺀 것이다 (값이 없는 옵션은 이름만).
+ * 출력 형식에 관한 옵션만 받고 ({@link #QUERY_OPTIONS}), 서버의 경로나 스레드/프로세스 수를 정하는
+ * 옵션 (links-directory, incremental, render-threads 등)은 400으로 거절한다.
+ * verify를 주면 결과를 HWPXReader로 다시 읽어 확인한다.
+ * 기본으로 loopback 주소에만 바인딩한다. 다른 호스트에서 받으려면 --bind로 주소를 준다.
+ * vector-dpi는 1~{@link #MAX_VECTOR_DPI}만 받는다. 본문이 {@link #maxUploadBytes(long)}보다 크면 413으로 거절한다.
+ * 대기열이 가득 차면 503 (Retry-After), 추정 메모리가 예산보다 크면 413으로 거절한다.
+ * 실행 순서와 동시 실행 수는 {@link ConversionJobQueue}가 정한다.
+ */
+public class ConversionHttpServer {
+
+    private static final String HWPX_CONTENT_TYPE = "application/hwp+zip";
+
+    /**
+     * 요청 쿼리로 줄 수 있는 변환 옵션 ("--" 뺀 이름).
+     */
+    static final Set<String> QUERY_OPTIONS = new HashSet<String>(Arrays.asList(
+            "include-images", "vector-dpi", "spread-mode", "png-level", "png-filter", "jpeg-quality",
+            "native-vectors", "start-page", "end-page"));
+
+    /**
+     * 요청으로 줄 수 있는 최대 vector-dpi.
+     */
+    public static final int MAX_VECTOR_DPI = 1200;
+
+    /**
+     * 기본 최대 요청 본문 크기 (1GB).
+     */
+    public static final long DEFAULT_MAX_UPLOAD_BYTES = 1L << 30;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ConversionJobQueue queue;
+    private final File workDir;
+    private volatile long maxUploadBytes = DEFAULT_MAX_UPLOAD_BYTES;
+
+    /**
+     * loopback 주소에 바인딩한다.
+     */
+    public ConversionHttpServer(int port, ConversionJobQueue queue, File workDir, int handlerThreads)
+            throws IOException {
+        this(null, port, queue, workDir, handlerThreads);
+    }
+
+    /**
+     * @param bindAddress 바인딩할 주소 (null이면 loopback, "0.0.0.0"이면 모든 인터페이스)
+     * @param port     포트 (0이면 임의의 빈 포트)
+     * @param queue    작업 대기열
+     * @param workDir  업로드된 IDML과 변환 결과를 둘 디렉토리
+     * @param handlerThreads 동시에 처리할 HTTP 요청 수 (POST /convert는 끝날 때까지 하나를 차지한다)
+     */
+    public ConversionHttpServer(String bindAddress, int port, ConversionJobQueue queue, File workDir,
+                                int handlerThreads) throws IOException {
+        this.queue = queue;
+        this.workDir = workDir;
+        if (!workDir.isDirectory() && !workDir.mkdirs()) {
+            throw new IOException("Cannot create work directory: " + workDir);
+        }
+        InetAddress address = bindAddress != null
+                ? InetAddress.getByName(bindAddress) : InetAddress.getLoopbackAddress();
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        this.handlers = Executors.newFixedThreadPool(Math.max(1, handlerThreads));
+        server.setExecutor(handlers);
+        server.createContext("/jobs", new JobsHandler());
+        server.createContext("/convert", new ConvertHandler());
+        server.createContext("/metrics", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                sendJson(exchange, 200, queue.metricsJson());
+            }
+        });
+        server.createContext("/health", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, 200, "text/plain", "ok".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+        System.err.println("[INFO] 변환 서버 시작: http://" + server.getAddress().getHostString()
+                + ":" + port() + "/");
+    }
+
+    /**
+     * 받을 최대 요청 본문 크기를 정한다.
+     */
+    public ConversionHttpServer maxUploadBytes(long maxUploadBytes) {
+        this.maxUploadBytes = maxUploadBytes;
+        return this;
+    }
+
+    public long maxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * 새 요청을 받지 않고 실행 중인 작업이 끝나기를 기다린다.
+     */
+    public void stop() throws InterruptedException {
+        server.stop(0);
+        queue.close();
+        handlers.shutdownNow();
+    }
+
+    // ── 핸들러 ──
+
+    private class JobsHandler implements HttpHandler {
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                String method = exchange.getRequestMethod();
+                String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+                // "", "jobs", id, "result"
+                if (path.length == 2 && "POST".equals(method)) {
+                    ConversionJobQueue.Job job = submit(exchange, false);
+                    if (job != null) {
+                        exchange.getResponseHeaders().set("Location", "/jobs/" + job.id());
+                        sendJson(exchange, 202, job.toJson());
+                    }
+                    return;
+                }
+                ConversionJobQueue.Job job = path.length >= 3 ? queue.get(path[2]) : null;
+                if (job == null) {
+                    sendError(exchange, 404, "Job not found");
+                } else if (path.length == 3 && "GET".equals(method)) {
+                    sendJson(exchange, 200, job.toJson());
+                } else if (path.length == 3 && "DELETE".equals(method)) {
+                    if (queue.remove(job.id())) {
+                        sendJson(exchange, 200, job.toJson());
+                    } else {
+                        sendError(exchange, 409, "Job is running");
+                    }
+                } else if (path.length == 4 && "result".equals(path[3]) && "GET".equals(method)) {
+                    sendResult(exchange, job);
+                } else {
+                    sendError(exchange, 405, "Unsupported request");
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    private class ConvertHandler implements HttpHandler {
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    sendError(exchange, 405, "Use POST");
+                    return;
+                }
+                ConversionJobQueue.Job job = submit(exchange, true);
+                if (job == null) {
+                    return;
+                }
+                try {
+                    queue.await(job);
+                    sendResult(exchange, job);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    sendError(exchange, 503, "Server is shutting down");
+                } finally {
+                    queue.remove(job.id());
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * 요청 본문을 작업 디렉토리에 받아 대기열에 넣는다. 실패하면 오류 응답을 보내고 null.
+     */
+    private ConversionJobQueue.Job submit(HttpExchange exchange, boolean pinned) throws IOException {
+        ConvertOptions options = ConvertOptions.defaults();
+        boolean verify = false;
+        try {
+            for (String[] param : queryParams(exchange.getRequestURI().getRawQuery())) {
+                if ("verify".equals(param[0])) {
+                    verify = true;
+                    continue;
+                }
+                if (!QUERY_OPTIONS.contains(param[0])) {
+                    sendError(exchange, 400, "Option not allowed in request: " + param[0]);
+                    return null;
+                }
+                String[] args = param[1] != null
+                        ? new String[]{"--" + param[0], param[1]} : new String[]{"--" + param[0]};
+                if (ConverterCLI.parseConvertOption(args, 0, options) != args.length - 1) {
+                    sendError(exchange, 400, "Unknown or incomplete option: " + param[0]);
+                    return null;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // 숫자가 아닌 값 (NumberFormatException)과 없는 이름 (png-filter=bogus 등)
+            sendError(exchange, 400, "Invalid option value: " + e.getMessage());
+            return null;
+        }
+        if (options.vectorDpi() <= 0 || options.vectorDpi() > MAX_VECTOR_DPI) {
+            sendError(exchange, 400, "vector-dpi must be between 1 and " + MAX_VECTOR_DPI);
+            return null;
+        }
+
+        File input = File.createTempFile("job-", ".idml", workDir);
+        File output = new File(workDir, input.getName().replaceAll("\\.idml$", ".hwpx"));
+        boolean copied = false;
+        try {
+            copied = copy(exchange.getRequestBody(), input, maxUploadBytes);
+        } finally {
+            if (!copied) {
+                input.delete();  // 너무 크거나 IOException, Error로 빠져나간 경우
+            }
+        }
+        if (!copied) {
+            sendError(exchange, 413, "Request body exceeds " + (maxUploadBytes >> 20) + "MB");
+            return null;
+        }
+        try {
+            return queue.submit(input, output, options, verify, pinned);
+        } catch (ConversionJobQueue.RejectedException e) {
+            if (e.tooLarge()) {
+                sendError(exchange, 413, e.getMessage());
+            } else {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, e.getMessage());
+            }
+        } catch (IOException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+        return null;
+    }
+
+    private void sendResult(HttpExchange exchange, ConversionJobQueue.Job job) throws IOException {
+        if (!job.isFinished()) {
+            sendJson(exchange, 409, job.toJson());
+            return;
+        }
+        if (job.status() != ConversionJobQueue.Status.DONE || !job.output().isFile()) {
+            sendJson(exchange, 500, job.toJson());
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", HWPX_CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, job.output().length());
+        InputStream in = new FileInputStream(job.output());
+        try {
+            OutputStream out = exchange.getResponseBody();
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static List<String[]> queryParams(String rawQuery) throws IOException {
+        List<String[]> params = new ArrayList<String[]>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            String value = eq < 0 ? null : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            params.add(new String[]{name, value});
+        }
+        return params;
+    }
+
+    /**
+     * @return 본문이 maxBytes를 넘으면 false (파일은 호출한 쪽이 지운다)
+     */
+    private static boolean copy(InputStream in, File file, long maxBytes) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            long total = 0;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                total += n;
+                if (total > maxBytes) {
+                    return false;
+                }
+                out.write(buffer, 0, n);
+            }
+            return true;
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, "{\"error\": " + JsonProgressReporter.jsonString(message) + "}");
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
@@ -0,0 +1,722 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.reader.HWPXReader;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 변환 서버의 작업 대기열.
+ *
+ * 길이가 제한된 대기열에 작업을 받고 (가득 차면 거절), 자원 종류별 동시 실행 수와 메모리 예산 안에서
+ * 작업을 시작한다.
+ * <ul>
+ *   <li>raster: 페이지 배경을 래스터로 렌더링하는 작업 (이미지, 벡터 도형이 있음)</li>
+ *   <li>text: 렌더링할 것이 없는 작업</li>
+ * </ul>
+ * 작업마다 페이지 수와 vectorDpi로 메모리 사용량을 추정해 ({@link Estimate}) 예약하고, 끝나면 돌려준다.
+ * 종류마다 들어온 순서대로 시작하되, 한 종류의 맨 앞 작업이 기다리는 동안 다른 종류는 계속 시작한다.
+ * 예산보다 큰 작업은 받지 않는다.
+ *
+ * 대기열 길이, 단계별 소요 시간, 힙 사용량 최고치를 {@link #metricsJson()}으로 제공한다.
+ */
+public class ConversionJobQueue {
+
+    public enum ResourceClass {
+        RASTER, TEXT
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    /**
+     * 작업을 받을 수 없음. tooLarge가 false면 대기열이 가득 찬 것이다 (잠시 후 다시 시도).
+     */
+    public static class RejectedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean tooLarge;
+
+        RejectedException(String message, boolean tooLarge) {
+            super(message);
+            this.tooLarge = tooLarge;
+        }
+
+        public boolean tooLarge() {
+            return tooLarge;
+        }
+    }
+
+    // ── 메모리 추정 ──
+
+    /**
+     * 변환 한 건의 최대 메모리 추정치.
+     *
+     * <ul>
+     *   <li>파싱된 문서: 압축을 푼 IDML 크기 × 3</li>
+     *   <li>text: 페이지당 256KB (section XML과 객체)</li>
+     *   <li>raster: 동시에 렌더링 중인 래스터 (renderThreads × 폭 × 띠 높이 × 4바이트)
+     *       + 메모리에 남는 인코딩된 배경 (페이지 수 × 원본 래스터의 1/8, 파이프라인이면 depth 페이지)
+     *       + 래스터 캐시 예산 (+ 이미지를 포함하면 이미지 캐시 예산)</li>
+     * </ul>
+     * 페이지 크기는 Spreads의 Page GeometricBounds 중 가장 큰 것이며, 없으면 A4로 본다.
+     * Spread XML은 태그 단위로 흘려 읽으며, 압축을 푼 크기가 {@link #MAX_SPREAD_ENTRY_BYTES}를 넘으면
+     * 읽을 수 없는 패키지로 본다. 계산은 넘치지 않고 Long.MAX_VALUE에서 멈춘다 (예산 초과로 거절됨).
+     */
+    public static class Estimate {
+        static final long TEXT_PAGE_BYTES = 256 * 1024;
+        static final int MODEL_FACTOR = 3;
+        static final long MAX_SPREAD_ENTRY_BYTES = 256L * 1024 * 1024;
+        // 태그 하나에서 살펴볼 최대 길이 (Page의 GeometricBounds는 앞쪽에 있다)
+        private static final int MAX_TAG_CHARS = 8192;
+
+        private static final Pattern PAGE = Pattern.compile("<Page\\s[^>]*>");
+        private static final Pattern BOUNDS = Pattern.compile("GeometricBounds=\"([^\"]+)\"");
+        private static final Pattern VECTOR = Pattern.compile("<(Rectangle|Oval|Polygon|GraphicLine)[\\s/>]");
+        private static final Pattern IMAGE = Pattern.compile("<(Image|PDF|EPS|ImportedPage)[\\s/>]");
+
+        private final int pages;
+        private final ResourceClass resourceClass;
+        private final long bytes;
+
+        Estimate(int pages, ResourceClass resourceClass, long bytes) {
+            this.pages = pages;
+            this.resourceClass = resourceClass;
+            this.bytes = bytes;
+        }
+
+        public int pages() {
+            return pages;
+        }
+
+        public ResourceClass resourceClass() {
+            return resourceClass;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * IDML 파일을 로드하지 않고 zip 항목만 훑어 추정한다.
+         */
+        public static Estimate of(File idmlFile, ConvertOptions options) throws IOException {
+            int pages = 0;
+            double maxWidthPt = 0;
+            double maxHeightPt = 0;
+            boolean hasVectors = false;
+            boolean hasImages = false;
+            long unzippedBytes = 0;
+
+            ZipFile zip = new ZipFile(idmlFile);
+            try {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (!entry.getName().startsWith("Spreads/") || !entry.getName().endsWith(".xml")) {
+                        unzippedBytes = add(unzippedBytes, Math.max(0, entry.getSize()));
+                        continue;
+                    }
+                    LimitedInputStream in = new LimitedInputStream(zip.getInputStream(entry), entry.getName());
+                    try {
+                        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+                        String tag;
+                        while ((tag = nextTag(reader)) != null) {
+                            if (PAGE.matcher(tag).lookingAt()) {
+                                pages++;
+                                Matcher bounds = BOUNDS.matcher(tag);
+                                if (bounds.find()) {
+                                    String[] v = bounds.group(1).trim().split("\\s+");
+                                    if (v.length == 4) {
+                                        maxHeightPt = Math.max(maxHeightPt,
+                                                Double.parseDouble(v[2]) - Double.parseDouble(v[0]));
+                                        maxWidthPt = Math.max(maxWidthPt,
+                                                Double.parseDouble(v[3]) - Double.parseDouble(v[1]));
+                                    }
+                                }
+                            }
+                            hasVectors |= VECTOR.matcher(tag).lookingAt();
+                            hasImages |= IMAGE.matcher(tag).lookingAt();
+                        }
+                    } finally {
+                        in.close();
+                    }
+                    // 항목에 적힌 크기는 믿지 않고 실제로 읽은 크기를 쓴다
+                    unzippedBytes = add(unzippedBytes, in.count);
+                }
+            } finally {
+                zip.close();
+            }
+            if (maxWidthPt <= 0 || maxHeightPt <= 0) {
+                maxWidthPt = 595.28;   // A4
+                maxHeightPt = 841.89;
+            }
+            pages = Math.max(1, pages);
+
+            boolean includeImages = hasImages && options.includeImages();
+            ResourceClass resourceClass = includeImages || (hasVectors && !options.nativeVectorShapes())
+                    ? ResourceClass.RASTER : ResourceClass.TEXT;
+            return new Estimate(pages, resourceClass,
+                    bytes(pages, maxWidthPt, maxHeightPt, unzippedBytes, resourceClass, includeImages, options));
+        }
+
+        static long bytes(int pages, double widthPt, double heightPt, long unzippedBytes,
+                          ResourceClass resourceClass, boolean includeImages, ConvertOptions options) {
+            long bytes = multiply(unzippedBytes, MODEL_FACTOR);
+            if (resourceClass == ResourceClass.TEXT) {
+                return add(bytes, multiply(pages, TEXT_PAGE_BYTES));
+            }
+            // double → long 변환은 Long.MAX_VALUE에서 멈춘다
+            long widthPx = Math.max(0, (long) Math.ceil(widthPt / 72.0 * options.vectorDpi()));
+            long heightPx = Math.max(0, (long) Math.ceil(heightPt / 72.0 * options.vectorDpi()));
+            long rasterRows = options.renderBandHeight() > 0 ? Math.min(heightPx, options.renderBandHeight()) : heightPx;
+            int retainedPages = options.pipelineDepth() > 0 && !options.spreadBasedConversion()
+                    ? Math.min(pages, options.pipelineDepth() * 2 + 1) : pages;
+
+            long rasterBytes = multiply(multiply(widthPx, rasterRows), 4);
+            long pageBytes = multiply(multiply(widthPx, heightPx), 4);
+            bytes = add(bytes, multiply(Math.min(pages, options.renderThreads()), rasterBytes));
+            bytes = add(bytes, multiply(retainedPages, pageBytes) / 8);
+            bytes = add(bytes, options.rasterCacheBytes());
+            if (includeImages) {
+                bytes = add(bytes, options.imageCacheBytes());
+            }
+            return bytes;
+        }
+
+        private static long multiply(long a, long b) {
+            try {
+                return Math.multiplyExact(a, b);
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        private static long add(long a, long b) {
+            try {
+                return Math.addExact(a, b);
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        /**
+         * 다음 태그를 "&lt;"부터 "&gt;"까지 돌려준다 (앞쪽 MAX_TAG_CHARS자만). 끝이면 null.
+         */
+        private static String nextTag(Reader reader) throws IOException {
+            int c;
+            while ((c = reader.read()) != -1 && c != '<') {
+                // 태그 밖의 텍스트는 건너뛴다
+            }
+            if (c == -1) {
+                return null;
+            }
+            StringBuilder tag = new StringBuilder("<");
+            while ((c = reader.read()) != -1 && c != '>') {
+                if (tag.length() < MAX_TAG_CHARS) {
+                    tag.append((char) c);
+                }
+            }
+            return tag.append('>').toString();
+        }
+
+        /**
+         * 압축을 푼 바이트 수를 세고 MAX_SPREAD_ENTRY_BYTES를 넘으면 IOException을 던진다.
+         */
+        private static class LimitedInputStream extends FilterInputStream {
+            private final String name;
+            long count;
+
+            LimitedInputStream(InputStream in, String name) {
+                super(in);
+                this.name = name;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    counted(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    counted(n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                counted(skipped);
+                return skipped;
+            }
+
+            private void counted(long n) throws IOException {
+                count += n;
+                if (count > MAX_SPREAD_ENTRY_BYTES) {
+                    throw new IOException("Zip entry too large: " + name + " (over "
+                            + (MAX_SPREAD_ENTRY_BYTES >> 20) + "MB)");
+                }
+            }
+        }
+    }
+
+    // ── 작업 ──
+
+    /**
+     * 변환 작업 하나. 입력과 출력은 작업 디렉토리의 파일이다.
+     */
+    public static class Job {
+        private final String id;
+        private final File input;
+        private final File output;
+        private final ConvertOptions options;
+        private final boolean verify;
+        // 요청 측이 결과를 직접 가져가고 지우는 작업 (보관 수를 넘어도 지우지 않음)
+        private final boolean pinned;
+        private final Estimate estimate;
+        private final long submittedNanos = System.nanoTime();
+        private volatile Status status = Status.QUEUED;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile ConvertResult result;
+        private volatile String error;
+
+        Job(String id, File input, File output, ConvertOptions options, boolean verify, boolean pinned,
+            Estimate estimate) {
+            this.id = id;
+            this.input = input;
+            this.output = output;
+            this.options = options;
+            this.verify = verify;
+            this.pinned = pinned;
+            this.estimate = estimate;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public File output() {
+            return output;
+        }
+
+        public Estimate estimate() {
+            return estimate;
+        }
+
+        public Status status() {
+            return status;
+        }
+
+        public ConvertResult result() {
+            return result;
+        }
+
+        public String error() {
+            return error;
+        }
+
+        public boolean isFinished() {
+            return status == Status.DONE || status == Status.FAILED || status == Status.CANCELLED;
+        }
+
+        public String toJson() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"id\": ").append(JsonProgressReporter.jsonString(id));
+            sb.append(", \"status\": \"").append(status.name().toLowerCase()).append('"');
+            sb.append(", \"resource_class\": \"").append(estimate.resourceClass().name().toLowerCase()).append('"');
+            sb.append(", \"pages\": ").append(estimate.pages());
+            sb.append(", \"estimate_bytes\": ").append(estimate.bytes());
+            if (startedNanos != 0) {
+                sb.append(", \"queue_wait_ms\": ").append((startedNanos - submittedNanos) / 1000000);
+            }
+            if (finishedNanos != 0) {
+                sb.append(", \"run_ms\": ").append((finishedNanos - startedNanos) / 1000000);
+            }
+            ConvertResult r = result;
+            if (r != null) {
+                sb.append(", \"pages_converted\": ").append(r.pagesConverted());
+                sb.append(", \"phases\": {");
+                boolean first = true;
+                for (Map.Entry<String, Long> entry : r.phaseMillis().entrySet()) {
+                    if (!first) sb.append(", ");
+                    first = false;
+                    sb.append(JsonProgressReporter.jsonString(entry.getKey())).append(": ").append(entry.getValue());
+                }
+                sb.append("}, \"warnings\": ").append(r.warnings().size());
+            }
+            if (error != null) {
+                sb.append(", \"error\": ").append(JsonProgressReporter.jsonString(error));
+            }
+            sb.append('}');
+            return sb.toString();
+        }
+
+        void deleteFiles() {
+            input.delete();
+            output.delete();
+        }
+    }
+
+    // ── 대기열 ──
+
+    private final int capacity;
+    private final int[] slots = new int[ResourceClass.values().length];
+    private final int[] running = new int[ResourceClass.values().length];
+    private final long memoryBudget;
+    private final int retainFinished;
+
+    private final List<Job> queued = new ArrayList<Job>();
+    // 모든 작업 (끝난 작업은 retainFinished개까지 보관, 오래된 것부터 파일과 함께 지운다)
+    private final LinkedHashMap<String, Job> jobs = new LinkedHashMap<String, Job>();
+    private long reservedBytes;
+    private int nextId;
+    private boolean closed;
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService heapSampler;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final long startNanos = System.nanoTime();
+
+    // 지표
+    private long submitted;
+    private long completed;
+    private long failed;
+    private long rejectedFull;
+    private long rejectedTooLarge;
+    private final Map<String, long[]> phaseStats = new LinkedHashMap<String, long[]>();  // {count, total, max}
+    private volatile long heapHighWater;
+
+    /**
+     * @param capacity       대기 중인 작업의 최대 수 (넘으면 거절)
+     * @param rasterSlots    동시에 실행할 raster 작업 수
+     * @param textSlots      동시에 실행할 text 작업 수
+     * @param memoryBudget   실행 중인 작업의 추정 메모리 합계 상한 (바이트)
+     * @param retainFinished 결과를 보관할 끝난 작업 수
+     */
+    public ConversionJobQueue(int capacity, int rasterSlots, int textSlots, long memoryBudget, int retainFinished) {
+        this.capacity = Math.max(1, capacity);
+        this.slots[ResourceClass.RASTER.ordinal()] = Math.max(1, rasterSlots);
+        this.slots[ResourceClass.TEXT.ordinal()] = Math.max(1, textSlots);
+        this.memoryBudget = memoryBudget;
+        this.retainFinished = Math.max(1, retainFinished);
+        this.workers = Executors.newCachedThreadPool(daemonThreads("idml-job"));
+        this.heapSampler = Executors.newSingleThreadScheduledExecutor(daemonThreads("idml-heap-sampler"));
+        heapSampler.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                sampleHeap();
+            }
+        }, 0, 100, TimeUnit.MILLISECONDS);
+    }
+
+    public static long defaultMemoryBudget() {
+        return Runtime.getRuntime().maxMemory() / 10 * 7;
+    }
+
+    /**
+     * 작업을 대기열에 넣는다. 입력 파일은 이제 대기열이 관리한다 (거절되면 지운다).
+     *
+     * @param verify 변환 결과를 HWPXReader로 다시 읽어 확인
+     * @param pinned 끝난 작업 보관 수와 관계없이 {@link #remove(String)}할 때까지 보관
+     * @throws RejectedException 대기열이 가득 찼거나 추정 메모리가 예산보다 큼
+     */
+    public Job submit(File input, File output, ConvertOptions options, boolean verify, boolean pinned)
+            throws IOException, RejectedException {
+        Estimate estimate = null;
+        try {
+            estimate = Estimate.of(input, options);
+        } catch (IOException | RuntimeException e) {
+            throw new IOException("Not a readable IDML package: " + e.getMessage(), e);
+        } finally {
+            if (estimate == null) {
+                input.delete();  // Error로 빠져나가도 업로드된 파일을 남기지 않는다
+            }
+        }
+
+        synchronized (this) {
+            if (estimate.bytes() > memoryBudget) {
+                rejectedTooLarge++;
+                input.delete();
+                throw new RejectedException("Estimated memory " + (estimate.bytes() >> 20) + "MB exceeds budget "
+                        + (memoryBudget >> 20) + "MB", true);
+            }
+            if (closed || queued.size() >= capacity) {
+                rejectedFull++;
+                input.delete();
+                throw new RejectedException("Queue is full (" + capacity + " jobs)", false);
+            }
+            Job job = new Job(Integer.toString(++nextId), input, output, options, verify, pinned, estimate);
+            jobs.put(job.id(), job);
+            queued.add(job);
+            submitted++;
+            dispatch();
+            return job;
+        }
+    }
+
+    public synchronized Job get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * 대기 중이거나 끝난 작업을 지운다. 실행 중인 작업은 지울 수 없다.
+     *
+     * @return 지웠으면 true
+     */
+    public synchronized boolean remove(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.status == Status.RUNNING) {
+            return false;
+        }
+        if (queued.remove(job)) {
+            job.status = Status.CANCELLED;
+            notifyAll();
+        }
+        jobs.remove(id);
+        job.deleteFiles();
+        return true;
+    }
+
+    /**
+     * 작업이 끝날 때까지 기다린다.
+     */
+    public Job await(Job job) throws InterruptedException {
+        synchronized (this) {
+            while (!job.isFinished()) {
+                wait();
+            }
+        }
+        return job;
+    }
+
+    /**
+     * 새 작업을 받지 않고, 대기 중인 작업을 취소하고, 실행 중인 작업이 끝나기를 기다린다.
+     */
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+            for (Job job : queued) {
+                job.status = Status.CANCELLED;
+            }
+            queued.clear();
+            notifyAll();
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        heapSampler.shutdownNow();
+    }
+
+    /**
+     * 자리와 메모리가 있는 작업을 시작한다. 종류마다 맨 앞 작업만 본다.
+     */
+    private void dispatch() {
+        boolean[] blocked = new boolean[ResourceClass.values().length];
+        Iterator<Job> it = queued.iterator();
+        while (it.hasNext()) {
+            final Job job = it.next();
+            int rc = job.estimate.resourceClass().ordinal();
+            if (blocked[rc]) {
+                continue;
+            }
+            if (running[rc] >= slots[rc] || reservedBytes + job.estimate.bytes() > memoryBudget) {
+                blocked[rc] = true;
+                continue;
+            }
+            it.remove();
+            running[rc]++;
+            reservedBytes += job.estimate.bytes();
+            job.status = Status.RUNNING;
+            job.startedNanos = System.nanoTime();
+            recordPhase("queue_wait", (job.startedNanos - job.submittedNanos) / 1000000);
+            workers.execute(new Runnable() {
+                public void run() {
+                    execute(job);
+                }
+            });
+        }
+    }
+
+    private void execute(Job job) {
+        ConvertResult result = null;
+        String error = null;
+        try {
+            result = IDMLToHwpxConverter.convert(job.input.getPath(), job.output.getPath(), job.options);
+            if (job.verify) {
+                long start = System.nanoTime();
+                HWPXReader.fromFilepath(job.output.getPath());
+                result.phaseMillis("verify", (System.nanoTime() - start) / 1000000);
+            }
+        } catch (ConvertException e) {
+            error = e.phase() + ": " + e.getMessage();
+        } catch (Throwable t) {
+            error = String.valueOf(t);
+        }
+        job.input.delete();
+        if (error != null) {
+            job.output.delete();
+        }
+
+        synchronized (this) {
+            int rc = job.estimate.resourceClass().ordinal();
+            running[rc]--;
+            reservedBytes -= job.estimate.bytes();
+            job.result = result;
+            job.error = error;
+            job.finishedNanos = System.nanoTime();
+            job.status = error == null ? Status.DONE : Status.FAILED;
+            if (error == null) {
+                completed++;
+                for (Map.Entry<String, Long> entry : result.phaseMillis().entrySet()) {
+                    recordPhase(entry.getKey(), entry.getValue());
+                }
+                recordPhase("total", (job.finishedNanos - job.startedNanos) / 1000000);
+            } else {
+                failed++;
+            }
+            evictFinished();
+            dispatch();
+            notifyAll();
+        }
+    }
+
+    private void evictFinished() {
+        int finished = 0;
+        for (Job job : jobs.values()) {
+            if (job.isFinished() && !job.pinned) {
+                finished++;
+            }
+        }
+        Iterator<Job> it = jobs.values().iterator();
+        while (finished > retainFinished && it.hasNext()) {
+            Job job = it.next();
+            if (job.isFinished() && !job.pinned) {
+                it.remove();
+                job.deleteFiles();
+                finished--;
+            }
+        }
+    }
+
+    private void recordPhase(String phase, long millis) {
+        long[] stats = phaseStats.get(phase);
+        if (stats == null) {
+            stats = new long[3];
+            phaseStats.put(phase, stats);
+        }
+        stats[0]++;
+        stats[1] += millis;
+        stats[2] = Math.max(stats[2], millis);
+    }
+
+    private void sampleHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        if (used > heapHighWater) {
+            heapHighWater = used;
+        }
+    }
+
+    // ── 지표 ──
+
+    public synchronized int queueDepth() {
+        return queued.size();
+    }
+
+    public synchronized int running(ResourceClass resourceClass) {
+        return running[resourceClass.ordinal()];
+    }
+
+    public synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * 대기열, 실행, 메모리, 작업 수, 단계별 소요 시간 (count, avg_ms, max_ms)을 JSON으로.
+     */
+    public synchronized String metricsJson() {
+        sampleHeap();
+        int[] queuedByClass = new int[ResourceClass.values().length];
+        for (Job job : queued) {
+            queuedByClass[job.estimate.resourceClass().ordinal()]++;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"uptime_ms\": ").append((System.nanoTime() - startNanos) / 1000000);
+        sb.append(", \"queue\": {\"depth\": ").append(queued.size());
+        sb.append(", \"capacity\": ").append(capacity);
+        for (ResourceClass rc : ResourceClass.values()) {
+            sb.append(", \"").append(rc.name().toLowerCase()).append("\": ").append(queuedByClass[rc.ordinal()]);
+        }
+        sb.append("}, \"running\": {");
+        for (ResourceClass rc : ResourceClass.values()) {
+            if (rc.ordinal() > 0) sb.append(", ");
+            String name = rc.name().toLowerCase();
+            sb.append('"').append(name).append("\": ").append(running[rc.ordinal()]);
+            sb.append(", \"").append(name).append("_limit\": ").append(slots[rc.ordinal()]);
+        }
+        sb.append("}, \"memory\": {\"budget_bytes\": ").append(memoryBudget);
+        sb.append(", \"reserved_bytes\": ").append(reservedBytes);
+        sb.append(", \"heap_used_bytes\": ").append(memory.getHeapMemoryUsage().getUsed());
+        sb.append(", \"heap_max_bytes\": ").append(Runtime.getRuntime().maxMemory());
+        sb.append(", \"heap_high_water_bytes\": ").append(heapHighWater);
+        sb.append("}, \"jobs\": {\"submitted\": ").append(submitted);
+        sb.append(", \"completed\": ").append(completed);
+        sb.append(", \"failed\": ").append(failed);
+        sb.append(", \"rejected_full\": ").append(rejectedFull);
+        sb.append(", \"rejected_too_large\": ").append(rejectedTooLarge);
+        sb.append("}, \"phases\": {");
+        boolean first = true;
+        for (Map.Entry<String, long[]> entry : phaseStats.entrySet()) {
+            if (!first) sb.append(", ");
+            first = false;
+            long[] s = entry.getValue();
+            sb.append(JsonProgressReporter.jsonString(entry.getKey()));
+            sb.append(": {\"count\": ").append(s[0]);
+            sb.append(", \"avg_ms\": ").append(s[0] > 0 ? s[1] / s[0] : 0);
+            sb.append(", \"max_ms\": ").append(s[2]).append('}');
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
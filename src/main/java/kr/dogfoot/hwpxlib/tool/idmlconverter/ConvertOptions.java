@@ -1,5 +1,7 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter;
 
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.StreamingPngWriter;
+
 /**
  * IDML -> HWPX 변환 옵션.
  */
@@ -17,6 +19,24 @@ public class ConvertOptions {
     private boolean mergeAllPages;
     private boolean spreadBasedConversion;
     private boolean drawPageBoundary;
+    private int renderThreads;
+    private int maxRastersInFlight;
+    private long imageCacheBytes;
+    private long rasterCacheBytes;
+    private int renderBandHeight;
+    private boolean contentBoundedBackgrounds;
+    private int pngCompressionLevel;
+    private StreamingPngWriter.Filter pngFilter;
+    private boolean palettePng;
+    private boolean jpegForPhotos;
+    private float jpegQuality;
+    private boolean nativeVectorShapes;
+    private boolean designFileCache;
+    private String designFileCacheDir;
+    private int designFileProcesses;
+    private int pipelineDepth;
+    private int sectionThreads;
+    private String incrementalCacheDir;
 
     public ConvertOptions() {
         this.startPage = 0;
@@ -32,6 +52,24 @@ public class ConvertOptions {
         this.mergeAllPages = false;
         this.spreadBasedConversion = false;
         this.drawPageBoundary = false;
+        this.renderThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.maxRastersInFlight = 0;
+        this.imageCacheBytes = 256L * 1024 * 1024;
+        this.rasterCacheBytes = 64L * 1024 * 1024;
+        this.renderBandHeight = 1024;
+        this.contentBoundedBackgrounds = false;
+        this.pngCompressionLevel = -1;
+        this.pngFilter = StreamingPngWriter.Filter.ADAPTIVE;
+        this.palettePng = true;
+        this.jpegForPhotos = true;
+        this.jpegQuality = 0.9f;
+        this.nativeVectorShapes = false;
+        this.designFileCache = true;
+        this.designFileCacheDir = null;
+        this.designFileProcesses = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.pipelineDepth = 0;
+        this.sectionThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.incrementalCacheDir = null;
     }
 
     public static ConvertOptions defaults() {
@@ -187,4 +225,258 @@ public class ConvertOptions {
         this.drawPageBoundary = drawPageBoundary;
         return this;
     }
+
+    /**
+     * 페이지 배경 렌더링 스레드 수.
+     * 1이면 변환 스레드에서 순차적으로 렌더링한다.
+     * 기본값: min(4, CPU 코어 수)
+     */
+    public int renderThreads() {
+        return renderThreads;
+    }
+
+    public ConvertOptions renderThreads(int renderThreads) {
+        this.renderThreads = Math.max(1, renderThreads);
+        return this;
+    }
+
+    /**
+     * 렌더링 중이거나 렌더링이 끝났지만 아직 변환기가 가져가지 않은 페이지 배경의 최대 개수.
+     * 이 수만큼만 앞서 렌더링하고 결과를 하나 가져갈 때마다 다음 페이지를 시작한다.
+     * 0 이하이면 renderThreads × 2 (작업자가 쉬지 않을 만큼만 앞서 간다).
+     */
+    public int maxRastersInFlight() {
+        return maxRastersInFlight > 0 ? maxRastersInFlight : renderThreads * 2;
+    }
+
+    public ConvertOptions maxRastersInFlight(int maxRastersInFlight) {
+        this.maxRastersInFlight = maxRastersInFlight;
+        return this;
+    }
+
+    /**
+     * 디코딩된 링크 이미지 캐시의 메모리 예산 (바이트).
+     * 여러 페이지에 반복 배치된 이미지를 한 번만 디코딩한다. 0이면 캐시하지 않는다.
+     * 기본값: 256MB
+     */
+    public long imageCacheBytes() {
+        return imageCacheBytes;
+    }
+
+    public ConvertOptions imageCacheBytes(long imageCacheBytes) {
+        this.imageCacheBytes = Math.max(0, imageCacheBytes);
+        return this;
+    }
+
+    /**
+     * 렌더링된 래스터 캐시의 메모리 예산 (인코딩된 바이트).
+     * 모양, 스타일, 픽셀 크기가 같은 타일/래스터는 한 번만 렌더링하고 인코딩한다. 0이면 캐시하지 않는다.
+     * 기본값: 64MB
+     */
+    public long rasterCacheBytes() {
+        return rasterCacheBytes;
+    }
+
+    public ConvertOptions rasterCacheBytes(long rasterCacheBytes) {
+        this.rasterCacheBytes = Math.max(0, rasterCacheBytes);
+        return this;
+    }
+
+    /**
+     * 페이지 배경을 나누어 렌더링하는 띠 높이 (픽셀 행).
+     * 띠마다 PNG로 바로 인코딩하므로 페이지당 최대 메모리는 폭 × 띠 높이 × 4바이트이다.
+     * 0이면 페이지 전체를 한 번에 렌더링한다.
+     * 띠가 여럿인 페이지는 항상 PNG로 인코딩되므로 사진성 배경의 JPEG 자동 선택이 필요하면 0으로 둔다
+     * (A3 300DPI 폭에서 1024행 띠 하나는 약 14MB, 페이지 전체는 약 70MB).
+     * 기본값: 1024
+     */
+    public int renderBandHeight() {
+        return renderBandHeight;
+    }
+
+    public ConvertOptions renderBandHeight(int renderBandHeight) {
+        this.renderBandHeight = Math.max(0, renderBandHeight);
+        return this;
+    }
+
+    /**
+     * 페이지 배경을 그려진 항목의 경계 영역만 담은 PNG 타일로 렌더링할지 여부.
+     * 서로 멀리 떨어진 항목은 별도 타일이 되고, 그릴 항목이 없는 페이지는 배경 이미지를 만들지 않는다.
+     * false이면 페이지 전체 크기의 투명 PNG 하나를 만든다.
+     * 기본값: false
+     */
+    public boolean contentBoundedBackgrounds() {
+        return contentBoundedBackgrounds;
+    }
+
+    public ConvertOptions contentBoundedBackgrounds(boolean contentBoundedBackgrounds) {
+        this.contentBoundedBackgrounds = contentBoundedBackgrounds;
+        return this;
+    }
+
+    /**
+     * 렌더링된 PNG의 deflate 압축 레벨 (0~9). -1이면 zlib 기본값(6).
+     * 낮을수록 빠르고 파일이 커진다.
+     */
+    public int pngCompressionLevel() {
+        return pngCompressionLevel;
+    }
+
+    public ConvertOptions pngCompressionLevel(int pngCompressionLevel) {
+        this.pngCompressionLevel = Math.max(-1, Math.min(9, pngCompressionLevel));
+        return this;
+    }
+
+    /**
+     * 렌더링된 PNG의 행 필터 전략.
+     * 기본값: ADAPTIVE (행마다 가장 작은 필터 선택)
+     */
+    public StreamingPngWriter.Filter pngFilter() {
+        return pngFilter;
+    }
+
+    public ConvertOptions pngFilter(StreamingPngWriter.Filter pngFilter) {
+        this.pngFilter = pngFilter;
+        return this;
+    }
+
+    /**
+     * 256색 이하인 래스터를 팔레트 PNG로 인코딩할지 여부 (무손실).
+     * 기본값: true
+     */
+    public boolean palettePng() {
+        return palettePng;
+    }
+
+    public ConvertOptions palettePng(boolean palettePng) {
+        this.palettePng = palettePng;
+        return this;
+    }
+
+    /**
+     * 완전히 불투명하고 색이 많은(사진성) 래스터를 JPEG로 인코딩할지 여부.
+     * 래스터 전체를 한 번에 인코딩하는 경우에만 적용된다.
+     * 기본값: true
+     */
+    public boolean jpegForPhotos() {
+        return jpegForPhotos;
+    }
+
+    public ConvertOptions jpegForPhotos(boolean jpegForPhotos) {
+        this.jpegForPhotos = jpegForPhotos;
+        return this;
+    }
+
+    /**
+     * JPEG 품질 (0.0~1.0). 기본값: 0.9
+     */
+    public float jpegQuality() {
+        return jpegQuality;
+    }
+
+    public ConvertOptions jpegQuality(float jpegQuality) {
+        this.jpegQuality = Math.max(0f, Math.min(1f, jpegQuality));
+        return this;
+    }
+
+    /**
+     * 페이지에 놓인 벡터 도형을 배경 PNG 대신 HWPX 도형(사각형/타원/곡선)으로 내보낼지 여부.
+     * 불투명도, 구멍이 있는 복합 경로 등 표현할 수 없는 도형과
+     * 위에 놓인 이미지와 겹치는 도형은 계속 배경에 래스터화된다.
+     * 기본값: false
+     */
+    public boolean nativeVectorShapes() {
+        return nativeVectorShapes;
+    }
+
+    public ConvertOptions nativeVectorShapes(boolean nativeVectorShapes) {
+        this.nativeVectorShapes = nativeVectorShapes;
+        return this;
+    }
+
+    /**
+     * 디자인 파일 (PSD, AI, EPS, PDF, TIFF)의 PNG 변환 결과를 디스크에 캐시할지 여부.
+     * 캐시 키는 파일 내용 해시, DPI, 변환 도구 버전이다.
+     * 기본값: true
+     */
+    public boolean designFileCache() {
+        return designFileCache;
+    }
+
+    public ConvertOptions designFileCache(boolean designFileCache) {
+        this.designFileCache = designFileCache;
+        return this;
+    }
+
+    /**
+     * 디자인 파일 PNG 캐시 디렉토리. null이면 임시 디렉토리 아래 hwpxlib-design-cache를 사용한다.
+     */
+    public String designFileCacheDir() {
+        return designFileCacheDir;
+    }
+
+    public ConvertOptions designFileCacheDir(String designFileCacheDir) {
+        this.designFileCacheDir = designFileCacheDir;
+        return this;
+    }
+
+    /**
+     * 동시에 실행할 디자인 파일 변환 프로세스 (ImageMagick, Ghostscript) 수.
+     * 기본값: min(4, CPU 코어 수)
+     */
+    public int designFileProcesses() {
+        return designFileProcesses;
+    }
+
+    public ConvertOptions designFileProcesses(int designFileProcesses) {
+        this.designFileProcesses = Math.max(1, designFileProcesses);
+        return this;
+    }
+
+    /**
+     * 페이지 파이프라인 변환의 단계 간 대기열 길이.
+     * 0보다 크면 페이지가 중간 변환 → section 생성 → section 쓰기 단계를 차례로 흘러가고,
+     * 완성된 section과 이미지는 바로 HWPX 파일에 쓰인 후 메모리에서 해제된다.
+     * 메모리에는 단계마다 최대 이 개수의 페이지만 머문다 (스프레드 모드에서는 사용하지 않음).
+     * 이 모드에서는 변환 결과의 hwpxFile()이 null이다.
+     * 기본값: 0 (문서 전체를 만든 후 쓰기)
+     */
+    public int pipelineDepth() {
+        return pipelineDepth;
+    }
+
+    public ConvertOptions pipelineDepth(int pipelineDepth) {
+        this.pipelineDepth = Math.max(0, pipelineDepth);
+        return this;
+    }
+
+    /**
+     * 중간 문서 → HWPX 변환에서 페이지/스프레드 section을 동시에 만드는 스레드 수.
+     * 1이면 호출 스레드에서 순차적으로 만든다. 스레드 수와 관계없이 출력은 같다
+     * (새 header 항목과 BinData는 section 순서대로 등록된다).
+     * 기본값: min(4, CPU 코어 수)
+     */
+    public int sectionThreads() {
+        return sectionThreads;
+    }
+
+    public ConvertOptions sectionThreads(int sectionThreads) {
+        this.sectionThreads = Math.max(1, sectionThreads);
+        return this;
+    }
+
+    /**
+     * 증분 변환 캐시 디렉토리. 지정하면 스프레드마다 입력 (스프레드, 참조 Story, 스타일, 링크 파일, 옵션)의
+     * 해시로 변환된 중간 페이지와 배경 이미지를 저장해 두고, 다음 변환에서 바뀌지 않은 스프레드의 페이지는
+     * 다시 변환하지 않고 가져온다 (페이지 모드 전용).
+     * 기본값: null (사용 안 함)
+     */
+    public String incrementalCacheDir() {
+        return incrementalCacheDir;
+    }
+
+    public ConvertOptions incrementalCacheDir(String incrementalCacheDir) {
+        this.incrementalCacheDir = incrementalCacheDir;
+        return this;
+    }
 }
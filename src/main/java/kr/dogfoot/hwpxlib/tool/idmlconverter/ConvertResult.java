@@ -3,7 +3,10 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter;
 import kr.dogfoot.hwpxlib.object.HWPXFile;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * IDML -> HWPX 변환 결과.
@@ -16,13 +19,23 @@ public class ConvertResult {
     private int equationsConverted;
     private int imagesConverted;
     private int imagesSkipped;
+    private int imagesShared;
+    private int pagesReused;
     private int imagesPsdConverted;
     private int imagesAiConverted;
     private int imagesTiffConverted;
     private int stylesConverted;
+    private int imageCacheHits;
+    private int imageCacheMisses;
+    private int imageCacheEvictions;
+    private long imageCachePeakBytes;
+    private final List<ImageEncoding> imageEncodings;
+    private final Map<String, Long> phaseMillis;
 
     public ConvertResult() {
         this.warnings = new ArrayList<String>();
+        this.imageEncodings = new ArrayList<ImageEncoding>();
+        this.phaseMillis = new LinkedHashMap<String, Long>();
     }
 
     public HWPXFile hwpxFile() {
@@ -37,7 +50,7 @@ public class ConvertResult {
         return warnings;
     }
 
-    public void addWarning(String warning) {
+    public synchronized void addWarning(String warning) {
         warnings.add(warning);
     }
 
@@ -85,6 +98,28 @@ public class ConvertResult {
         this.imagesSkipped = count;
     }
 
+    /**
+     * 이미 등록된 BinData 항목을 재사용한 이미지 수 (같은 바이트의 반복 이미지).
+     */
+    public int imagesShared() {
+        return imagesShared;
+    }
+
+    public void imagesShared(int count) {
+        this.imagesShared = count;
+    }
+
+    /**
+     * 증분 변환 캐시에서 가져온 페이지 수 (pagesConverted에 포함).
+     */
+    public int pagesReused() {
+        return pagesReused;
+    }
+
+    public void pagesReused(int count) {
+        this.pagesReused = count;
+    }
+
     public int imagesPsdConverted() {
         return imagesPsdConverted;
     }
@@ -117,9 +152,76 @@ public class ConvertResult {
         this.stylesConverted = count;
     }
 
+    /**
+     * 페이지 렌더링 중 디코딩된 이미지 캐시 적중 수.
+     */
+    public int imageCacheHits() {
+        return imageCacheHits;
+    }
+
+    public void imageCacheHits(int count) {
+        this.imageCacheHits = count;
+    }
+
+    /**
+     * 실제로 이미지를 디코딩한 횟수.
+     */
+    public int imageCacheMisses() {
+        return imageCacheMisses;
+    }
+
+    public void imageCacheMisses(int count) {
+        this.imageCacheMisses = count;
+    }
+
+    public int imageCacheEvictions() {
+        return imageCacheEvictions;
+    }
+
+    public void imageCacheEvictions(int count) {
+        this.imageCacheEvictions = count;
+    }
+
+    /**
+     * 캐시가 동시에 보유한 디코딩 이미지의 최대 추정 크기 (바이트).
+     */
+    public long imageCachePeakBytes() {
+        return imageCachePeakBytes;
+    }
+
+    public void imageCachePeakBytes(long bytes) {
+        this.imageCachePeakBytes = bytes;
+    }
+
+    /**
+     * 렌더링된 래스터 이미지별 인코더 선택과 인코딩 시간.
+     */
+    public List<ImageEncoding> imageEncodings() {
+        return imageEncodings;
+    }
+
+    public void addImageEncoding(ImageEncoding encoding) {
+        imageEncodings.add(encoding);
+    }
+
+    /**
+     * 단계별 소요 시간 (ms, 실행 순서). 단계 이름: load, intermediate, hwpx, write
+     * (파이프라인 변환은 load, pipeline).
+     */
+    public Map<String, Long> phaseMillis() {
+        return phaseMillis;
+    }
+
+    public void phaseMillis(String phase, long millis) {
+        phaseMillis.put(phase, millis);
+    }
+
     public String summary() {
         StringBuilder sb = new StringBuilder();
         sb.append("ConvertResult{pages=").append(pagesConverted);
+        if (pagesReused > 0) {
+            sb.append(" (reused=").append(pagesReused).append(")");
+        }
         sb.append(", frames=").append(framesConverted);
         sb.append(", equations=").append(equationsConverted);
         sb.append(", images=").append(imagesConverted);
@@ -131,8 +233,60 @@ public class ConvertResult {
         if (imagesSkipped > 0) {
             sb.append(", imagesSkipped=").append(imagesSkipped);
         }
+        if (imagesShared > 0) {
+            sb.append(", imagesShared=").append(imagesShared);
+        }
+        if (imageCacheHits > 0 || imageCacheMisses > 0) {
+            sb.append(", imageCache(hits=").append(imageCacheHits);
+            sb.append(", misses=").append(imageCacheMisses);
+            sb.append(", evictions=").append(imageCacheEvictions).append(")");
+        }
+        if (!imageEncodings.isEmpty()) {
+            Map<String, Integer> counts = new TreeMap<String, Integer>();
+            double millis = 0;
+            for (ImageEncoding e : imageEncodings) {
+                Integer c = counts.get(e.encoding());
+                counts.put(e.encoding(), c == null ? 1 : c + 1);
+                millis += e.encodeMillis();
+            }
+            sb.append(", encoded(");
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                sb.append(entry.getKey()).append('=').append(entry.getValue()).append(", ");
+            }
+            sb.append(String.format("%.1fms", millis)).append(")");
+        }
         sb.append(", styles=").append(stylesConverted);
         sb.append(", warnings=").append(warnings.size()).append("}");
         return sb.toString();
     }
+
+    /**
+     * 래스터 이미지 하나의 인코딩 정보.
+     */
+    public static class ImageEncoding {
+        private final String imageId;
+        private final String encoding;
+        private final int pixelWidth;
+        private final int pixelHeight;
+        private final int bytes;
+        private final double encodeMillis;
+
+        public ImageEncoding(String imageId, String encoding, int pixelWidth, int pixelHeight,
+                             int bytes, double encodeMillis) {
+            this.imageId = imageId;
+            this.encoding = encoding;
+            this.pixelWidth = pixelWidth;
+            this.pixelHeight = pixelHeight;
+            this.bytes = bytes;
+            this.encodeMillis = encodeMillis;
+        }
+
+        public String imageId() { return imageId; }
+        /** "png-rgba", "png-palette", "jpeg" */
+        public String encoding() { return encoding; }
+        public int pixelWidth() { return pixelWidth; }
+        public int pixelHeight() { return pixelHeight; }
+        public int bytes() { return bytes; }
+        public double encodeMillis() { return encodeMillis; }
+    }
 }
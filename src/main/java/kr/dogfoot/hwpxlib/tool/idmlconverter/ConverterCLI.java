@@ -2,7 +2,10 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter;
 
 import kr.dogfoot.hwpxlib.tool.idmlconverter.analyzer.IDMLAnalyzer;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IDMLPageRenderer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.StreamingPngWriter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.*;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.BinaryDeserializer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.BinarySerializer;
 import kr.dogfoot.hwpxlib.tool.hwpxconverter.HwpxToIdmlConverter;
 
 import java.util.Arrays;
@@ -16,7 +19,13 @@ import java.util.List;
  * 사용법:
  *   java -jar converter.jar --analyze <idml-path>
  *   java -jar converter.jar --convert <input-idml> <output-hwpx> [options]
+ *   java -jar converter.jar --batch <manifest|dir> [--out <dir>] [--jobs <n>] [--timeout <sec>] [options]
+ *   java -jar converter.jar --serve [--max-documents <n>] [--workers <n>]
+ *   java -jar converter.jar --http [--bind <addr>] [--port <n>] [--queue <n>] [--raster-jobs <n>] [--text-jobs <n>] [--memory-mb <n>]
  *   java -jar converter.jar --render-vector <idml-path> <frame-id>
+ *   java -jar converter.jar --render-previews <idml-path> [--size <px>]
+ *   java -jar converter.jar --json-to-binary <intermediate-json> <output-bin>
+ *   java -jar converter.jar --binary-to-json <intermediate-bin> <output-json>
  *
  * 옵션:
  *   --progress           진행률을 JSON으로 출력
@@ -24,10 +33,44 @@ import java.util.List;
  *   --vector-dpi <dpi>   벡터 렌더링 DPI (기본 150)
  *   --include-images     이미지 포함
  *   --links-directory <path>  이미지 링크 디렉토리
+ *   --render-threads <n> 페이지 배경 렌더링 스레드 수
+ *   --max-rasters <n>    미리 렌더링해 둘 페이지 배경 수 (기본: 렌더링 스레드 × 2)
+ *   --image-cache-mb <n> 디코딩된 이미지 캐시 예산 (MB, 0이면 사용 안 함)
+ *   --raster-cache-mb <n> 렌더링된 래스터 캐시 예산 (MB, 0이면 사용 안 함)
+ *   --band-height <n>    페이지 배경을 나누어 렌더링할 띠 높이 (픽셀, 기본 1024, 0이면 통째로)
+ *   --tight-backgrounds  페이지 배경을 그려진 영역만 타일로 렌더링
+ *   --png-level <0-9>    렌더링된 PNG의 deflate 압축 레벨
+ *   --png-filter <name>  PNG 행 필터 (none, sub, up, average, paeth, adaptive)
+ *   --no-palette         256색 이하 래스터도 RGBA PNG로 저장
+ *   --no-jpeg            불투명한 사진성 래스터도 PNG로 저장
+ *   --jpeg-quality <q>   JPEG 품질 (0.0~1.0)
+ *   --native-vectors     벡터 도형을 배경 PNG 대신 HWPX 도형으로 출력
+ *   --design-cache <dir> PSD/AI 등 디자인 파일의 PNG 변환 캐시 디렉토리
+ *   --no-design-cache    디자인 파일 변환 결과를 캐시하지 않음
+ *   --design-processes <n> 동시에 실행할 디자인 파일 변환 프로세스 수
+ *   --pipeline <depth>   페이지 단위 파이프라인 변환 (단계 사이에 최대 depth 페이지)
+ *   --section-threads <n> HWPX section을 동시에 만드는 스레드 수
+ *   --incremental <dir>  증분 변환 캐시 (바뀌지 않은 스프레드의 페이지를 재사용)
+ *   --cache-dir <dir>    파싱된 IDML 스냅샷 캐시 (모든 명령 공통)
  */
 public class ConverterCLI {
 
     public static void main(String[] args) {
+        args = applyGlobalOptions(args);
+        if (args.length >= 1 && ("--serve".equals(args[0]) || "--http".equals(args[0]))) {
+            try {
+                if ("--serve".equals(args[0])) {
+                    runServe(args);
+                } else {
+                    runHttp(args);
+                }
+            } catch (Exception e) {
+                System.err.println("Error: " + e.getMessage());
+                e.printStackTrace(System.err);
+                System.exit(1);
+            }
+            return;
+        }
         if (args.length < 2) {
             printUsage();
             System.exit(1);
@@ -41,10 +84,14 @@ public class ConverterCLI {
                 IDMLAnalyzer.analyze(idmlPath, System.out);
             } else if ("--convert".equals(command)) {
                 runConvert(args);
+            } else if ("--batch".equals(command)) {
+                runBatch(args);
             } else if ("--render-vector".equals(command)) {
                 runRenderVector(args);
             } else if ("--render-image".equals(command)) {
                 runRenderImage(args);
+            } else if ("--render-previews".equals(command)) {
+                runRenderPreviews(args);
             } else if ("--render-master-spread".equals(command)) {
                 runRenderMasterSpread(args);
             } else if ("--text-frame-detail".equals(command)) {
@@ -63,6 +110,10 @@ public class ConverterCLI {
                 System.out.println(schema);
             } else if ("--merge".equals(command)) {
                 runMerge(args);
+            } else if ("--json-to-binary".equals(command)) {
+                runJsonToBinary(args);
+            } else if ("--binary-to-json".equals(command)) {
+                runBinaryToJson(args);
             } else {
                 printUsage();
                 System.exit(1);
@@ -74,6 +125,26 @@ public class ConverterCLI {
         }
     }
 
+    /**
+     * 모든 명령에 공통인 옵션을 처리하고 나머지 인자를 반환한다.
+     *   --cache-dir <dir>  파싱된 IDML 스냅샷 캐시 디렉토리 (IDML_CACHE_DIR 환경변수보다 우선,
+     *                      크기 상한은 IDML_CACHE_MAX_MB)
+     *   --no-cache         스냅샷 캐시 사용 안 함
+     */
+    private static String[] applyGlobalOptions(String[] args) {
+        List<String> rest = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--cache-dir".equals(args[i]) && i + 1 < args.length) {
+                IDMLSnapshotCache.configure(new java.io.File(args[++i]));
+            } else if ("--no-cache".equals(args[i])) {
+                IDMLSnapshotCache.configure(null);
+            } else {
+                rest.add(args[i]);
+            }
+        }
+        return rest.toArray(new String[0]);
+    }
+
     private static void runConvert(String[] args) throws Exception {
         if (args.length < 3) {
             System.err.println("Error: Missing input or output path");
@@ -89,40 +160,15 @@ public class ConverterCLI {
 
         // Parse additional options
         for (int i = 3; i < args.length; i++) {
-            String arg = args[i];
-
-            switch (arg) {
-                case "--progress":
-                    reporter = new JsonProgressReporter(System.out);
-                    break;
-                case "--spread-mode":
-                    options = options.spreadBasedConversion(true);
-                    break;
-                case "--vector-dpi":
-                    if (i + 1 < args.length) {
-                        options = options.vectorDpi(Integer.parseInt(args[++i]));
-                    }
-                    break;
-                case "--include-images":
-                    options = options.includeImages(true);
-                    break;
-                case "--links-directory":
-                    if (i + 1 < args.length) {
-                        options = options.linksDirectory(args[++i]);
-                    }
-                    break;
-                case "--start-page":
-                    if (i + 1 < args.length) {
-                        options = options.startPage(Integer.parseInt(args[++i]));
-                    }
-                    break;
-                case "--end-page":
-                    if (i + 1 < args.length) {
-                        options = options.endPage(Integer.parseInt(args[++i]));
-                    }
-                    break;
-                default:
-                    System.err.println("Unknown option: " + arg);
+            if ("--progress".equals(args[i])) {
+                reporter = new JsonProgressReporter(System.out);
+                continue;
+            }
+            int next = parseConvertOption(args, i, options);
+            if (next < 0) {
+                System.err.println("Unknown option: " + args[i]);
+            } else {
+                i = next;
             }
         }
 
@@ -135,6 +181,239 @@ public class ConverterCLI {
         }
     }
 
+    /**
+     * 여러 IDML 파일을 일괄 변환하고 파일마다 JSONL 결과를 출력한다.
+     * 실패하거나 제한 시간을 넘긴 파일이 있으면 종료 코드 2.
+     */
+    private static void runBatch(String[] args) throws Exception {
+        java.io.File source = new java.io.File(args[1]);
+        java.io.File outDir = null;
+        int jobs = BatchConverter.defaultJobs();
+        long timeoutMillis = 0;
+        ConvertOptions options = ConvertOptions.defaults();
+
+        for (int i = 2; i < args.length; i++) {
+            if ("--out".equals(args[i]) && i + 1 < args.length) {
+                outDir = new java.io.File(args[++i]);
+            } else if ("--jobs".equals(args[i]) && i + 1 < args.length) {
+                jobs = Integer.parseInt(args[++i]);
+            } else if ("--timeout".equals(args[i]) && i + 1 < args.length) {
+                timeoutMillis = Long.parseLong(args[++i]) * 1000;
+            } else {
+                int next = parseConvertOption(args, i, options);
+                if (next < 0) {
+                    System.err.println("Unknown option: " + args[i]);
+                } else {
+                    i = next;
+                }
+            }
+        }
+
+        if (outDir != null && !outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new java.io.IOException("Cannot create output directory: " + outDir);
+        }
+        List<BatchConverter.Job> jobList = BatchConverter.jobsFrom(source, outDir);
+        System.err.println("[INFO] 일괄 변환: " + jobList.size() + "개 파일, 동시 " + jobs + "개");
+        BatchConverter.Summary summary = new BatchConverter(options, jobs, timeoutMillis, System.out).run(jobList);
+        if (summary.failed() > 0 || summary.timedOut() > 0) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * 표준 입출력 JSON-RPC 서버로 상주한다 (ConverterServer 참고).
+     */
+    private static void runServe(String[] args) throws Exception {
+        int maxDocuments = ConverterServer.DEFAULT_MAX_DOCUMENTS;
+        int workers = ConverterServer.defaultWorkers();
+        for (int i = 1; i < args.length; i++) {
+            if ("--max-documents".equals(args[i]) && i + 1 < args.length) {
+                maxDocuments = Integer.parseInt(args[++i]);
+            } else if ("--workers".equals(args[i]) && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+            }
+        }
+        ConverterServer.serve(maxDocuments, workers);
+    }
+
+    /**
+     * HTTP 변환 서버를 실행한다 (ConversionHttpServer 참고). 프로세스가 종료될 때까지 실행된다.
+     */
+    private static void runHttp(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        String bind = null;
+        int port = 8080;
+        int capacity = 64;
+        int rasterJobs = Math.max(1, cores / 4);
+        int textJobs = Math.max(1, cores / 2);
+        long memoryBudget = ConversionJobQueue.defaultMemoryBudget();
+        int retain = 256;
+        java.io.File workDir = new java.io.File(System.getProperty("java.io.tmpdir"), "idml-http-server");
+        long maxUploadBytes = ConversionHttpServer.DEFAULT_MAX_UPLOAD_BYTES;
+        for (int i = 1; i < args.length; i++) {
+            if ("--bind".equals(args[i]) && i + 1 < args.length) {
+                bind = args[++i];
+            } else if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--queue".equals(args[i]) && i + 1 < args.length) {
+                capacity = Integer.parseInt(args[++i]);
+            } else if ("--raster-jobs".equals(args[i]) && i + 1 < args.length) {
+                rasterJobs = Integer.parseInt(args[++i]);
+            } else if ("--text-jobs".equals(args[i]) && i + 1 < args.length) {
+                textJobs = Integer.parseInt(args[++i]);
+            } else if ("--memory-mb".equals(args[i]) && i + 1 < args.length) {
+                memoryBudget = Long.parseLong(args[++i]) * 1024 * 1024;
+            } else if ("--retain".equals(args[i]) && i + 1 < args.length) {
+                retain = Integer.parseInt(args[++i]);
+            } else if ("--work-dir".equals(args[i]) && i + 1 < args.length) {
+                workDir = new java.io.File(args[++i]);
+            } else if ("--max-upload-mb".equals(args[i]) && i + 1 < args.length) {
+                maxUploadBytes = Long.parseLong(args[++i]) * 1024 * 1024;
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        ConversionJobQueue queue = new ConversionJobQueue(capacity, rasterJobs, textJobs, memoryBudget, retain);
+        // 대기 중인 POST /convert가 모두 기다려도 다른 요청을 받을 수 있도록
+        final ConversionHttpServer server = new ConversionHttpServer(bind, port, queue, workDir,
+                capacity + rasterJobs + textJobs + 4).maxUploadBytes(maxUploadBytes);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            public void run() {
+                try {
+                    server.stop();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }));
+        server.start();
+        System.err.println("[INFO] 대기열 " + capacity + ", raster " + rasterJobs + ", text " + textJobs
+                + ", 메모리 예산 " + (memoryBudget >> 20) + "MB");
+    }
+
+    /**
+     * args[i]의 IDML → HWPX 변환 옵션 하나를 options에 적용한다.
+     *
+     * @return 마지막으로 읽은 인자 위치 (변환 옵션이 아니면 -1)
+     */
+    static int parseConvertOption(String[] args, int i, ConvertOptions options) {
+        String arg = args[i];
+        switch (arg) {
+            case "--spread-mode":
+                options.spreadBasedConversion(true);
+                break;
+            case "--vector-dpi":
+                if (i + 1 < args.length) {
+                    options.vectorDpi(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--include-images":
+                options.includeImages(true);
+                break;
+            case "--links-directory":
+                if (i + 1 < args.length) {
+                    options.linksDirectory(args[++i]);
+                }
+                break;
+            case "--render-threads":
+                if (i + 1 < args.length) {
+                    options.renderThreads(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--max-rasters":
+                if (i + 1 < args.length) {
+                    options.maxRastersInFlight(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--image-cache-mb":
+                if (i + 1 < args.length) {
+                    options.imageCacheBytes(Long.parseLong(args[++i]) * 1024 * 1024);
+                }
+                break;
+            case "--raster-cache-mb":
+                if (i + 1 < args.length) {
+                    options.rasterCacheBytes(Long.parseLong(args[++i]) * 1024 * 1024);
+                }
+                break;
+            case "--band-height":
+                if (i + 1 < args.length) {
+                    options.renderBandHeight(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--tight-backgrounds":
+                options.contentBoundedBackgrounds(true);
+                break;
+            case "--png-level":
+                if (i + 1 < args.length) {
+                    options.pngCompressionLevel(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--png-filter":
+                if (i + 1 < args.length) {
+                    options.pngFilter(
+                            StreamingPngWriter.Filter.valueOf(args[++i].toUpperCase()));
+                }
+                break;
+            case "--no-palette":
+                options.palettePng(false);
+                break;
+            case "--no-jpeg":
+                options.jpegForPhotos(false);
+                break;
+            case "--jpeg-quality":
+                if (i + 1 < args.length) {
+                    options.jpegQuality(Float.parseFloat(args[++i]));
+                }
+                break;
+            case "--native-vectors":
+                options.nativeVectorShapes(true);
+                break;
+            case "--design-cache":
+                if (i + 1 < args.length) {
+                    options.designFileCacheDir(args[++i]);
+                }
+                break;
+            case "--no-design-cache":
+                options.designFileCache(false);
+                break;
+            case "--design-processes":
+                if (i + 1 < args.length) {
+                    options.designFileProcesses(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--pipeline":
+                if (i + 1 < args.length) {
+                    options.pipelineDepth(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--section-threads":
+                if (i + 1 < args.length) {
+                    options.sectionThreads(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--incremental":
+                if (i + 1 < args.length) {
+                    options.incrementalCacheDir(args[++i]);
+                }
+                break;
+            case "--start-page":
+                if (i + 1 < args.length) {
+                    options.startPage(Integer.parseInt(args[++i]));
+                }
+                break;
+            case "--end-page":
+                if (i + 1 < args.length) {
+                    options.endPage(Integer.parseInt(args[++i]));
+                }
+                break;
+            default:
+                return -1;
+        }
+        return i;
+    }
+
     /**
      * 벡터 도형을 PNG로 렌더링하고 JSON 결과 출력.
      */
@@ -162,51 +441,51 @@ public class ConverterCLI {
             outputJsonError("Failed to load IDML file: " + idmlPath);
             System.exit(1);
         }
-        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, dpi);
 
-        // 벡터 도형 찾기
-        IDMLVectorShape targetShape = null;
-        IDMLPage targetPage = null;
-
-        for (IDMLSpread spread : idmlDoc.spreads()) {
-            for (IDMLPage page : spread.pages()) {
-                for (IDMLVectorShape shape : spread.getVectorShapesOnPage(page)) {
-                    if (frameId.equals(shape.selfId())) {
-                        targetShape = shape;
-                        targetPage = page;
-                        break;
-                    }
-                }
-                if (targetShape != null) break;
-            }
-            if (targetShape != null) break;
+        try {
+            System.out.println(renderVectorJson(idmlDoc, frameId, dpi));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            outputJsonError(e.getMessage());
+            System.exit(1);
         }
+    }
 
-        if (targetShape == null) {
-            outputJsonError("Vector shape not found: " + frameId);
-            System.exit(1);
+    /**
+     * 로드된 문서의 벡터 도형을 PNG로 렌더링하고 JSON 결과를 만든다.
+     *
+     * @throws IllegalArgumentException 도형을 찾을 수 없음
+     * @throws IllegalStateException    렌더링 실패
+     */
+    static String renderVectorJson(IDMLDocument idmlDoc, String frameId, int dpi) throws Exception {
+        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, dpi);
+
+        // 벡터 도형 찾기 (페이지 위에 놓인 도형만 대상)
+        IDMLVectorShape targetShape = idmlDoc.index().vectorShape(frameId);
+        IDMLPage targetPage = idmlDoc.index().pageOf(frameId);
+
+        if (targetShape == null || targetPage == null) {
+            throw new IllegalArgumentException("Vector shape not found: " + frameId);
         }
 
         // PNG 렌더링
         IDMLPageRenderer.RenderResult result = renderer.renderVectorToPng(targetShape, targetPage);
         if (result == null) {
-            outputJsonError("Failed to render vector shape");
-            System.exit(1);
+            throw new IllegalStateException("Failed to render vector shape");
         }
 
         // Base64 인코딩하여 JSON 출력
         String base64Data = Base64.getEncoder().encodeToString(result.pngData());
-        String dataUrl = "data:image/png;base64," + base64Data;
+        String dataUrl = "data:" + mimeType(result.format()) + ";base64," + base64Data;
 
         StringBuilder json = new StringBuilder();
         json.append("{\n");
         json.append("  \"data_url\": \"").append(dataUrl).append("\",\n");
         json.append("  \"width\": ").append(result.pixelWidth()).append(",\n");
         json.append("  \"height\": ").append(result.pixelHeight()).append(",\n");
-        json.append("  \"filename\": \"").append(escapeJson(frameId + ".png")).append("\"\n");
+        appendEncoding(json, result);
+        json.append("  \"filename\": \"").append(escapeJson(frameId + "." + result.format())).append("\"\n");
         json.append("}");
-
-        System.out.println(json);
+        return json.toString();
     }
 
     /**
@@ -239,41 +518,42 @@ public class ConverterCLI {
             outputJsonError("Failed to load IDML file: " + idmlPath);
             System.exit(1);
         }
-        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, dpi);
 
-        // 이미지 프레임 찾기
-        IDMLImageFrame targetFrame = null;
-        IDMLPage targetPage = null;
-
-        for (IDMLSpread spread : idmlDoc.spreads()) {
-            for (IDMLPage page : spread.pages()) {
-                for (IDMLImageFrame frame : spread.getImageFramesOnPage(page)) {
-                    if (frameId.equals(frame.selfId())) {
-                        targetFrame = frame;
-                        targetPage = page;
-                        break;
-                    }
-                }
-                if (targetFrame != null) break;
-            }
-            if (targetFrame != null) break;
+        try {
+            System.out.println(renderImageJson(idmlDoc, frameId, dpi, linksDirectory));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            outputJsonError(e.getMessage());
+            System.exit(1);
         }
+    }
 
-        if (targetFrame == null) {
-            outputJsonError("Image frame not found: " + frameId);
-            System.exit(1);
+    /**
+     * 로드된 문서의 이미지 프레임을 PNG로 렌더링하고 JSON 결과를 만든다.
+     *
+     * @throws IllegalArgumentException 프레임을 찾을 수 없음
+     * @throws IllegalStateException    렌더링 실패
+     */
+    static String renderImageJson(IDMLDocument idmlDoc, String frameId, int dpi,
+                                  String linksDirectory) throws Exception {
+        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, dpi);
+
+        // 이미지 프레임 찾기 (페이지 위에 놓인 프레임만 대상)
+        IDMLImageFrame targetFrame = idmlDoc.index().imageFrame(frameId);
+        IDMLPage targetPage = idmlDoc.index().pageOf(frameId);
+
+        if (targetFrame == null || targetPage == null) {
+            throw new IllegalArgumentException("Image frame not found: " + frameId);
         }
 
         // PNG 렌더링 (트랜스폼, 클리핑 적용)
         IDMLPageRenderer.RenderResult result = renderer.renderImageToPng(targetFrame, targetPage, linksDirectory);
         if (result == null) {
-            outputJsonError("Failed to render image frame");
-            System.exit(1);
+            throw new IllegalStateException("Failed to render image frame");
         }
 
         // Base64 인코딩하여 JSON 출력
         String base64Data = Base64.getEncoder().encodeToString(result.pngData());
-        String dataUrl = "data:image/png;base64," + base64Data;
+        String dataUrl = "data:" + mimeType(result.format()) + ";base64," + base64Data;
 
         // 파일명 추출
         String filename = targetFrame.linkResourceURI();
@@ -289,7 +569,7 @@ public class ConverterCLI {
                 // ignore
             }
         } else {
-            filename = frameId + ".png";
+            filename = frameId + "." + result.format();
         }
 
         StringBuilder json = new StringBuilder();
@@ -297,10 +577,67 @@ public class ConverterCLI {
         json.append("  \"data_url\": \"").append(dataUrl).append("\",\n");
         json.append("  \"width\": ").append(result.pixelWidth()).append(",\n");
         json.append("  \"height\": ").append(result.pixelHeight()).append(",\n");
+        appendEncoding(json, result);
         json.append("  \"filename\": \"").append(escapeJson(filename)).append("\"\n");
         json.append("}");
+        return json.toString();
+    }
 
-        System.out.println(json);
+    /**
+     * 문서 전체의 저해상도 미리보기 (페이지, 이미지 프레임, 벡터 도형)를 렌더링해
+     * 한 항목씩 JSON 한 줄(JSON Lines)로 출력한다. 항목마다 바로 flush하므로
+     * 호출 측은 전체가 끝나기 전에 썸네일을 표시할 수 있다.
+     */
+    private static void runRenderPreviews(String[] args) throws Exception {
+        if (args.length < 2 || args[1].startsWith("--")) {
+            System.err.println("Error: Missing idml path");
+            printUsage();
+            System.exit(1);
+        }
+        String idmlPath = args[1];
+        int size = IDMLPageRenderer.DEFAULT_PREVIEW_BOX;
+        int dpi = 150;
+        String linksDirectory = null;
+
+        // 옵션 파싱
+        for (int i = 2; i < args.length; i++) {
+            if ("--size".equals(args[i]) && i + 1 < args.length) {
+                size = Integer.parseInt(args[++i]);
+            } else if ("--dpi".equals(args[i]) && i + 1 < args.length) {
+                dpi = Integer.parseInt(args[++i]);
+            } else if ("--links-directory".equals(args[i]) && i + 1 < args.length) {
+                linksDirectory = args[++i];
+            }
+        }
+
+        // IDML 파일 로드
+        IDMLDocument idmlDoc = IDMLLoader.load(idmlPath);
+        if (idmlDoc == null) {
+            outputJsonError("Failed to load IDML file: " + idmlPath);
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, dpi).previewBox(size);
+        int count = renderer.renderPreviews(linksDirectory, new IDMLPageRenderer.PreviewListener() {
+            public void preview(IDMLPageRenderer.PreviewKind kind, String id, IDMLPage page,
+                                IDMLPageRenderer.RenderResult result) {
+                String base64Data = Base64.getEncoder().encodeToString(result.pngData());
+                StringBuilder json = new StringBuilder();
+                json.append("{\"kind\": \"").append(kind.name().toLowerCase()).append("\"");
+                json.append(", \"id\": \"").append(escapeJson(id)).append("\"");
+                json.append(", \"page\": \"").append(escapeJson(page.selfId())).append("\"");
+                json.append(", \"data_url\": \"data:").append(mimeType(result.format()))
+                        .append(";base64,").append(base64Data).append("\"");
+                json.append(", \"width\": ").append(result.pixelWidth());
+                json.append(", \"height\": ").append(result.pixelHeight());
+                json.append("}");
+                System.out.println(json);
+                System.out.flush();
+            }
+        });
+        System.err.println("[INFO] 미리보기 " + count + "개 렌더링 ("
+                + (System.nanoTime() - start) / 1000000 + "ms)");
     }
 
     /**
@@ -406,28 +743,31 @@ public class ConverterCLI {
             System.exit(1);
         }
 
-        // 텍스트 프레임 찾기
-        IDMLTextFrame targetFrame = null;
-        for (IDMLSpread spread : idmlDoc.spreads()) {
-            for (IDMLTextFrame tf : spread.textFrames()) {
-                if (frameId.equals(tf.selfId())) {
-                    targetFrame = tf;
-                    break;
-                }
-            }
-            if (targetFrame != null) break;
+        try {
+            System.out.println(textFrameDetailJson(idmlDoc, frameId));
+        } catch (IllegalArgumentException e) {
+            outputJsonError(e.getMessage());
+            System.exit(1);
         }
+    }
+
+    /**
+     * 로드된 문서의 텍스트 프레임 상세 정보 JSON을 만든다.
+     *
+     * @throws IllegalArgumentException 프레임 또는 Story를 찾을 수 없음
+     */
+    static String textFrameDetailJson(IDMLDocument idmlDoc, String frameId) {
+        // 텍스트 프레임 찾기
+        IDMLTextFrame targetFrame = idmlDoc.index().textFrame(frameId);
 
         if (targetFrame == null) {
-            outputJsonError("Text frame not found: " + frameId);
-            System.exit(1);
+            throw new IllegalArgumentException("Text frame not found: " + frameId);
         }
 
         // Story 가져오기
         IDMLStory story = idmlDoc.getStory(targetFrame.parentStoryId());
         if (story == null) {
-            outputJsonError("Story not found for frame: " + frameId);
-            System.exit(1);
+            throw new IllegalArgumentException("Story not found for frame: " + frameId);
         }
 
         // JSON 출력 생성
@@ -605,8 +945,7 @@ public class ConverterCLI {
 
         json.append("\n  ]\n");
         json.append("}");
-
-        System.out.println(json);
+        return json.toString();
     }
 
     /**
@@ -783,6 +1122,46 @@ public class ConverterCLI {
     /**
      * --merge <source.idml> <data.json> <output.idml> [--validate]
      */
+    /**
+     * 중간 JSON을 바이너리 포맷으로 변환.
+     */
+    private static void runJsonToBinary(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: --json-to-binary <intermediate.json> <output.bin>");
+            System.exit(1);
+        }
+        java.io.Reader in = new java.io.InputStreamReader(
+                new java.io.FileInputStream(args[1]), java.nio.charset.StandardCharsets.UTF_8);
+        java.io.OutputStream out = new java.io.FileOutputStream(args[2]);
+        try {
+            BinarySerializer.fromJson(in, null, out);
+        } finally {
+            in.close();
+            out.close();
+        }
+        System.err.println("[INFO] " + args[1] + " (" + new java.io.File(args[1]).length() + " bytes) → "
+                + args[2] + " (" + new java.io.File(args[2]).length() + " bytes)");
+    }
+
+    /**
+     * 중간 바이너리를 JSON으로 변환 (이미지는 인라인 base64).
+     */
+    private static void runBinaryToJson(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: --binary-to-json <intermediate.bin> <output.json>");
+            System.exit(1);
+        }
+        java.io.InputStream in = new java.io.FileInputStream(args[1]);
+        java.io.Writer out = new java.io.BufferedWriter(new java.io.OutputStreamWriter(
+                new java.io.FileOutputStream(args[2]), java.nio.charset.StandardCharsets.UTF_8));
+        try {
+            BinaryDeserializer.toJson(in, out);
+        } finally {
+            in.close();
+            out.close();
+        }
+    }
+
     private static void runMerge(String[] args) throws Exception {
         if (args.length < 4) {
             System.err.println("Usage: --merge <source.idml> <data.json> <output.idml> [--validate]");
@@ -844,6 +1223,18 @@ public class ConverterCLI {
         System.out.println("{\"error\": \"" + escapeJson(message) + "\"}");
     }
 
+    private static String mimeType(String format) {
+        return "jpg".equals(format) ? "image/jpeg" : "image/" + format;
+    }
+
+    /**
+     * 렌더링 결과의 인코더와 인코딩 시간을 JSON 필드로 추가한다.
+     */
+    private static void appendEncoding(StringBuilder json, IDMLPageRenderer.RenderResult result) {
+        json.append("  \"encoding\": \"").append(result.encoding()).append("\",\n");
+        json.append("  \"encode_ms\": ").append(String.format("%.1f", result.encodeNanos() / 1e6)).append(",\n");
+    }
+
     private static String escapeJson(String s) {
         if (s == null) return "";
         return s.replace("\\", "\\\\")
@@ -859,8 +1250,19 @@ public class ConverterCLI {
         System.out.println("Usage:");
         System.out.println("  java -jar converter.jar --analyze <idml-path>");
         System.out.println("  java -jar converter.jar --convert <input-idml> <output-hwpx> [options]");
+        System.out.println("  java -jar converter.jar --batch <manifest|dir> [batch options] [options]");
+        System.out.println("  java -jar converter.jar --serve [--max-documents <n>] [--workers <n>]");
+        System.out.println("  java -jar converter.jar --http [http options]");
         System.out.println("  java -jar converter.jar --hwpx-to-idml <input-hwpx> <output-idml> [--progress]");
         System.out.println("  java -jar converter.jar --render-vector <idml-path> <frame-id> [--dpi <dpi>]");
+        System.out.println("  java -jar converter.jar --render-previews <idml-path> [--size <px>] [--links-directory <dir>]");
+        System.out.println("  java -jar converter.jar --json-to-binary <intermediate-json> <output-bin>");
+        System.out.println("  java -jar converter.jar --binary-to-json <intermediate-bin> <output-json>");
+        System.out.println();
+        System.out.println("Global Options:");
+        System.out.println("  --cache-dir <dir>    Cache parsed IDML snapshots (or set IDML_CACHE_DIR)");
+        System.out.println("                       Size limit: IDML_CACHE_MAX_MB (default: 1024)");
+        System.out.println("  --no-cache           Disable the IDML snapshot cache");
         System.out.println();
         System.out.println("IDML to HWPX Options:");
         System.out.println("  --progress           Output progress as JSON");
@@ -868,9 +1270,52 @@ public class ConverterCLI {
         System.out.println("  --vector-dpi <dpi>   Vector rendering DPI (default: 150)");
         System.out.println("  --include-images     Include images in output");
         System.out.println("  --links-directory <path>  Directory for image links");
+        System.out.println("  --render-threads <n> Page background render threads (default: min(4, cores))");
+        System.out.println("  --max-rasters <n>    Max page backgrounds rendered ahead (default: 2 x render threads)");
+        System.out.println("  --image-cache-mb <n> Decoded image cache budget in MB (default: 256, 0 = off)");
+        System.out.println("  --raster-cache-mb <n> Rendered raster cache budget in MB (default: 64, 0 = off)");
+        System.out.println("  --band-height <n>    Render page backgrounds in strips of n rows (default: 1024, 0 = whole page)");
+        System.out.println("  --tight-backgrounds  Render only the drawn area of page backgrounds as tiles");
+        System.out.println("  --png-level <0-9>    Deflate level for rendered PNGs (default: 6)");
+        System.out.println("  --png-filter <name>  PNG row filter: none, sub, up, average, paeth, adaptive (default)");
+        System.out.println("  --no-palette         Do not write palette PNGs for rasters with <= 256 colors");
+        System.out.println("  --no-jpeg            Do not write opaque photographic rasters as JPEG");
+        System.out.println("  --jpeg-quality <q>   JPEG quality 0.0-1.0 (default: 0.9)");
+        System.out.println("  --native-vectors     Emit vector shapes as HWPX drawing objects instead of rasterizing");
+        System.out.println("  --design-cache <dir> Cache directory for PSD/AI/EPS/PDF/TIFF conversions (default: temp dir)");
+        System.out.println("  --no-design-cache    Do not cache design file conversions");
+        System.out.println("  --design-processes <n> Concurrent ImageMagick/Ghostscript processes (default: min(4, cores))");
+        System.out.println("  --pipeline <depth>   Overlap page conversion and writing, holding at most depth pages per stage");
+        System.out.println("  --section-threads <n> Threads building HWPX sections in parallel (default: min(4, cores))");
+        System.out.println("  --incremental <dir>  Reuse converted pages of unchanged spreads from this cache directory");
         System.out.println("  --start-page <num>   Start page number (1-based)");
         System.out.println("  --end-page <num>     End page number (1-based)");
         System.out.println();
+        System.out.println("Batch Options (plus the IDML to HWPX options above, except --progress):");
+        System.out.println("  --out <dir>          Output directory (default: next to each input)");
+        System.out.println("  --jobs <n>           Files converted at once (default: max(1, cores / 2))");
+        System.out.println("  --timeout <sec>      Per-file time limit; the file is reported as timed out (default: none)");
+        System.out.println("  Manifest lines are 'input' or 'input<TAB>output'; '#' starts a comment");
+        System.out.println();
+        System.out.println("Serve Options (line-delimited JSON-RPC 2.0 on stdin/stdout):");
+        System.out.println("  --max-documents <n>  Loaded IDML documents kept in memory (default: 4)");
+        System.out.println("  --workers <n>        Requests handled at once (default: min(4, cores))");
+        System.out.println("  Methods: analyze, render-vector, render-image, text-frame-detail, convert, cancel, shutdown");
+        System.out.println();
+        System.out.println("HTTP Server Options (POST /jobs, GET /jobs/{id}[/result], POST /convert, GET /metrics):");
+        System.out.println("  --bind <addr>        Listen address (default: loopback; 0.0.0.0 for all interfaces)");
+        System.out.println("  --port <n>           Listen port (default: 8080)");
+        System.out.println("  --queue <n>          Max queued jobs before 503 (default: 64)");
+        System.out.println("  --raster-jobs <n>    Concurrent jobs that render page rasters (default: max(1, cores / 4))");
+        System.out.println("  --text-jobs <n>      Concurrent jobs with nothing to render (default: max(1, cores / 2))");
+        System.out.println("  --memory-mb <n>      Memory budget for running jobs' estimates (default: 70% of max heap)");
+        System.out.println("  --retain <n>         Finished jobs kept for download (default: 256)");
+        System.out.println("  --work-dir <dir>     Upload and result directory (default: temp dir)");
+        System.out.println("  --max-upload-mb <n>  Largest request body accepted, else 413 (default: 1024)");
+        System.out.println("  Query options: include-images, vector-dpi, spread-mode, png-level, png-filter, jpeg-quality,");
+        System.out.println("                 native-vectors, start-page, end-page, verify (others are rejected with 400)");
+        System.out.println("                 vector-dpi must be 1-" + ConversionHttpServer.MAX_VECTOR_DPI);
+        System.out.println();
         System.out.println("HWPX to IDML Options:");
         System.out.println("  --progress           Output progress as JSON");
         System.out.println();
@@ -0,0 +1,700 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.analyzer.IDMLAnalyzer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.analyzer.IDMLStructureSerializer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLLoader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 표준 입출력으로 줄 단위 JSON-RPC 2.0을 주고받는 상주 변환 서버.
+ *
+ * 데스크톱 앱이 요청마다 JVM을 새로 띄우고 IDML을 다시 읽지 않도록, 최근에 쓴 IDMLDocument를
+ * LRU로 메모리에 유지한다 (파일의 수정 시각이나 크기가 바뀌면 다시 읽는다).
+ *
+ * <pre>
+ * → {"jsonrpc": "2.0", "id": 1, "method": "render-image", "params": {"path": "a.idml", "frame_id": "u1a3"}}
+ * ← {"jsonrpc": "2.0", "id": 1, "result": {"data_url": "...", ...}}
+ * → {"jsonrpc": "2.0", "id": 2, "method": "convert", "params": {"path": "a.idml", "output": "a.hwpx", "options": ["--include-images"]}}
+ * ← {"jsonrpc": "2.0", "method": "progress", "params": {"id": 2, "current": 2, "total": 4, "message": "..."}}
+ * ← {"jsonrpc": "2.0", "id": 2, "result": {"pages_converted": 12, ...}}
+ * </pre>
+ *
+ * 메서드:
+ * <ul>
+ *   <li>analyze {path} - --analyze와 같은 구조 JSON</li>
+ *   <li>render-vector {path, frame_id, dpi?} - --render-vector와 같은 결과</li>
+ *   <li>render-image {path, frame_id, dpi?, links_directory?} - --render-image와 같은 결과</li>
+ *   <li>text-frame-detail {path, frame_id} - --text-frame-detail과 같은 결과</li>
+ *   <li>convert {path, output, options?} - options는 --convert의 옵션 문자열 배열. 진행률을 progress 알림으로 보낸다</li>
+ *   <li>cancel {id} - 진행 중인 요청 취소 (그 요청은 -32800 오류로 응답)</li>
+ *   <li>shutdown - 진행 중인 요청을 마치고 종료 (입력이 끝나도 종료)</li>
+ * </ul>
+ *
+ * 요청은 작업자 스레드에서 동시에 처리되며 응답은 끝나는 순서대로 나간다. 같은 문서에 대한
+ * 읽기 요청(analyze, render-vector, render-image, text-frame-detail)은 문서를 함께 쓰고, convert는
+ * 그 문서를 혼자 쓴다. 차례를 기다리는 요청은 작업자를 차지하지 않고 문서별 대기열에서 기다린다.
+ * 취소된 요청은 즉시 응답하고 작업자를 interrupt하며, 작업이 뒤늦게 끝나면 결과를 버린다
+ * (convert였다면 만들다 만 출력 파일도 지운다).
+ * 표준 출력은 프로토콜 전용이므로 서버가 실행되는 동안 System.out은 표준 오류로 돌린다.
+ */
+public class ConverterServer {
+
+    static final int PARSE_ERROR = -32700;
+    static final int INVALID_REQUEST = -32600;
+    static final int METHOD_NOT_FOUND = -32601;
+    static final int INVALID_PARAMS = -32602;
+    static final int SERVER_ERROR = -32000;
+    static final int REQUEST_CANCELLED = -32800;
+
+    /**
+     * 기본 문서 캐시 크기와 작업자 수.
+     */
+    public static final int DEFAULT_MAX_DOCUMENTS = 4;
+
+    public static int defaultWorkers() {
+        return Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    private final DocumentCache documents;
+    private final ExecutorService workers;
+    private final PrintStream out;
+    private final Map<String, Request> running = new ConcurrentHashMap<String, Request>();
+    // 응답하지 않은 요청 수 (문서 대기열에 있는 요청 포함)
+    private final Object pendingLock = new Object();
+    private int pending;
+
+    /**
+     * @param maxDocuments 메모리에 유지할 IDML 문서 수
+     * @param workers      동시에 처리할 요청 수
+     * @param out          응답과 알림을 쓸 출력
+     */
+    public ConverterServer(int maxDocuments, int workers, PrintStream out) {
+        this.documents = new DocumentCache(Math.max(1, maxDocuments));
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workers), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "idml-serve-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.out = out;
+    }
+
+    /**
+     * 표준 입출력으로 서버를 실행한다. 입력이 끝나거나 shutdown 요청을 받으면 반환한다.
+     */
+    public static void serve(int maxDocuments, int workers) throws IOException, InterruptedException {
+        PrintStream protocol = System.out;
+        System.setOut(System.err);
+        try {
+            System.err.println("[INFO] 변환 서버 시작: 문서 캐시 " + maxDocuments + "개, 작업자 " + workers + "개");
+            new ConverterServer(maxDocuments, workers, protocol).run(System.in);
+        } finally {
+            System.setOut(protocol);
+        }
+    }
+
+    /**
+     * 요청을 한 줄씩 읽어 처리한다. 입력이 끝나거나 shutdown 요청을 받으면
+     * 진행 중인 요청이 끝나기를 기다린 뒤 캐시된 문서를 정리하고 반환한다.
+     */
+    public void run(InputStream in) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                boolean more;
+                try {
+                    more = dispatch(line);
+                } catch (RuntimeException e) {
+                    // 요청 하나의 잘못으로 서버가 멈추지 않도록 오류 응답만 보낸다
+                    sendError(null, SERVER_ERROR, "Internal error: " + e, null);
+                    more = true;
+                }
+                if (!more) {
+                    break;
+                }
+            }
+        } finally {
+            // 문서 대기열의 요청은 앞 요청이 끝날 때 작업자에 넘겨지므로 모두 끝난 뒤에 닫는다
+            synchronized (pendingLock) {
+                while (pending > 0) {
+                    pendingLock.wait();
+                }
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            documents.clear();
+        }
+    }
+
+    /**
+     * @return 계속 읽을지 여부 (shutdown이면 false)
+     */
+    private boolean dispatch(String line) {
+        JsonObject message;
+        try {
+            JsonElement parsed = JsonParser.parseString(line);
+            if (!parsed.isJsonObject()) {
+                sendError(null, INVALID_REQUEST, "Request must be a JSON object", null);
+                return true;
+            }
+            message = parsed.getAsJsonObject();
+        } catch (RuntimeException e) {
+            sendError(null, PARSE_ERROR, "Parse error: " + e.getMessage(), null);
+            return true;
+        }
+
+        JsonElement id = message.get("id");
+        JsonElement methodElement = message.get("method");
+        JsonObject params = message.has("params") && message.get("params").isJsonObject()
+                ? message.getAsJsonObject("params") : new JsonObject();
+        if (methodElement == null) {
+            sendError(id, INVALID_REQUEST, "Missing method", null);
+            return true;
+        }
+        if (!methodElement.isJsonPrimitive() || !methodElement.getAsJsonPrimitive().isString()) {
+            sendError(id, INVALID_REQUEST, "Method must be a string", null);
+            return true;
+        }
+        String method = methodElement.getAsString();
+
+        if ("shutdown".equals(method)) {
+            if (id != null) {
+                sendResult(id, "null");
+            }
+            return false;
+        }
+        if ("cancel".equals(method)) {
+            cancel(params.get("id"));
+            if (id != null) {
+                sendResult(id, "null");
+            }
+            return true;
+        }
+        if (!isKnownMethod(method)) {
+            sendError(id, METHOD_NOT_FOUND, "Method not found: " + method, null);
+            return true;
+        }
+
+        Request request = new Request(id, method, params);
+        if (id != null) {
+            running.put(id.toString(), request);
+        }
+        synchronized (pendingLock) {
+            pending++;
+        }
+        JsonElement path = params.get("path");
+        if (path != null && path.isJsonPrimitive()) {
+            request.document = documents.get(path.getAsString());
+            request.document.submit(request, "convert".equals(method), workers);
+        } else {
+            workers.execute(request);  // execute에서 INVALID_PARAMS로 응답한다
+        }
+        return true;
+    }
+
+    private static boolean isKnownMethod(String method) {
+        return "analyze".equals(method) || "render-vector".equals(method) || "render-image".equals(method)
+                || "text-frame-detail".equals(method) || "convert".equals(method);
+    }
+
+    private void cancel(JsonElement targetId) {
+        Request request = targetId != null ? running.get(targetId.toString()) : null;
+        if (request == null || !request.responded.compareAndSet(false, true)) {
+            return;
+        }
+        running.remove(targetId.toString());
+        request.interrupt();
+        sendError(request.id, REQUEST_CANCELLED, "Request cancelled", null);
+    }
+
+    /**
+     * 작업자 스레드에서 실행되는 요청 하나.
+     */
+    private class Request implements Runnable {
+        final JsonElement id;
+        final String method;
+        final JsonObject params;
+        // 작업자와 취소 중 먼저 차지한 쪽만 응답한다
+        final AtomicBoolean responded = new AtomicBoolean();
+        CachedDocument document;
+        // convert가 쓰기 시작한 출력 파일 (취소되면 지운다)
+        volatile String output;
+        private Thread worker;
+
+        Request(JsonElement id, String method, JsonObject params) {
+            this.id = id;
+            this.method = method;
+            this.params = params;
+        }
+
+        public void run() {
+            try {
+                if (responded.get()) {
+                    return;  // 시작 전에 취소됨
+                }
+                synchronized (this) {
+                    worker = Thread.currentThread();
+                }
+                try {
+                    respond();
+                } finally {
+                    synchronized (this) {
+                        worker = null;
+                        Thread.interrupted();  // 늦게 온 취소가 다음 요청에 번지지 않도록
+                    }
+                }
+            } finally {
+                synchronized (pendingLock) {
+                    pending--;
+                    pendingLock.notifyAll();
+                }
+            }
+        }
+
+        synchronized void interrupt() {
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+
+        private void respond() {
+            int code = 0;
+            String result = null;
+            String error = null;
+            String data = null;
+            try {
+                result = execute(this);
+            } catch (IllegalArgumentException e) {
+                code = INVALID_PARAMS;
+                error = e.getMessage();
+            } catch (ConvertException e) {
+                code = SERVER_ERROR;
+                error = e.getMessage();
+                data = e.phase() != null ? "{\"phase\": \"" + e.phase().name() + "\"}" : null;
+            } catch (Throwable t) {
+                code = SERVER_ERROR;
+                error = String.valueOf(t);
+            }
+            if (id != null) {
+                running.remove(id.toString());
+            }
+            if (id == null || !responded.compareAndSet(false, true)) {
+                // 알림이거나 이미 취소로 응답함
+                if (id != null && output != null) {
+                    new File(output).delete();
+                }
+                return;
+            }
+            if (error == null) {
+                sendResult(id, result);
+            } else {
+                sendError(id, code, error, data);
+            }
+        }
+
+        void progress(int current, int total, String message) {
+            if (id == null || responded.get()) {
+                return;
+            }
+            send("{\"jsonrpc\": \"2.0\", \"method\": \"progress\", \"params\": {\"id\": " + id
+                    + ", \"current\": " + current + ", \"total\": " + total
+                    + ", \"message\": " + JsonProgressReporter.jsonString(message) + "}}");
+        }
+    }
+
+    private String execute(final Request request) throws Exception {
+        JsonObject params = request.params;
+        final String path = requireString(params, "path");
+        CachedDocument document = request.document;
+
+        if ("convert".equals(request.method)) {
+            final String output = requireString(params, "output");
+            final ConvertOptions options = convertOptions(params.get("options"));
+            final ProgressReporter reporter = new ProgressReporter() {
+                @Override
+                public void reportProgress(int current, int total, String message) {
+                    request.progress(current, total, message);
+                }
+
+                @Override
+                public void reportComplete(ConvertResult result) {
+                }
+
+                @Override
+                public void reportError(String message) {
+                }
+            };
+            request.output = output;
+            ConvertResult result = IDMLToHwpxConverter.convert(document.document(), new File(path).getName(),
+                    output, options, reporter);
+            return convertResultJson(result);
+        }
+
+        String frameId = "analyze".equals(request.method) ? null : requireString(params, "frame_id");
+        int dpi = params.has("dpi") ? params.get("dpi").getAsInt() : 150;
+        String linksDirectory = params.has("links_directory")
+                ? params.get("links_directory").getAsString() : null;
+        IDMLDocument doc = document.document();
+        String json;
+        if ("analyze".equals(request.method)) {
+            json = IDMLStructureSerializer.toJson(IDMLAnalyzer.analyzeDocument(doc));
+        } else if ("render-vector".equals(request.method)) {
+            json = ConverterCLI.renderVectorJson(doc, frameId, dpi);
+        } else if ("render-image".equals(request.method)) {
+            json = ConverterCLI.renderImageJson(doc, frameId, dpi, linksDirectory);
+        } else {
+            json = ConverterCLI.textFrameDetailJson(doc, frameId);
+        }
+        // 여러 줄로 만들어진 결과를 한 줄로
+        return JsonParser.parseString(json).toString();
+    }
+
+    private static String requireString(JsonObject params, String name) {
+        JsonElement value = params.get(name);
+        if (value == null || !value.isJsonPrimitive()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.getAsString();
+    }
+
+    private static ConvertOptions convertOptions(JsonElement element) {
+        ConvertOptions options = ConvertOptions.defaults();
+        if (element == null || !element.isJsonArray()) {
+            return options;
+        }
+        JsonArray array = element.getAsJsonArray();
+        String[] args = new String[array.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = array.get(i).getAsString();
+        }
+        for (int i = 0; i < args.length; i++) {
+            int next = ConverterCLI.parseConvertOption(args, i, options);
+            if (next < 0) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            i = next;
+        }
+        return options;
+    }
+
+    private static String convertResultJson(ConvertResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"pages_converted\": ").append(result.pagesConverted());
+        sb.append(", \"pages_reused\": ").append(result.pagesReused());
+        sb.append(", \"frames_converted\": ").append(result.framesConverted());
+        sb.append(", \"images_converted\": ").append(result.imagesConverted());
+        sb.append(", \"phases\": {");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : result.phaseMillis().entrySet()) {
+            if (!first) sb.append(", ");
+            first = false;
+            sb.append(JsonProgressReporter.jsonString(entry.getKey())).append(": ").append(entry.getValue());
+        }
+        sb.append("}, \"warnings\": [");
+        first = true;
+        for (String warning : result.warnings()) {
+            if (!first) sb.append(", ");
+            first = false;
+            sb.append(JsonProgressReporter.jsonString(warning));
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    // ── 응답 출력 ──
+
+    private void sendResult(JsonElement id, String resultJson) {
+        send("{\"jsonrpc\": \"2.0\", \"id\": " + id + ", \"result\": " + resultJson + "}");
+    }
+
+    private void sendError(JsonElement id, int code, String message, String dataJson) {
+        send("{\"jsonrpc\": \"2.0\", \"id\": " + id + ", \"error\": {\"code\": " + code
+                + ", \"message\": " + JsonProgressReporter.jsonString(message)
+                + (dataJson != null ? ", \"data\": " + dataJson : "") + "}}");
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    // ── 문서 캐시 ──
+
+    /**
+     * 파일 하나의 로드된 문서와 그 문서를 쓰는 요청의 대기열. 처음 쓸 때 로드하고,
+     * 캐시에서 밀려난 뒤 쓰는 요청이 모두 끝나면 정리 스레드에서 정리한다.
+     *
+     * 읽기 요청은 함께 실행되고 배타 요청(convert)은 혼자 실행된다. 대기열은 들어온 순서대로
+     * 풀리므로 배타 요청 뒤의 읽기 요청은 배타 요청이 끝날 때까지 기다린다.
+     */
+    static class CachedDocument {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+        private final Executor closer;
+        private IDMLDocument doc;
+        private boolean closed;
+
+        // 아래 상태는 waiting으로 보호한다
+        private final ArrayDeque<Queued> waiting = new ArrayDeque<Queued>();
+        private int readers;
+        private boolean exclusive;
+        private boolean evicted;
+
+        CachedDocument(File file, Executor closer) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.closer = closer;
+        }
+
+        boolean isCurrent() {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        synchronized IDMLDocument document() throws ConvertException {
+            if (closed) {
+                throw new ConvertException(ConvertException.Phase.PARSING, "Document already closed: " + file);
+            }
+            if (doc == null) {
+                doc = IDMLLoader.load(file);
+            }
+            return doc;
+        }
+
+        synchronized void close() {
+            closed = true;
+            if (doc != null) {
+                doc.cleanup();
+                doc = null;
+            }
+        }
+
+        /**
+         * 이 문서를 쓰는 작업을 대기열에 넣는다. 차례가 되면 executor에서 실행된다.
+         */
+        void submit(Runnable task, boolean exclusive, Executor executor) {
+            List<Runnable> ready;
+            synchronized (waiting) {
+                waiting.add(new Queued(task, exclusive, executor));
+                ready = takeReady();
+            }
+            for (Runnable runnable : ready) {
+                runnable.run();
+            }
+        }
+
+        /**
+         * 캐시에서 밀려났음을 표시한다. 쓰는 작업이 없으면 바로, 있으면 마지막 작업이 끝난 뒤 정리한다.
+         */
+        void evict() {
+            boolean idle;
+            synchronized (waiting) {
+                evicted = true;
+                idle = isIdle();
+            }
+            if (idle) {
+                closeLater();
+            }
+        }
+
+        private void finished(boolean wasExclusive) {
+            List<Runnable> ready;
+            boolean idle;
+            synchronized (waiting) {
+                if (wasExclusive) {
+                    exclusive = false;
+                } else {
+                    readers--;
+                }
+                ready = takeReady();
+                idle = evicted && isIdle();
+            }
+            for (Runnable runnable : ready) {
+                runnable.run();
+            }
+            if (idle) {
+                closeLater();
+            }
+        }
+
+        // waiting을 잡은 상태에서 호출한다. 실행할 수 있게 된 작업을 executor에 넘기는 동작을 돌려준다
+        private List<Runnable> takeReady() {
+            List<Runnable> ready = new ArrayList<Runnable>();
+            while (!waiting.isEmpty() && !exclusive) {
+                final Queued next = waiting.peek();
+                if (next.exclusive && readers > 0) {
+                    break;
+                }
+                waiting.poll();
+                if (next.exclusive) {
+                    exclusive = true;
+                } else {
+                    readers++;
+                }
+                ready.add(new Runnable() {
+                    public void run() {
+                        next.executor.execute(new Runnable() {
+                            public void run() {
+                                try {
+                                    next.task.run();
+                                } finally {
+                                    finished(next.exclusive);
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+            return ready;
+        }
+
+        private boolean isIdle() {
+            return readers == 0 && !exclusive && waiting.isEmpty();
+        }
+
+        private void closeLater() {
+            closer.execute(new Runnable() {
+                public void run() {
+                    close();
+                }
+            });
+        }
+
+        private static class Queued {
+            final Runnable task;
+            final boolean exclusive;
+            final Executor executor;
+
+            Queued(Runnable task, boolean exclusive, Executor executor) {
+                this.task = task;
+                this.exclusive = exclusive;
+                this.executor = executor;
+            }
+        }
+    }
+
+    /**
+     * 최근에 쓴 순서의 문서 LRU. 파일이 바뀐 문서는 다시 읽는다.
+     * 밀려난 문서는 요청을 처리하는 스레드가 아닌 정리 스레드에서 정리한다.
+     */
+    static class DocumentCache {
+        private final int capacity;
+        private final LinkedHashMap<String, CachedDocument> entries =
+                new LinkedHashMap<String, CachedDocument>(16, 0.75f, true);
+        private final ExecutorService closer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "idml-serve-close");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        private int hits;
+        private int misses;
+
+        DocumentCache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        CachedDocument get(String path) {
+            File file = new File(path).getAbsoluteFile();
+            String key;
+            try {
+                key = file.getCanonicalPath();
+            } catch (IOException e) {
+                key = file.getPath();
+            }
+
+            List<CachedDocument> evicted = new ArrayList<CachedDocument>();
+            CachedDocument entry;
+            synchronized (this) {
+                entry = entries.get(key);
+                if (entry != null && !entry.isCurrent()) {
+                    entries.remove(key);
+                    evicted.add(entry);
+                    entry = null;
+                }
+                if (entry != null) {
+                    hits++;
+                } else {
+                    misses++;
+                    entry = new CachedDocument(file, closer);
+                    entries.put(key, entry);
+                    Iterator<CachedDocument> it = entries.values().iterator();
+                    while (entries.size() > capacity && it.hasNext()) {
+                        evicted.add(it.next());
+                        it.remove();
+                    }
+                }
+            }
+            // 사용 중인 문서는 작업이 끝난 후 정리된다
+            for (CachedDocument old : evicted) {
+                old.evict();
+            }
+            return entry;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized int hits() {
+            return hits;
+        }
+
+        synchronized int misses() {
+            return misses;
+        }
+
+        /**
+         * 모든 문서를 정리한다. 앞서 밀려난 문서의 정리가 끝날 때까지 기다린다.
+         */
+        void clear() throws InterruptedException {
+            List<CachedDocument> all;
+            synchronized (this) {
+                all = new ArrayList<CachedDocument>(entries.values());
+                entries.clear();
+            }
+            for (CachedDocument entry : all) {
+                entry.evict();
+            }
+            closer.shutdown();
+            closer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 디스크 캐시 키에 넣는 변환기 빌드 식별자.
+ *
+ * jar의 Implementation-Version과 변환기 코드 위치의 크기·수정 시각으로 만든다
+ * (jar면 jar 파일, 클래스 디렉토리면 그 아래 변환기 클래스 파일 중 가장 늦은 수정 시각).
+ * 다시 빌드하면 값이 바뀌므로 이전 빌드가 만든 스냅샷이나 변환 결과를 읽지 않는다.
+ */
+public final class ConverterVersion {
+    private static volatile String id;
+
+    private ConverterVersion() {
+    }
+
+    /**
+     * 16진수 8자리 빌드 식별자. 프로세스마다 한 번만 계산한다.
+     */
+    public static String id() {
+        String value = id;
+        if (value == null) {
+            value = compute();
+            id = value;
+        }
+        return value;
+    }
+
+    private static String compute() {
+        StringBuilder source = new StringBuilder();
+        Package pkg = ConverterVersion.class.getPackage();
+        if (pkg != null && pkg.getImplementationVersion() != null) {
+            source.append(pkg.getImplementationVersion());
+        }
+        File location = codeLocation();
+        if (location != null) {
+            source.append('|').append(location.getAbsolutePath());
+            if (location.isDirectory()) {
+                File classDir = new File(location, ConverterVersion.class.getPackage().getName().replace('.', '/'));
+                source.append('|').append(latestModified(classDir));
+            } else {
+                source.append('|').append(location.length()).append('|').append(location.lastModified());
+            }
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 4; i++) {
+                sb.append(String.format("%02x", digest[i] & 0xff));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(source.toString().hashCode());
+        }
+    }
+
+    private static File codeLocation() {
+        try {
+            CodeSource codeSource = ConverterVersion.class.getProtectionDomain().getCodeSource();
+            URL url = codeSource != null ? codeSource.getLocation() : null;
+            return url != null ? new File(url.toURI()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static long latestModified(File dir) {
+        long latest = dir.lastModified();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                latest = Math.max(latest, f.isDirectory() ? latestModified(f) : f.lastModified());
+            }
+        }
+        return latest;
+    }
+}
@@ -4,13 +4,21 @@ import kr.dogfoot.hwpxlib.object.HWPXFile;
 import kr.dogfoot.hwpxlib.writer.HWPXWriter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IDMLToIntermediateConverter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IntermediateToHwpxConverter;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.PagePipeline;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLLoader;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.BlobStore;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediatePageReader;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.JsonDeserializer;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.JsonSerializer;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 
 /**
  * IDML → HWPX 변환 메인 파사드.
@@ -26,6 +34,10 @@ import java.io.File;
  *
  * // JSON → HWPX
  * IDMLToHwpxConverter.fromJson(json, "output.hwpx");
+ *
+ * // 증분 변환: 바뀌지 않은 스프레드의 페이지는 캐시에서 가져온다
+ * IDMLToHwpxConverter.convert("input.idml", "output.hwpx",
+ *         ConvertOptions.defaults().incrementalCacheDir("build/idml-pages"));
  * }</pre>
  *
  * CLI:
@@ -61,36 +73,134 @@ public class IDMLToHwpxConverter {
                                          ConvertOptions options,
                                          ProgressReporter reporter) throws ConvertException {
         // Phase 1: IDML 로드
+        long start = System.nanoTime();
         IDMLDocument idmlDoc = IDMLLoader.load(idmlPath);
+        long loadMillis = millisBetween(start, System.nanoTime());
         try {
-            // Phase 2: IDML → Intermediate
-            String sourceFileName = new File(idmlPath).getName();
-            IDMLToIntermediateConverter.Result intermediateResult =
-                    IDMLToIntermediateConverter.convert(idmlDoc, options, sourceFileName);
-            IntermediateDocument intermediate = intermediateResult.document();
+            reporter.reportProgress(1, 4, "IDML 로드 완료");
+            return convertLoaded(idmlDoc, new File(idmlPath).getName(), hwpxPath, options, reporter, loadMillis);
+        } finally {
+            idmlDoc.cleanup();
+        }
+    }
 
-            // Phase 3: Intermediate → HWPX
-            ConvertResult result = IntermediateToHwpxConverter.convert(intermediate);
+    /**
+     * 이미 로드된 IDML 문서를 HWPX 파일로 변환한다. 문서는 정리(cleanup)하지 않으므로
+     * 같은 문서를 여러 번 변환할 수 있다.
+     *
+     * 단계마다 진행률을 보고하고, 호출 스레드가 interrupt되면 다음 단계로 넘어가기 전에
+     * ConvertException으로 중단한다.
+     *
+     * @param idmlDoc        로드된 IDML 문서
+     * @param sourceFileName 원본 파일 이름 (중간 문서의 출처 표시용)
+     * @param hwpxPath       출력 HWPX 파일 경로
+     * @param options        변환 옵션
+     * @param reporter       진행률 보고기
+     * @return 변환 결과 (경고, 통계)
+     */
+    public static ConvertResult convert(IDMLDocument idmlDoc, String sourceFileName, String hwpxPath,
+                                        ConvertOptions options,
+                                        ProgressReporter reporter) throws ConvertException {
+        return convertLoaded(idmlDoc, sourceFileName, hwpxPath, options, reporter, -1);
+    }
 
-            // 중간 변환 경고 전파
-            for (String warning : intermediateResult.warnings()) {
-                result.addWarning(warning);
-            }
+    /**
+     * Phase 2~4. loadMillis가 0 이상이면 첫 단계 "load"로 기록한다.
+     */
+    private static ConvertResult convertLoaded(IDMLDocument idmlDoc, String sourceFileName, String hwpxPath,
+                                               ConvertOptions options, ProgressReporter reporter,
+                                               long loadMillis) throws ConvertException {
+        long start = System.nanoTime();
+        checkInterrupted(ConvertException.Phase.PARSING);
+        if (options.pipelineDepth() > 0 && !options.spreadBasedConversion()) {
+            // Phase 2~4를 페이지 단위로 겹쳐 실행
+            ConvertResult result = convertPipelined(idmlDoc, options, sourceFileName, hwpxPath);
+            recordLoad(result, loadMillis);
+            result.phaseMillis("pipeline", millisBetween(start, System.nanoTime()));
+            reporter.reportProgress(4, 4, "HWPX 저장 완료");
+            reporter.reportComplete(result);
+            return result;
+        }
 
-            // Phase 4: HWPX 파일 저장
-            try {
-                HWPXWriter.toFilepath(result.hwpxFile(), hwpxPath);
-            } catch (Exception e) {
-                throw new ConvertException(ConvertException.Phase.HWPX_GENERATION,
-                        "Failed to write HWPX file: " + e.getMessage(), e);
-            }
+        // Phase 2: IDML → Intermediate
+        IDMLToIntermediateConverter.Result intermediateResult =
+                IDMLToIntermediateConverter.convert(idmlDoc, options, sourceFileName);
+        IntermediateDocument intermediate = intermediateResult.document();
+        long intermediateDone = System.nanoTime();
+        reporter.reportProgress(2, 4, "중간 형식 변환 완료");
+        checkInterrupted(ConvertException.Phase.HWPX_GENERATION);
 
-            // 변환 완료 보고
-            reporter.reportComplete(result);
+        // Phase 3: Intermediate → HWPX
+        ConvertResult result = IntermediateToHwpxConverter.convert(intermediate, options.sectionThreads());
+        long hwpxDone = System.nanoTime();
+        reporter.reportProgress(3, 4, "HWPX 생성 완료");
+        checkInterrupted(ConvertException.Phase.HWPX_GENERATION);
+
+        // 중간 변환 경고, 이미지 캐시 통계 전파
+        intermediateResult.copyTo(result);
+
+        // Phase 4: HWPX 파일 저장
+        try {
+            HWPXWriter.toFilepath(result.hwpxFile(), hwpxPath);
+        } catch (Exception e) {
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION,
+                    "Failed to write HWPX file: " + e.getMessage(), e);
+        }
+        reporter.reportProgress(4, 4, "HWPX 저장 완료");
+
+        recordLoad(result, loadMillis);
+        result.phaseMillis("intermediate", millisBetween(start, intermediateDone));
+        result.phaseMillis("hwpx", millisBetween(intermediateDone, hwpxDone));
+        result.phaseMillis("write", millisBetween(hwpxDone, System.nanoTime()));
+
+        // 변환 완료 보고
+        reporter.reportComplete(result);
+
+        return result;
+    }
+
+    private static void recordLoad(ConvertResult result, long loadMillis) {
+        if (loadMillis >= 0) {
+            result.phaseMillis("load", loadMillis);
+        }
+    }
+
+    private static void checkInterrupted(ConvertException.Phase phase) throws ConvertException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ConvertException(phase, "Conversion cancelled");
+        }
+    }
 
+    private static long millisBetween(long startNanos, long endNanos) {
+        return (endNanos - startNanos) / 1000000;
+    }
+
+    /**
+     * 페이지 파이프라인 변환. 실패하면 쓰다 만 출력 파일을 지운다.
+     */
+    private static ConvertResult convertPipelined(IDMLDocument idmlDoc, ConvertOptions options,
+                                                  String sourceFileName, String hwpxPath) throws ConvertException {
+        File outFile = new File(hwpxPath);
+        OutputStream out;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(outFile));
+        } catch (IOException e) {
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION,
+                    "Failed to write HWPX file: " + e.getMessage(), e);
+        }
+        boolean success = false;
+        try {
+            ConvertResult result = PagePipeline.convert(idmlDoc, options, sourceFileName, out);
+            success = true;
             return result;
         } finally {
-            idmlDoc.cleanup();
+            if (!success) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+                outFile.delete();
+            }
         }
     }
 
@@ -108,7 +218,8 @@ public class IDMLToHwpxConverter {
             String sourceFileName = new File(idmlPath).getName();
             IDMLToIntermediateConverter.Result intermediateResult =
                     IDMLToIntermediateConverter.convert(idmlDoc, options, sourceFileName);
-            ConvertResult result = IntermediateToHwpxConverter.convert(intermediateResult.document());
+            ConvertResult result = IntermediateToHwpxConverter.convert(intermediateResult.document(),
+                    options.sectionThreads());
             return result.hwpxFile();
         } finally {
             idmlDoc.cleanup();
@@ -123,12 +234,27 @@ public class IDMLToHwpxConverter {
      * @return JSON 문자열
      */
     public static String toJson(String idmlPath, ConvertOptions options) throws ConvertException {
+        return toJson(idmlPath, options, null);
+    }
+
+    /**
+     * IDML 파일을 중간 JSON 문자열로 변환한다. 이미지 바이트는 blobs에 저장하고
+     * JSON에는 참조만 기록한다.
+     *
+     * @param idmlPath IDML 파일 경로
+     * @param options  변환 옵션
+     * @param blobs    이미지 저장소 (null이면 base64로 인라인)
+     * @return JSON 문자열
+     */
+    public static String toJson(String idmlPath, ConvertOptions options, BlobStore blobs) throws ConvertException {
         IDMLDocument idmlDoc = IDMLLoader.load(idmlPath);
         try {
             String sourceFileName = new File(idmlPath).getName();
             IDMLToIntermediateConverter.Result intermediateResult =
                     IDMLToIntermediateConverter.convert(idmlDoc, options, sourceFileName);
-            return JsonSerializer.toJson(intermediateResult.document());
+            return blobs != null
+                    ? JsonSerializer.toJson(intermediateResult.document(), blobs)
+                    : JsonSerializer.toJson(intermediateResult.document());
         } finally {
             idmlDoc.cleanup();
         }
@@ -146,6 +272,33 @@ public class IDMLToHwpxConverter {
         return result.hwpxFile();
     }
 
+    /**
+     * 이미지 참조를 가진 중간 JSON 문자열을 HWPXFile로 변환한다.
+     *
+     * @param json  JSON 문자열
+     * @param blobs 이미지 참조를 읽을 저장소
+     * @return HWPXFile 객체
+     */
+    public static HWPXFile fromJson(String json, BlobStore blobs) throws ConvertException {
+        IntermediateDocument intermediate = JsonDeserializer.fromJson(json, blobs);
+        ConvertResult result = IntermediateToHwpxConverter.convert(intermediate);
+        return result.hwpxFile();
+    }
+
+    /**
+     * reader의 중간 JSON을 페이지 단위로 읽으며 HWPXFile로 변환한다.
+     * JSON 문자열이나 중간 문서 전체를 메모리에 올리지 않는다. reader는 닫지 않는다.
+     *
+     * @param reader JSON 입력
+     * @param blobs  이미지 참조를 읽을 저장소 (null이면 인라인 base64만)
+     * @return HWPXFile 객체
+     */
+    public static HWPXFile fromJson(Reader reader, BlobStore blobs) throws ConvertException {
+        IntermediatePageReader pageReader = new IntermediatePageReader(reader, blobs);
+        ConvertResult result = IntermediateToHwpxConverter.convert(pageReader);
+        return result.hwpxFile();
+    }
+
     /**
      * 중간 JSON 문자열을 HWPX 파일로 변환하여 저장한다.
      *
@@ -47,7 +47,7 @@ public class JsonProgressReporter implements ProgressReporter {
         out.flush();
     }
 
-    private static String jsonString(String value) {
+    static String jsonString(String value) {
         if (value == null) return "null";
 
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,243 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 디코딩된 링크 이미지의 문서 단위 LRU 캐시.
+ *
+ * 키는 (정규화된 경로, 수정 시각, 변형)이며 변형은 대상 DPI나 서브샘플링/영역처럼
+ * 디코딩 결과를 결정하는 값이다. 같은 로고나 배경 사진이 여러 페이지에
+ * 배치되어도 한 번만 디코딩한다. 캐시된 픽셀의 추정 크기 합이 메모리 예산을 넘으면
+ * 가장 오래 사용되지 않은 항목부터 버린다. 여러 렌더링 스레드가 공유할 수 있으며,
+ * 같은 이미지를 동시에 요청하면 한 스레드만 디코딩하고 나머지는 그 결과를 받는다.
+ * 캐시하지 않는 결과 (null, 예산보다 큰 이미지, 예산 0)도 디코딩 중에 온 요청과는 공유한다.
+ *
+ * 반환된 BufferedImage는 공유되므로 그리기 원본으로만 사용하고 수정하면 안 된다.
+ */
+public class DecodedImageCache {
+    /** 기본 메모리 예산: 256MB */
+    public static final long DEFAULT_BUDGET_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * 캐시 미스 시 이미지를 디코딩한다.
+     */
+    public interface Loader {
+        BufferedImage load() throws IOException;
+    }
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Key, Entry> entries;
+    // 디코딩 중인 항목. 디코딩한 스레드만 지운다 (결과를 캐시에 넣은 뒤)
+    private final Map<Key, FutureTask<BufferedImage>> inFlight;
+    private long currentBytes;
+    private long peakBytes;
+    private int hits;
+    private int misses;
+    private int evictions;
+
+    public DecodedImageCache(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+        this.inFlight = new HashMap<Key, FutureTask<BufferedImage>>();
+    }
+
+    /**
+     * 캐시된 이미지를 반환하거나, 없으면 loader로 디코딩해 캐시에 넣는다.
+     *
+     * @param file 해석된 이미지 파일
+     * @param dpi  대상 해상도
+     * @return 디코딩된 이미지 (loader가 null을 반환하면 null)
+     */
+    public BufferedImage get(File file, int dpi, Loader loader) throws IOException {
+        return get(file, "dpi=" + dpi, loader);
+    }
+
+    /**
+     * 캐시된 이미지를 반환하거나, 없으면 loader로 디코딩해 캐시에 넣는다.
+     *
+     * @param file    해석된 이미지 파일
+     * @param variant 디코딩 조건 (서브샘플링, 영역 등)
+     * @return 디코딩된 이미지 (loader가 null을 반환하면 null)
+     */
+    public BufferedImage get(File file, String variant, final Loader loader) throws IOException {
+        Key key = new Key(file, variant);
+        FutureTask<BufferedImage> task;
+        boolean owner = false;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry.image;
+            }
+            task = inFlight.get(key);
+            if (task == null) {
+                task = new FutureTask<BufferedImage>(new Callable<BufferedImage>() {
+                    public BufferedImage call() throws IOException {
+                        return loader.load();
+                    }
+                });
+                inFlight.put(key, task);
+                misses++;
+                owner = true;
+            } else {
+                hits++;  // 다른 스레드의 디코딩 결과를 받는다
+            }
+        }
+        if (!owner) {
+            return await(task);
+        }
+
+        try {
+            task.run();
+        } finally {
+            synchronized (this) {
+                if (task.isDone() && !task.isCancelled()) {
+                    try {
+                        BufferedImage image = task.get();
+                        if (image != null) {
+                            store(key, image);
+                        }
+                    } catch (InterruptedException | ExecutionException ignored) {
+                        // 실패는 await()가 호출자에게 전달한다
+                    }
+                }
+                inFlight.remove(key);
+            }
+        }
+        return await(task);
+    }
+
+    private static BufferedImage await(FutureTask<BufferedImage> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for image decode");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private synchronized void store(Key key, BufferedImage image) {
+        long size = estimateBytes(image);
+        if (size > budgetBytes) return;  // 예산보다 큰 이미지는 캐시하지 않는다
+
+        Entry old = entries.put(key, new Entry(image, size));
+        if (old != null) currentBytes -= old.bytes;
+        currentBytes += size;
+
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (currentBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            currentBytes -= eldest.getValue().bytes;
+            it.remove();
+            evictions++;
+        }
+        peakBytes = Math.max(peakBytes, currentBytes);
+    }
+
+    /**
+     * 디코딩된 이미지가 차지하는 메모리 추정치 (픽셀 수 × 픽셀당 바이트).
+     */
+    static long estimateBytes(BufferedImage image) {
+        int bitsPerPixel = image.getColorModel() != null ? image.getColorModel().getPixelSize() : 32;
+        long bytesPerPixel = Math.max(1, (bitsPerPixel + 7) / 8);
+        return (long) image.getWidth() * image.getHeight() * bytesPerPixel;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), currentBytes, peakBytes, budgetBytes);
+    }
+
+    /**
+     * 캐시 통계 스냅샷.
+     */
+    public static class Stats {
+        private final int hits;
+        private final int misses;
+        private final int evictions;
+        private final int entries;
+        private final long currentBytes;
+        private final long peakBytes;
+        private final long budgetBytes;
+
+        Stats(int hits, int misses, int evictions, int entries,
+              long currentBytes, long peakBytes, long budgetBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.currentBytes = currentBytes;
+            this.peakBytes = peakBytes;
+            this.budgetBytes = budgetBytes;
+        }
+
+        public int hits() { return hits; }
+        public int misses() { return misses; }
+        public int evictions() { return evictions; }
+        public int entries() { return entries; }
+        public long currentBytes() { return currentBytes; }
+        public long peakBytes() { return peakBytes; }
+        public long budgetBytes() { return budgetBytes; }
+    }
+
+    private static class Entry {
+        final BufferedImage image;
+        final long bytes;
+
+        Entry(BufferedImage image, long bytes) {
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+
+    private static class Key {
+        private final String path;
+        private final long lastModified;
+        private final String variant;
+
+        Key(File file, String variant) {
+            String p;
+            try {
+                p = file.getCanonicalPath();
+            } catch (IOException e) {
+                p = file.getAbsolutePath();
+            }
+            this.path = p;
+            this.lastModified = file.lastModified();
+            this.variant = variant;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return lastModified == other.lastModified && variant.equals(other.variant)
+                    && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = path.hashCode();
+            h = 31 * h + (int) (lastModified ^ (lastModified >>> 32));
+            h = 31 * h + variant.hashCode();
+            return h;
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
 
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.*;
-import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileConverter;
+import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileCache;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.*;
 import java.net.URLDecoder;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * IDML 페이지를 PNG 이미지로 렌더링한다.
@@ -23,11 +33,90 @@ public class IDMLPageRenderer {
     private final IDMLDocument idmlDoc;
     private final Map<String, String> colorMap;  // colorRef -> "#RRGGBB"
     private final int dpi;
+    private final DecodedImageCache imageCache;
+    private int bandHeight;
+    private RasterEncoder encoder = new RasterEncoder();
+    private Set<IDMLVectorShape> skipShapes = Collections.emptySet();
+    private DesignFileCache designFiles;
+    private RasterCache rasterCache;
+    private int previewBox;
+    private final Map<File, int[]> sourceSizes = new HashMap<File, int[]>();  // 이미지 헤더 크기 (읽을 수 없으면 NO_SOURCE_SIZE)
+    private Map<String, BufferedImage> bandImages;  // 띠 렌더링 중인 영역에서 디코딩한 이미지 (캐시 예산과 무관하게 띠끼리 공유)
+
+    private static final int[] NO_SOURCE_SIZE = new int[0];
+
+    /** renderPreviews()의 기본 미리보기 크기 (긴 변, 픽셀) */
+    public static final int DEFAULT_PREVIEW_BOX = 256;
+
+    /** 이 간격(points)보다 가까운 항목은 하나의 타일로 합친다 */
+    static final double TILE_MERGE_GAP_PT = 36.0;
+    /** 페이지당 최대 타일 수 */
+    static final int MAX_TILES = 8;
 
     public IDMLPageRenderer(IDMLDocument idmlDoc, int dpi) {
+        this(idmlDoc, dpi, new DecodedImageCache(DecodedImageCache.DEFAULT_BUDGET_BYTES));
+    }
+
+    /**
+     * @param imageCache 여러 렌더러(페이지)가 공유하는 디코딩 이미지 캐시
+     */
+    public IDMLPageRenderer(IDMLDocument idmlDoc, int dpi, DecodedImageCache imageCache) {
         this.idmlDoc = idmlDoc;
         this.colorMap = idmlDoc.colors();
         this.dpi = dpi;
+        this.imageCache = imageCache;
+    }
+
+    /**
+     * 페이지를 렌더링할 띠 높이 (픽셀 행). 0 이하이면 페이지 전체를 한 번에 렌더링한다.
+     */
+    public IDMLPageRenderer bandHeight(int bandHeight) {
+        this.bandHeight = bandHeight;
+        return this;
+    }
+
+    /**
+     * 래스터 인코더 (PNG 압축 설정, 팔레트/JPEG 자동 선택).
+     */
+    public IDMLPageRenderer encoder(RasterEncoder encoder) {
+        this.encoder = encoder;
+        return this;
+    }
+
+    /**
+     * 렌더링된 래스터 캐시. 같은 모양/스타일/픽셀 크기의 래스터는 다시 그리지 않는다.
+     * null이면 캐시하지 않는다.
+     */
+    public IDMLPageRenderer rasterCache(RasterCache rasterCache) {
+        this.rasterCache = rasterCache;
+        return this;
+    }
+
+    /**
+     * 디자인 파일 (PSD, AI, EPS, PDF, TIFF) PNG 변환 캐시. 변환기는 자신의 캐시를 넘긴다.
+     * 지정하지 않으면 이 렌더러 전용 캐시 (기본 디렉토리, 프로세스 1개)를 처음 쓸 때 만든다.
+     */
+    public IDMLPageRenderer designFiles(DesignFileCache designFiles) {
+        this.designFiles = designFiles;
+        return this;
+    }
+
+    /**
+     * 미리보기 모드. 0보다 크면 각 결과의 긴 변이 이 픽셀 수에 맞도록 축소해 렌더링하고
+     * (DPI보다 커지지는 않음), 안티앨리어싱/보간 없이 그리며, 이미지 프레임도 서브샘플링으로 디코딩한다.
+     * 인벤토리 썸네일처럼 정확도보다 속도가 중요한 경우에 사용한다.
+     */
+    public IDMLPageRenderer previewBox(int previewBox) {
+        this.previewBox = Math.max(0, previewBox);
+        return this;
+    }
+
+    /**
+     * 페이지 배경에서 제외할 벡터 도형 (HWPX 네이티브 도형으로 따로 내보내는 것).
+     */
+    public IDMLPageRenderer skipShapes(Set<IDMLVectorShape> skipShapes) {
+        this.skipShapes = skipShapes;
+        return this;
     }
 
     /**
@@ -45,33 +134,36 @@ public class IDMLPageRenderer {
     /**
      * 페이지를 PNG로 렌더링한다.
      *
+     * 페이지 전체를 띠 단위로 렌더링한다 (renderRegion 참조).
+     *
      * @param spread 스프레드
      * @param page   페이지
      * @param linksDirectory 이미지 파일 검색 디렉토리 (옵션)
      * @param drawPageBoundary 페이지 경계선 그리기 여부
-     * @return PNG 바이트 배열
+     * @return 이미지 바이트 배열 (인코더 설정에 따라 PNG 또는 JPEG)
      */
     public byte[] renderPage(IDMLSpread spread, IDMLPage page, String linksDirectory,
                               boolean drawPageBoundary) throws IOException {
+        return renderPageImage(spread, page, linksDirectory, drawPageBoundary).pngData();
+    }
+
+    /**
+     * 페이지 전체를 렌더링해 인코딩 정보와 함께 반환한다.
+     *
+     * @return 페이지 크기(points)와 인코더 정보를 가진 렌더링 결과
+     */
+    public RenderResult renderPageImage(IDMLSpread spread, IDMLPage page, String linksDirectory,
+                                        boolean drawPageBoundary) throws IOException {
         // 페이지 크기 (points)
         double pageWidthPt = page.widthPoints();
         double pageHeightPt = page.heightPoints();
 
-        // 픽셀 크기 (DPI 기준)
-        int pixelWidth = (int) Math.ceil(pageWidthPt * dpi / 72.0);
-        int pixelHeight = (int) Math.ceil(pageHeightPt * dpi / 72.0);
-
         // 스케일 (points → pixels)
-        double scale = dpi / 72.0;
-
-        // 투명 배경 이미지 생성
-        BufferedImage image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
+        double scale = outputScale(pageWidthPt, pageHeightPt);
 
-        // 안티앨리어싱 설정
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        // 픽셀 크기 (DPI 기준, 미리보기 모드에서는 미리보기 크기 기준)
+        int pixelWidth = (int) Math.ceil(pageWidthPt * scale);
+        int pixelHeight = (int) Math.ceil(pageHeightPt * scale);
 
         // 페이지 좌표계 변환 설정
         // 페이지의 절대 좌표를 (0,0) 기준으로 변환
@@ -81,39 +173,399 @@ public class IDMLPageRenderer {
         double[] pageAbs = IDMLGeometry.absoluteTopLeft(pageBounds, pageTransform);
         double pageTx = pageAbs[0];
         double pageTy = pageAbs[1];
-
-        // 페이지 경계로 클리핑 (페이지 밖으로 확장되는 stroke 처리)
-        g.setClip(0, 0, pixelWidth, pixelHeight);
+        Rectangle pageArea = new Rectangle(0, 0, pixelWidth, pixelHeight);
 
         // z-order 순서로 모든 렌더링 항목 (이미지 + 벡터) 가져오기
+        List<IDMLSpread.RenderableItem> items = renderableItems(spread, page);
+
+        RasterEncoder.Encoded encoded = renderRegion(items, pageTx, pageTy, scale, linksDirectory,
+                pageArea, pageArea, drawPageBoundary);
+        return new RenderResult(encoded, 0, 0, pageWidthPt, pageHeightPt, pixelWidth, pixelHeight);
+    }
+
+    /**
+     * 페이지에서 실제로 그려지는 영역만 PNG 타일로 렌더링한다.
+     *
+     * 렌더링 항목마다 픽셀 경계 상자를 구하고, 서로 가까운(TILE_MERGE_GAP_PT 이내) 상자를
+     * 합쳐 타일을 만든다. 타일이 MAX_TILES개를 넘으면 전체 합집합 하나로 렌더링한다.
+     * 렌더링 항목이 없으면 빈 목록을 반환한다. 페이지 경계선을 그리는 경우에는
+     * 페이지 전체가 하나의 타일이 된다.
+     *
+     * @return 페이지 내 위치(points)를 가진 타일 목록 (위→아래, 왼→오른 순)
+     */
+    public List<RenderResult> renderPageTiles(IDMLSpread spread, IDMLPage page, String linksDirectory,
+                                              boolean drawPageBoundary) throws IOException {
+        double scale = outputScale(page.widthPoints(), page.heightPoints());
+        int pixelWidth = (int) Math.ceil(page.widthPoints() * scale);
+        int pixelHeight = (int) Math.ceil(page.heightPoints() * scale);
+
+        double[] pageAbs = IDMLGeometry.absoluteTopLeft(page.geometricBounds(), page.itemTransform());
+        double pageTx = pageAbs[0];
+        double pageTy = pageAbs[1];
+        Rectangle pageArea = new Rectangle(0, 0, pixelWidth, pixelHeight);
+
+        List<IDMLSpread.RenderableItem> items = renderableItems(spread, page);
+        List<Rectangle> boxes = new ArrayList<Rectangle>();
+        if (drawPageBoundary) {
+            boxes.add(pageArea);
+        } else {
+            for (IDMLSpread.RenderableItem item : items) {
+                Rectangle box = itemPixelBounds(item, pageTx, pageTy, scale);
+                box = (box != null) ? box.intersection(pageArea) : pageArea;
+                if (!box.isEmpty()) boxes.add(box);
+            }
+        }
+
+        List<Rectangle> tiles = mergeTiles(boxes, (int) Math.ceil(TILE_MERGE_GAP_PT * scale), MAX_TILES);
+        List<RenderResult> results = new ArrayList<RenderResult>();
+        for (Rectangle tile : tiles) {
+            RasterEncoder.Encoded encoded = renderRegion(items, pageTx, pageTy, scale, linksDirectory,
+                    pageArea, tile, drawPageBoundary);
+            results.add(new RenderResult(encoded, tile.x / scale, tile.y / scale,
+                    tile.width / scale, tile.height / scale, tile.width, tile.height));
+        }
+        return results;
+    }
+
+    /**
+     * 페이지의 렌더링 항목 중 skipShapes에 없는 것 (z-order 순).
+     */
+    private List<IDMLSpread.RenderableItem> renderableItems(IDMLSpread spread, IDMLPage page) {
         List<IDMLSpread.RenderableItem> items = spread.getRenderableItemsOnPage(page);
+        if (skipShapes.isEmpty()) return items;
+
+        List<IDMLSpread.RenderableItem> result = new ArrayList<IDMLSpread.RenderableItem>();
         for (IDMLSpread.RenderableItem item : items) {
-            if (item.type() == IDMLSpread.RenderableItem.Type.IMAGE) {
-                renderImage(g, item.imageFrame(), pageTx, pageTy, scale, linksDirectory);
-            } else {
-                renderVectorShape(g, item.vectorShape(), pageTx, pageTy, scale);
+            if (item.type() == IDMLSpread.RenderableItem.Type.VECTOR && skipShapes.contains(item.vectorShape())) {
+                continue;
             }
+            result.add(item);
         }
+        return result;
+    }
 
-        // 페이지 경계선 그리기 (옵션)
-        if (drawPageBoundary) {
-            drawPageBoundaryLines(g, pixelWidth, pixelHeight, scale);
+    /**
+     * 간격이 gap 이하인 상자를 합쳐 타일 목록을 만든다. 타일이 maxTiles개를 넘으면 합집합 하나를 돌려준다.
+     */
+    static List<Rectangle> mergeTiles(List<Rectangle> boxes, int gap, int maxTiles) {
+        List<Rectangle> tiles = new ArrayList<Rectangle>();
+        for (Rectangle box : boxes) {
+            tiles.add(new Rectangle(box));
         }
 
-        g.dispose();
+        for (int i = 0; i < tiles.size(); i++) {
+            boolean merged = true;
+            while (merged) {
+                merged = false;
+                // 간격이 정확히 gap인 상자도 합친다 (intersects는 맞닿은 변을 겹침으로 보지 않는다)
+                Rectangle grown = new Rectangle(tiles.get(i));
+                grown.grow(gap + 1, gap + 1);
+                for (int j = 0; j < tiles.size(); j++) {
+                    if (j == i || !grown.intersects(tiles.get(j))) continue;
+                    tiles.set(i, tiles.get(i).union(tiles.get(j)));
+                    tiles.remove(j);
+                    if (j < i) i--;
+                    merged = true;
+                    break;
+                }
+            }
+        }
+
+        if (tiles.size() > maxTiles) {
+            Rectangle all = new Rectangle(tiles.get(0));
+            for (Rectangle tile : tiles) {
+                all = all.union(tile);
+            }
+            tiles.clear();
+            tiles.add(all);
+        }
+
+        Collections.sort(tiles, new Comparator<Rectangle>() {
+            public int compare(Rectangle a, Rectangle b) {
+                if (a.y != b.y) return a.y < b.y ? -1 : 1;
+                return a.x < b.x ? -1 : (a.x == b.x ? 0 : 1);
+            }
+        });
+        return tiles;
+    }
+
+    /**
+     * 렌더링 항목이 페이지 픽셀 좌표에서 차지하는 경계 상자 (stroke와 안티앨리어싱 여유 포함).
+     * 좌표 정보가 없으면 null.
+     * 이 렌더러는 그림자/페더/광선 같은 IDML 효과를 그리지 않으므로 효과 여유는 없다.
+     * 효과를 그리게 되면 그 범위를 pad에 더해야 띠 경계에서 잘리지 않는다.
+     */
+    private Rectangle itemPixelBounds(IDMLSpread.RenderableItem item, double pageTx, double pageTy,
+                                      double scale) {
+        List<double[]> points = new ArrayList<double[]>();
+        double[] transform;
+        double pad = 2;  // 안티앨리어싱 여유 (픽셀)
+
+        if (item.type() == IDMLSpread.RenderableItem.Type.IMAGE) {
+            IDMLImageFrame frame = item.imageFrame();
+            transform = frame.itemTransform();
+            addCorners(points, frame.geometricBounds());
+        } else {
+            IDMLVectorShape shape = item.vectorShape();
+            transform = shape.itemTransform();
+            addCorners(points, shape.geometricBounds());
+            // 베지어 곡선은 제어점의 볼록 껍질 안에 있다
+            addPathPoints(points, shape.pathPoints());
+            if (shape.hasSubPaths()) {
+                for (IDMLVectorShape.SubPath subPath : shape.subPaths()) {
+                    addPathPoints(points, subPath.points());
+                }
+            }
+            if (shape.hasStroke()) {
+                pad += shape.strokeWeight() * Math.max(1.0, shape.miterLimit()) / 2 * scale;
+            }
+        }
+        if (points.isEmpty()) return null;
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (double[] pt : points) {
+            double[] abs = applyTransform(transform, pt[0], pt[1]);
+            double px = (abs[0] - pageTx) * scale;
+            double py = (abs[1] - pageTy) * scale;
+            minX = Math.min(minX, px);
+            minY = Math.min(minY, py);
+            maxX = Math.max(maxX, px);
+            maxY = Math.max(maxY, py);
+        }
+
+        int x0 = (int) Math.floor(minX - pad);
+        int y0 = (int) Math.floor(minY - pad);
+        int x1 = (int) Math.ceil(maxX + pad);
+        int y1 = (int) Math.ceil(maxY + pad);
+        return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+    }
 
-        // PNG로 인코딩
+    private static void addCorners(List<double[]> points, double[] bounds) {
+        if (bounds == null || bounds.length < 4) return;
+        // [top, left, bottom, right]
+        points.add(new double[]{bounds[1], bounds[0]});
+        points.add(new double[]{bounds[3], bounds[0]});
+        points.add(new double[]{bounds[1], bounds[2]});
+        points.add(new double[]{bounds[3], bounds[2]});
+    }
+
+    private static void addPathPoints(List<double[]> points, List<IDMLVectorShape.PathPoint> pathPoints) {
+        if (pathPoints == null) return;
+        for (IDMLVectorShape.PathPoint pt : pathPoints) {
+            points.add(new double[]{pt.anchorX(), pt.anchorY()});
+            points.add(new double[]{pt.leftX(), pt.leftY()});
+            points.add(new double[]{pt.rightX(), pt.rightY()});
+        }
+    }
+
+    /**
+     * 페이지 픽셀 좌표의 region 영역만 띠 단위로 렌더링해 PNG로 인코딩한다.
+     *
+     * 페이지 전체 래스터를 만들지 않고 bandHeight 행 단위의 띠로 나누어 그린 뒤
+     * 각 띠를 StreamingPngWriter로 바로 인코딩한다. 래스터 메모리는 띠 하나 크기로 고정되고,
+     * 여러 띠에 걸친 이미지의 디코딩 결과만 영역을 다 그릴 때까지 유지한다.
+     * 띠마다 경계 상자가 띠와 겹치는 항목만 그린다.
+     * 영역이 띠 하나에 들어가면 래스터 전체를 RasterEncoder.encode()에 넘겨 JPEG도 고려한다.
+     * rasterCache가 있으면 영역에 걸친 항목이 같은 (영역 기준 위치 포함) 타일은 다시 그리지 않는다.
+     */
+    private RasterEncoder.Encoded renderRegion(List<IDMLSpread.RenderableItem> items, double pageTx, double pageTy,
+                                double scale, String linksDirectory, Rectangle pageArea, Rectangle region,
+                                boolean drawPageBoundary) throws IOException {
+        String key = null;
+        if (rasterCache != null && rasterCache.enabled()) {
+            key = regionKey(items, pageTx, pageTy, scale, linksDirectory, pageArea, region, drawPageBoundary);
+            RasterEncoder.Encoded cached = rasterCache.get(key);
+            if (cached != null) return cached;
+        }
+        RasterEncoder.Encoded encoded = renderRegionPixels(items, pageTx, pageTy, scale, linksDirectory,
+                pageArea, region, drawPageBoundary);
+        if (key != null) rasterCache.put(key, encoded);
+        return encoded;
+    }
+
+    private RasterEncoder.Encoded renderRegionPixels(List<IDMLSpread.RenderableItem> items, double pageTx,
+                                double pageTy, double scale, String linksDirectory, Rectangle pageArea,
+                                Rectangle region, boolean drawPageBoundary) throws IOException {
+        int pixelWidth = pageArea.width;
+        int pixelHeight = pageArea.height;
+        int regionWidth = region.width;
+        int regionHeight = region.height;
+
+        // 투명 배경 띠 이미지 (모든 띠가 재사용)
+        int band = bandHeight > 0 ? Math.min(bandHeight, regionHeight) : regionHeight;
+        BufferedImage strip = new BufferedImage(regionWidth, band, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) strip.getRaster().getDataBuffer()).getData();
+
+        boolean singleBand = band == regionHeight;
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "png", baos);
-        return baos.toByteArray();
+        StreamingPngWriter png = singleBand ? null : encoder.newPngWriter(baos, regionWidth, regionHeight);
+
+        // 띠가 여럿이면 항목의 픽셀 경계 상자를 한 번만 구해 띠와 겹치는 항목만 그린다
+        Rectangle[] boxes = null;
+        if (!singleBand) {
+            boxes = new Rectangle[items.size()];
+            for (int k = 0; k < boxes.length; k++) {
+                boxes[k] = itemPixelBounds(items.get(k), pageTx, pageTy, scale);
+            }
+            // 여러 띠에 걸친 이미지는 영역을 다 그릴 때까지 한 번만 디코딩한다
+            bandImages = new HashMap<String, BufferedImage>();
+        }
+
+        try {
+            for (int bandTop = 0; bandTop < regionHeight; bandTop += band) {
+                int rows = Math.min(band, regionHeight - bandTop);
+                Arrays.fill(pixels, 0);
+
+                Graphics2D g = strip.createGraphics();
+
+                // 안티앨리어싱 설정
+                applyRenderingHints(g);
+
+                // 띠를 페이지 픽셀 좌표에 맞추고 띠 영역으로 클리핑
+                // (페이지 밖으로 확장되는 stroke도 여기서 잘린다)
+                g.translate(-region.x, -(region.y + bandTop));
+                g.setClip(region.x, region.y + bandTop, regionWidth, rows);
+
+                Rectangle bandArea = new Rectangle(region.x, region.y + bandTop, regionWidth, rows);
+                for (int k = 0; k < items.size(); k++) {
+                    // 좌표 정보가 없어 경계 상자를 구할 수 없는 항목은 항상 그린다
+                    if (boxes != null && boxes[k] != null && !boxes[k].intersects(bandArea)) continue;
+                    IDMLSpread.RenderableItem item = items.get(k);
+                    if (item.type() == IDMLSpread.RenderableItem.Type.IMAGE) {
+                        renderImage(g, item.imageFrame(), pageTx, pageTy, scale, linksDirectory, pageArea);
+                    } else {
+                        renderVectorShape(g, item.vectorShape(), pageTx, pageTy, scale);
+                    }
+                }
+
+                // 페이지 경계선 그리기 (옵션)
+                if (drawPageBoundary) {
+                    drawPageBoundaryLines(g, pixelWidth, pixelHeight, scale);
+                }
+
+                g.dispose();
+
+                if (singleBand) {
+                    return encoder.encode(strip);
+                }
+                png.writeRows(pixels, 0, regionWidth, rows);
+            }
+            png.finish();
+        } finally {
+            bandImages = null;
+            if (png != null) png.close();  // 팔레트 시도용 임시 파일 정리
+        }
+        return new RasterEncoder.Encoded(baos.toByteArray(), "png", png.encoding(), png.encodeNanos());
+    }
+
+    /**
+     * points → 픽셀 스케일. 미리보기 모드에서는 긴 변이 previewBox 픽셀이 되도록 줄인다.
+     */
+    private double outputScale(double widthPt, double heightPt) {
+        double scale = dpi / 72.0;
+        double longest = Math.max(widthPt, heightPt);
+        if (previewBox > 0 && longest > 0) {
+            scale = Math.min(scale, previewBox / longest);
+        }
+        return scale;
+    }
+
+    /**
+     * 렌더링 품질 설정. 미리보기 모드에서는 안티앨리어싱과 보간을 끈다.
+     */
+    private void applyRenderingHints(Graphics2D g) {
+        if (previewBox > 0) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+        } else {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        }
+    }
+
+    /**
+     * 미리보기 항목 종류.
+     */
+    public enum PreviewKind { PAGE, IMAGE, VECTOR }
+
+    /**
+     * 미리보기가 하나 렌더링될 때마다 호출된다.
+     */
+    public interface PreviewListener {
+        void preview(PreviewKind kind, String id, IDMLPage page, RenderResult result);
+    }
+
+    /**
+     * 문서의 모든 페이지, 이미지 프레임, 벡터 도형의 미리보기를 차례로 렌더링해
+     * 하나씩 listener로 전달한다. previewBox가 설정되지 않았으면 그동안만 256픽셀을 사용한다.
+     * 렌더링에 실패한 항목은 경고만 출력하고 건너뛴다.
+     *
+     * @param linksDirectory 이미지 파일 검색 디렉토리 (옵션)
+     * @return 전달한 미리보기 수
+     */
+    public int renderPreviews(String linksDirectory, PreviewListener listener) {
+        int savedPreviewBox = previewBox;
+        if (previewBox <= 0) previewBox = DEFAULT_PREVIEW_BOX;
+        try {
+            IDMLDocumentIndex index = idmlDoc.index();
+            int count = 0;
+
+            for (IDMLSpread spread : idmlDoc.spreads()) {
+                for (IDMLPage page : spread.pages()) {
+                    try {
+                        listener.preview(PreviewKind.PAGE, page.selfId(), page,
+                                renderPageImage(spread, page, linksDirectory, false));
+                        count++;
+                    } catch (IOException e) {
+                        System.err.println("[WARN] 페이지 미리보기 실패: " + page.selfId() + " - " + e.getMessage());
+                    }
+                }
+            }
+
+            for (IDMLSpread spread : idmlDoc.spreads()) {
+                for (IDMLImageFrame frame : spread.imageFrames()) {
+                    IDMLPage page = index.pageOf(frame.selfId());
+                    if (page == null) continue;
+                    try {
+                        RenderResult result = renderImageToPng(frame, page, linksDirectory);
+                        if (result == null) continue;
+                        listener.preview(PreviewKind.IMAGE, frame.selfId(), page, result);
+                        count++;
+                    } catch (IOException e) {
+                        System.err.println("[WARN] 이미지 미리보기 실패: " + frame.selfId() + " - " + e.getMessage());
+                    }
+                }
+                for (IDMLVectorShape shape : spread.vectorShapes()) {
+                    IDMLPage page = index.pageOf(shape.selfId());
+                    if (page == null) continue;
+                    try {
+                        RenderResult result = renderVectorToPng(shape, page);
+                        if (result == null) continue;
+                        listener.preview(PreviewKind.VECTOR, shape.selfId(), page, result);
+                        count++;
+                    } catch (IOException e) {
+                        System.err.println("[WARN] 벡터 미리보기 실패: " + shape.selfId() + " - " + e.getMessage());
+                    }
+                }
+            }
+            return count;
+        } finally {
+            previewBox = savedPreviewBox;
+        }
     }
 
     /**
      * 렌더링 결과를 담는 클래스.
-     * PNG 데이터와 페이지 내 위치/크기 정보를 포함한다.
+     * 이미지 데이터와 페이지 내 위치/크기, 인코더 정보를 포함한다.
      */
     public static class RenderResult {
         private final byte[] pngData;
+        private final String format;
+        private final String encoding;
+        private final long encodeNanos;
         private final double x;      // 페이지 내 X 위치 (points)
         private final double y;      // 페이지 내 Y 위치 (points)
         private final double width;  // 너비 (points)
@@ -123,7 +575,16 @@ public class IDMLPageRenderer {
 
         public RenderResult(byte[] pngData, double x, double y, double width, double height,
                             int pixelWidth, int pixelHeight) {
-            this.pngData = pngData;
+            this(new RasterEncoder.Encoded(pngData, "png", StreamingPngWriter.ENCODING_RGBA, 0),
+                    x, y, width, height, pixelWidth, pixelHeight);
+        }
+
+        public RenderResult(RasterEncoder.Encoded encoded, double x, double y, double width, double height,
+                            int pixelWidth, int pixelHeight) {
+            this.pngData = encoded.data();
+            this.format = encoded.format();
+            this.encoding = encoded.encoding();
+            this.encodeNanos = encoded.encodeNanos();
             this.x = x;
             this.y = y;
             this.width = width;
@@ -132,7 +593,13 @@ public class IDMLPageRenderer {
             this.pixelHeight = pixelHeight;
         }
 
+        /** 인코딩된 이미지 데이터 (형식은 format() 참조) */
         public byte[] pngData() { return pngData; }
+        /** "png" 또는 "jpg" */
+        public String format() { return format; }
+        /** 인코더 종류 ("png-rgba", "png-palette", "jpeg") */
+        public String encoding() { return encoding; }
+        public long encodeNanos() { return encodeNanos; }
         public double x() { return x; }
         public double y() { return y; }
         public double width() { return width; }
@@ -277,32 +744,41 @@ public class IDMLPageRenderer {
         if (renderW <= 0 || renderH <= 0) return null;
 
         // 픽셀 크기
-        double scale = dpi / 72.0;
+        double scale = outputScale(renderW, renderH);
         int pixelWidth = (int) Math.ceil(renderW * scale);
         int pixelHeight = (int) Math.ceil(renderH * scale);
 
         if (pixelWidth < 1 || pixelHeight < 1) return null;
 
-        // 투명 PNG 생성
-        BufferedImage image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
         // 렌더링 좌표 변환: 도형을 (0,0) 기준으로 그리기
         // 클리핑 오프셋을 적용하여 보이는 부분만 그리기
         double offsetX = pageAbs[0] + renderX - clipOffsetX;
         double offsetY = pageAbs[1] + renderY - clipOffsetY;
 
+        // 같은 모양/스타일/픽셀 크기의 도형은 캐시된 래스터를 재사용
+        String key = null;
+        if (rasterCache != null && rasterCache.enabled()) {
+            RasterCache.KeyBuilder kb = new RasterCache.KeyBuilder("vector")
+                    .add(pixelWidth).add(pixelHeight).value(scale).add(previewBox > 0);
+            addShapeKey(kb, shape, offsetX, offsetY, scale, 0, 0);
+            key = kb.build();
+            RasterEncoder.Encoded cached = rasterCache.get(key);
+            if (cached != null) {
+                return new RenderResult(cached, renderX, renderY, renderW, renderH, pixelWidth, pixelHeight);
+            }
+        }
+
+        // 투명 PNG 생성
+        BufferedImage image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        applyRenderingHints(g);
+
         renderVectorShape(g, shape, offsetX, offsetY, scale);
         g.dispose();
 
-        // PNG 인코딩
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "png", baos);
-
-        return new RenderResult(baos.toByteArray(), renderX, renderY, renderW, renderH,
-                pixelWidth, pixelHeight);
+        RasterEncoder.Encoded encoded = encoder.encode(image);
+        if (key != null) rasterCache.put(key, encoded);
+        return new RenderResult(encoded, renderX, renderY, renderW, renderH, pixelWidth, pixelHeight);
     }
 
     /**
@@ -315,8 +791,17 @@ public class IDMLPageRenderer {
      */
     public RenderResult renderImageToPng(IDMLImageFrame imgFrame, IDMLPage page,
                                           String linksDirectory) throws IOException {
-        BufferedImage srcImage = loadImage(imgFrame, linksDirectory);
-        if (srcImage == null) return null;
+        File imageFile = resolveImageFile(imgFrame, linksDirectory);
+        if (imageFile == null) return null;
+
+        // 미리보기 모드에서는 헤더의 원본 크기만 읽고 나중에 서브샘플링으로 디코딩한다
+        BufferedImage srcImage = null;
+        int[] sourceSize = previewBox > 0 ? sourceSize(imageFile) : null;
+        if (sourceSize == null) {
+            srcImage = loadImage(imageFile);
+            if (srcImage == null) return null;
+            sourceSize = new int[]{srcImage.getWidth(), srcImage.getHeight()};
+        }
 
         double[] frameBounds = imgFrame.geometricBounds();
         double[] frameTransform = imgFrame.itemTransform();
@@ -353,7 +838,7 @@ public class IDMLPageRenderer {
         if (frameW < 0.5 || frameH < 0.5) return null;
 
         // 픽셀 크기
-        double scale = dpi / 72.0;
+        double scale = outputScale(frameW, frameH);
         int pixelWidth = (int) Math.ceil(frameW * scale);
         int pixelHeight = (int) Math.ceil(frameH * scale);
 
@@ -361,7 +846,7 @@ public class IDMLPageRenderer {
 
         // graphicBounds = [left, top, right, bottom] - 이미지 콘텐츠의 좌표계 범위 (points 단위)
         double[] graphicBounds = imgFrame.graphicBounds();
-        double gLeft = 0, gTop = 0, gRight = srcImage.getWidth(), gBottom = srcImage.getHeight();
+        double gLeft = 0, gTop = 0, gRight = sourceSize[0], gBottom = sourceSize[1];
         if (graphicBounds != null && graphicBounds.length >= 4) {
             gLeft = graphicBounds[0];
             gTop = graphicBounds[1];
@@ -372,15 +857,8 @@ public class IDMLPageRenderer {
         // 그래픽 좌표 (points) → 소스 픽셀 변환 스케일
         double graphicW = gRight - gLeft;
         double graphicH = gBottom - gTop;
-        double pointsToPixelX = (graphicW > 0) ? srcImage.getWidth() / graphicW : 1.0;
-        double pointsToPixelY = (graphicH > 0) ? srcImage.getHeight() / graphicH : 1.0;
-
-        // 투명 PNG 생성
-        BufferedImage image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        double pointsToPixelX = (graphicW > 0) ? sourceSize[0] / graphicW : 1.0;
+        double pointsToPixelY = (graphicH > 0) ? sourceSize[1] / graphicH : 1.0;
 
         // 출력 좌표계로 변환:
         // 1. 페이지 원점 기준으로 이동
@@ -421,6 +899,40 @@ public class IDMLPageRenderer {
         clipPath.lineTo(c3[0], c3[1]);
         clipPath.lineTo(c4[0], c4[1]);
         clipPath.closePath();
+
+        // 같은 원본 이미지를 같은 배치/픽셀 크기로 그린 래스터는 재사용
+        String key = null;
+        if (rasterCache != null && rasterCache.enabled()) {
+            RasterCache.KeyBuilder kb = new RasterCache.KeyBuilder("image")
+                    .add(pixelWidth).add(pixelHeight).add(previewBox > 0);
+            addImageFileKey(kb, imageFile);
+            kb.add(sourceSize[0]).add(sourceSize[1]);
+            double[] m = new double[6];
+            outputTransform.getMatrix(m);
+            for (double v : m) kb.value(v);
+            for (double[] c : new double[][]{c1, c2, c3, c4}) {
+                kb.coord(c[0]).coord(c[1]);
+            }
+            key = kb.build();
+            RasterEncoder.Encoded cached = rasterCache.get(key);
+            if (cached != null) {
+                return new RenderResult(cached, frameX, frameY, frameW, frameH, pixelWidth, pixelHeight);
+            }
+        }
+
+        if (srcImage == null) {
+            // 출력 픽셀 하나에 원본 여러 픽셀이 대응하면 건너뛰며 디코딩
+            int subX = subsampling(outputTransform.getScaleX(), outputTransform.getShearY());
+            int subY = subsampling(outputTransform.getShearX(), outputTransform.getScaleY());
+            srcImage = loadImageRegion(imageFile, new Rectangle(0, 0, sourceSize[0], sourceSize[1]), subX, subY);
+            if (srcImage == null) return null;
+            outputTransform.scale(subX, subY);
+        }
+
+        // 투명 PNG 생성
+        BufferedImage image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        applyRenderingHints(g);
         g.setClip(clipPath);
 
         // 이미지 그리기
@@ -428,12 +940,134 @@ public class IDMLPageRenderer {
 
         g.dispose();
 
-        // PNG 인코딩
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "png", baos);
+        RasterEncoder.Encoded encoded = encoder.encode(image);
+        if (key != null) rasterCache.put(key, encoded);
+        return new RenderResult(encoded, frameX, frameY, frameW, frameH, pixelWidth, pixelHeight);
+    }
+
+    /**
+     * 타일/페이지 영역의 캐시 키. 영역과 겹치는 항목만 넣고, 벡터 좌표는 영역 원점 기준 픽셀로 정규화한다.
+     * 이미지는 디코딩 영역이 페이지 기준이므로 영역의 페이지 내 위치도 키에 넣는다.
+     */
+    private String regionKey(List<IDMLSpread.RenderableItem> items, double pageTx, double pageTy, double scale,
+                             String linksDirectory, Rectangle pageArea, Rectangle region,
+                             boolean drawPageBoundary) {
+        RasterCache.KeyBuilder kb = new RasterCache.KeyBuilder("region")
+                .add(region.width).add(region.height).value(scale).add(drawPageBoundary).add(previewBox > 0);
+        if (drawPageBoundary) {
+            kb.add(pageArea.width).add(pageArea.height).add(region.x).add(region.y);
+        }
+        boolean hasImage = false;
+        for (IDMLSpread.RenderableItem item : items) {
+            Rectangle box = itemPixelBounds(item, pageTx, pageTy, scale);
+            if (box != null && !box.intersects(region)) continue;
 
-        return new RenderResult(baos.toByteArray(), frameX, frameY, frameW, frameH,
-                pixelWidth, pixelHeight);
+            if (item.type() == IDMLSpread.RenderableItem.Type.IMAGE) {
+                hasImage = true;
+                IDMLImageFrame frame = item.imageFrame();
+                kb.add("img");
+                addImageFileKey(kb, findImageFile(idmlDoc, frame, linksDirectory));
+                double[] t = frame.itemTransform();
+                if (t != null && t.length >= 6) {
+                    kb.value(t[0]).value(t[1]).value(t[2]).value(t[3])
+                            .coord((t[4] - pageTx) * scale - region.x)
+                            .coord((t[5] - pageTy) * scale - region.y);
+                }
+                addValues(kb, frame.geometricBounds());
+                addValues(kb, frame.imageTransform());
+                addValues(kb, frame.graphicBounds());
+            } else {
+                kb.add("vec");
+                addShapeKey(kb, item.vectorShape(), pageTx, pageTy, scale, region.x, region.y);
+            }
+        }
+        if (hasImage) {
+            kb.add(pageArea.width).add(pageArea.height).add(region.x).add(region.y);
+        }
+        return kb.build();
+    }
+
+    /**
+     * 도형의 경로 (출력 픽셀 좌표 - dx/dy)와 채우기/선 속성을 키에 넣는다.
+     * renderVectorShape()가 그리는 것과 같은 값을 사용한다.
+     */
+    private void addShapeKey(RasterCache.KeyBuilder kb, IDMLVectorShape shape,
+                             double pageTx, double pageTy, double scale, double dx, double dy) {
+        double[] transform = shape.itemTransform();
+        if (shape.hasSubPaths()) {
+            kb.add("sub").add(shape.subPaths().size());
+            for (IDMLVectorShape.SubPath subPath : shape.subPaths()) {
+                kb.add(subPath.isOpen());
+                addPathKey(kb, subPath.points(), transform, pageTx, pageTy, scale, dx, dy);
+            }
+        } else if (!shape.pathPoints().isEmpty()) {
+            kb.add("path").add(shape.pathOpen());
+            addPathKey(kb, shape.pathPoints(), transform, pageTx, pageTy, scale, dx, dy);
+        } else if (shape.geometricBounds() != null && transform != null) {
+            double[] bounds = shape.geometricBounds();
+            kb.add("rect")
+                    .coord((bounds[1] + transform[4] - pageTx) * scale - dx)
+                    .coord((bounds[0] + transform[5] - pageTy) * scale - dy)
+                    .coord((bounds[3] - bounds[1]) * scale)
+                    .coord((bounds[2] - bounds[0]) * scale)
+                    .add(shape.hasRoundedCorners())
+                    .value(shape.cornerRadius());
+        }
+
+        kb.add(shape.hasFill());
+        if (shape.hasFill()) {
+            Color fill = resolveColor(shape.fillColor());
+            kb.add(fill != null ? applyTint(fill, shape.fillTint(), shape.opacity()).getRGB() : 0L);
+        }
+        kb.add(shape.hasStroke());
+        if (shape.hasStroke()) {
+            Color stroke = resolveColor(shape.strokeColor());
+            kb.add(stroke != null ? applyTint(stroke, shape.strokeTint(), shape.opacity()).getRGB() : 0L);
+            kb.value(shape.strokeWeight()).value(shape.miterLimit())
+                    .add(String.valueOf(shape.endCap())).add(String.valueOf(shape.lineJoin()));
+            addValues(kb, shape.hasDashPattern() ? shape.dashPattern() : null);
+        }
+    }
+
+    private static void addPathKey(RasterCache.KeyBuilder kb, List<IDMLVectorShape.PathPoint> points,
+                                   double[] transform, double pageTx, double pageTy, double scale,
+                                   double dx, double dy) {
+        kb.add(points.size());
+        for (IDMLVectorShape.PathPoint pt : points) {
+            double[] anchor = applyTransform(transform, pt.anchorX(), pt.anchorY());
+            double[] left = applyTransform(transform, pt.leftX(), pt.leftY());
+            double[] right = applyTransform(transform, pt.rightX(), pt.rightY());
+            kb.add(pt.isStraight())
+                    .coord((anchor[0] - pageTx) * scale - dx).coord((anchor[1] - pageTy) * scale - dy)
+                    .coord((left[0] - pageTx) * scale - dx).coord((left[1] - pageTy) * scale - dy)
+                    .coord((right[0] - pageTx) * scale - dx).coord((right[1] - pageTy) * scale - dy);
+        }
+    }
+
+    /**
+     * 이미지 파일의 정체성 (정규 경로, 크기, 수정 시각). 파일이 없으면 그 사실만 넣는다.
+     */
+    private static void addImageFileKey(RasterCache.KeyBuilder kb, File file) {
+        if (file == null) {
+            kb.add((String) null);
+            return;
+        }
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (IOException e) {
+            path = file.getAbsolutePath();
+        }
+        kb.add(path).add(file.length()).add(file.lastModified());
+    }
+
+    private static void addValues(RasterCache.KeyBuilder kb, double[] values) {
+        if (values == null) {
+            kb.add(-1L);
+            return;
+        }
+        kb.add(values.length);
+        for (double v : values) kb.value(v);
     }
 
     /**
@@ -517,12 +1151,12 @@ public class IDMLPageRenderer {
 
             // 닫힌 경로들 렌더링 (Even-Odd fill로 내부 구멍 처리)
             if (hasClosedPaths) {
-                fillAndStroke(g, shape, closedPath, true);
+                fillAndStroke(g, shape, closedPath, scale, true);
             }
 
             // 열린 경로들 렌더링 (stroke만)
             for (GeneralPath openPath : openPaths) {
-                fillAndStroke(g, shape, openPath, false);
+                fillAndStroke(g, shape, openPath, scale, false);
             }
 
             return;  // SubPath 처리 완료 후 종료
@@ -558,7 +1192,7 @@ public class IDMLPageRenderer {
                 rect = new Rectangle2D.Double(x, y, w, h);
             }
 
-            fillAndStroke(g, shape, rect);
+            fillAndStroke(g, shape, rect, scale, true);
             return;
         }
 
@@ -631,21 +1265,16 @@ public class IDMLPageRenderer {
             }
         }
 
-        fillAndStroke(g, shape, path);
-    }
-
-    /**
-     * 도형을 채우기와 선으로 그린다.
-     */
-    private void fillAndStroke(Graphics2D g, IDMLVectorShape shape, Shape path) {
-        fillAndStroke(g, shape, path, true);  // 기본: fill 허용
+        fillAndStroke(g, shape, path, scale, true);
     }
 
     /**
      * 도형을 채우기와 선으로 그린다.
+     * @param scale     경로 좌표에 적용한 points → 픽셀 스케일 (선 두께와 대시에도 같은 값을 쓴다)
      * @param allowFill false이면 fill을 하지 않음 (열린 경로용)
      */
-    private void fillAndStroke(Graphics2D g, IDMLVectorShape shape, Shape path, boolean allowFill) {
+    private void fillAndStroke(Graphics2D g, IDMLVectorShape shape, Shape path, double scale,
+                               boolean allowFill) {
         // 채우기 (닫힌 경로만)
         if (allowFill && shape.hasFill()) {
             Color fillColor = resolveColor(shape.fillColor());
@@ -664,7 +1293,7 @@ public class IDMLPageRenderer {
                 // 투명도 적용 (strokeTint: 0~100)
                 strokeColor = applyTint(strokeColor, shape.strokeTint(), shape.opacity());
                 g.setColor(strokeColor);
-                g.setStroke(createStroke(shape));
+                g.setStroke(createStroke(shape, scale));
                 g.draw(path);
             }
         }
@@ -672,9 +1301,10 @@ public class IDMLPageRenderer {
 
     /**
      * IDMLVectorShape의 stroke 속성에 따른 BasicStroke 생성.
+     * 선 두께와 대시 길이는 도형 좌표와 같은 scale로 바꾼다 (미리보기 모드에서는 DPI보다 작다).
      */
-    private BasicStroke createStroke(IDMLVectorShape shape) {
-        float width = (float) (shape.strokeWeight() * dpi / 72.0);
+    private BasicStroke createStroke(IDMLVectorShape shape, double scale) {
+        float width = (float) (shape.strokeWeight() * scale);
 
         // Line cap (Java2D: CAP_BUTT=0, CAP_ROUND=1, CAP_SQUARE=2)
         int cap;
@@ -705,7 +1335,7 @@ public class IDMLPageRenderer {
             double[] dashSrc = shape.dashPattern();
             float[] dash = new float[dashSrc.length];
             for (int i = 0; i < dashSrc.length; i++) {
-                dash[i] = (float) (dashSrc[i] * dpi / 72.0);
+                dash[i] = (float) (dashSrc[i] * scale);
             }
             return new BasicStroke(width, cap, join, miterLimit, dash, 0f);
         }
@@ -716,23 +1346,41 @@ public class IDMLPageRenderer {
     /**
      * 이미지를 렌더링한다 (스케일, 회전, 클리핑 적용).
      * AffineTransform을 사용하여 정확한 변환을 적용.
+     *
+     * ImageIO가 직접 읽을 수 있는 이미지는 원본 전체를 디코딩하지 않고,
+     * 출력 해상도에 맞춘 서브샘플링과 페이지에 보이는 영역만 읽는다.
+     * 따라서 메모리 사용량은 원본 크기가 아닌 출력 크기에 비례한다.
+     *
+     * @param pageArea 페이지 전체 픽셀 영역. 디코딩 영역은 띠가 아닌 페이지 기준으로 정해
+     *                 모든 띠가 같은 디코딩 결과(캐시)를 공유한다.
      */
     private void renderImage(Graphics2D g, IDMLImageFrame imgFrame,
                               double pageTx, double pageTy, double scale,
-                              String linksDirectory) {
-        // 이미지 파일 로드
-        BufferedImage srcImage = loadImage(imgFrame, linksDirectory);
-        if (srcImage == null) {
-            System.err.println("  [WARN] Image not loaded: " + imgFrame.linkResourceURI());
-            return;
-        }
-
+                              String linksDirectory, Rectangle pageArea) {
         double[] frameBounds = imgFrame.geometricBounds();
         double[] frameTransform = imgFrame.itemTransform();
         double[] imageTransform = imgFrame.imageTransform();
 
         if (frameBounds == null || frameTransform == null) return;
 
+        File imageFile = resolveImageFile(imgFrame, linksDirectory);
+        if (imageFile == null) {
+            System.err.println("  [WARN] Image not loaded: " + imgFrame.linkResourceURI());
+            return;
+        }
+
+        // 원본 크기는 헤더만 읽어 구한다. 읽을 수 없는 형식(디자인 파일 등)은 전체 디코딩
+        BufferedImage fullImage = null;
+        int[] sourceSize = sourceSize(imageFile);
+        if (sourceSize == null) {
+            fullImage = loadImage(imageFile);
+            if (fullImage == null) {
+                System.err.println("  [WARN] Image not loaded: " + imgFrame.linkResourceURI());
+                return;
+            }
+            sourceSize = new int[]{fullImage.getWidth(), fullImage.getHeight()};
+        }
+
         // 프레임의 4개 코너를 변환하여 클리핑 경로 생성
         double top = frameBounds[0], left = frameBounds[1];
         double bottom = frameBounds[2], right = frameBounds[3];
@@ -758,7 +1406,7 @@ public class IDMLPageRenderer {
 
         // graphicBounds = [left, top, right, bottom] - 이미지 콘텐츠의 좌표계 범위 (points 단위)
         double[] graphicBounds = imgFrame.graphicBounds();
-        double gLeft = 0, gTop = 0, gRight = srcImage.getWidth(), gBottom = srcImage.getHeight();
+        double gLeft = 0, gTop = 0, gRight = sourceSize[0], gBottom = sourceSize[1];
         if (graphicBounds != null && graphicBounds.length >= 4) {
             gLeft = graphicBounds[0];
             gTop = graphicBounds[1];
@@ -769,14 +1417,14 @@ public class IDMLPageRenderer {
         // 그래픽 좌표 (points) → 소스 픽셀 변환 스케일
         double graphicW = gRight - gLeft;
         double graphicH = gBottom - gTop;
-        double pointsToPixelX = (graphicW > 0) ? srcImage.getWidth() / graphicW : 1.0;
-        double pointsToPixelY = (graphicH > 0) ? srcImage.getHeight() / graphicH : 1.0;
+        double pointsToPixelX = (graphicW > 0) ? sourceSize[0] / graphicW : 1.0;
+        double pointsToPixelY = (graphicH > 0) ? sourceSize[1] / graphicH : 1.0;
 
         // 현재 클립 저장
         Shape oldClip = g.getClip();
 
-        // 프레임 클리핑 적용
-        g.setClip(clipPath);
+        // 프레임 클리핑 적용 (띠 클립과 교차)
+        g.clip(clipPath);
 
         // AffineTransform 구성:
         // 1. 페이지 좌표 → 픽셀 좌표 (scale)
@@ -803,6 +1451,30 @@ public class IDMLPageRenderer {
         imgTransform.translate(-gLeft, -gTop);
         imgTransform.scale(1.0 / pointsToPixelX, 1.0 / pointsToPixelY);
 
+        BufferedImage srcImage = fullImage;
+        if (srcImage == null) {
+            // 보이는 영역과 서브샘플링 계산 (원본 픽셀 좌표)
+            Rectangle visible = clipPath.getBounds().intersection(pageArea);
+            Rectangle region = sourceRegion(imgTransform, visible, sourceSize[0], sourceSize[1]);
+            if (region == null) {
+                g.setClip(oldClip);
+                return;  // 페이지에 보이는 부분 없음
+            }
+            int subX = subsampling(imgTransform.getScaleX(), imgTransform.getShearY());
+            int subY = subsampling(imgTransform.getShearX(), imgTransform.getScaleY());
+
+            srcImage = loadImageRegion(imageFile, region, subX, subY);
+            if (srcImage == null) {
+                System.err.println("  [WARN] Image not loaded: " + imgFrame.linkResourceURI());
+                g.setClip(oldClip);
+                return;
+            }
+
+            // 디코딩된 픽셀 (i, j) = 원본 픽셀 (region.x + i*subX, region.y + j*subY)
+            imgTransform.translate(region.x, region.y);
+            imgTransform.scale(subX, subY);
+        }
+
         // 이미지 그리기
         g.drawImage(srcImage, imgTransform, null);
 
@@ -811,16 +1483,182 @@ public class IDMLPageRenderer {
     }
 
     /**
-     * 이미지 파일을 로드한다.
+     * 원본 픽셀 하나가 출력에서 차지하는 길이로 서브샘플링 간격을 정한다.
+     * 출력 해상도보다 낮아지지 않도록 내림한다.
      */
-    private BufferedImage loadImage(IDMLImageFrame imgFrame, String linksDirectory) {
+    static int subsampling(double columnX, double columnY) {
+        double outputPerSource = Math.sqrt(columnX * columnX + columnY * columnY);
+        if (outputPerSource <= 0 || Double.isNaN(outputPerSource)) return 1;
+        return Math.max(1, (int) Math.floor(1.0 / outputPerSource));
+    }
+
+    /**
+     * 출력 픽셀 영역 visible에 대응하는 원본 픽셀 영역을 구한다. 보이는 부분이 없으면 null.
+     */
+    static Rectangle sourceRegion(AffineTransform sourceToOutput, Rectangle visible,
+                                  int sourceWidth, int sourceHeight) {
+        Rectangle full = new Rectangle(0, 0, sourceWidth, sourceHeight);
+        if (visible.isEmpty()) return null;
+
+        Rectangle2D sourceBounds;
+        try {
+            sourceBounds = sourceToOutput.createInverse().createTransformedShape(visible).getBounds2D();
+        } catch (NoninvertibleTransformException e) {
+            return full;
+        }
+
+        // 보간용 가장자리 여유 2픽셀
+        int x0 = (int) Math.floor(sourceBounds.getMinX()) - 2;
+        int y0 = (int) Math.floor(sourceBounds.getMinY()) - 2;
+        int x1 = (int) Math.ceil(sourceBounds.getMaxX()) + 2;
+        int y1 = (int) Math.ceil(sourceBounds.getMaxY()) + 2;
+        Rectangle region = new Rectangle(x0, y0, x1 - x0, y1 - y0).intersection(full);
+        return region.isEmpty() ? null : region;
+    }
+
+    /**
+     * 원본 픽셀 크기. 파일마다 헤더를 한 번만 읽는다 (띠마다, 같은 이미지를 여러 번 배치할 때마다 다시 읽지 않음).
+     */
+    private int[] sourceSize(File imageFile) {
+        synchronized (sourceSizes) {
+            int[] size = sourceSizes.get(imageFile);
+            if (size == null) {
+                size = readSourceSize(imageFile);
+                sourceSizes.put(imageFile, size != null ? size : NO_SOURCE_SIZE);
+            }
+            return size == NO_SOURCE_SIZE ? null : size;
+        }
+    }
+
+    /**
+     * 이미지 헤더에서 원본 픽셀 크기를 읽는다. ImageIO로 직접 읽을 수 없으면 null.
+     */
+    private static int[] readSourceSize(File imageFile) {
+        if (isDesignFormat(getExtension(imageFile).toLowerCase())) return null;
+        try {
+            ImageInputStream in = ImageIO.createImageInputStream(imageFile);
+            if (in == null) return null;
+            try {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+                if (!readers.hasNext()) return null;
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(in, true, true);
+                    return new int[]{reader.getWidth(0), reader.getHeight(0)};
+                } finally {
+                    reader.dispose();
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 원본의 region 영역만 subX × subY 간격으로 디코딩한다. 결과는 imageCache에서 공유된다.
+     */
+    private BufferedImage loadImageRegion(final File imageFile, final Rectangle region,
+                                          final int subX, final int subY) {
+        String variant = "region=" + region.x + "," + region.y + "," + region.width + "," + region.height
+                + "/sub=" + subX + "," + subY;
+        try {
+            return decode(imageFile, variant, new DecodedImageCache.Loader() {
+                public BufferedImage load() throws IOException {
+                    System.err.println("[INFO]     이미지 로드: " + imageFile.getName()
+                            + " (영역 " + region.width + "x" + region.height + ", 1/" + Math.max(subX, subY) + ")");
+                    return readImageRegion(imageFile, region, subX, subY);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("  [ERROR] Failed to load image: " + imageFile.getAbsolutePath());
+            System.err.println("          Reason: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static BufferedImage readImageRegion(File imageFile, Rectangle region,
+                                         int subX, int subY) throws IOException {
+        ImageInputStream in = ImageIO.createImageInputStream(imageFile);
+        if (in == null) return null;
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(subX, subY, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * imageCache로 디코딩한다. 띠 렌더링 중에는 캐시 예산(0 포함)과 관계없이
+     * 같은 영역의 띠들이 한 번 디코딩한 이미지를 함께 쓴다.
+     */
+    private BufferedImage decode(File imageFile, String variant, DecodedImageCache.Loader loader)
+            throws IOException {
+        String key = imageFile.getPath() + "|" + variant;
+        BufferedImage image = bandImages != null ? bandImages.get(key) : null;
+        if (image != null) return image;
+        image = imageCache.get(imageFile, variant, loader);
+        if (image != null && bandImages != null) bandImages.put(key, image);
+        return image;
+    }
+
+    /**
+     * 이미지 파일 전체를 원본 해상도로 로드한다.
+     */
+    private BufferedImage loadImage(final File imageFile) {
+        try {
+            return decode(imageFile, "dpi=" + dpi, new DecodedImageCache.Loader() {
+                public BufferedImage load() throws IOException {
+                    return decodeImage(imageFile);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("  [ERROR] Failed to load image: " + imageFile.getAbsolutePath());
+            System.err.println("          Reason: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 링크 URI를 실제 이미지 파일로 해석한다. 찾지 못하면 null.
+     */
+    private File resolveImageFile(IDMLImageFrame imgFrame, String linksDirectory) {
+        File imageFile = findImageFile(idmlDoc, imgFrame, linksDirectory);
+        if (imageFile == null && imgFrame.linkResourceURI() != null && !imgFrame.linkResourceURI().isEmpty()) {
+            System.err.println("  [WARN] Image file not found: " + imgFrame.linkResourceURI());
+            if (linksDirectory != null) {
+                System.err.println("         Searched in: " + linksDirectory);
+            }
+            if (idmlDoc.basePath() != null) {
+                System.err.println("         Searched in: " + new File(idmlDoc.basePath(), "Links").getAbsolutePath());
+            }
+        }
+        return imageFile;
+    }
+
+    /**
+     * 링크 URI를 실제 이미지 파일로 해석한다. 경고를 출력하지 않는다.
+     * 검색 순서: linksDirectory → 절대경로 → basePath/Links/
+     */
+    static File findImageFile(IDMLDocument idmlDoc, IDMLImageFrame imgFrame, String linksDirectory) {
         String uri = imgFrame.linkResourceURI();
         if (uri == null || uri.isEmpty()) return null;
 
         String path = stripFileUri(uri);
         String filename = extractFilename(path);
 
-        // 검색 순서: linksDirectory → 절대경로 → basePath/Links/
         File imageFile = null;
 
         if (linksDirectory != null && filename != null) {
@@ -838,59 +1676,30 @@ public class IDMLPageRenderer {
             File f = new File(linksDir, filename);
             if (f.exists()) imageFile = f;
         }
+        return imageFile;
+    }
 
-        if (imageFile == null) {
-            System.err.println("  [WARN] Image file not found: " + uri);
-            if (linksDirectory != null) {
-                System.err.println("         Searched in: " + linksDirectory);
-            }
-            if (idmlDoc.basePath() != null) {
-                System.err.println("         Searched in: " + new File(idmlDoc.basePath(), "Links").getAbsolutePath());
+    /**
+     * 이미지 파일을 디코딩한다. 디자인 파일은 PNG로 변환 후 디코딩한다.
+     */
+    private BufferedImage decodeImage(File imageFile) throws IOException {
+        String ext = getExtension(imageFile).toLowerCase();
+        System.err.println("[INFO]     이미지 로드: " + imageFile.getName());
+
+        // 디자인 파일은 PNG로 변환 (내용 해시 + DPI + 도구 버전으로 캐시)
+        if (isDesignFormat(ext)) {
+            System.err.println("[INFO]       → 디자인 파일 변환 (" + ext.toUpperCase() + ")");
+            if (designFiles == null) {
+                designFiles = new DesignFileCache(DesignFileCache.defaultDirectory(), 1);
             }
-            return null;
-        }
-
-        try {
-            String ext = getExtension(imageFile).toLowerCase();
-            System.err.println("[INFO]     이미지 로드: " + imageFile.getName());
-
-            // 디자인 파일은 PNG로 변환 (PSD, AI, EPS만 캐싱 대상)
-            if (isDesignFormat(ext)) {
-                // 캐시 파일 확인 (원본파일.png)
-                if (isCacheableDesignFormat(ext)) {
-                    File cacheFile = new File(imageFile.getAbsolutePath() + ".png");
-                    if (cacheFile.exists() && cacheFile.length() > 0) {
-                        System.err.println("[INFO]       → 캐시된 PNG 사용: " + cacheFile.getName());
-                        return ImageIO.read(cacheFile);
-                    }
-                }
-
-                System.err.println("[INFO]       → 디자인 파일 변환 중 (" + ext.toUpperCase() + ")...");
-                byte[] pngData = DesignFileConverter.convertToPng(imageFile, dpi);
-                if (pngData == null || pngData.length == 0) {
-                    System.err.println("  [WARN] Design file conversion returned empty data: " + imageFile.getAbsolutePath());
-                    return null;
-                }
-
-                // 캐시 파일 저장 (PSD, AI, EPS만)
-                if (isCacheableDesignFormat(ext)) {
-                    try {
-                        File cacheFile = new File(imageFile.getAbsolutePath() + ".png");
-                        java.nio.file.Files.write(cacheFile.toPath(), pngData);
-                        System.err.println("[INFO]       → 캐시 저장: " + cacheFile.getName());
-                    } catch (Exception ce) {
-                        System.err.println("[WARN]       캐시 저장 실패: " + ce.getMessage());
-                    }
-                }
-
-                return ImageIO.read(new ByteArrayInputStream(pngData));
-            } else {
-                return ImageIO.read(imageFile);
+            byte[] pngData = designFiles.convertToPng(imageFile, dpi);
+            if (pngData == null || pngData.length == 0) {
+                System.err.println("  [WARN] Design file conversion returned empty data: " + imageFile.getAbsolutePath());
+                return null;
             }
-        } catch (IOException e) {
-            System.err.println("  [ERROR] Failed to load image: " + imageFile.getAbsolutePath());
-            System.err.println("          Reason: " + e.getMessage());
-            return null;
+            return ImageIO.read(new ByteArrayInputStream(pngData));
+        } else {
+            return ImageIO.read(imageFile);
         }
     }
 
@@ -1047,13 +1856,6 @@ public class IDMLPageRenderer {
                 || "pdf".equals(ext) || "tiff".equals(ext) || "tif".equals(ext);
     }
 
-    /**
-     * 캐싱 대상 디자인 파일 형식인지 확인 (PSD, AI, EPS만 캐싱)
-     */
-    private static boolean isCacheableDesignFormat(String ext) {
-        return "psd".equals(ext) || "ai".equals(ext) || "eps".equals(ext);
-    }
-
     /**
      * 페이지 경계선을 그린다.
      * InDesign 스타일의 페이지 경계선: 얇은 검정색 실선
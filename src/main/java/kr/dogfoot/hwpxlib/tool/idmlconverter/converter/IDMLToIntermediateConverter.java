@@ -3,13 +3,14 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
 import kr.dogfoot.hwpxlib.tool.equationconverter.idml.IDMLEquationExtractor;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertOptions;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertResult;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.idml.ImageFrameConverter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.idml.TextFrameConverter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.idml.VectorShapeConverter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.*;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.*;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.util.ColorResolver;
-import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileConverter;
+import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileCache;
 import kr.dogfoot.hwpxlib.tool.imageinserter.ImageInserter;
 import kr.dogfoot.hwpxlib.tool.textfit.TextFitter;
 
@@ -24,7 +25,6 @@ import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.file.Files;
 import java.util.*;
-import java.util.Base64;
 import javax.imageio.ImageIO;
 
 /**
@@ -42,19 +42,64 @@ import javax.imageio.ImageIO;
 public class IDMLToIntermediateConverter {
 
     /**
-     * 변환 결과 (IntermediateDocument + 경고 목록).
+     * 변환 결과 (IntermediateDocument + 경고 목록 + 이미지 캐시 통계 + 래스터 인코딩 정보).
      */
     public static class Result {
         private final IntermediateDocument document;
         private final List<String> warnings;
+        private final DecodedImageCache.Stats imageCacheStats;
+        private final List<ConvertResult.ImageEncoding> imageEncodings;
+        private final int pagesReused;
 
-        Result(IntermediateDocument document, List<String> warnings) {
+        Result(IntermediateDocument document, List<String> warnings,
+               DecodedImageCache.Stats imageCacheStats, List<ConvertResult.ImageEncoding> imageEncodings,
+               int pagesReused) {
             this.document = document;
             this.warnings = warnings;
+            this.imageCacheStats = imageCacheStats;
+            this.imageEncodings = imageEncodings;
+            this.pagesReused = pagesReused;
         }
 
         public IntermediateDocument document() { return document; }
         public List<String> warnings() { return warnings; }
+        public DecodedImageCache.Stats imageCacheStats() { return imageCacheStats; }
+        public List<ConvertResult.ImageEncoding> imageEncodings() { return imageEncodings; }
+        /** 증분 변환 캐시에서 가져온 페이지 수 */
+        public int pagesReused() { return pagesReused; }
+
+        /**
+         * 중간 변환 경고, 이미지 캐시 통계, 래스터 인코딩 정보를 HWPX 변환 결과에 옮긴다.
+         */
+        public void copyTo(ConvertResult result) {
+            for (String warning : warnings) {
+                result.addWarning(warning);
+            }
+            result.imageCacheHits(imageCacheStats.hits());
+            result.imageCacheMisses(imageCacheStats.misses());
+            result.imageCacheEvictions(imageCacheStats.evictions());
+            result.imageCachePeakBytes(imageCacheStats.peakBytes());
+            for (ConvertResult.ImageEncoding encoding : imageEncodings) {
+                result.addImageEncoding(encoding);
+            }
+            result.pagesReused(pagesReused);
+        }
+    }
+
+    /**
+     * 변환된 페이지를 하나씩 받는 쪽 (페이지 모드 전용).
+     * 문서에 모아 두지 않고 다음 단계로 바로 넘길 때 사용한다.
+     */
+    public interface PageSink {
+        /**
+         * 폰트, 스타일, 레이아웃이 준비되었다 (페이지 목록은 비어 있다). 첫 페이지보다 먼저 호출된다.
+         */
+        void header(IntermediateDocument doc) throws ConvertException;
+
+        /**
+         * 페이지 하나가 변환되었다. 문서 순서대로 호출된다.
+         */
+        void page(IntermediatePage page) throws ConvertException;
     }
 
     /**
@@ -63,11 +108,43 @@ public class IDMLToIntermediateConverter {
     public static Result convert(IDMLDocument idmlDoc,
                                   ConvertOptions options,
                                   String sourceFileName) throws ConvertException {
+        return convert(idmlDoc, options, sourceFileName, null);
+    }
+
+    /**
+     * IDMLDocument를 변환하면서 페이지를 sink에 하나씩 넘긴다.
+     * 결과 문서에는 페이지가 남지 않는다 (sink가 null이면 위의 convert와 같다).
+     */
+    public static Result convert(IDMLDocument idmlDoc,
+                                  ConvertOptions options,
+                                  String sourceFileName,
+                                  PageSink pageSink) throws ConvertException {
         try {
             IDMLToIntermediateConverter converter =
-                    new IDMLToIntermediateConverter(idmlDoc, options, sourceFileName);
-            IntermediateDocument doc = converter.doConvert();
-            return new Result(doc, converter.warnings);
+                    new IDMLToIntermediateConverter(idmlDoc, options, sourceFileName, pageSink);
+            IntermediateDocument doc;
+            try {
+                doc = converter.doConvert();
+            } finally {
+                converter.backgrounds.shutdown();
+                converter.designFiles.shutdown();
+            }
+            RasterCache rasterCache = converter.backgrounds.rasterCache();
+            if (rasterCache.hits() > 0) {
+                System.err.println("[INFO] 래스터 캐시: 재사용 " + rasterCache.hits() + "개, 렌더링 "
+                        + rasterCache.misses() + "개");
+            }
+            if (converter.designFiles.hits() + converter.designFiles.conversions() > 0) {
+                System.err.println("[INFO] 디자인 파일 PNG: 변환 " + converter.designFiles.conversions()
+                        + "개, 캐시 적중 " + converter.designFiles.hits() + "개");
+            }
+            SpreadCache spreadCache = converter.spreadCache;
+            if (spreadCache != null) {
+                System.err.println("[INFO] 증분 변환: 재사용 " + spreadCache.hits() + "페이지, 변환 "
+                        + spreadCache.misses() + "페이지");
+            }
+            return new Result(doc, converter.warnings, converter.backgrounds.imageCacheStats(),
+                    converter.imageEncodings, spreadCache != null ? spreadCache.hits() : 0);
         } catch (ConvertException ce) {
             throw ce;
         } catch (Exception e) {
@@ -79,6 +156,8 @@ public class IDMLToIntermediateConverter {
     private final IDMLDocument idmlDoc;
     private final ConvertOptions options;
     private final String sourceFileName;
+    // 페이지를 넘겨받는 쪽 (null이면 문서에 모은다)
+    private final PageSink pageSink;
     private final PageFilter pageFilter;
     private final Map<String, String> paraStyleRefToId;
     private final Map<String, String> charStyleRefToId;
@@ -91,21 +170,50 @@ public class IDMLToIntermediateConverter {
     private final ImageFrameConverter imageFrameConverter;
     // 텍스트 프레임 변환기
     private final TextFrameConverter textFrameConverter;
+    // 디자인 파일 PNG 변환 캐시 (변환 프로세스 풀)
+    private final DesignFileCache designFiles;
+    // 페이지 배경 렌더러 (작업자 풀)
+    private final PageBackgroundRenderer backgrounds;
+    // 배경 래스터별 인코딩 정보
+    private final List<ConvertResult.ImageEncoding> imageEncodings;
+    // 배경 렌더링 대상 페이지 (문서 순서)와 지금까지 예약한 수
+    private final List<IDMLSpread> backgroundSpreads = new ArrayList<IDMLSpread>();
+    private final List<IDMLPage> backgroundPages = new ArrayList<IDMLPage>();
+    private int backgroundsSubmitted;
+    // 증분 변환 캐시 (null이면 사용 안 함)
+    private final SpreadCache spreadCache;
+    // 캐시에 저장할 페이지를 변환하는 동안 텍스트 분할을 준비한 연결 프레임 체인 (아니면 null)
+    private List<String> recordedChainHeads;
 
     private IDMLToIntermediateConverter(IDMLDocument idmlDoc, ConvertOptions options,
-                                        String sourceFileName) {
+                                        String sourceFileName, PageSink pageSink) {
         this.idmlDoc = idmlDoc;
         this.options = options;
         this.sourceFileName = sourceFileName;
+        this.pageSink = pageSink;
         this.pageFilter = new PageFilter(options);
         this.paraStyleRefToId = new LinkedHashMap<String, String>();
         this.charStyleRefToId = new LinkedHashMap<String, String>();
         this.warnings = new ArrayList<String>();
         this.colorResolver = new ColorResolver(idmlDoc);
         this.vectorShapeConverter = new VectorShapeConverter(colorResolver);
-        this.imageFrameConverter = new ImageFrameConverter(idmlDoc, options, warnings);
+        this.designFiles = createDesignFileCache(options);
+        this.imageFrameConverter = new ImageFrameConverter(idmlDoc, options, warnings, designFiles);
         this.textFrameConverter = new TextFrameConverter(idmlDoc, paraStyleRefToId,
                 charStyleRefToId, colorResolver, warnings);
+        this.backgrounds = new PageBackgroundRenderer(idmlDoc, options, designFiles);
+        this.imageEncodings = new ArrayList<ConvertResult.ImageEncoding>();
+        this.spreadCache = options.incrementalCacheDir() != null
+                ? new SpreadCache(new File(options.incrementalCacheDir()), idmlDoc, options) : null;
+    }
+
+    static DesignFileCache createDesignFileCache(ConvertOptions options) {
+        File dir = null;
+        if (options.designFileCache()) {
+            dir = options.designFileCacheDir() != null
+                    ? new File(options.designFileCacheDir()) : DesignFileCache.defaultDirectory();
+        }
+        return new DesignFileCache(dir, options.designFileProcesses());
     }
 
     private IntermediateDocument doConvert() throws ConvertException {
@@ -123,16 +231,14 @@ public class IDMLToIntermediateConverter {
         // 2. 스타일 매핑
         if (options.includeStyles()) {
             List<IntermediateStyleDef> paraStyles = new ArrayList<IntermediateStyleDef>();
-            Map<String, String> pRefMap = StyleMapper.buildParagraphStyleMap(
-                    idmlDoc.paraStyles(), idmlDoc.colors(), paraStyles);
+            Map<String, String> pRefMap = StyleMapper.buildParagraphStyleMap(idmlDoc, paraStyles);
             paraStyleRefToId.putAll(pRefMap);
             for (IntermediateStyleDef style : paraStyles) {
                 doc.addParagraphStyle(style);
             }
 
             List<IntermediateStyleDef> charStyles = new ArrayList<IntermediateStyleDef>();
-            Map<String, String> cRefMap = StyleMapper.buildCharacterStyleMap(
-                    idmlDoc.charStyles(), idmlDoc.colors(), charStyles);
+            Map<String, String> cRefMap = StyleMapper.buildCharacterStyleMap(idmlDoc, charStyles);
             charStyleRefToId.putAll(cRefMap);
             for (IntermediateStyleDef style : charStyles) {
                 doc.addCharacterStyle(style);
@@ -143,6 +249,10 @@ public class IDMLToIntermediateConverter {
         DocumentLayout layout = buildLayout();
         doc.layout(layout);
 
+        if (pageSink != null) {
+            pageSink.header(doc);
+        }
+
         // 4. 수식 추출기 준비
         IDMLEquationExtractor equationExtractor = null;
         if (options.includeEquations() && idmlDoc.basePath() != null) {
@@ -154,11 +264,19 @@ public class IDMLToIntermediateConverter {
 
         // 5. 스프레드/페이지 변환
         Set<String> processedStories = new HashSet<String>();
-        int zOrderCounter = 0;
+
+        // 배경 렌더링은 작업자 풀에서 먼저 시작하고, 아래 루프에서 페이지 순서대로 받는다
+        if (options.includeImages()) {
+            collectPageBackgrounds();
+            submitPageBackgrounds(backgroundWindow());
+        }
 
         if (options.spreadBasedConversion()) {
             // === 스프레드 모드: 각 스프레드를 하나의 큰 페이지로 변환 ===
             System.err.println("[DEBUG] Spread mode enabled, converting spreads...");
+            if (spreadCache != null) {
+                System.err.println("[INFO] 증분 변환은 페이지 모드에서만 사용: 전체 변환");
+            }
             doc.useSpreadMode(true);
             convertSpreads(doc, processedStories);
             System.err.println("[DEBUG] After convertSpreads: spreads count = " + doc.spreads().size());
@@ -167,15 +285,47 @@ public class IDMLToIntermediateConverter {
 
         // === 페이지 모드: 각 페이지를 개별적으로 변환 ===
         int spreadIndex = 0;
+        int pagesStarted = 0;
         for (IDMLSpread spread : idmlDoc.spreads()) {
             spreadIndex++;
+            int pageIndex = -1;
             for (IDMLPage page : spread.pages()) {
+                pageIndex++;
                 if (!pageFilter.shouldInclude(page.pageNumber())) {
                     continue;
                 }
+                checkInterrupted();
+                pagesStarted++;
+                if (options.includeImages()) {
+                    submitPageBackgrounds(pagesStarted + backgroundWindow());
+                }
+
+                // 증분 변환: 입력과 시작 상태가 같은 페이지는 캐시에서 가져온다
+                String cacheState = null;
+                int warningsBefore = warnings.size();
+                List<String> newStories = null;
+                if (spreadCache != null) {
+                    cacheState = incrementalState(spread, processedStories);
+                    SpreadCache.Entry cached = spreadCache.get(spread, pageIndex, cacheState);
+                    if (cached != null) {
+                        System.err.println("[INFO] 스프레드 " + spreadIndex + " / 페이지 " + page.pageNumber() + " 캐시 재사용");
+                        replayCachedPage(spread, cached, processedStories);
+                        if (pageSink != null) {
+                            pageSink.page(cached.page());
+                        } else {
+                            doc.addPage(cached.page());
+                        }
+                        continue;
+                    }
+                    newStories = new ArrayList<String>();
+                    recordedChainHeads = new ArrayList<String>();
+                }
 
                 System.err.println("[INFO] 스프레드 " + spreadIndex + " / 페이지 " + page.pageNumber() + " 변환 중...");
 
+                // 페이지마다 section이 따로이므로 z-order는 페이지 안에서만 센다 (앞 페이지와 무관)
+                int zOrderCounter = 0;
+
                 IntermediatePage iPage = new IntermediatePage();
                 iPage.pageNumber(page.pageNumber());
                 iPage.pageWidth(page.widthHwpunits());
@@ -193,43 +343,26 @@ public class IDMLToIntermediateConverter {
                 // 모든 이미지와 벡터 그래픽을 페이지 크기의 배경 PNG로 렌더링
                 if (options.includeImages()) {
                     try {
-                        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, options.vectorDpi());
-                        byte[] pageBackground = renderer.renderPage(spread, page, options.linksDirectory(),
-                                options.drawPageBoundary());
-
-                        if (pageBackground != null && pageBackground.length > 0) {
-                            // 페이지 크기 (픽셀)
-                            double scale = options.vectorDpi() / 72.0;
-                            int pixelWidth = (int) Math.ceil(page.widthPoints() * scale);
-                            int pixelHeight = (int) Math.ceil(page.heightPoints() * scale);
-
-                            // 배경 이미지 프레임 생성
-                            IntermediateFrame bgFrame = new IntermediateFrame();
-                            bgFrame.frameId("page_background_" + page.pageNumber());
-                            bgFrame.frameType("image");
-                            bgFrame.x(0);
-                            bgFrame.y(0);
-                            bgFrame.width(page.widthHwpunits());
-                            bgFrame.height(page.heightHwpunits());
+                        List<IDMLPageRenderer.RenderResult> tiles = backgrounds.await(spread, page);
+                        for (int t = 0; t < tiles.size(); t++) {
+                            IntermediateFrame bgFrame = createBackgroundFrame(page, tiles.get(t), t, tiles.size(), 0, 0);
+                            if (bgFrame == null) continue;
                             bgFrame.zOrder(0);  // 가장 낮은 z-order (배경)
-                            bgFrame.isBackgroundImage(true);
-
-                            IntermediateImage bgImage = new IntermediateImage();
-                            bgImage.imageId("page_bg_" + page.pageNumber());
-                            bgImage.format("png");
-                            bgImage.base64Data(Base64.getEncoder().encodeToString(pageBackground));
-                            bgImage.pixelWidth(pixelWidth);
-                            bgImage.pixelHeight(pixelHeight);
-                            bgImage.displayWidth(page.widthHwpunits());
-                            bgImage.displayHeight(page.heightHwpunits());
-                            bgFrame.image(bgImage);
-
                             iPage.addFrame(bgFrame);
                             zOrderCounter = 1;  // 텍스트는 1부터 시작
                         }
                     } catch (IOException e) {
                         warnings.add("Page background render failed: " + page.pageNumber() + " - " + e.getMessage());
                     }
+
+                    // 배경에서 뺀 벡터 도형을 HWPX 도형으로 (배경 위, 텍스트 아래)
+                    if (options.nativeVectorShapes()) {
+                        List<IntermediateFrame> shapeFrames = convertNativeVectorShapes(spread, page, zOrderCounter);
+                        for (IntermediateFrame shapeFrame : shapeFrames) {
+                            iPage.addFrame(shapeFrame);
+                        }
+                        zOrderCounter += shapeFrames.size();
+                    }
                 }
 
                 // 텍스트 프레임을 위치 순서로 정렬
@@ -270,6 +403,9 @@ public class IDMLToIntermediateConverter {
                         continue;
                     }
                     processedStories.add(storyId);
+                    if (newStories != null) {
+                        newStories.add(storyId);
+                    }
 
                     IDMLStory story = idmlDoc.getStory(storyId);
                     if (story == null) {
@@ -376,22 +512,162 @@ public class IDMLToIntermediateConverter {
                     }
                 }
 
-                doc.addPage(iPage);
+                if (spreadCache != null) {
+                    spreadCache.put(spread, pageIndex, cacheState, new SpreadCache.Entry(iPage,
+                            newStories, recordedChainHeads,
+                            new ArrayList<String>(warnings.subList(warningsBefore, warnings.size()))));
+                    recordedChainHeads = null;
+                }
+
+                if (pageSink != null) {
+                    pageSink.page(iPage);
+                } else {
+                    doc.addPage(iPage);
+                }
             }
         }
 
         return doc;
     }
 
+    /**
+     * 배경 이미지(페이지 전체 또는 타일)를 이미지 프레임으로 만든다. 데이터가 없으면 null.
+     * 인코더 선택과 인코딩 시간은 imageEncodings에 기록한다.
+     *
+     * @param originX 타일 좌표의 기준점 X (points, 페이지 모드는 0, 스프레드 모드는 페이지 좌상단)
+     * @param originY 타일 좌표의 기준점 Y (points)
+     */
+    private IntermediateFrame createBackgroundFrame(IDMLPage page, IDMLPageRenderer.RenderResult tile,
+                                                    int index, int count, double originX, double originY) {
+        byte[] pngData = tile.pngData();
+        if (pngData == null || pngData.length == 0) return null;
+
+        String suffix = count > 1 ? "_" + (index + 1) : "";
+        long width = CoordinateConverter.pointsToHwpunits(tile.width());
+        long height = CoordinateConverter.pointsToHwpunits(tile.height());
+
+        IntermediateFrame bgFrame = new IntermediateFrame();
+        bgFrame.frameId("page_background_" + page.pageNumber() + suffix);
+        bgFrame.frameType("image");
+        bgFrame.x(CoordinateConverter.pointsToHwpunits(originX + tile.x()));
+        bgFrame.y(CoordinateConverter.pointsToHwpunits(originY + tile.y()));
+        bgFrame.width(width);
+        bgFrame.height(height);
+        bgFrame.isBackgroundImage(true);
+
+        IntermediateImage bgImage = new IntermediateImage();
+        bgImage.imageId("page_bg_" + page.pageNumber() + suffix);
+        bgImage.format(tile.format());
+        bgImage.data(pngData);
+        bgImage.pixelWidth(tile.pixelWidth());
+        bgImage.pixelHeight(tile.pixelHeight());
+        bgImage.displayWidth(width);
+        bgImage.displayHeight(height);
+        bgFrame.image(bgImage);
+
+        imageEncodings.add(new ConvertResult.ImageEncoding(bgImage.imageId(), tile.encoding(),
+                tile.pixelWidth(), tile.pixelHeight(), pngData.length, tile.encodeNanos() / 1e6));
+        return bgFrame;
+    }
+
+    /**
+     * 변환 대상 페이지를 배경 렌더링 순서 (문서 순서)대로 모은다.
+     */
+    private void collectPageBackgrounds() {
+        for (IDMLSpread spread : idmlDoc.spreads()) {
+            List<IDMLPage> pages = spread.pages();
+            for (int i = 0; i < pages.size(); i++) {
+                IDMLPage page = pages.get(i);
+                if (!pageFilter.shouldInclude(page.pageNumber())) {
+                    continue;
+                }
+                // 증분 변환 캐시에 있는 페이지는 미리 렌더링하지 않는다 (캐시를 못 쓰면 await()에서 렌더링)
+                if (spreadCache != null && !options.spreadBasedConversion() && spreadCache.contains(spread, i)) {
+                    continue;
+                }
+                backgroundSpreads.add(spread);
+                backgroundPages.add(page);
+            }
+        }
+    }
+
+    /**
+     * 변환을 맡은 스레드가 인터럽트되었으면 (일괄 변환 제한 시간, 요청 취소) 다음 페이지로 가지 않는다.
+     */
+    private static void checkInterrupted() throws ConvertException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ConvertException(ConvertException.Phase.PARSING, "Conversion cancelled");
+        }
+    }
+
+    /**
+     * 페이지 변환 결과에 영향을 주는 앞 페이지들의 상태: 이 스프레드의 Story 중 이미 처리된 것,
+     * 이 스프레드의 프레임 중 연결 프레임 분할이 준비된 것. 캐시 항목은 같은 상태에서만 쓴다.
+     * z-order는 페이지 안에서만 세므로 넣지 않는다 (앞 페이지에 프레임을 더해도 뒤 페이지 항목을 쓴다).
+     */
+    private String incrementalState(IDMLSpread spread, Set<String> processedStories) {
+        Set<String> stories = new TreeSet<String>();
+        Set<String> linkedFrames = new TreeSet<String>();
+        for (IDMLTextFrame tf : spread.textFrames()) {
+            if (tf.parentStoryId() != null && processedStories.contains(tf.parentStoryId())) {
+                stories.add(tf.parentStoryId());
+            }
+            if (textFrameConverter.isLinkedFrameInCache(tf.selfId())) {
+                linkedFrames.add(tf.selfId());
+            }
+        }
+        return "stories=" + stories + ";linked=" + linkedFrames;
+    }
+
+    /**
+     * 캐시에서 가져온 페이지가 변환 중에 남겼던 상태 변화를 다시 적용한다.
+     */
+    private void replayCachedPage(IDMLSpread spread, SpreadCache.Entry entry, Set<String> processedStories) {
+        processedStories.addAll(entry.processedStories());
+        for (String frameId : entry.linkedChainHeads()) {
+            IDMLTextFrame head = spread.findTextFrameById(frameId);
+            IDMLStory story = head != null ? idmlDoc.getStory(head.parentStoryId()) : null;
+            if (story != null) {
+                textFrameConverter.prepareLinkedFrameChain(head, spread, story);
+            }
+        }
+        warnings.addAll(entry.warnings());
+    }
+
+    /**
+     * 문서 순서로 count번째 페이지까지 배경 렌더링을 예약한다.
+     */
+    private void submitPageBackgrounds(int count) {
+        int limit = Math.min(count, backgroundPages.size());
+        while (backgroundsSubmitted < limit) {
+            backgrounds.submit(backgroundSpreads.get(backgroundsSubmitted), backgroundPages.get(backgroundsSubmitted));
+            backgroundsSubmitted++;
+        }
+    }
+
+    /**
+     * 변환 중인 페이지보다 앞서 렌더링할 페이지 수.
+     * 페이지를 sink로 흘려보낼 때는 완성된 배경이 쌓이지 않도록 렌더링 스레드와 파이프라인 길이만큼만 앞서 간다.
+     */
+    private int backgroundWindow() {
+        if (pageSink == null) {
+            return Integer.MAX_VALUE / 2;
+        }
+        return options.renderThreads() + Math.max(1, options.pipelineDepth());
+    }
+
     /**
      * 스프레드 모드 변환: 각 스프레드를 하나의 IntermediateSpread로 변환한다.
      */
-    private void convertSpreads(IntermediateDocument doc, Set<String> processedStories) {
+    private void convertSpreads(IntermediateDocument doc, Set<String> processedStories) throws ConvertException {
         int zOrderCounter = 0;
-        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, options.vectorDpi());
+        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, options.vectorDpi())
+                .designFiles(designFiles)
+                .rasterCache(backgrounds.rasterCache());
 
         int spreadIndex = 0;
         for (IDMLSpread spread : idmlDoc.spreads()) {
+            checkInterrupted();
             spreadIndex++;
             List<IDMLPage> pages = spread.pages();
             if (pages.isEmpty()) continue;
@@ -456,50 +732,37 @@ public class IDMLToIntermediateConverter {
 
             // 각 페이지의 이미지와 벡터 그래픽을 배경 PNG로 렌더링
             if (options.includeImages()) {
-                IDMLPageRenderer pageRenderer = new IDMLPageRenderer(idmlDoc, options.vectorDpi());
-
                 for (IDMLPage page : pages) {
                     if (!pageFilter.shouldInclude(page.pageNumber())) continue;
 
                     System.err.println("[INFO]   페이지 " + page.pageNumber() + " 배경 렌더링 중...");
 
                     try {
-                        byte[] pageBackground = pageRenderer.renderPage(spread, page, options.linksDirectory(),
-                                options.drawPageBoundary());
-
-                        if (pageBackground != null && pageBackground.length > 0) {
-                            double[] pageTopLeft = getPageTopLeft(page, minX, minY);
-                            double pageW = page.widthPoints();
-                            double pageH = page.heightPoints();
-                            double scale = options.vectorDpi() / 72.0;
-                            int pixelWidth = (int) Math.ceil(pageW * scale);
-                            int pixelHeight = (int) Math.ceil(pageH * scale);
-
-                            IntermediateFrame bgFrame = new IntermediateFrame();
-                            bgFrame.frameId("page_background_" + page.pageNumber());
-                            bgFrame.frameType("image");
-                            bgFrame.x(CoordinateConverter.pointsToHwpunits(pageTopLeft[0]));
-                            bgFrame.y(CoordinateConverter.pointsToHwpunits(pageTopLeft[1]));
-                            bgFrame.width(CoordinateConverter.pointsToHwpunits(pageW));
-                            bgFrame.height(CoordinateConverter.pointsToHwpunits(pageH));
+                        List<IDMLPageRenderer.RenderResult> tiles = backgrounds.await(spread, page);
+                        double[] pageTopLeft = getPageTopLeft(page, minX, minY);
+                        for (int t = 0; t < tiles.size(); t++) {
+                            IntermediateFrame bgFrame = createBackgroundFrame(page, tiles.get(t), t, tiles.size(),
+                                    pageTopLeft[0], pageTopLeft[1]);
+                            if (bgFrame == null) continue;
                             bgFrame.zOrder(zOrderCounter++);
-                            bgFrame.isBackgroundImage(true);
-
-                            IntermediateImage bgImage = new IntermediateImage();
-                            bgImage.imageId("page_bg_" + page.pageNumber());
-                            bgImage.format("png");
-                            bgImage.base64Data(Base64.getEncoder().encodeToString(pageBackground));
-                            bgImage.pixelWidth(pixelWidth);
-                            bgImage.pixelHeight(pixelHeight);
-                            bgImage.displayWidth(CoordinateConverter.pointsToHwpunits(pageW));
-                            bgImage.displayHeight(CoordinateConverter.pointsToHwpunits(pageH));
-                            bgFrame.image(bgImage);
-
                             iSpread.addFrame(bgFrame);
                         }
                     } catch (IOException e) {
                         warnings.add("Page background render failed: " + page.pageNumber() + " - " + e.getMessage());
                     }
+
+                    if (options.nativeVectorShapes()) {
+                        double[] pageTopLeft = getPageTopLeft(page, minX, minY);
+                        long offsetX = CoordinateConverter.pointsToHwpunits(pageTopLeft[0]);
+                        long offsetY = CoordinateConverter.pointsToHwpunits(pageTopLeft[1]);
+                        List<IntermediateFrame> shapeFrames = convertNativeVectorShapes(spread, page, zOrderCounter);
+                        for (IntermediateFrame shapeFrame : shapeFrames) {
+                            shapeFrame.x(shapeFrame.x() + offsetX);
+                            shapeFrame.y(shapeFrame.y() + offsetY);
+                            iSpread.addFrame(shapeFrame);
+                        }
+                        zOrderCounter += shapeFrames.size();
+                    }
                 }
             }
 
@@ -593,7 +856,7 @@ public class IDMLToIntermediateConverter {
         if (bounds == null || transform == null) return null;
 
         double[] shapePos = IDMLGeometry.absoluteTopLeft(bounds, transform);
-        return findPageContaining(shapePos[0], shapePos[1], pages);
+        return findPageContaining(shape.selfId(), shapePos[0], shapePos[1], pages);
     }
 
     private IDMLPage findPageForImageFrame(IDMLImageFrame frame, List<IDMLPage> pages) {
@@ -602,7 +865,7 @@ public class IDMLToIntermediateConverter {
         if (bounds == null || transform == null) return null;
 
         double[] pos = IDMLGeometry.absoluteTopLeft(bounds, transform);
-        return findPageContaining(pos[0], pos[1], pages);
+        return findPageContaining(frame.selfId(), pos[0], pos[1], pages);
     }
 
     private IDMLPage findPageForTextFrame(IDMLTextFrame frame, List<IDMLPage> pages) {
@@ -611,10 +874,18 @@ public class IDMLToIntermediateConverter {
         if (bounds == null || transform == null) return null;
 
         double[] pos = IDMLGeometry.absoluteTopLeft(bounds, transform);
-        return findPageContaining(pos[0], pos[1], pages);
+        return findPageContaining(frame.selfId(), pos[0], pos[1], pages);
     }
 
-    private IDMLPage findPageContaining(double x, double y, List<IDMLPage> pages) {
+    private IDMLPage findPageContaining(String itemId, double x, double y, List<IDMLPage> pages) {
+        // 항목이 속한 스프레드의 페이지 목록이면 스프레드에 캐시된 페이지 영역으로 판정
+        IDMLSpread owner = idmlDoc.index().spreadOf(itemId);
+        if (owner != null && owner.pages() == pages) {
+            IDMLPage page = owner.findPageContaining(x, y);
+            if (page != null) return page;
+            return pages.isEmpty() ? null : pages.get(0);
+        }
+
         for (IDMLPage page : pages) {
             double[] bounds = page.geometricBounds();
             double[] transform = page.itemTransform();
@@ -650,6 +921,26 @@ public class IDMLToIntermediateConverter {
         return vectorShapeConverter.convert(shape, pageBounds, pageTransform, zOrder);
     }
 
+    /**
+     * 네이티브 벡터 모드에서 배경 렌더링 대신 HWPX 도형으로 내보낼 벡터 도형을 변환한다 (z-order 순).
+     * 배경 렌더러와 같은 selectNativeShapes() 규칙을 쓰므로 배경에서 빠진 도형과 일치한다.
+     */
+    private List<IntermediateFrame> convertNativeVectorShapes(IDMLSpread spread, IDMLPage page, int zOrderStart) {
+        List<IntermediateFrame> frames = new ArrayList<IntermediateFrame>();
+        List<IDMLSpread.RenderableItem> items = spread.getRenderableItemsOnPage(page);
+        Set<IDMLVectorShape> nativeShapes = vectorShapeConverter.selectNativeShapes(items);
+        for (IDMLSpread.RenderableItem item : items) {
+            if (item.type() != IDMLSpread.RenderableItem.Type.VECTOR) continue;
+            if (!nativeShapes.contains(item.vectorShape())) continue;
+            IntermediateFrame shapeFrame = vectorShapeConverter.convertNative(item.vectorShape(),
+                    page.geometricBounds(), page.itemTransform(), zOrderStart + frames.size());
+            if (shapeFrame != null) {
+                frames.add(shapeFrame);
+            }
+        }
+        return frames;
+    }
+
     private IntermediateFrame convertImageFrameForSpread(IDMLImageFrame imgFrame, IDMLPage page,
                                                           double[] pageTopLeft, int zOrder) {
         IntermediateFrame iFrame = convertImageFrame(imgFrame, page, zOrder);
@@ -758,6 +1049,9 @@ public class IDMLToIntermediateConverter {
      * TextFrameConverter에 위임한다.
      */
     private void prepareLinkedFrameChain(IDMLTextFrame firstFrame, IDMLSpread spread, IDMLStory story) {
+        if (recordedChainHeads != null) {
+            recordedChainHeads.add(firstFrame.selfId());
+        }
         textFrameConverter.prepareLinkedFrameChain(firstFrame, spread, story);
     }
 
@@ -1,10 +1,13 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
 
 import kr.dogfoot.hwpxlib.object.HWPXFile;
+import kr.dogfoot.hwpxlib.object.common.HWPXObject;
 import kr.dogfoot.hwpxlib.object.common.ObjectList;
+import kr.dogfoot.hwpxlib.object.content.context_hpf.ManifestItem;
 import kr.dogfoot.hwpxlib.object.content.header_xml.enumtype.*;
 import kr.dogfoot.hwpxlib.object.content.header_xml.references.BorderFill;
 import kr.dogfoot.hwpxlib.object.content.header_xml.references.borderfill.Border;
+import kr.dogfoot.hwpxlib.object.content.header_xml.references.borderfill.Image;
 import kr.dogfoot.hwpxlib.object.content.header_xml.references.CharPr;
 import kr.dogfoot.hwpxlib.object.content.header_xml.references.ParaPr;
 import kr.dogfoot.hwpxlib.object.content.section_xml.SectionXMLFile;
@@ -30,19 +33,32 @@ import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.table.Tr;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.secpr.SecPr;
 import kr.dogfoot.hwpxlib.tool.blankfilemaker.BlankFileMaker;
 import kr.dogfoot.hwpxlib.tool.equationconverter.EquationBuilder;
+import kr.dogfoot.hwpxlib.tool.finder.ObjectFinder;
+import kr.dogfoot.hwpxlib.tool.finder.comm.ObjectFilter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertOptions;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertResult;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.hwpx.HwpxImageWriter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.hwpx.HwpxShapeWriter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.hwpx.HwpxTextFrameWriter;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.BinDataRegistry;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.FontRegistry;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.StyleRegistry;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.*;
 import kr.dogfoot.hwpxlib.tool.imageinserter.ImageInserter;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
+import kr.dogfoot.hwpxlib.tool.util.SectionOrder;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * IntermediateDocument를 HWPXFile로 변환한다.
@@ -55,18 +71,75 @@ import java.util.concurrent.atomic.AtomicLong;
  * 5. 수식은 EquationBuilder.fromHwpScript()
  * 6. 이미지는 ImageInserter.registerImage() + insertInline()
  * 7. 페이지 크기 변경 시 SecPr로 섹션 분리
+ *
+ * 페이지/스프레드마다 section이 하나씩이고 section끼리는 공유 레지스트리로만 연결되므로,
+ * 스타일 등록 후 section은 sectionThreads개의 작업자 스레드에서 동시에 만든다.
+ * 공유 자원: StyleRegistry/BinDataRegistry의 조회, ConvertResult.addWarning().
+ * section 작업은 section용 레지스트리에 header 항목과 새 이미지를 임시 ID로 모아 두고, 메인 스레드가
+ * section을 순서대로 완성할 때 header 목록, BinData와 section의 manifest 항목을 추가하고 section의
+ * 임시 ID를 실제 ID로 바꾼다. 따라서 section끼리 서로 기다리지 않고, header.xml, content.hpf와
+ * section XML은 스레드 수와 관계없이 같다.
+ *
+ * 단락/도형 ID는 변환마다 만드는 IdAllocator에서 section별 구간으로 받으므로,
+ * 같은 입력은 스레드 수와 관계없이 같은 ID를 얻고 한 JVM의 여러 변환이 서로 영향을 주지 않는다.
  */
 public class IntermediateToHwpxConverter {
 
-    private static final AtomicLong PARA_ID_COUNTER = new AtomicLong(1000000000L);
-    private static final AtomicLong SHAPE_ID_COUNTER = new AtomicLong(5000000L);
-
     /**
      * IntermediateDocument를 ConvertResult로 변환한다.
      */
     public static ConvertResult convert(IntermediateDocument doc) throws ConvertException {
+        return convert(doc, ConvertOptions.defaults().sectionThreads());
+    }
+
+    /**
+     * IntermediateDocument를 ConvertResult로 변환한다.
+     *
+     * @param sectionThreads section을 동시에 만드는 스레드 수 (1이면 순차)
+     */
+    public static ConvertResult convert(IntermediateDocument doc, int sectionThreads) throws ConvertException {
+        return convert(doc, null, null, sectionThreads);
+    }
+
+    /**
+     * 중간 JSON을 페이지 단위로 읽으면서 변환한다. 변환이 끝난 페이지는 바로 놓아 주므로
+     * 중간 문서 전체를 메모리에 올리지 않는다 (스프레드 모드 문서는 header의 스프레드를 사용).
+     */
+    public static ConvertResult convert(IntermediatePageReader pageReader) throws ConvertException {
+        return convert(pageReader.header(), pageReader, null, ConvertOptions.defaults().sectionThreads());
+    }
+
+    /**
+     * 완성된 페이지 section을 받는 쪽. 변환과 동시에 section을 파일에 쓰고 메모리에서 놓을 때 사용한다.
+     */
+    public interface SectionSink {
+        /**
+         * 변환을 시작한다. 기본 파트(mimetype, META-INF 등)를 먼저 쓸 수 있다.
+         */
+        void start(HWPXFile hwpxFile) throws ConvertException;
+
+        /**
+         * 페이지 하나의 section이 완성되었다. 변환기는 이후 section과 binData를 건드리지 않는다.
+         *
+         * @param href    section 파트 경로 ("Contents/sectionN.xml")
+         * @param section 완성된 section
+         * @param binData 이 section을 만드는 동안 새로 등록된 BinData 항목
+         */
+        void section(String href, SectionXMLFile section, List<ManifestItem> binData) throws ConvertException;
+    }
+
+    /**
+     * 페이지를 원천에서 하나씩 받아 변환하고, 완성된 section을 바로 sink에 넘긴다 (페이지 모드 전용).
+     *
+     * @param header 페이지를 제외한 문서 필드 (폰트, 스타일, 레이아웃)
+     * @param pages  페이지 원천
+     * @param sink   완성된 section을 받는 쪽 (null이면 결과 HWPXFile에 모두 남는다)
+     * @param sectionThreads section을 동시에 만드는 스레드 수 (1이면 순차)
+     */
+    public static ConvertResult convert(IntermediateDocument header, IntermediatePageSource pages,
+                                        SectionSink sink, int sectionThreads) throws ConvertException {
         try {
-            return new IntermediateToHwpxConverter(doc).doConvert();
+            return new IntermediateToHwpxConverter(header, pages, sink, sectionThreads).doConvert();
         } catch (ConvertException ce) {
             throw ce;
         } catch (Exception e) {
@@ -76,18 +149,29 @@ public class IntermediateToHwpxConverter {
     }
 
     private final IntermediateDocument doc;
+    // 페이지를 하나씩 받는 경우 (null이면 doc.pages() 사용)
+    private final IntermediatePageSource pageSource;
+    // 완성된 section을 넘겨받는 쪽 (null이면 넘기지 않음)
+    private final SectionSink sectionSink;
+    // sectionSink에 넘기지 않은 첫 manifest 항목 위치
+    private int manifestMark;
+    // section 생성 스레드 수
+    private final int sectionThreads;
     private final ConvertResult result;
     private HWPXFile hwpxFile;
+    // 단락/도형 ID 할당기 (section 작업에서는 그 section의 구간)
+    private IdAllocator ids;
+    // section 순서대로 문서 공용 항목을 등록하게 하는 순번
+    private SectionOrder sectionOrder;
 
     // 폰트 및 스타일 레지스트리
     private FontRegistry fontRegistry;
     private StyleRegistry styleRegistry;
-
-    // BorderFill ID 카운터 (1, 2는 BlankFileMaker에서 사용)
-    private final AtomicInteger borderFillIdCounter = new AtomicInteger(3);
+    // BinData 레지스트리 (같은 이미지는 한 항목으로 공유)
+    private BinDataRegistry binDataRegistry;
 
     // 도형 작성기 (shape frame → HWPX Rectangle/Ellipse/Polygon)
-    private final HwpxShapeWriter shapeWriter = new HwpxShapeWriter(SHAPE_ID_COUNTER);
+    private HwpxShapeWriter shapeWriter;
 
     // 이미지 작성기 (image frame → HWPX Picture)
     private HwpxImageWriter imageWriter;
@@ -95,21 +179,61 @@ public class IntermediateToHwpxConverter {
     // 텍스트 프레임 작성기 (text frame → HWPX Rectangle+DrawText)
     private HwpxTextFrameWriter textFrameWriter;
 
-    private IntermediateToHwpxConverter(IntermediateDocument doc) {
+    private IntermediateToHwpxConverter(IntermediateDocument doc, IntermediatePageSource pageSource,
+                                        SectionSink sectionSink, int sectionThreads) {
         this.doc = doc;
+        this.pageSource = pageSource;
+        this.sectionSink = sectionSink;
+        this.sectionThreads = Math.max(1, sectionThreads);
         this.result = new ConvertResult();
     }
 
+    /**
+     * sectionIndex번째 section을 만드는 변환기. 문서 상태와 레지스트리는 parent와 공유하고
+     * ID는 section 구간에서 받는다.
+     */
+    private IntermediateToHwpxConverter(IntermediateToHwpxConverter parent, int sectionIndex) {
+        this.doc = parent.doc;
+        this.pageSource = null;
+        this.sectionSink = null;
+        this.sectionThreads = parent.sectionThreads;
+        this.result = parent.result;
+        this.hwpxFile = parent.hwpxFile;
+        this.fontRegistry = parent.fontRegistry;
+        this.styleRegistry = parent.styleRegistry.forSection();
+        this.binDataRegistry = parent.binDataRegistry.forSection();
+        this.sectionOrder = parent.sectionOrder;
+        this.ids = parent.ids.forSection(sectionIndex);
+        initWriters();
+    }
+
+    private IntermediateToHwpxConverter forSection(int sectionIndex) {
+        return new IntermediateToHwpxConverter(this, sectionIndex);
+    }
+
+    private void initWriters() {
+        shapeWriter = new HwpxShapeWriter(ids);
+        imageWriter = new HwpxImageWriter(ids, binDataRegistry, result::addWarning);
+        textFrameWriter = new HwpxTextFrameWriter(ids,
+                hwpxFile, fontRegistry, styleRegistry, result::addWarning, binDataRegistry);
+    }
+
     private ConvertResult doConvert() throws ConvertException {
         // 1. BlankFileMaker로 기본 구조 생성
         hwpxFile = BlankFileMaker.make();
+        if (sectionSink != null) {
+            sectionSink.start(hwpxFile);
+        }
 
-        // 2. 이미지 작성기 초기화 (hwpxFile 필요)
-        imageWriter = new HwpxImageWriter(SHAPE_ID_COUNTER, hwpxFile, result::addWarning);
+        // 2. BinData 레지스트리와 ID 할당기 초기화 (hwpxFile 필요)
+        binDataRegistry = new BinDataRegistry(hwpxFile);
+        ids = new IdAllocator();
 
         // 3. 레지스트리 초기화
         fontRegistry = new FontRegistry(hwpxFile);
         styleRegistry = new StyleRegistry(hwpxFile, fontRegistry);
+        sectionOrder = new SectionOrder();
+        ids.sectionOrder(sectionOrder);
 
         // 3. 폰트 등록
         fontRegistry.registerFonts(doc);
@@ -117,16 +241,10 @@ public class IntermediateToHwpxConverter {
         // 4. 스타일 등록
         registerStyles();
 
-        // 5. 텍스트 프레임 작성기 초기화
-        textFrameWriter = new HwpxTextFrameWriter(SHAPE_ID_COUNTER, PARA_ID_COUNTER,
-                hwpxFile, fontRegistry, styleRegistry, result::addWarning, borderFillIdCounter);
+        // 5. 작성기 초기화
+        initWriters();
 
         // 6. 스프레드/페이지별로 별도 section 파일 생성
-        int pagesConverted = 0;
-        int framesConverted = 0;
-        int equationsConverted = 0;
-        int imagesConverted = 0;
-
         // 기존 section0 초기화 (첫 페이지용)
         SectionXMLFile section0 = hwpxFile.sectionXMLFileList().get(0);
         section0.removeAllParas();
@@ -134,147 +252,386 @@ public class IntermediateToHwpxConverter {
         // 디버그: 스프레드 모드 상태 출력
         System.err.println("[DEBUG] useSpreadMode: " + doc.useSpreadMode());
         System.err.println("[DEBUG] spreads count: " + (doc.spreads() != null ? doc.spreads().size() : "null"));
-        System.err.println("[DEBUG] pages count: " + (doc.pages() != null ? doc.pages().size() : "null"));
-
-        if (doc.useSpreadMode() && doc.spreads() != null && !doc.spreads().isEmpty()) {
-            // === 스프레드 모드: 각 스프레드를 하나의 section으로 변환 ===
-            int spreadIndex = 0;
-            for (IntermediateSpread spread : doc.spreads()) {
-                SectionXMLFile section;
-                if (spreadIndex == 0) {
-                    section = section0;
-                } else {
-                    section = hwpxFile.sectionXMLFileList().addNew();
-                    hwpxFile.contentHPFFile().manifest().addNew()
-                            .idAnd("section" + spreadIndex)
-                            .hrefAnd("Contents/section" + spreadIndex + ".xml")
-                            .mediaType("application/xml");
-                    hwpxFile.contentHPFFile().spine().addNew()
-                            .idref("section" + spreadIndex);
+        System.err.println("[DEBUG] pages count: " + (pageSource != null ? "streaming"
+                : doc.pages() != null ? String.valueOf(doc.pages().size()) : "null"));
+
+        // section은 서로 독립적이므로 작업자 스레드에서 동시에 만들고, 완성은 문서 순서대로 처리한다
+        ExecutorService pool = sectionThreads > 1 ? newSectionPool(sectionThreads) : null;
+        Deque<PendingSection> pending = new ArrayDeque<>();
+        int maxPending = sectionThreads * 2;
+        SectionStats total = new SectionStats();
+        try {
+            if (doc.useSpreadMode() && doc.spreads() != null && !doc.spreads().isEmpty()) {
+                // === 스프레드 모드: 각 스프레드를 하나의 section으로 변환 ===
+                int spreadIndex = 0;
+                for (final IntermediateSpread spread : doc.spreads()) {
+                    checkInterrupted();
+                    final SectionXMLFile section = spreadIndex == 0
+                            ? section0 : hwpxFile.sectionXMLFileList().addNew();
+                    final IntermediateToHwpxConverter builder = forSection(spreadIndex);
+                    pending.add(new PendingSection(spreadIndex, section, builder, submit(pool,
+                            sectionTask(spreadIndex, new Callable<SectionStats>() {
+                                public SectionStats call() {
+                                    return builder.buildSpreadSection(section, spread);
+                                }
+                            }))));
+                    while (pending.size() > maxPending) {
+                        completeSection(pending.poll(), total);
+                    }
+                    spreadIndex++;
                 }
-
-                // 스프레드 크기로 SecPr 생성 - 모든 floating 객체를 이 단락에 추가
-                Para secPrPara = addSectionBreakParaForSpreadWithReturn(section, spread);
-
-                // 프레임을 콘텐츠 카테고리 순서대로 정렬:
-                // 배경 이미지 → 디자인 포맷 이미지 → 벡터 그래픽 → 일반 이미지 → 텍스트
-                // 같은 카테고리 내에서는 z-order 순서로 정렬
-                List<IntermediateFrame> sortedFrames = new ArrayList<>(spread.frames());
-                sortedFrames.sort((a, b) -> Integer.compare(a.exportOrder(), b.exportOrder()));
-
-                // 모든 프레임을 SecPr 단락의 새 Run에 추가 (단일 단락 = 페이지 오버플로우 방지)
-                for (IntermediateFrame frame : sortedFrames) {
-                    Run frameRun = secPrPara.addNewRun();
-                    frameRun.charPrIDRef("0");
-
-                    if ("text".equals(frame.frameType())) {
-                        int eqCount = convertTextFrame(frameRun, frame);
-                        equationsConverted += eqCount;
-                        framesConverted++;
-                    } else if ("image".equals(frame.frameType())) {
-                        boolean ok = convertImageFrame(frameRun, frame);
-                        if (ok) imagesConverted++;
-                        framesConverted++;
-                    } else if ("rectangle".equals(frame.frameType())) {
-                        convertRectangleFrame(frameRun, frame);
-                        framesConverted++;
-                    } else if ("table".equals(frame.frameType())) {
-                        convertTableFrame(frameRun, frame);
-                        framesConverted++;
-                    } else if ("shape".equals(frame.frameType())) {
-                        convertShapeFrame(frameRun, frame);
-                        framesConverted++;
+            } else {
+                // === 페이지 모드: 각 페이지를 별도 section으로 변환 ===
+                int pageIndex = 0;
+                manifestMark = hwpxFile.contentHPFFile().manifest().count();
+                Iterator<IntermediatePage> pages = doc.pages().iterator();
+                IntermediatePage page;
+                while ((page = nextPage(pages)) != null) {
+                    checkInterrupted();
+                    final IntermediatePage taskPage = page;
+                    final SectionXMLFile section = pageIndex == 0
+                            ? section0 : hwpxFile.sectionXMLFileList().addNew();
+                    final IntermediateToHwpxConverter builder = forSection(pageIndex);
+                    pending.add(new PendingSection(pageIndex, section, builder, submit(pool,
+                            sectionTask(pageIndex, new Callable<SectionStats>() {
+                                public SectionStats call() {
+                                    return builder.buildPageSection(section, taskPage);
+                                }
+                            }))));
+                    while (pending.size() > maxPending) {
+                        completeSection(pending.poll(), total);
                     }
+                    pageIndex++;
                 }
+            }
+            while (!pending.isEmpty()) {
+                completeSection(pending.poll(), total);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
 
-                // 빈 section 방지 - SecPr 단락이 이미 있으므로 필요 없음
+        // header.xml의 secCnt를 섹션 개수로 업데이트
+        hwpxFile.headerXMLFile().secCnt((short) hwpxFile.sectionXMLFileList().count());
 
-                pagesConverted++;
-                spreadIndex++;
+        result.hwpxFile(hwpxFile);
+        result.pagesConverted(total.sections);
+        result.framesConverted(total.frames);
+        result.equationsConverted(total.equations);
+        result.imagesConverted(total.images);
+        result.imagesShared(binDataRegistry.reusedCount());
+        result.stylesConverted(styleRegistry.totalStyleCount());
+
+        return result;
+    }
+
+    // ── section 생성 ──
+
+    /**
+     * 스프레드 하나를 section으로 만든다. 작업자 스레드에서 호출될 수 있다.
+     */
+    private SectionStats buildSpreadSection(SectionXMLFile section, IntermediateSpread spread) {
+        SectionStats stats = new SectionStats();
+        // 스프레드 크기로 SecPr 생성 - 모든 floating 객체를 이 단락에 추가
+        Para secPrPara = addSectionBreakParaForSpreadWithReturn(section, spread);
+
+        // 프레임을 콘텐츠 카테고리 순서대로 정렬:
+        // 배경 이미지 → 디자인 포맷 이미지 → 벡터 그래픽 → 일반 이미지 → 텍스트
+        // 같은 카테고리 내에서는 z-order 순서로 정렬
+        List<IntermediateFrame> sortedFrames = new ArrayList<>(spread.frames());
+        sortedFrames.sort((a, b) -> Integer.compare(a.exportOrder(), b.exportOrder()));
+
+        // 모든 프레임을 SecPr 단락의 새 Run에 추가 (단일 단락 = 페이지 오버플로우 방지)
+        for (IntermediateFrame frame : sortedFrames) {
+            Run frameRun = secPrPara.addNewRun();
+            frameRun.charPrIDRef("0");
+
+            if ("text".equals(frame.frameType())) {
+                int eqCount = convertTextFrame(frameRun, frame);
+                stats.equations += eqCount;
+                stats.frames++;
+            } else if ("image".equals(frame.frameType())) {
+                boolean ok = convertImageFrame(frameRun, frame);
+                if (ok) stats.images++;
+                stats.frames++;
+            } else if ("rectangle".equals(frame.frameType())) {
+                convertRectangleFrame(frameRun, frame);
+                stats.frames++;
+            } else if ("table".equals(frame.frameType())) {
+                convertTableFrame(frameRun, frame);
+                stats.frames++;
+            } else if ("shape".equals(frame.frameType())) {
+                convertShapeFrame(frameRun, frame);
+                stats.frames++;
             }
-        } else {
-            // === 페이지 모드: 각 페이지를 별도 section으로 변환 ===
-            int pageIndex = 0;
-            for (IntermediatePage page : doc.pages()) {
-                SectionXMLFile section;
-                if (pageIndex == 0) {
-                    section = section0;
-                } else {
-                    section = hwpxFile.sectionXMLFileList().addNew();
-                    hwpxFile.contentHPFFile().manifest().addNew()
-                            .idAnd("section" + pageIndex)
-                            .hrefAnd("Contents/section" + pageIndex + ".xml")
-                            .mediaType("application/xml");
-                    hwpxFile.contentHPFFile().spine().addNew()
-                            .idref("section" + pageIndex);
-                }
+        }
+        return stats;
+    }
 
-                // SecPr 단락 생성 (페이지 속성)
-                addSectionBreakPara(section, page, true);
-
-                // 프레임을 콘텐츠 카테고리 순서대로 정렬:
-                // 배경 이미지 → 디자인 포맷 이미지 → 벡터 그래픽 → 일반 이미지 → 텍스트
-                List<IntermediateFrame> sortedFrames = new ArrayList<>(page.frames());
-                sortedFrames.sort((a, b) -> Integer.compare(a.exportOrder(), b.exportOrder()));
-
-                // 각 floating 객체를 별도 단락에 배치
-                for (IntermediateFrame frame : sortedFrames) {
-                    if ("text".equals(frame.frameType())) {
-                        Para framePara = createFloatingObjectPara(section);
-                        Run frameRun = framePara.runs().iterator().next();
-                        int eqCount = convertTextFrame(frameRun, frame);
-                        equationsConverted += eqCount;
-                        framesConverted++;
-                        addMinimalLineSegArray(framePara);  // 최소 높이로 페이지 오버플로우 방지
-                    } else if ("image".equals(frame.frameType())) {
-                        Para framePara = createFloatingObjectPara(section);
-                        Run frameRun = framePara.runs().iterator().next();
-                        boolean ok = convertImageFrame(frameRun, frame);
-                        if (ok) imagesConverted++;
-                        framesConverted++;
-                        addMinimalLineSegArray(framePara);  // 최소 높이로 페이지 오버플로우 방지
-                    } else if ("rectangle".equals(frame.frameType())) {
-                        Para framePara = createFloatingObjectPara(section);
-                        Run frameRun = framePara.runs().iterator().next();
-                        convertRectangleFrame(frameRun, frame);
-                        framesConverted++;
-                        addMinimalLineSegArray(framePara);
-                    } else if ("table".equals(frame.frameType())) {
-                        Para framePara = createFloatingObjectPara(section);
-                        Run frameRun = framePara.runs().iterator().next();
-                        convertTableFrame(frameRun, frame);
-                        framesConverted++;
-                        addMinimalLineSegArray(framePara);
-                    } else if ("shape".equals(frame.frameType())) {
-                        Para framePara = createFloatingObjectPara(section);
-                        Run frameRun = framePara.runs().iterator().next();
-                        convertShapeFrame(frameRun, frame);
-                        framesConverted++;
-                        addMinimalLineSegArray(framePara);
-                    }
+    /**
+     * 페이지 하나를 section으로 만든다. 작업자 스레드에서 호출될 수 있다.
+     */
+    private SectionStats buildPageSection(SectionXMLFile section, IntermediatePage page) {
+        SectionStats stats = new SectionStats();
+        // SecPr 단락 생성 (페이지 속성)
+        addSectionBreakPara(section, page, true);
+
+        // 프레임을 콘텐츠 카테고리 순서대로 정렬:
+        // 배경 이미지 → 디자인 포맷 이미지 → 벡터 그래픽 → 일반 이미지 → 텍스트
+        List<IntermediateFrame> sortedFrames = new ArrayList<>(page.frames());
+        sortedFrames.sort((a, b) -> Integer.compare(a.exportOrder(), b.exportOrder()));
+
+        // 각 floating 객체를 별도 단락에 배치
+        for (IntermediateFrame frame : sortedFrames) {
+            if ("text".equals(frame.frameType())) {
+                Para framePara = createFloatingObjectPara(section);
+                Run frameRun = framePara.runs().iterator().next();
+                int eqCount = convertTextFrame(frameRun, frame);
+                stats.equations += eqCount;
+                stats.frames++;
+                addMinimalLineSegArray(framePara);  // 최소 높이로 페이지 오버플로우 방지
+            } else if ("image".equals(frame.frameType())) {
+                Para framePara = createFloatingObjectPara(section);
+                Run frameRun = framePara.runs().iterator().next();
+                boolean ok = convertImageFrame(frameRun, frame);
+                if (ok) stats.images++;
+                stats.frames++;
+                addMinimalLineSegArray(framePara);  // 최소 높이로 페이지 오버플로우 방지
+            } else if ("rectangle".equals(frame.frameType())) {
+                Para framePara = createFloatingObjectPara(section);
+                Run frameRun = framePara.runs().iterator().next();
+                convertRectangleFrame(frameRun, frame);
+                stats.frames++;
+                addMinimalLineSegArray(framePara);
+            } else if ("table".equals(frame.frameType())) {
+                Para framePara = createFloatingObjectPara(section);
+                Run frameRun = framePara.runs().iterator().next();
+                convertTableFrame(frameRun, frame);
+                stats.frames++;
+                addMinimalLineSegArray(framePara);
+            } else if ("shape".equals(frame.frameType())) {
+                Para framePara = createFloatingObjectPara(section);
+                Run frameRun = framePara.runs().iterator().next();
+                convertShapeFrame(frameRun, frame);
+                stats.frames++;
+                addMinimalLineSegArray(framePara);
+            }
+        }
+
+        // 빈 section 방지
+        if (section.countOfPara() == 0) {
+            addEmptyPara(section);
+        }
+        return stats;
+    }
+
+    /**
+     * section 작업을 감싼다. 끝나면 (실패해도) 순번을 넘긴다. 공용 ID 영역을 기다리다 인터럽트되면
+     * 변환 취소로 알린다.
+     */
+    private Callable<SectionStats> sectionTask(final int index, final Callable<SectionStats> build) {
+        return new Callable<SectionStats>() {
+            public SectionStats call() throws Exception {
+                try {
+                    return build.call();
+                } catch (CancellationException e) {
+                    throw new ConvertException(ConvertException.Phase.HWPX_GENERATION, "Conversion cancelled", e);
+                } finally {
+                    sectionOrder.end(index);
                 }
+            }
+        };
+    }
+
+    /**
+     * section 작업이 모아 둔 header 항목과 이미지를 등록하고, section의 임시 ID를 실제 ID로 바꾼다.
+     * 메인 스레드에서 section 순서대로 호출되며, section의 manifest/spine 항목은 이 section이 등록한
+     * BinData 뒤, 다음 section이 등록할 BinData 앞에 온다.
+     */
+    private void commitSection(PendingSection pendingSection) throws ConvertException {
+        Map<String, String> idMap = new HashMap<>();
+        pendingSection.builder.styleRegistry.commitSection(idMap);
+        pendingSection.builder.binDataRegistry.commitSection(idMap);
+        if (!idMap.isEmpty()) {
+            replaceProvisionalIds(pendingSection.section, idMap);
+        }
+        if (pendingSection.index > 0) {
+            addSectionPart(pendingSection.index);
+        }
+    }
 
-                // 빈 section 방지
-                if (section.countOfPara() == 0) {
-                    addEmptyPara(section);
+    /**
+     * section의 단락/런/셀/그림이 참조하는 임시 ID를 실제 ID로 바꾼다.
+     */
+    private static void replaceProvisionalIds(SectionXMLFile section, final Map<String, String> idMap)
+            throws ConvertException {
+        ObjectFilter replacer = new ObjectFilter() {
+            public boolean isMatched(HWPXObject object, ArrayList<HWPXObject> parentsPath) {
+                if (object instanceof Para) {
+                    Para para = (Para) object;
+                    para.paraPrIDRef(replaced(para.paraPrIDRef()));
+                } else if (object instanceof Run) {
+                    Run run = (Run) object;
+                    run.charPrIDRef(replaced(run.charPrIDRef()));
+                } else if (object instanceof Tc) {
+                    Tc tc = (Tc) object;
+                    tc.borderFillIDRef(replaced(tc.borderFillIDRef()));
+                } else if (object instanceof Image) {
+                    Image image = (Image) object;
+                    image.binaryItemIDRef(replaced(image.binaryItemIDRef()));
                 }
+                return false;
+            }
 
-                pagesConverted++;
-                pageIndex++;
+            private String replaced(String id) {
+                String actual = id != null ? idMap.get(id) : null;
+                return actual != null ? actual : id;
             }
+        };
+        try {
+            ObjectFinder.find(section, replacer, false);
+        } catch (Exception e) {
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION,
+                    "Failed to assign ids in section: " + e.getMessage(), e);
         }
+    }
 
-        // header.xml의 secCnt를 섹션 개수로 업데이트
-        hwpxFile.headerXMLFile().secCnt((short) hwpxFile.sectionXMLFileList().count());
+    /**
+     * 변환을 맡은 스레드가 인터럽트되었으면 다음 section을 시작하지 않는다.
+     */
+    private static void checkInterrupted() throws ConvertException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION, "Conversion cancelled");
+        }
+    }
 
-        result.hwpxFile(hwpxFile);
-        result.pagesConverted(pagesConverted);
-        result.framesConverted(framesConverted);
-        result.equationsConverted(equationsConverted);
-        result.imagesConverted(imagesConverted);
-        result.stylesConverted(styleRegistry.totalStyleCount());
+    /**
+     * section 파트를 manifest와 spine에 추가한다 (section 순서대로 호출된다).
+     */
+    private void addSectionPart(int index) {
+        synchronized (binDataRegistry.manifestLock()) {
+            hwpxFile.contentHPFFile().manifest().addNew()
+                    .idAnd("section" + index)
+                    .hrefAnd("Contents/section" + index + ".xml")
+                    .mediaType("application/xml");
+            hwpxFile.contentHPFFile().spine().addNew()
+                    .idref("section" + index);
+        }
+    }
 
-        return result;
+    private static ExecutorService newSectionPool(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "hwpx-section-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * pool이 없으면 호출 스레드에서 바로 실행한다.
+     */
+    private static Future<SectionStats> submit(ExecutorService pool, Callable<SectionStats> task) {
+        if (pool != null) {
+            return pool.submit(task);
+        }
+        FutureTask<SectionStats> future = new FutureTask<>(task);
+        future.run();
+        return future;
+    }
+
+    /**
+     * 완성을 기다려 통계를 더하고, sectionSink가 있으면 section을 넘긴다.
+     */
+    private void completeSection(PendingSection pendingSection, SectionStats total) throws ConvertException {
+        SectionStats stats;
+        try {
+            stats = pendingSection.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION, "Conversion cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ConvertException) {
+                throw (ConvertException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION,
+                    "Failed to build section " + pendingSection.index + ": " + cause.getMessage(), cause);
+        }
+        commitSection(pendingSection);
+        total.sections++;
+        total.frames += stats.frames;
+        total.equations += stats.equations;
+        total.images += stats.images;
+
+        if (sectionSink != null) {
+            sectionSink.section("Contents/section" + pendingSection.index + ".xml",
+                    pendingSection.section, takeNewBinData());
+        }
+    }
+
+    private static class PendingSection {
+        final int index;
+        final SectionXMLFile section;
+        final IntermediateToHwpxConverter builder;
+        final Future<SectionStats> future;
+
+        PendingSection(int index, SectionXMLFile section, IntermediateToHwpxConverter builder,
+                       Future<SectionStats> future) {
+            this.index = index;
+            this.section = section;
+            this.builder = builder;
+            this.future = future;
+        }
+    }
+
+    /**
+     * section 하나에서 변환한 개수.
+     */
+    private static class SectionStats {
+        int sections;
+        int frames;
+        int equations;
+        int images;
+    }
+
+    /**
+     * 다음 페이지. 페이지 원천이 있으면 원천에서 하나씩 받는다.
+     */
+    private IntermediatePage nextPage(Iterator<IntermediatePage> pages) throws ConvertException {
+        if (pageSource != null) {
+            return pageSource.nextPage();
+        }
+        return pages.hasNext() ? pages.next() : null;
+    }
+
+    /**
+     * 지난 호출 이후 manifest에 새로 등록된 BinData 항목.
+     */
+    private List<ManifestItem> takeNewBinData() {
+        List<ManifestItem> items = new ArrayList<>();
+        synchronized (binDataRegistry.manifestLock()) {
+            ObjectList<ManifestItem> manifest = hwpxFile.contentHPFFile().manifest();
+            for (int i = manifestMark; i < manifest.count(); i++) {
+                ManifestItem item = manifest.get(i);
+                if (item.hasAttachedFile() && item.attachedFile() != null) {
+                    items.add(item);
+                }
+            }
+            manifestMark = manifest.count();
+        }
+        return items;
     }
 
     // ── 스타일 등록 ──
@@ -682,11 +1039,10 @@ public class IntermediateToHwpxConverter {
      * 테이블 셀용 BorderFill을 생성한다.
      */
     private String createCellBorderFill(IntermediateTableCell cell) {
-        String bfId = String.valueOf(borderFillIdCounter.getAndIncrement());
-        BorderFill bf = hwpxFile.headerXMLFile().refList().borderFills().addNew();
+        BorderFill bf = styleRegistry.addBorderFill();
+        String bfId = bf.id();
 
-        bf.idAnd(bfId)
-                .threeDAnd(false)
+        bf.threeDAnd(false)
                 .shadowAnd(false)
                 .centerLineAnd(CenterLineSort.NONE)
                 .breakCellSeparateLine(false);
@@ -938,11 +1294,11 @@ public class IntermediateToHwpxConverter {
 
     // ── 유틸리티 ──
 
-    private static String nextParaId() {
-        return String.valueOf(PARA_ID_COUNTER.incrementAndGet());
+    private String nextParaId() {
+        return ids.nextParaId();
     }
 
-    private static String nextShapeId() {
-        return String.valueOf(SHAPE_ID_COUNTER.incrementAndGet());
+    private String nextShapeId() {
+        return ids.nextShapeId();
     }
 }
@@ -0,0 +1,235 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertOptions;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IDMLPageRenderer.RenderResult;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.idml.VectorShapeConverter;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLImageFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.util.ColorResolver;
+import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 페이지 배경 PNG를 작업자 스레드 풀에서 미리 렌더링한다.
+ *
+ * 변환기는 대상 페이지를 모두 submit()한 뒤 페이지 순서대로 await()로 결과를 받는다.
+ * 렌더링 중이거나 렌더링이 끝났지만 아직 await()로 가져가지 않은 페이지 수는
+ * ConvertOptions.maxRastersInFlight()로 제한된다. 나머지 페이지는 대기열에 두었다가
+ * await()로 결과를 하나 가져갈 때마다 하나씩 시작한다 (미리 렌더링한 결과가 메모리에 쌓이지 않는다).
+ * renderThreads가 1이면 풀을 만들지 않고 await() 시점에 호출 스레드에서 렌더링한다.
+ * 디코딩된 링크 이미지는 모든 페이지가 하나의 DecodedImageCache를, 렌더링된 타일은 하나의 RasterCache를 공유한다.
+ *
+ * 결과는 페이지 내 위치를 가진 이미지 목록이다 (인코더는 RasterEncoder가 고른다). 기본은 페이지 전체 크기 PNG 하나이고,
+ * ConvertOptions.contentBoundedBackgrounds()가 켜져 있으면 그려진 영역만 담은 타일들이며
+ * 그릴 항목이 없는 페이지는 빈 목록이다.
+ * ConvertOptions.nativeVectorShapes()가 켜져 있으면 HWPX 도형으로 내보낼 벡터 도형은 그리지 않는다.
+ * submit()은 페이지에 배치된 디자인 파일 (PSD, AI 등)의 PNG 변환도 DesignFileCache 풀에 미리 예약한다.
+ */
+public class PageBackgroundRenderer {
+    private final IDMLDocument idmlDoc;
+    private final ConvertOptions options;
+    private final ExecutorService executor;
+    private final int window;
+    private final Deque<Object[]> queued;  // {spread, page}: 아직 시작하지 않은 페이지
+    private final Map<IDMLPage, Future<List<RenderResult>>> pending;
+    private final DecodedImageCache imageCache;
+    private final RasterCache rasterCache;
+    private final RasterEncoder encoder;
+    private final VectorShapeConverter nativeShapes;
+    private final DesignFileCache designFiles;
+    private final boolean ownsDesignFiles;
+
+    /**
+     * 옵션에 따라 이 렌더러 전용 디자인 파일 캐시를 만든다. shutdown()에서 함께 종료한다.
+     */
+    public PageBackgroundRenderer(IDMLDocument idmlDoc, ConvertOptions options) {
+        this(idmlDoc, options, IDMLToIntermediateConverter.createDesignFileCache(options), true);
+    }
+
+    /**
+     * @param designFiles 디자인 파일 PNG 변환 캐시 (이미지 프레임 변환기와 공유, 호출자가 종료)
+     */
+    public PageBackgroundRenderer(IDMLDocument idmlDoc, ConvertOptions options, DesignFileCache designFiles) {
+        this(idmlDoc, options, designFiles, false);
+    }
+
+    private PageBackgroundRenderer(IDMLDocument idmlDoc, ConvertOptions options, DesignFileCache designFiles,
+                                   boolean ownsDesignFiles) {
+        this.idmlDoc = idmlDoc;
+        this.options = options;
+        this.designFiles = designFiles;
+        this.ownsDesignFiles = ownsDesignFiles;
+        this.pending = new IdentityHashMap<IDMLPage, Future<List<RenderResult>>>();
+        this.queued = new ArrayDeque<Object[]>();
+        this.imageCache = new DecodedImageCache(options.imageCacheBytes());
+        this.rasterCache = new RasterCache(options.rasterCacheBytes());
+        this.encoder = new RasterEncoder()
+                .pngLevel(options.pngCompressionLevel())
+                .pngFilter(options.pngFilter())
+                .palettePng(options.palettePng())
+                .jpegForPhotos(options.jpegForPhotos())
+                .jpegQuality(options.jpegQuality());
+        this.nativeShapes = options.nativeVectorShapes()
+                ? new VectorShapeConverter(new ColorResolver(idmlDoc)) : null;
+
+        int threads = options.renderThreads();
+        if (threads > 1) {
+            this.executor = Executors.newFixedThreadPool(threads, new RenderThreadFactory());
+            this.window = Math.max(1, options.maxRastersInFlight());
+        } else {
+            this.executor = null;
+            this.window = 0;
+        }
+    }
+
+    /**
+     * 페이지 배경 렌더링을 예약한다.
+     */
+    public void submit(IDMLSpread spread, IDMLPage page) {
+        prefetchDesignFiles(spread, page);
+        if (executor == null) return;  // 순차 모드: await()에서 렌더링
+        queued.add(new Object[]{spread, page});
+        startQueued();
+    }
+
+    /**
+     * 렌더링 중이거나 결과를 가져가지 않은 페이지 수 (maxRastersInFlight 이하).
+     */
+    public int rastersInFlight() {
+        return pending.size();
+    }
+
+    /**
+     * 창에 자리가 있는 만큼 대기열의 페이지를 예약 순서대로 시작한다.
+     */
+    private void startQueued() {
+        while (pending.size() < window && !queued.isEmpty()) {
+            Object[] next = queued.poll();
+            final IDMLSpread spread = (IDMLSpread) next[0];
+            final IDMLPage page = (IDMLPage) next[1];
+            pending.put(page, executor.submit(new Callable<List<RenderResult>>() {
+                public List<RenderResult> call() throws Exception {
+                    return render(spread, page);
+                }
+            }));
+        }
+    }
+
+    /**
+     * 예약된 페이지의 PNG를 기다려 반환한다. 예약되지 않은 페이지는 즉시 렌더링한다.
+     */
+    public List<RenderResult> await(IDMLSpread spread, IDMLPage page) throws IOException {
+        Future<List<RenderResult>> future = pending.remove(page);
+        if (future == null) {
+            // 아직 시작하지 않았으면 대기열에서 빼고 호출 스레드에서 렌더링한다
+            for (Iterator<Object[]> it = queued.iterator(); it.hasNext(); ) {
+                if (it.next()[1] == page) {
+                    it.remove();
+                    break;
+                }
+            }
+            return render(spread, page);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Page background render interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause != null ? cause.toString() : e.toString(), cause);
+        } finally {
+            startQueued();
+        }
+    }
+
+    /**
+     * 남은 작업을 취소하고 스레드 풀을 종료한다.
+     */
+    public void shutdown() {
+        queued.clear();
+        for (Future<List<RenderResult>> future : pending.values()) {
+            future.cancel(true);
+        }
+        pending.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (ownsDesignFiles) {
+            designFiles.shutdown();
+        }
+    }
+
+    /**
+     * 페이지에 배치된 디자인 파일을 렌더링 DPI로 미리 변환하도록 예약한다.
+     */
+    private void prefetchDesignFiles(IDMLSpread spread, IDMLPage page) {
+        for (IDMLSpread.RenderableItem item : spread.getRenderableItemsOnPage(page)) {
+            if (item.type() != IDMLSpread.RenderableItem.Type.IMAGE) continue;
+            IDMLImageFrame frame = item.imageFrame();
+            File file = IDMLPageRenderer.findImageFile(idmlDoc, frame, options.linksDirectory());
+            if (file != null) {
+                designFiles.prefetch(file, options.vectorDpi());
+            }
+        }
+    }
+
+    public RasterCache rasterCache() {
+        return rasterCache;
+    }
+
+    public DecodedImageCache.Stats imageCacheStats() {
+        return imageCache.stats();
+    }
+
+    private List<RenderResult> render(IDMLSpread spread, IDMLPage page) throws IOException {
+        IDMLPageRenderer renderer = new IDMLPageRenderer(idmlDoc, options.vectorDpi(), imageCache)
+                .bandHeight(options.renderBandHeight())
+                .encoder(encoder)
+                .designFiles(designFiles)
+                .rasterCache(rasterCache);
+        if (nativeShapes != null) {
+            // 네이티브 도형으로 내보낼 도형은 배경에서 뺀다 (변환기와 같은 규칙)
+            renderer.skipShapes(nativeShapes.selectNativeShapes(spread.getRenderableItemsOnPage(page)));
+        }
+        if (options.contentBoundedBackgrounds()) {
+            return renderer.renderPageTiles(spread, page, options.linksDirectory(), options.drawPageBoundary());
+        }
+
+        List<RenderResult> results = new ArrayList<RenderResult>();
+        results.add(renderer.renderPageImage(spread, page, options.linksDirectory(), options.drawPageBoundary()));
+        return results;
+    }
+
+    private static class RenderThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "page-render-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
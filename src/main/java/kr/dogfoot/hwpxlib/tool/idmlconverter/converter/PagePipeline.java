@@ -0,0 +1,316 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import kr.dogfoot.hwpxlib.object.HWPXFile;
+import kr.dogfoot.hwpxlib.object.content.context_hpf.ManifestItem;
+import kr.dogfoot.hwpxlib.object.content.section_xml.SectionXMLFile;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertOptions;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertResult;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediatePage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediatePageSource;
+import kr.dogfoot.hwpxlib.writer.HWPXWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 페이지 파이프라인 IDML → HWPX 변환.
+ *
+ * 세 단계가 길이가 제한된 대기열로 연결되어 동시에 실행된다.
+ * <ol>
+ *   <li>중간 변환 (작업자 스레드): IDML 페이지 → IntermediatePage</li>
+ *   <li>section 생성 (호출 스레드): IntermediatePage → HWPX section</li>
+ *   <li>section 쓰기 (작업자 스레드): section과 새 BinData를 zip에 쓰고 메모리에서 해제</li>
+ * </ol>
+ * header.xml, content.hpf 등 문서 전체에 걸친 파트는 모든 페이지가 끝난 후 쓴다.
+ * 메모리에 머무는 페이지 수는 문서 길이와 무관하게 고정되므로 책 한 권 분량의 문서도
+ * 고정된 힙 안에서 변환된다. depth = ConvertOptions.pipelineDepth(),
+ * threads = ConvertOptions.sectionThreads()일 때 동시에 최대
+ * <ul>
+ *   <li>중간 페이지 depth + 1개 (대기열) + 1개 (중간 변환 중)</li>
+ *   <li>생성 중이거나 순서를 기다리는 section 2 × threads + 1개 (각각 자신의 중간 페이지를 붙잡는다)</li>
+ *   <li>쓰기를 기다리는 section depth개 + 1개 (쓰는 중)</li>
+ * </ul>
+ * 가 메모리에 있다. 페이지 모드 전용이다.
+ */
+public class PagePipeline {
+
+    // 대기열 끝 표시
+    private static final Object END = new Object();
+    // 실패 시 다른 단계가 멈추기를 기다리는 최대 시간 (밀리초)
+    private static final long ABORT_WAIT_MS = 10000;
+
+    /**
+     * IDML 문서를 변환해 HWPX를 out에 쓴다. 실패해도 out은 닫힌다.
+     * 반환된 결과의 hwpxFile()은 null이다 (section은 쓰인 후 해제된다).
+     */
+    public static ConvertResult convert(IDMLDocument idmlDoc, ConvertOptions options,
+                                        String sourceFileName, OutputStream out) throws ConvertException {
+        return new PagePipeline(idmlDoc, options, sourceFileName, out).run();
+    }
+
+    private final IDMLDocument idmlDoc;
+    private final ConvertOptions options;
+    private final String sourceFileName;
+    private final OutputStream out;
+    // 중간 변환 → section 생성 (header, 페이지..., 중간 변환 결과 또는 실패)
+    private final BlockingQueue<Object> pages;
+    // section 생성 → section 쓰기 (SectionPart..., END)
+    private final BlockingQueue<Object> sections;
+
+    private Thread intermediateThread;
+    private Thread writerThread;
+    private HWPXWriter writer;
+    private IDMLToIntermediateConverter.Result intermediateResult;
+    private volatile Throwable writerFailure;
+    private volatile int sectionsWritten;
+
+    private PagePipeline(IDMLDocument idmlDoc, ConvertOptions options, String sourceFileName,
+                         OutputStream out) {
+        this.idmlDoc = idmlDoc;
+        this.options = options;
+        this.sourceFileName = sourceFileName;
+        this.out = out;
+        int depth = Math.max(1, options.pipelineDepth());
+        this.pages = new ArrayBlockingQueue<Object>(depth + 1);
+        this.sections = new ArrayBlockingQueue<Object>(depth);
+    }
+
+    private ConvertResult run() throws ConvertException {
+        long start = System.nanoTime();
+        startIntermediateStage();
+        try {
+            Object first = takePage();
+            if (!(first instanceof IntermediateDocument)) {
+                throw new ConvertException(ConvertException.Phase.PARSING,
+                        "Pipeline did not receive a document header");
+            }
+
+            ConvertResult result = IntermediateToHwpxConverter.convert((IntermediateDocument) first,
+                    new QueuePageSource(), new WriterSectionSink(), options.sectionThreads());
+
+            finishWriterStage();
+            writer.finish();
+
+            intermediateResult.copyTo(result);
+            result.hwpxFile(null);
+            System.err.println("[INFO] 파이프라인 변환: section " + sectionsWritten + "개 ("
+                    + (System.nanoTime() - start) / 1000000 + "ms)");
+            return result;
+        } catch (ConvertException ce) {
+            abort();
+            throw ce;
+        } catch (Exception e) {
+            abort();
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION,
+                    "Pipelined conversion failed: " + e.getMessage(), e);
+        }
+    }
+
+    // ── 1단계: 중간 변환 ──
+
+    private void startIntermediateStage() {
+        intermediateThread = new Thread(new Runnable() {
+            public void run() {
+                Object last;
+                try {
+                    last = IDMLToIntermediateConverter.convert(idmlDoc, options, sourceFileName,
+                            new IDMLToIntermediateConverter.PageSink() {
+                                public void header(IntermediateDocument doc) throws ConvertException {
+                                    putPage(doc);
+                                }
+
+                                public void page(IntermediatePage page) throws ConvertException {
+                                    putPage(page);
+                                }
+                            });
+                } catch (Throwable t) {
+                    last = t;
+                }
+                try {
+                    pages.put(last);
+                } catch (InterruptedException e) {
+                    // 중단됨: 받는 쪽이 없다
+                }
+            }
+        }, "idml-pipeline-intermediate");
+        intermediateThread.setDaemon(true);
+        intermediateThread.start();
+    }
+
+    private void putPage(Object item) throws ConvertException {
+        try {
+            pages.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConvertException(ConvertException.Phase.PARSING, "Pipeline interrupted");
+        }
+    }
+
+    private Object takePage() throws ConvertException {
+        Object item;
+        try {
+            item = pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION, "Pipeline interrupted");
+        }
+        if (item instanceof ConvertException) {
+            throw (ConvertException) item;
+        }
+        if (item instanceof Throwable) {
+            Throwable t = (Throwable) item;
+            throw new ConvertException(ConvertException.Phase.PARSING,
+                    "Failed to convert IDML to intermediate format: " + t.getMessage(), t);
+        }
+        return item;
+    }
+
+    /**
+     * 2단계가 읽는 페이지 원천. 중간 변환 결과가 오면 끝이다.
+     */
+    private class QueuePageSource implements IntermediatePageSource {
+        @Override
+        public IntermediatePage nextPage() throws ConvertException {
+            if (intermediateResult != null) {
+                return null;
+            }
+            Object item = takePage();
+            if (item instanceof IDMLToIntermediateConverter.Result) {
+                intermediateResult = (IDMLToIntermediateConverter.Result) item;
+                return null;
+            }
+            return (IntermediatePage) item;
+        }
+    }
+
+    // ── 3단계: section 쓰기 ──
+
+    private static class SectionPart {
+        final String href;
+        final SectionXMLFile section;
+        final List<ManifestItem> binData;
+
+        SectionPart(String href, SectionXMLFile section, List<ManifestItem> binData) {
+            this.href = href;
+            this.section = section;
+            this.binData = binData;
+        }
+    }
+
+    /**
+     * 2단계가 완성한 section을 3단계로 넘긴다.
+     */
+    private class WriterSectionSink implements IntermediateToHwpxConverter.SectionSink {
+        @Override
+        public void start(HWPXFile hwpxFile) throws ConvertException {
+            startWriterStage(hwpxFile);
+        }
+
+        @Override
+        public void section(String href, SectionXMLFile section, List<ManifestItem> binData)
+                throws ConvertException {
+            if (writerFailure != null) {
+                throw writeFailure();
+            }
+            try {
+                sections.put(new SectionPart(href, section, binData));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConvertException(ConvertException.Phase.HWPX_GENERATION, "Pipeline interrupted");
+            }
+        }
+    }
+
+    private void startWriterStage(HWPXFile hwpxFile) throws ConvertException {
+        try {
+            writer = HWPXWriter.open(hwpxFile, out);
+        } catch (Exception e) {
+            throw new ConvertException(ConvertException.Phase.HWPX_GENERATION,
+                    "Failed to start HWPX file: " + e.getMessage(), e);
+        }
+
+        writerThread = new Thread(new Runnable() {
+            public void run() {
+                while (true) {
+                    Object item;
+                    try {
+                        item = sections.take();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (item == END) {
+                        return;
+                    }
+                    if (writerFailure != null) {
+                        continue;  // 실패 후에는 대기열만 비운다
+                    }
+                    SectionPart part = (SectionPart) item;
+                    try {
+                        writer.writeSection(part.href, part.section);
+                        for (ManifestItem binItem : part.binData) {
+                            writer.writeAttachedFile(binItem);
+                            binItem.attachedFile().data(null);
+                        }
+                        part.section.removeAllParas();
+                        sectionsWritten++;
+                    } catch (Throwable t) {
+                        writerFailure = t;
+                    }
+                }
+            }
+        }, "idml-pipeline-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void finishWriterStage() throws ConvertException, InterruptedException {
+        sections.put(END);
+        writerThread.join();
+        if (writerFailure != null) {
+            throw writeFailure();
+        }
+    }
+
+    private static void stop(Thread thread, long deadline) {
+        thread.interrupt();
+        try {
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            thread.interrupt();  // 대기 중에 인터럽트 상태가 지워졌을 수 있다
+            System.err.println("[WARN] 파이프라인 단계가 멈추지 않아 기다리지 않음: " + thread.getName());
+        }
+    }
+
+    private ConvertException writeFailure() {
+        return new ConvertException(ConvertException.Phase.HWPX_GENERATION,
+                "Failed to write HWPX section: " + writerFailure.getMessage(), writerFailure);
+    }
+
+    /**
+     * 실패 시 다른 단계를 멈추고 ABORT_WAIT_MS까지 기다린 후 출력 스트림을 닫는다.
+     * 그때까지 끝나지 않은 단계는 (데몬 스레드이므로) 기다리지 않고 남겨 둔다.
+     */
+    private void abort() {
+        long deadline = System.currentTimeMillis() + ABORT_WAIT_MS;
+        stop(intermediateThread, deadline);
+        if (writerThread != null) {
+            stop(writerThread, deadline);
+        }
+        if (writer != null) {
+            writer.abort();
+        }
+        try {
+            out.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 렌더링되어 인코딩된 래스터의 문서 단위 LRU 캐시.
+ *
+ * 키는 출력 래스터를 결정하는 값의 SHA-256이다: 출력 픽셀 좌표로 옮긴 경로 (위치가 달라도
+ * 모양이 같으면 같은 키), 해석된 채우기/선 색과 선 속성, 이미지 파일과 배치 변환, 픽셀 크기, DPI.
+ * 마스터에서 온 장식 요소나 여러 스토리에 반복된 같은 인라인 그래픽은 한 번만 렌더링/인코딩되고
+ * 이후에는 같은 바이트 배열이 반환된다 (HWPX에서는 BinDataRegistry가 같은 BinData 항목을 재사용한다).
+ * 인코딩된 바이트 합이 메모리 예산을 넘으면 가장 오래 사용되지 않은 항목부터 버린다.
+ * 여러 렌더링 스레드가 공유할 수 있다.
+ */
+public class RasterCache {
+    /** 기본 메모리 예산: 64MB (인코딩된 바이트 기준) */
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    /** 좌표를 1/64 픽셀 단위로 양자화해 키에 넣는다 */
+    private static final double COORD_QUANTUM = 64.0;
+
+    private final long budgetBytes;
+    private final LinkedHashMap<String, RasterEncoder.Encoded> entries;
+    private long currentBytes;
+    private int hits;
+    private int misses;
+
+    public RasterCache(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        this.entries = new LinkedHashMap<String, RasterEncoder.Encoded>(16, 0.75f, true);
+    }
+
+    public boolean enabled() {
+        return budgetBytes > 0;
+    }
+
+    /**
+     * 캐시된 래스터를 반환한다. 없으면 null.
+     */
+    public synchronized RasterEncoder.Encoded get(String key) {
+        if (key == null || budgetBytes == 0) return null;
+        RasterEncoder.Encoded encoded = entries.get(key);
+        if (encoded != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return encoded;
+    }
+
+    public synchronized void put(String key, RasterEncoder.Encoded encoded) {
+        if (key == null || encoded == null) return;
+        long size = encoded.data().length;
+        if (size > budgetBytes) return;  // 예산보다 큰 래스터는 캐시하지 않는다
+
+        RasterEncoder.Encoded old = entries.put(key, encoded);
+        if (old != null) currentBytes -= old.data().length;
+        currentBytes += size;
+
+        Iterator<Map.Entry<String, RasterEncoder.Encoded>> it = entries.entrySet().iterator();
+        while (currentBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<String, RasterEncoder.Encoded> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            currentBytes -= eldest.getValue().data().length;
+            it.remove();
+        }
+    }
+
+    public synchronized int hits() { return hits; }
+
+    public synchronized int misses() { return misses; }
+
+    public synchronized int entries() { return entries.size(); }
+
+    /**
+     * 캐시 키 작성기. 값을 순서대로 해시에 넣는다.
+     */
+    public static class KeyBuilder {
+        private final MessageDigest digest;
+        private final byte[] buf = new byte[8];
+
+        public KeyBuilder(String kind) {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            add(kind);
+        }
+
+        /** 픽셀 좌표 (1/64 픽셀로 양자화) */
+        public KeyBuilder coord(double v) {
+            return add(Math.round(v * COORD_QUANTUM));
+        }
+
+        /** 좌표가 아닌 실수 (변환 행렬 성분, 선 두께 등) */
+        public KeyBuilder value(double v) {
+            return add(Double.doubleToLongBits(v == 0.0 ? 0.0 : v));
+        }
+
+        public KeyBuilder add(long v) {
+            for (int i = 0; i < 8; i++) {
+                buf[i] = (byte) (v >>> (56 - i * 8));
+            }
+            digest.update(buf, 0, 8);
+            return this;
+        }
+
+        public KeyBuilder add(boolean v) {
+            digest.update((byte) (v ? 1 : 0));
+            return this;
+        }
+
+        public KeyBuilder add(String s) {
+            if (s == null) {
+                add(-1L);
+            } else {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                add((long) bytes.length);
+                digest.update(bytes);
+            }
+            return this;
+        }
+
+        public String build() {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.zip.Deflater;
+
+/**
+ * 렌더링된 래스터의 인코더 선택.
+ *
+ * PNG는 StreamingPngWriter로 인코딩하며 압축 레벨과 필터 전략을 설정할 수 있다.
+ * 래스터 전체를 한 번에 받는 encode()는 픽셀을 먼저 훑어
+ * 256색 이하이면 팔레트 PNG를, 완전히 불투명하고 색이 PHOTO_MIN_COLORS 이상인
+ * 사진성 이미지이면 JPEG를, 그 밖에는 RGBA PNG를 고른다.
+ * 띠 단위 스트리밍(newPngWriter)은 투명도를 미리 알 수 없으므로 PNG(팔레트/RGBA)만 쓴다.
+ */
+public class RasterEncoder {
+    /** 이 색 수 이상이면 사진성 이미지로 본다 */
+    static final int PHOTO_MIN_COLORS = 4096;
+    private static final int MAX_PALETTE = 256;
+
+    public static final float DEFAULT_JPEG_QUALITY = 0.9f;
+    public static final String ENCODING_JPEG = "jpeg";
+
+    private int pngLevel = Deflater.DEFAULT_COMPRESSION;
+    private StreamingPngWriter.Filter pngFilter = StreamingPngWriter.Filter.ADAPTIVE;
+    private boolean palettePng = true;
+    private boolean jpegForPhotos = true;
+    private float jpegQuality = DEFAULT_JPEG_QUALITY;
+
+    /**
+     * PNG deflate 압축 레벨 (0~9, -1은 zlib 기본값).
+     */
+    public RasterEncoder pngLevel(int pngLevel) {
+        this.pngLevel = pngLevel;
+        return this;
+    }
+
+    public int pngLevel() {
+        return pngLevel;
+    }
+
+    public RasterEncoder pngFilter(StreamingPngWriter.Filter pngFilter) {
+        this.pngFilter = pngFilter;
+        return this;
+    }
+
+    public StreamingPngWriter.Filter pngFilter() {
+        return pngFilter;
+    }
+
+    /**
+     * 256색 이하 래스터를 팔레트 PNG로 쓸지 여부.
+     */
+    public RasterEncoder palettePng(boolean palettePng) {
+        this.palettePng = palettePng;
+        return this;
+    }
+
+    public boolean palettePng() {
+        return palettePng;
+    }
+
+    /**
+     * 불투명한 사진성 래스터를 JPEG로 쓸지 여부.
+     */
+    public RasterEncoder jpegForPhotos(boolean jpegForPhotos) {
+        this.jpegForPhotos = jpegForPhotos;
+        return this;
+    }
+
+    public boolean jpegForPhotos() {
+        return jpegForPhotos;
+    }
+
+    public RasterEncoder jpegQuality(float jpegQuality) {
+        this.jpegQuality = Math.max(0f, Math.min(1f, jpegQuality));
+        return this;
+    }
+
+    public float jpegQuality() {
+        return jpegQuality;
+    }
+
+    /**
+     * 띠 단위 인코딩용 PNG 작성기를 만든다.
+     */
+    public StreamingPngWriter newPngWriter(OutputStream out, int width, int height) throws IOException {
+        return new StreamingPngWriter(out, width, height, pngLevel, pngFilter, palettePng);
+    }
+
+    /**
+     * 래스터 전체를 인코딩한다.
+     *
+     * @param image TYPE_INT_ARGB 또는 임의 형식의 이미지
+     */
+    public Encoded encode(BufferedImage image) throws IOException {
+        long start = System.nanoTime();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] argb;
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt
+                && image.getRaster().getDataBuffer().getSize() == width * height) {
+            argb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        } else {
+            argb = image.getRGB(0, 0, width, height, null, 0, width);
+        }
+
+        // 투명도와 색 수 분석 (PHOTO_MIN_COLORS에서 세기를 멈춘다)
+        boolean opaque = true;
+        ColorCounter counter = new ColorCounter(PHOTO_MIN_COLORS);
+        for (int i = 0; i < argb.length; i++) {
+            int c = argb[i];
+            if ((c >>> 24) != 0xff) {
+                opaque = false;
+                c = (c >>> 24) == 0 ? 0 : c;
+            }
+            if (!counter.full()) counter.add(c);
+            else if (!opaque) break;
+        }
+        int colors = counter.size();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        if (jpegForPhotos && opaque && colors >= PHOTO_MIN_COLORS) {
+            writeJpeg(image, baos);
+            return new Encoded(baos.toByteArray(), "jpg", ENCODING_JPEG, System.nanoTime() - start);
+        }
+
+        StreamingPngWriter png = new StreamingPngWriter(baos, width, height, pngLevel, pngFilter,
+                palettePng && colors <= MAX_PALETTE);
+        try {
+            png.writeRows(argb, 0, width, height);
+            png.finish();
+        } finally {
+            png.close();
+        }
+        return new Encoded(baos.toByteArray(), "png", png.encoding(), System.nanoTime() - start);
+    }
+
+    private void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        // JPEG 작성기는 알파 채널이 있는 이미지를 올바르게 쓰지 못하므로 RGB로 옮긴다
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.getGraphics().drawImage(image, 0, 0, null);
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        ImageOutputStream ios = ImageIO.createImageOutputStream(out);
+        try {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+            ios.close();
+        }
+    }
+
+    /**
+     * 인코딩 결과.
+     */
+    public static class Encoded {
+        private final byte[] data;
+        private final String format;
+        private final String encoding;
+        private final long encodeNanos;
+
+        public Encoded(byte[] data, String format, String encoding, long encodeNanos) {
+            this.data = data;
+            this.format = format;
+            this.encoding = encoding;
+            this.encodeNanos = encodeNanos;
+        }
+
+        public byte[] data() { return data; }
+        /** 파일 형식 ("png" 또는 "jpg") */
+        public String format() { return format; }
+        /** 인코더 종류 ("png-rgba", "png-palette", "jpeg") */
+        public String encoding() { return encoding; }
+        public long encodeNanos() { return encodeNanos; }
+    }
+
+    /**
+     * limit개까지만 서로 다른 색을 세는 집합 (개방 주소법).
+     */
+    private static class ColorCounter {
+        private final int limit;
+        private final int[] keys;
+        private final boolean[] used;
+        private final int mask;
+        private int size;
+        private int last;
+        private boolean hasLast;
+
+        ColorCounter(int limit) {
+            this.limit = limit;
+            int slots = Integer.highestOneBit(limit * 2) << 1;
+            this.keys = new int[slots];
+            this.used = new boolean[slots];
+            this.mask = slots - 1;
+        }
+
+        void add(int color) {
+            if (hasLast && color == last) return;
+            last = color;
+            hasLast = true;
+            int h = color * 0x9E3779B1;
+            int slot = (h ^ (h >>> 15)) & mask;
+            while (used[slot]) {
+                if (keys[slot] == color) return;
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = color;
+            size++;
+        }
+
+        boolean full() { return size >= limit; }
+        int size() { return size; }
+    }
+}
@@ -0,0 +1,462 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertOptions;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConverterVersion;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLImageFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLStory;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLTextFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.BinaryDeserializer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.BinarySerializer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediatePage;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * 증분 변환용 스프레드 단위 중간 페이지 디스크 캐시.
+ *
+ * 스프레드 키는 출력 페이지를 결정하는 입력의 SHA-256이다: 파싱된 스프레드 (마스터 항목 포함),
+ * 스프레드의 텍스트 프레임이 참조하는 Story와 그 Story의 연결 프레임 전체, 문서 스타일/폰트/색상,
+ * 배치된 링크 파일 (경로, 크기, 수정 시각), 출력에 영향을 주는 변환 옵션, 캐시 형식 버전과
+ * 변환기 빌드 식별자 ({@link ConverterVersion#id()}, 변환 코드가 바뀌면 이전 항목을 쓰지 않는다).
+ * 항목은 스프레드의 페이지마다 하나이며 (<dir>/<spreadKey>-<pageIndex>.bin),
+ * 렌더링된 배경 이미지를 포함한 IntermediatePage를 바이너리 중간 포맷으로 담는다.
+ *
+ * 페이지 변환은 앞 페이지가 남긴 상태 (처리된 Story, 연결 프레임 분할)에 기대므로
+ * 항목에는 변환 시작 시점의 상태와 페이지가 남긴 상태 변화도 함께 저장한다.
+ * 시작 상태가 다르면 캐시를 쓰지 않고 다시 변환한다. z-order는 페이지 안에서만 세므로 상태에 넣지 않는다.
+ *
+ * 입력이 바뀌면 키가 바뀌므로 이전 키의 항목은 쓰이지 않은 채 남는다. 디렉토리의 항목 합계가
+ * maxBytes를 넘으면 가장 오래 쓰지 않은 항목부터 지운다 (읽은 항목은 수정 시각을 갱신한다).
+ *
+ * 항목은 임시 파일에 쓴 뒤 이름을 바꾼다. 저장 실패는 변환을 막지 않으며,
+ * 디렉토리는 언제 지워도 된다 (다음 변환이 다시 채운다).
+ */
+public class SpreadCache {
+    /** 항목 형식이나 중간 변환 결과가 바뀌면 올린다. */
+    public static final int FORMAT_VERSION = 2;
+
+    /** 디렉토리 항목 합계의 기본 상한 */
+    public static final long DEFAULT_MAX_BYTES = 2048L * 1024 * 1024;
+
+    private static final int MAGIC = 0x49534331;  // "ISC1"
+
+    /**
+     * 페이지 하나의 캐시 항목.
+     */
+    public static class Entry {
+        private final IntermediatePage page;
+        private final List<String> processedStories;
+        private final List<String> linkedChainHeads;
+        private final List<String> warnings;
+
+        public Entry(IntermediatePage page, List<String> processedStories,
+                     List<String> linkedChainHeads, List<String> warnings) {
+            this.page = page;
+            this.processedStories = processedStories;
+            this.linkedChainHeads = linkedChainHeads;
+            this.warnings = warnings;
+        }
+
+        public IntermediatePage page() { return page; }
+        /** 이 페이지에서 처음 처리된 Story ID */
+        public List<String> processedStories() { return processedStories; }
+        /** 이 페이지에서 텍스트 분할을 준비한 연결 프레임 체인의 첫 프레임 ID */
+        public List<String> linkedChainHeads() { return linkedChainHeads; }
+        /** 이 페이지를 변환하는 동안 생긴 경고 */
+        public List<String> warnings() { return warnings; }
+    }
+
+    private final File directory;
+    private final IDMLDocument idmlDoc;
+    private final ConvertOptions options;
+    private final Map<IDMLSpread, String> spreadKeys;
+    private final long maxBytes;
+    // 디렉토리 항목 합계 (처음 저장할 때 계산하고 이후 저장마다 더한다, -1이면 아직 모름)
+    private long totalBytes = -1;
+    private byte[] documentDigest;
+    private Map<String, List<IDMLTextFrame>> framesByStory;
+    private int hits;
+    private int misses;
+
+    public SpreadCache(File directory, IDMLDocument idmlDoc, ConvertOptions options) {
+        this(directory, idmlDoc, options, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes 디렉토리 항목 합계의 상한 (바이트)
+     */
+    public SpreadCache(File directory, IDMLDocument idmlDoc, ConvertOptions options, long maxBytes) {
+        this.directory = directory;
+        this.idmlDoc = idmlDoc;
+        this.options = options;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.spreadKeys = new IdentityHashMap<IDMLSpread, String>();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("[WARN] 증분 변환 캐시 디렉토리를 만들 수 없음: " + directory.getAbsolutePath());
+        }
+    }
+
+    public File directory() { return directory; }
+
+    public int hits() { return hits; }
+
+    public int misses() { return misses; }
+
+    public long maxBytes() { return maxBytes; }
+
+    /**
+     * 페이지 항목이 있는지 (시작 상태는 확인하지 않는다). 배경 렌더링을 미리 예약할지 정할 때 사용한다.
+     */
+    public boolean contains(IDMLSpread spread, int pageIndex) {
+        return entryFile(spread, pageIndex).isFile();
+    }
+
+    /**
+     * 시작 상태가 state인 페이지 항목을 읽는다. 없거나 상태가 다르거나 읽을 수 없으면 null.
+     */
+    public Entry get(IDMLSpread spread, int pageIndex, String state) {
+        File file = entryFile(spread, pageIndex);
+        if (!file.isFile()) {
+            misses++;
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536));
+            try {
+                if (in.readInt() != MAGIC || !state.equals(readString(in))) {
+                    misses++;
+                    return null;
+                }
+                List<String> stories = readStrings(in);
+                List<String> chainHeads = readStrings(in);
+                List<String> warnings = readStrings(in);
+                IntermediateDocument holder = BinaryDeserializer.read(in);
+                if (holder.pages() == null || holder.pages().size() != 1) {
+                    misses++;
+                    return null;
+                }
+                hits++;
+                file.setLastModified(System.currentTimeMillis());  // LRU 순서 갱신
+                return new Entry(holder.pages().get(0), stories, chainHeads, warnings);
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            System.err.println("[INFO] 증분 변환 캐시 항목을 읽을 수 없어 다시 변환: " + file.getName());
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * 페이지 항목을 저장한다. 키가 같은 (입력이 같은) 이전 항목만 대체하며,
+     * 디렉토리 합계가 maxBytes를 넘으면 오래 쓰지 않은 항목을 지운다.
+     */
+    public void put(IDMLSpread spread, int pageIndex, String state, Entry entry) {
+        File file = entryFile(spread, pageIndex);
+        File tmp = new File(file.getPath() + ".tmp");
+        long replaced = file.length();
+        try {
+            IntermediateDocument holder = new IntermediateDocument();
+            holder.addPage(entry.page());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 65536));
+            try {
+                out.writeInt(MAGIC);
+                writeString(out, state);
+                writeStrings(out, entry.processedStories());
+                writeStrings(out, entry.linkedChainHeads());
+                writeStrings(out, entry.warnings());
+                BinarySerializer.write(holder, out);
+            } finally {
+                out.close();
+            }
+            if (!tmp.renameTo(file)) {
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    tmp.delete();
+                }
+            }
+        } catch (Exception e) {
+            tmp.delete();
+            System.err.println("[INFO] 증분 변환 캐시 저장 실패: " + e.getMessage());
+            return;
+        }
+        if (totalBytes < 0) {
+            totalBytes = entryBytes(listEntries());
+        } else {
+            totalBytes += file.length() - replaced;
+        }
+        if (totalBytes > maxBytes) {
+            trim(file);
+        }
+    }
+
+    /**
+     * 디렉토리의 항목 합계가 maxBytes 이하가 될 때까지 가장 오래 쓰지 않은 항목을 지운다.
+     *
+     * @param keep 지우지 않을 항목 (방금 저장한 항목)
+     */
+    private void trim(File keep) {
+        File[] files = listEntries();
+        long total = entryBytes(files);
+        final long[] modified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            modified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Long.compare(modified[a], modified[b]);
+            }
+        });
+        for (int i = 0; i < order.length && total > maxBytes; i++) {
+            File f = files[order[i]];
+            if (f.equals(keep)) continue;
+            long size = f.length();
+            if (f.delete()) {
+                total -= size;
+            }
+        }
+        totalBytes = total;
+    }
+
+    private File[] listEntries() {
+        File[] files = directory.listFiles(new FileFilter() {
+            public boolean accept(File f) {
+                return f.isFile() && f.getName().endsWith(".bin");
+            }
+        });
+        return files != null ? files : new File[0];
+    }
+
+    private static long entryBytes(File[] files) {
+        long total = 0;
+        for (File f : files) {
+            total += f.length();
+        }
+        return total;
+    }
+
+    private File entryFile(IDMLSpread spread, int pageIndex) {
+        return new File(directory, spreadKey(spread) + "-" + pageIndex + ".bin");
+    }
+
+    // ── 키 계산 ──
+
+    /**
+     * 스프레드 키. 문서당 한 번 계산해 둔다.
+     */
+    public String spreadKey(IDMLSpread spread) {
+        String key = spreadKeys.get(spread);
+        if (key == null) {
+            key = computeSpreadKey(spread);
+            spreadKeys.put(spread, key);
+        }
+        return key;
+    }
+
+    /*
+     * 키는 모델 객체의 Java 직렬화 바이트를 해시한다. 이 바이트는 같은 입력이면 실행마다 같다:
+     * 직렬화되는 idml 모델에는 ArrayList, 배열, 문자열, 수치만 있고 (조회용 HashMap은 transient),
+     * 문서의 Map/Set은 TreeMap/TreeSet으로 복사해 키 순서로 쓴다. 클래스 기술자에는 고정된
+     * serialVersionUID와 필드 목록이 들어가므로 모델 필드가 바뀌면 키도 바뀐다.
+     * 모델에 HashMap/HashSet 필드를 추가할 때는 transient로 두거나 정렬된 사본을 쓴다.
+     */
+    private String computeSpreadKey(IDMLSpread spread) {
+        MessageDigest digest = sha256();
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(
+                    new DigestOutputStream(new NullOutputStream(), digest));
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(ConverterVersion.id());
+            out.write(documentDigest());
+            out.writeObject(spread);
+
+            // 참조하는 Story와 연결 프레임 (다른 스프레드의 프레임 크기도 텍스트 분할에 영향을 준다)
+            Set<String> storyIds = new TreeSet<String>();
+            for (IDMLTextFrame tf : spread.textFrames()) {
+                if (tf.parentStoryId() != null) {
+                    storyIds.add(tf.parentStoryId());
+                }
+            }
+            for (String storyId : storyIds) {
+                out.writeUTF(storyId);
+                IDMLStory story = idmlDoc.getStory(storyId);
+                out.writeObject(story);
+                writeFileDigest(out, storyFile(storyId));  // 수식은 Story XML에서 다시 읽는다
+                List<IDMLTextFrame> frames = framesByStory().get(storyId);
+                if (frames != null && frames.size() > 1) {
+                    out.writeObject(new ArrayList<IDMLTextFrame>(frames));
+                }
+            }
+
+            // 배치된 링크 파일
+            for (IDMLImageFrame frame : spread.imageFrames()) {
+                File file = IDMLPageRenderer.findImageFile(idmlDoc, frame, options.linksDirectory());
+                out.writeUTF(file != null ? file.getAbsolutePath() : "-");
+                if (file != null) {
+                    out.writeLong(file.length());
+                    out.writeLong(file.lastModified());
+                }
+            }
+            out.close();
+        } catch (IOException e) {
+            // 메모리 스트림이므로 발생하지 않는다
+            throw new IllegalStateException(e);
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * 모든 스프레드가 공유하는 입력 (스타일, 폰트, 색상, 숨김 레이어, 옵션)의 해시.
+     */
+    private byte[] documentDigest() throws IOException {
+        if (documentDigest == null) {
+            MessageDigest digest = sha256();
+            ObjectOutputStream out = new ObjectOutputStream(
+                    new DigestOutputStream(new NullOutputStream(), digest));
+            out.writeObject(new TreeMap<String, Object>(idmlDoc.paraStyles()));
+            out.writeObject(new TreeMap<String, Object>(idmlDoc.charStyles()));
+            out.writeObject(new TreeMap<String, Object>(idmlDoc.fonts()));
+            out.writeObject(new TreeMap<String, Object>(idmlDoc.colors()));
+            out.writeObject(new TreeSet<String>(idmlDoc.hiddenLayerIds()));
+            out.writeInt(idmlDoc.pageNumberStart());
+            out.writeUTF(optionsFingerprint(options));
+            out.close();
+            documentDigest = digest.digest();
+        }
+        return documentDigest;
+    }
+
+    /**
+     * 중간 페이지 내용에 영향을 주는 옵션. 페이지 범위와 스레드 수 등 실행 방식은 넣지 않는다.
+     */
+    static String optionsFingerprint(ConvertOptions options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(options.includeImages()).append('|')
+                .append(options.includeEquations()).append('|')
+                .append(options.includeStyles()).append('|')
+                .append(options.imageOutputDir()).append('|')
+                .append(options.imageDpi()).append('|')
+                .append(options.vectorDpi()).append('|')
+                .append(options.linksDirectory()).append('|')
+                .append(options.singlePagePerSpread()).append('|')
+                .append(options.mergeAllPages()).append('|')
+                .append(options.drawPageBoundary()).append('|')
+                .append(options.contentBoundedBackgrounds()).append('|')
+                .append(options.pngCompressionLevel()).append('|')
+                .append(options.pngFilter()).append('|')
+                .append(options.palettePng()).append('|')
+                .append(options.jpegForPhotos()).append('|')
+                .append(options.jpegQuality()).append('|')
+                .append(options.nativeVectorShapes()).append('|')
+                .append(options.renderBandHeight());  // 띠 렌더링은 안티앨리어싱 결과가 다르다
+        return sb.toString();
+    }
+
+    private Map<String, List<IDMLTextFrame>> framesByStory() {
+        if (framesByStory == null) {
+            framesByStory = new HashMap<String, List<IDMLTextFrame>>();
+            for (IDMLSpread spread : idmlDoc.spreads()) {
+                for (IDMLTextFrame tf : spread.textFrames()) {
+                    if (tf.parentStoryId() == null) continue;
+                    List<IDMLTextFrame> frames = framesByStory.get(tf.parentStoryId());
+                    if (frames == null) {
+                        frames = new ArrayList<IDMLTextFrame>();
+                        framesByStory.put(tf.parentStoryId(), frames);
+                    }
+                    frames.add(tf);
+                }
+            }
+        }
+        return framesByStory;
+    }
+
+    private File storyFile(String storyId) {
+        if (idmlDoc.basePath() == null) return null;
+        return new File(new File(idmlDoc.basePath(), "Stories"), "Story_" + storyId + ".xml");
+    }
+
+    private static void writeFileDigest(ObjectOutputStream out, File file) throws IOException {
+        if (file == null || !file.isFile()) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        MessageDigest digest = sha256();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[65536];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                digest.update(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        out.write(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+
+    // ── 항목 입출력 ──
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String s : list) {
+            writeString(out, s);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> list = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(readString(in));
+        }
+        return list;
+    }
+
+    private static class NullOutputStream extends OutputStream {
+        public void write(int b) {
+        }
+
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
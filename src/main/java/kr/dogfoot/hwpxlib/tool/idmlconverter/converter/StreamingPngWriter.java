@@ -0,0 +1,554 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 행 단위로 픽셀을 받아 바로 압축하는 PNG 인코더 (8비트 RGBA).
+ *
+ * 전체 이미지를 메모리에 두지 않고 띠(band) 단위로 렌더링한 결과를 순서대로 넘기면
+ * 이전 행 하나만 유지하며 IDAT 청크로 내보낸다. 기본은 행마다 None/Sub/Up/Average/Paeth 중
+ * 절대값 합이 가장 작은 필터를 고르며(ADAPTIVE), 압축 레벨과 필터는 생성자에서 정할 수 있다.
+ *
+ * 팔레트 시도를 켜면 색상 수를 세면서 8비트 인덱스 스트림을 함께 압축하고, 끝까지 256색
+ * 이하이면 finish()에서 더 작은 쪽(팔레트 또는 RGBA)을 출력한다. 이 경우 결정을 미루기
+ * 위해 두 압축 스트림을 모아 두는데, 각각 spillThreshold를 넘으면 임시 파일로 옮긴다
+ * (압축 전 픽셀은 여전히 행 단위로만 유지). 임시 파일은 finish() 또는 close()에서 지운다.
+ */
+public class StreamingPngWriter implements Closeable {
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+    private static final int IDAT_CHUNK_SIZE = 32 * 1024;
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int MAX_PALETTE = 256;
+
+    /** 팔레트 시도 중 압축 스트림 하나를 메모리에 둘 최대 크기 (바이트) */
+    public static final long DEFAULT_SPILL_THRESHOLD = 8L * 1024 * 1024;
+
+    /** 행 필터 전략 */
+    public enum Filter {
+        NONE, SUB, UP, AVERAGE, PAETH,
+        /** 행마다 다섯 필터 중 절대값 합이 가장 작은 것 */
+        ADAPTIVE
+    }
+
+    public static final String ENCODING_RGBA = "png-rgba";
+    public static final String ENCODING_PALETTE = "png-palette";
+
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private final Filter filter;
+    private final DeflaterOutputStream idat;
+    private final Deflater deflater;
+    private byte[] prevRow;
+    private byte[] curRow;
+    private final byte[][] filtered;
+    private int rowsWritten;
+    private long encodeNanos;
+    private String encoding;
+
+    // 팔레트 시도 (tryPalette일 때만 사용)
+    private long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+    private File spillDirectory;
+    private final SpillBuffer rgbaBuffer;
+    private SpillBuffer indexedBuffer;
+    private DeflaterOutputStream indexedIdat;
+    private Deflater indexedDeflater;
+    private ColorTable palette;
+    private byte[] indexRow;
+
+    public StreamingPngWriter(OutputStream out, int width, int height) throws IOException {
+        this(out, width, height, Deflater.DEFAULT_COMPRESSION, Filter.ADAPTIVE, false);
+    }
+
+    /**
+     * @param level      deflate 압축 레벨 (0~9, -1은 기본값)
+     * @param filter     행 필터 전략
+     * @param tryPalette 256색 이하이면 팔레트 PNG를 고려할지 여부
+     */
+    public StreamingPngWriter(OutputStream out, int width, int height,
+                              int level, Filter filter, boolean tryPalette) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid PNG size: " + width + "x" + height);
+        }
+        if (level < -1 || level > 9) {
+            throw new IllegalArgumentException("Invalid deflate level: " + level);
+        }
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.filter = filter != null ? filter : Filter.ADAPTIVE;
+
+        int rowBytes = width * BYTES_PER_PIXEL;
+        this.prevRow = new byte[rowBytes];
+        this.curRow = new byte[rowBytes];
+        this.filtered = new byte[5][rowBytes + 1];
+
+        // 필터링된 데이터에는 FILTERED 전략이 유리하다 (zlib 권장)
+        this.deflater = new Deflater(level);
+        this.deflater.setStrategy(this.filter == Filter.NONE ? Deflater.DEFAULT_STRATEGY : Deflater.FILTERED);
+
+        if (tryPalette) {
+            this.rgbaBuffer = new SpillBuffer();
+            this.idat = new DeflaterOutputStream(rgbaBuffer, deflater, IDAT_CHUNK_SIZE);
+            this.palette = new ColorTable();
+            this.indexRow = new byte[width + 1];   // 필터 바이트 0 (None)
+            this.indexedBuffer = new SpillBuffer();
+            this.indexedDeflater = new Deflater(level);
+            this.indexedIdat = new DeflaterOutputStream(indexedBuffer, indexedDeflater, IDAT_CHUNK_SIZE);
+        } else {
+            this.rgbaBuffer = null;
+            this.out.write(SIGNATURE);
+            writeHeader(6);
+            this.idat = new DeflaterOutputStream(new IdatOutputStream(), deflater, IDAT_CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * 팔레트 시도 중 압축 스트림 하나를 메모리에 둘 최대 크기. 넘으면 임시 파일로 옮긴다.
+     * 첫 writeRows() 전에 정한다.
+     */
+    public StreamingPngWriter spillThreshold(long spillThreshold) {
+        this.spillThreshold = Math.max(0, spillThreshold);
+        return this;
+    }
+
+    /**
+     * 임시 파일을 만들 디렉토리. null이면 시스템 임시 디렉토리.
+     */
+    public StreamingPngWriter spillDirectory(File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        return this;
+    }
+
+    /**
+     * ARGB(비 premultiplied) 픽셀 행들을 추가한다.
+     *
+     * @param argb   픽셀 배열 (행 우선, 행 간격 scanline)
+     * @param offset 첫 픽셀 위치
+     * @param scanline 행 간격 (픽셀)
+     * @param rows   추가할 행 수
+     */
+    public void writeRows(int[] argb, int offset, int scanline, int rows) throws IOException {
+        if (rowsWritten + rows > height) {
+            throw new IOException("Too many rows: " + (rowsWritten + rows) + " > " + height);
+        }
+        long start = System.nanoTime();
+        for (int r = 0; r < rows; r++) {
+            int p = offset + r * scanline;
+            int b = 0;
+            for (int x = 0; x < width; x++) {
+                int c = argb[p + x];
+                curRow[b++] = (byte) (c >> 16);
+                curRow[b++] = (byte) (c >> 8);
+                curRow[b++] = (byte) c;
+                curRow[b++] = (byte) (c >>> 24);
+            }
+            byte[] best = filterRow();
+            idat.write(best, 0, best.length);
+            if (palette != null) {
+                writeIndexRow(argb, p);
+            }
+
+            byte[] t = prevRow;
+            prevRow = curRow;
+            curRow = t;
+            rowsWritten++;
+        }
+        encodeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * 행을 팔레트 인덱스로 바꿔 압축한다. 257번째 색이 나오면 팔레트 시도를 그만둔다.
+     */
+    private void writeIndexRow(int[] argb, int p) throws IOException {
+        for (int x = 0; x < width; x++) {
+            int c = argb[p + x];
+            int index = palette.indexOf((c >>> 24) == 0 ? 0 : c);
+            if (index < 0) {
+                abandonPalette();
+                return;
+            }
+            indexRow[x + 1] = (byte) index;
+        }
+        indexedIdat.write(indexRow, 0, indexRow.length);
+    }
+
+    private void abandonPalette() throws IOException {
+        palette = null;
+        indexedDeflater.end();
+        indexedIdat = null;
+        indexedBuffer.close();
+        indexedBuffer = null;
+    }
+
+    /**
+     * 남은 압축 데이터와 IEND를 쓴다. 출력 스트림은 닫지 않는다.
+     */
+    public void finish() throws IOException {
+        if (rowsWritten != height) {
+            throw new IOException("PNG incomplete: " + rowsWritten + " of " + height + " rows written");
+        }
+        long start = System.nanoTime();
+        idat.finish();
+        deflater.end();
+        if (rgbaBuffer == null) {
+            idat.flush();   // 마지막 IDAT 청크
+            encoding = ENCODING_RGBA;
+        } else {
+            if (palette != null) {
+                indexedIdat.finish();
+                indexedDeflater.end();
+            }
+            try {
+                out.write(SIGNATURE);
+                IdatOutputStream chunks = new IdatOutputStream();
+                if (palette != null && indexedBuffer.size() < rgbaBuffer.size()) {
+                    writeHeader(3);
+                    writePalette();
+                    indexedBuffer.writeTo(chunks);
+                    encoding = ENCODING_PALETTE;
+                } else {
+                    writeHeader(6);
+                    rgbaBuffer.writeTo(chunks);
+                    encoding = ENCODING_RGBA;
+                }
+                chunks.flush();
+            } finally {
+                close();
+            }
+        }
+        writeChunk("IEND", new byte[0], 0);
+        out.flush();
+        encodeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * 팔레트 시도용 버퍼와 임시 파일을 정리한다. 출력 스트림은 닫지 않는다.
+     * finish()하지 않고 그만둘 때 호출한다 (여러 번 호출해도 된다).
+     */
+    @Override
+    public void close() throws IOException {
+        if (rgbaBuffer != null) rgbaBuffer.close();
+        if (indexedBuffer != null) indexedBuffer.close();
+    }
+
+    /**
+     * 출력된 형식: ENCODING_RGBA 또는 ENCODING_PALETTE (finish() 이후에만 유효).
+     */
+    public String encoding() {
+        return encoding;
+    }
+
+    /**
+     * writeRows()와 finish()에서 인코딩에 쓴 누적 시간 (나노초).
+     */
+    public long encodeNanos() {
+        return encodeNanos;
+    }
+
+    private void writeHeader(int colorType) throws IOException {
+        byte[] ihdr = new byte[13];
+        putInt(ihdr, 0, width);
+        putInt(ihdr, 4, height);
+        ihdr[8] = 8;    // bit depth
+        ihdr[9] = (byte) colorType;   // 6: RGBA, 3: 팔레트
+        ihdr[10] = 0;   // compression
+        ihdr[11] = 0;   // filter
+        ihdr[12] = 0;   // interlace
+        writeChunk("IHDR", ihdr, ihdr.length);
+    }
+
+    /**
+     * PLTE와 (투명색이 있으면) tRNS 청크를 쓴다.
+     */
+    private void writePalette() throws IOException {
+        int count = palette.size();
+        byte[] plte = new byte[count * 3];
+        byte[] trns = new byte[count];
+        int trnsLength = 0;
+        for (int i = 0; i < count; i++) {
+            int c = palette.color(i);
+            plte[i * 3] = (byte) (c >> 16);
+            plte[i * 3 + 1] = (byte) (c >> 8);
+            plte[i * 3 + 2] = (byte) c;
+            trns[i] = (byte) (c >>> 24);
+            if ((c >>> 24) != 0xff) trnsLength = i + 1;
+        }
+        writeChunk("PLTE", plte, plte.length);
+        if (trnsLength > 0) {
+            writeChunk("tRNS", trns, trnsLength);
+        }
+    }
+
+    /**
+     * 설정된 필터를 적용한다. ADAPTIVE이면 다섯 필터를 모두 적용해 보고
+     * 절대값 합이 가장 작은 결과를 반환한다.
+     */
+    private byte[] filterRow() {
+        if (filter != Filter.ADAPTIVE) {
+            return filterRow(filter.ordinal());
+        }
+        int n = curRow.length;
+        long[] sums = new long[5];
+        for (int f = 0; f < 5; f++) {
+            filtered[f][0] = (byte) f;
+        }
+        for (int i = 0; i < n; i++) {
+            int x = curRow[i] & 0xff;
+            int a = i >= BYTES_PER_PIXEL ? curRow[i - BYTES_PER_PIXEL] & 0xff : 0;
+            int b = prevRow[i] & 0xff;
+            int c = i >= BYTES_PER_PIXEL ? prevRow[i - BYTES_PER_PIXEL] & 0xff : 0;
+
+            byte none = (byte) x;
+            byte sub = (byte) (x - a);
+            byte up = (byte) (x - b);
+            byte avg = (byte) (x - ((a + b) >> 1));
+            byte paeth = (byte) (x - paethPredictor(a, b, c));
+
+            filtered[0][i + 1] = none;
+            filtered[1][i + 1] = sub;
+            filtered[2][i + 1] = up;
+            filtered[3][i + 1] = avg;
+            filtered[4][i + 1] = paeth;
+            sums[0] += Math.abs(none);
+            sums[1] += Math.abs(sub);
+            sums[2] += Math.abs(up);
+            sums[3] += Math.abs(avg);
+            sums[4] += Math.abs(paeth);
+        }
+
+        int best = 0;
+        for (int f = 1; f < 5; f++) {
+            if (sums[f] < sums[best]) best = f;
+        }
+        return filtered[best];
+    }
+
+    /**
+     * 하나의 필터만 적용한다.
+     */
+    private byte[] filterRow(int type) {
+        byte[] dst = filtered[type];
+        dst[0] = (byte) type;
+        int n = curRow.length;
+        for (int i = 0; i < n; i++) {
+            int x = curRow[i] & 0xff;
+            int a = i >= BYTES_PER_PIXEL ? curRow[i - BYTES_PER_PIXEL] & 0xff : 0;
+            int b = prevRow[i] & 0xff;
+            switch (type) {
+                case 1:
+                    x -= a;
+                    break;
+                case 2:
+                    x -= b;
+                    break;
+                case 3:
+                    x -= (a + b) >> 1;
+                    break;
+                case 4:
+                    int c = i >= BYTES_PER_PIXEL ? prevRow[i - BYTES_PER_PIXEL] & 0xff : 0;
+                    x -= paethPredictor(a, b, c);
+                    break;
+                default:
+                    break;
+            }
+            dst[i + 1] = (byte) x;
+        }
+        return dst;
+    }
+
+    private static int paethPredictor(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) return a;
+        if (pb <= pc) return b;
+        return c;
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes("US-ASCII");
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void putInt(byte[] buf, int pos, int v) {
+        buf[pos] = (byte) (v >>> 24);
+        buf[pos + 1] = (byte) (v >>> 16);
+        buf[pos + 2] = (byte) (v >>> 8);
+        buf[pos + 3] = (byte) v;
+    }
+
+    /**
+     * 압축된 바이트를 모아 IDAT 청크로 내보낸다.
+     */
+    private class IdatOutputStream extends OutputStream {
+        private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+        private int count;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) flushChunk();
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) flushChunk();
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (count > 0) {
+                writeChunk("IDAT", buffer, count);
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * spillThreshold까지는 메모리에 모으고, 넘으면 임시 파일로 옮겨 이어 쓰는 버퍼.
+     */
+    private class SpillBuffer extends OutputStream {
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private File file;
+        private OutputStream fileOut;
+        private long size;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && size + len > spillThreshold) {
+                spill();
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+            size += len;
+        }
+
+        private void spill() throws IOException {
+            file = File.createTempFile("hwpxlib-png", ".idat", spillDirectory);
+            fileOut = new BufferedOutputStream(new FileOutputStream(file), IDAT_CHUNK_SIZE);
+            memory.writeTo(fileOut);
+            memory = null;
+        }
+
+        long size() {
+            return size;
+        }
+
+        void writeTo(OutputStream target) throws IOException {
+            if (fileOut == null) {
+                memory.writeTo(target);
+                return;
+            }
+            fileOut.flush();
+            InputStream in = new FileInputStream(file);
+            try {
+                byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    target.write(buffer, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            memory = null;
+            if (fileOut != null) {
+                try {
+                    fileOut.close();
+                } finally {
+                    fileOut = null;
+                    if (!file.delete() && file.exists()) {
+                        System.err.println("[WARN] PNG 임시 파일을 지우지 못함: " + file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 최대 256색의 ARGB → 팔레트 인덱스 표 (개방 주소법).
+     */
+    private static class ColorTable {
+        private static final int SLOTS = 1024;
+        private final int[] keys = new int[SLOTS];
+        private final short[] values = new short[SLOTS];   // 인덱스 + 1, 0은 빈 칸
+        private final int[] colors = new int[MAX_PALETTE];
+        private int size;
+        private int lastColor;
+        private int lastIndex = -1;
+
+        /**
+         * 색의 인덱스를 반환한다. 처음 보는 색이면 추가하고, 자리가 없으면 -1.
+         */
+        int indexOf(int color) {
+            if (color == lastColor && lastIndex >= 0) return lastIndex;
+            int slot = (color * 0x9E3779B1) >>> 22;
+            while (values[slot] != 0) {
+                if (keys[slot] == color) {
+                    lastColor = color;
+                    lastIndex = values[slot] - 1;
+                    return lastIndex;
+                }
+                slot = (slot + 1) & (SLOTS - 1);
+            }
+            if (size == MAX_PALETTE) return -1;
+            keys[slot] = color;
+            values[slot] = (short) (size + 1);
+            colors[size] = color;
+            lastColor = color;
+            lastIndex = size;
+            return size++;
+        }
+
+        int size() { return size; }
+        int color(int index) { return colors[index]; }
+    }
+}
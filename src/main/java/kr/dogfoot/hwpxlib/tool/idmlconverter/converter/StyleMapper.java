@@ -1,5 +1,7 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
 
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLResolvedStyles;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLStyleDef;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateStyleDef;
 
@@ -118,13 +120,39 @@ public class StyleMapper {
     public static Map<String, String> buildParagraphStyleMap(
             Map<String, IDMLStyleDef> idmlStyles, Map<String, String> colorMap,
             java.util.List<IntermediateStyleDef> outStyles) {
+        return buildParagraphStyleMapResolved(IDMLResolvedStyles.resolve(idmlStyles), colorMap, outStyles);
+    }
+
+    /**
+     * 문서에 캐시된 상속 해결 스타일 테이블로 단락 스타일을 변환한다.
+     */
+    public static Map<String, String> buildParagraphStyleMap(
+            IDMLDocument idmlDoc, java.util.List<IntermediateStyleDef> outStyles) {
+        return buildParagraphStyleMapResolved(idmlDoc.resolvedParaStyles(), idmlDoc.colors(), outStyles);
+    }
+
+    public static Map<String, String> buildCharacterStyleMap(
+            Map<String, IDMLStyleDef> idmlStyles, Map<String, String> colorMap,
+            java.util.List<IntermediateStyleDef> outStyles) {
+        return buildCharacterStyleMapResolved(IDMLResolvedStyles.resolve(idmlStyles), colorMap, outStyles);
+    }
+
+    /**
+     * 문서에 캐시된 상속 해결 스타일 테이블로 문자 스타일을 변환한다.
+     */
+    public static Map<String, String> buildCharacterStyleMap(
+            IDMLDocument idmlDoc, java.util.List<IntermediateStyleDef> outStyles) {
+        return buildCharacterStyleMapResolved(idmlDoc.resolvedCharStyles(), idmlDoc.colors(), outStyles);
+    }
+
+    private static Map<String, String> buildParagraphStyleMapResolved(
+            Map<String, IDMLStyleDef> resolvedStyles, Map<String, String> colorMap,
+            java.util.List<IntermediateStyleDef> outStyles) {
         Map<String, String> refToId = new LinkedHashMap<String, String>();
         int idx = 0;
-        for (Map.Entry<String, IDMLStyleDef> entry : idmlStyles.entrySet()) {
+        for (Map.Entry<String, IDMLStyleDef> entry : resolvedStyles.entrySet()) {
             String id = "pstyle_" + idx;
-            // 스타일 상속 해결 후 매핑
-            IDMLStyleDef resolved = resolveStyleInheritance(entry.getValue(), idmlStyles);
-            IntermediateStyleDef mapped = mapParagraphStyle(resolved, id, colorMap);
+            IntermediateStyleDef mapped = mapParagraphStyle(entry.getValue(), id, colorMap);
             outStyles.add(mapped);
             refToId.put(entry.getKey(), id);
             idx++;
@@ -132,16 +160,14 @@ public class StyleMapper {
         return refToId;
     }
 
-    public static Map<String, String> buildCharacterStyleMap(
-            Map<String, IDMLStyleDef> idmlStyles, Map<String, String> colorMap,
+    private static Map<String, String> buildCharacterStyleMapResolved(
+            Map<String, IDMLStyleDef> resolvedStyles, Map<String, String> colorMap,
             java.util.List<IntermediateStyleDef> outStyles) {
         Map<String, String> refToId = new LinkedHashMap<String, String>();
         int idx = 0;
-        for (Map.Entry<String, IDMLStyleDef> entry : idmlStyles.entrySet()) {
+        for (Map.Entry<String, IDMLStyleDef> entry : resolvedStyles.entrySet()) {
             String id = "cstyle_" + idx;
-            // 스타일 상속 해결 후 매핑
-            IDMLStyleDef resolved = resolveStyleInheritance(entry.getValue(), idmlStyles);
-            IntermediateStyleDef mapped = mapCharacterStyle(resolved, id, colorMap);
+            IntermediateStyleDef mapped = mapCharacterStyle(entry.getValue(), id, colorMap);
             outStyles.add(mapped);
             refToId.put(entry.getKey(), id);
             idx++;
@@ -149,58 +175,6 @@ public class StyleMapper {
         return refToId;
     }
 
-    /**
-     * 부모 스타일(basedOn)에서 상속된 속성을 해결한다.
-     */
-    private static IDMLStyleDef resolveStyleInheritance(IDMLStyleDef style, Map<String, IDMLStyleDef> allStyles) {
-        if (style.basedOn() == null || style.basedOn().isEmpty()) {
-            return style;
-        }
-
-        // 부모 스타일 찾기
-        IDMLStyleDef parent = allStyles.get(style.basedOn());
-        if (parent == null) {
-            return style;
-        }
-
-        // 부모 스타일도 상속 해결 (재귀)
-        parent = resolveStyleInheritance(parent, allStyles);
-
-        // 새 스타일 객체 생성하여 병합
-        IDMLStyleDef merged = new IDMLStyleDef();
-        merged.selfRef(style.selfRef());
-        merged.name(style.name());
-        merged.basedOn(style.basedOn());
-
-        // 부모 속성 먼저 복사, 자식 속성으로 덮어쓰기
-        merged.fontFamily(style.fontFamily() != null ? style.fontFamily() : parent.fontFamily());
-        merged.fontSize(style.fontSize() != null ? style.fontSize() : parent.fontSize());
-        merged.fillColor(style.fillColor() != null ? style.fillColor() : parent.fillColor());
-        merged.fontStyle(style.fontStyle() != null ? style.fontStyle() : parent.fontStyle());
-        merged.bold(style.bold() != null ? style.bold() : parent.bold());
-        merged.italic(style.italic() != null ? style.italic() : parent.italic());
-        merged.textAlignment(style.textAlignment() != null ? style.textAlignment() : parent.textAlignment());
-        merged.firstLineIndent(style.firstLineIndent() != null ? style.firstLineIndent() : parent.firstLineIndent());
-        merged.leftIndent(style.leftIndent() != null ? style.leftIndent() : parent.leftIndent());
-        merged.rightIndent(style.rightIndent() != null ? style.rightIndent() : parent.rightIndent());
-        merged.spaceBefore(style.spaceBefore() != null ? style.spaceBefore() : parent.spaceBefore());
-        merged.spaceAfter(style.spaceAfter() != null ? style.spaceAfter() : parent.spaceAfter());
-        merged.leading(style.leading() != null ? style.leading() : parent.leading());
-        merged.leadingType(style.leadingType() != null ? style.leadingType() : parent.leadingType());
-        merged.autoLeading(style.autoLeading() != null ? style.autoLeading() : parent.autoLeading());
-        merged.tracking(style.tracking() != null ? style.tracking() : parent.tracking());
-        merged.desiredWordSpacing(style.desiredWordSpacing() != null ? style.desiredWordSpacing() : parent.desiredWordSpacing());
-
-        // 탭 정지점 상속
-        if (style.tabStops() != null && !style.tabStops().isEmpty()) {
-            merged.tabStops(style.tabStops());
-        } else if (parent.tabStops() != null) {
-            merged.tabStops(parent.tabStops());
-        }
-
-        return merged;
-    }
-
     /**
      * IDML Justification → intermediate alignment string.
      */
@@ -5,12 +5,11 @@ import kr.dogfoot.hwpxlib.object.content.header_xml.enumtype.*;
 import kr.dogfoot.hwpxlib.object.content.section_xml.enumtype.*;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Run;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Picture;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.BinDataRegistry;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateFrame;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateImage;
-import kr.dogfoot.hwpxlib.tool.imageinserter.ImageInserter;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
 
-import java.util.Base64;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -18,13 +17,21 @@ import java.util.function.Consumer;
  */
 public class HwpxImageWriter {
 
-    private final AtomicLong shapeIdCounter;
-    private final HWPXFile hwpxFile;
+    private final IdAllocator ids;
+    private final BinDataRegistry binDataRegistry;
     private final Consumer<String> warningHandler;
 
-    public HwpxImageWriter(AtomicLong shapeIdCounter, HWPXFile hwpxFile, Consumer<String> warningHandler) {
-        this.shapeIdCounter = shapeIdCounter;
-        this.hwpxFile = hwpxFile;
+    public HwpxImageWriter(IdAllocator ids, HWPXFile hwpxFile, Consumer<String> warningHandler) {
+        this(ids, new BinDataRegistry(hwpxFile), warningHandler);
+    }
+
+    /**
+     * @param binDataRegistry 같은 이미지를 하나의 BinData 항목으로 공유하는 레지스트리
+     */
+    public HwpxImageWriter(IdAllocator ids, BinDataRegistry binDataRegistry,
+                           Consumer<String> warningHandler) {
+        this.ids = ids;
+        this.binDataRegistry = binDataRegistry;
         this.warningHandler = warningHandler;
     }
 
@@ -38,15 +45,18 @@ public class HwpxImageWriter {
             return false;
         }
 
-        if (image.base64Data() == null) {
+        if (!image.hasData()) {
+            if (warningHandler != null) {
+                warningHandler.accept("Image " + image.imageId() + " has no data, skipped: " + frame.frameId());
+            }
             return false;
         }
 
         try {
-            byte[] imageData = Base64.getDecoder().decode(image.base64Data());
+            byte[] imageData = image.data();
             String format = image.format() != null ? image.format() : "png";
 
-            String itemId = ImageInserter.registerImage(hwpxFile, imageData, format);
+            String itemId = binDataRegistry.register(imageData, format);
 
             int pixelW = image.pixelWidth() > 0 ? image.pixelWidth() : 100;
             int pixelH = image.pixelHeight() > 0 ? image.pixelHeight() : 100;
@@ -162,6 +172,6 @@ public class HwpxImageWriter {
     }
 
     private String nextShapeId() {
-        return String.valueOf(shapeIdCounter.incrementAndGet());
+        return ids.nextShapeId();
     }
 }
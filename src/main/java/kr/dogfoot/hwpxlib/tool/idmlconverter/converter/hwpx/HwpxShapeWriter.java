@@ -3,6 +3,7 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter.converter.hwpx;
 import kr.dogfoot.hwpxlib.object.content.header_xml.enumtype.*;
 import kr.dogfoot.hwpxlib.object.content.section_xml.enumtype.*;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Run;
+import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Curve;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Ellipse;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Polygon;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Rectangle;
@@ -11,19 +12,19 @@ import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.shapecompo
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.shapeobject.ShapeObject;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.CoordinateConverter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateFrame;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * IntermediateFrame(shape)을 HWPX Rectangle/Ellipse/Polygon으로 변환한다.
+ * IntermediateFrame(shape)을 HWPX Rectangle/Ellipse/Polygon/Curve로 변환한다.
  */
 public class HwpxShapeWriter {
 
-    private final AtomicLong shapeIdCounter;
+    private final IdAllocator ids;
 
-    public HwpxShapeWriter(AtomicLong shapeIdCounter) {
-        this.shapeIdCounter = shapeIdCounter;
+    public HwpxShapeWriter(IdAllocator ids) {
+        this.ids = ids;
     }
 
     /**
@@ -45,6 +46,9 @@ public class HwpxShapeWriter {
             case "polygon":
                 writePolygon(anchorRun, frame, x, y, w, h);
                 break;
+            case "curve":
+                writeCurve(anchorRun, frame, x, y, w, h);
+                break;
             default:
                 writeRectangle(anchorRun, frame, x, y, w, h);
                 break;
@@ -116,6 +120,25 @@ public class HwpxShapeWriter {
         setupLineAndFill(polygon, frame);
     }
 
+    private void writeCurve(Run anchorRun, IntermediateFrame frame,
+                             long x, long y, long w, long h) {
+        Curve curve = anchorRun.addNewCurve();
+        setupShapeCommon(curve, frame, x, y, w, h);
+
+        // 세그먼트는 도형 내부 좌표 (HWPUNIT)
+        List<long[]> segments = frame.curveSegments();
+        if (segments != null) {
+            for (long[] seg : segments) {
+                curve.addNewSeg()
+                        .typeAnd(seg[0] == 1 ? CurveSegmentType.CURVE : CurveSegmentType.LINE)
+                        .x1And((int) seg[1]).y1And((int) seg[2])
+                        .x2And((int) seg[3]).y2((int) seg[4]);
+            }
+        }
+
+        setupLineAndFill(curve, frame);
+    }
+
     @SuppressWarnings("unchecked")
     private <T extends DrawingObject<T>> void setupShapeCommon(T shape, IntermediateFrame frame,
                                                                  long x, long y, long w, long h) {
@@ -204,10 +227,15 @@ public class HwpxShapeWriter {
         int strokeWidthHwp = hasStroke ? (int) (frame.strokeWeight() * 100) : 0;
         if (hasStroke && strokeWidthHwp < 14) strokeWidthHwp = 14;
 
+        LineType2 lineType = LineType2.NONE;
+        if (hasStroke) {
+            lineType = frame.strokeLineType() != null ? LineType2.valueOf(frame.strokeLineType()) : LineType2.SOLID;
+        }
+
         shape.createLineShape();
         shape.lineShape().colorAnd(strokeColor).widthAnd(strokeWidthHwp)
-                .styleAnd(hasStroke ? LineType2.SOLID : LineType2.NONE)
-                .endCapAnd(LineCap.FLAT)
+                .styleAnd(lineType)
+                .endCapAnd(frame.strokeRoundCap() ? LineCap.ROUND : LineCap.FLAT)
                 .headStyleAnd(ArrowType.NORMAL).tailStyleAnd(ArrowType.NORMAL)
                 .headfillAnd(true).tailfillAnd(true)
                 .headSzAnd(ArrowSize.MEDIUM_MEDIUM).tailSzAnd(ArrowSize.MEDIUM_MEDIUM)
@@ -231,6 +259,6 @@ public class HwpxShapeWriter {
     }
 
     private String nextShapeId() {
-        return String.valueOf(shapeIdCounter.incrementAndGet());
+        return ids.nextShapeId();
     }
 }
@@ -15,16 +15,14 @@ import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Picture;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Rectangle;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.drawingobject.DrawText;
 import kr.dogfoot.hwpxlib.tool.equationconverter.EquationBuilder;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.BinDataRegistry;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.FontRegistry;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.StyleRegistry;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.*;
-import kr.dogfoot.hwpxlib.tool.imageinserter.ImageInserter;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
 
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -32,28 +30,34 @@ import java.util.function.Consumer;
  */
 public class HwpxTextFrameWriter {
 
-    private final AtomicLong shapeIdCounter;
-    private final AtomicLong paraIdCounter;
+    private final IdAllocator ids;
     private final HWPXFile hwpxFile;
     private final FontRegistry fontRegistry;
     private final StyleRegistry styleRegistry;
     private final Consumer<String> warningHandler;
-    private final AtomicInteger borderFillIdCounter;
+    private final BinDataRegistry binDataRegistry;
 
-    public HwpxTextFrameWriter(AtomicLong shapeIdCounter,
-                               AtomicLong paraIdCounter,
+    public HwpxTextFrameWriter(IdAllocator ids,
+                               HWPXFile hwpxFile,
+                               FontRegistry fontRegistry,
+                               StyleRegistry styleRegistry,
+                               Consumer<String> warningHandler) {
+        this(ids, hwpxFile, fontRegistry, styleRegistry, warningHandler,
+                new BinDataRegistry(hwpxFile));
+    }
+
+    public HwpxTextFrameWriter(IdAllocator ids,
                                HWPXFile hwpxFile,
                                FontRegistry fontRegistry,
                                StyleRegistry styleRegistry,
                                Consumer<String> warningHandler,
-                               AtomicInteger borderFillIdCounter) {
-        this.shapeIdCounter = shapeIdCounter;
-        this.paraIdCounter = paraIdCounter;
+                               BinDataRegistry binDataRegistry) {
+        this.ids = ids;
         this.hwpxFile = hwpxFile;
         this.fontRegistry = fontRegistry;
         this.styleRegistry = styleRegistry;
         this.warningHandler = warningHandler;
-        this.borderFillIdCounter = borderFillIdCounter;
+        this.binDataRegistry = binDataRegistry;
     }
 
     /**
@@ -616,11 +620,10 @@ public class HwpxTextFrameWriter {
     }
 
     private String createInlineParaPr(IntermediateParagraph iPara, IntermediateStyleDef baseStyle) {
-        String paraPrId = styleRegistry.nextParaPrId();
-        ParaPr paraPr = hwpxFile.headerXMLFile().refList().paraProperties().addNew();
+        ParaPr paraPr = styleRegistry.addParaPr();
+        String paraPrId = paraPr.id();
 
-        paraPr.idAnd(paraPrId)
-                .tabPrIDRefAnd("0")
+        paraPr.tabPrIDRefAnd("0")
                 .condenseAnd((byte) 0)
                 .fontLineHeightAnd(false)
                 .snapToGridAnd(true)
@@ -722,11 +725,10 @@ public class HwpxTextFrameWriter {
     }
 
     private String createShadingBorderFill(String fillColor) {
-        String bfId = String.valueOf(borderFillIdCounter.getAndIncrement());
-        BorderFill bf = hwpxFile.headerXMLFile().refList().borderFills().addNew();
+        BorderFill bf = styleRegistry.addBorderFill();
+        String bfId = bf.id();
 
-        bf.idAnd(bfId)
-                .threeDAnd(false)
+        bf.threeDAnd(false)
                 .shadowAnd(false)
                 .centerLineAnd(CenterLineSort.NONE)
                 .breakCellSeparateLine(false);
@@ -818,16 +820,15 @@ public class HwpxTextFrameWriter {
     }
 
     private String createMergedCharPr(IntermediateStyleDef paraStyle, IntermediateStyleDef charStyle) {
-        String charPrId = styleRegistry.nextCharPrId();
-        CharPr charPr = hwpxFile.headerXMLFile().refList().charProperties().addNew();
+        CharPr charPr = styleRegistry.addCharPr();
+        String charPrId = charPr.id();
 
         int height = charStyle.fontSizeHwpunits() != null ? charStyle.fontSizeHwpunits()
                 : (paraStyle.fontSizeHwpunits() != null ? paraStyle.fontSizeHwpunits() : 1000);
         String textColor = charStyle.textColor() != null ? charStyle.textColor()
                 : (paraStyle.textColor() != null ? paraStyle.textColor() : "#000000");
 
-        charPr.idAnd(charPrId)
-                .heightAnd(height)
+        charPr.heightAnd(height)
                 .textColorAnd(textColor)
                 .shadeColorAnd("none")
                 .useFontSpaceAnd(false)
@@ -881,8 +882,8 @@ public class HwpxTextFrameWriter {
     }
 
     private String createRunCharPr(IntermediateTextRun iRun, IntermediateStyleDef paraStyleDef) {
-        String charPrId = styleRegistry.nextCharPrId();
-        CharPr charPr = hwpxFile.headerXMLFile().refList().charProperties().addNew();
+        CharPr charPr = styleRegistry.addCharPr();
+        String charPrId = charPr.id();
 
         int baseHeight = 1000;
         String baseTextColor = "#000000";
@@ -902,8 +903,7 @@ public class HwpxTextFrameWriter {
         int height = iRun.fontSizeHwpunits() != null ? iRun.fontSizeHwpunits() : baseHeight;
         String textColor = iRun.textColor() != null ? iRun.textColor() : baseTextColor;
 
-        charPr.idAnd(charPrId)
-                .heightAnd(height)
+        charPr.heightAnd(height)
                 .textColorAnd(textColor)
                 .shadeColorAnd("none")
                 .useFontSpaceAnd(false)
@@ -975,11 +975,11 @@ public class HwpxTextFrameWriter {
     }
 
     private String nextShapeId() {
-        return String.valueOf(shapeIdCounter.incrementAndGet());
+        return ids.nextShapeId();
     }
 
     private String nextParaId() {
-        return String.valueOf(paraIdCounter.incrementAndGet());
+        return ids.nextParaId();
     }
 
     /**
@@ -990,12 +990,18 @@ public class HwpxTextFrameWriter {
      */
     private void addInlineImageRun(Para para, IntermediateFrame frame) {
         IntermediateImage img = frame.image();
-        if (img == null || img.base64Data() == null) return;
+        if (img == null) return;
+        if (!img.hasData()) {
+            if (warningHandler != null) {
+                warningHandler.accept("Image " + img.imageId() + " has no data, skipped: " + frame.frameId());
+            }
+            return;
+        }
 
         try {
-            byte[] imageData = Base64.getDecoder().decode(img.base64Data());
+            byte[] imageData = img.data();
             String format = img.format() != null ? img.format() : "png";
-            String itemId = ImageInserter.registerImage(hwpxFile, imageData, format);
+            String itemId = binDataRegistry.register(imageData, format);
 
             Run run = para.addNewRun();
             run.charPrIDRef("0");
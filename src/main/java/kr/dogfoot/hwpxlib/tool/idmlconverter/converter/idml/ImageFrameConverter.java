@@ -8,7 +8,7 @@ import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLImageFrame;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateFrame;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateImage;
-import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileConverter;
+import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileCache;
 import kr.dogfoot.hwpxlib.tool.imageinserter.ImageInserter;
 
 import javax.imageio.ImageIO;
@@ -20,7 +20,6 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URLDecoder;
 import java.nio.file.Files;
-import java.util.Base64;
 import java.util.List;
 
 /**
@@ -31,11 +30,17 @@ public class ImageFrameConverter {
     private final IDMLDocument idmlDoc;
     private final ConvertOptions options;
     private final List<String> warnings;
+    private final DesignFileCache designFiles;
 
-    public ImageFrameConverter(IDMLDocument idmlDoc, ConvertOptions options, List<String> warnings) {
+    /**
+     * @param designFiles 디자인 파일 PNG 변환 캐시 (페이지 배경 렌더러와 공유)
+     */
+    public ImageFrameConverter(IDMLDocument idmlDoc, ConvertOptions options, List<String> warnings,
+                               DesignFileCache designFiles) {
         this.idmlDoc = idmlDoc;
         this.options = options;
         this.warnings = warnings;
+        this.designFiles = designFiles;
     }
 
     /**
@@ -216,7 +221,7 @@ public class ImageFrameConverter {
     }
 
     /**
-     * 이미지 파일을 로드하고, 필요 시 PNG로 변환하여 base64Data를 설정한다.
+     * 이미지 파일을 로드하고, 필요 시 PNG로 변환하여 이미지 데이터를 설정한다.
      */
     private void loadAndConvertImage(IDMLImageFrame imgFrame, IntermediateImage iImage) {
         String resolvedPath = resolveImagePath(imgFrame);
@@ -246,28 +251,8 @@ public class ImageFrameConverter {
             String outputFormat = format;
 
             if (isDesignFormat(format)) {
-                boolean isCacheable = "psd".equals(format) || "ai".equals(format) || "eps".equals(format);
-                File cacheFile = isCacheable ? new File(imageFile.getAbsolutePath() + ".png") : null;
-
-                if (isCacheable && cacheFile.exists() && cacheFile.length() > 0) {
-                    System.err.println("[INFO]     캐시된 PNG 사용: " + cacheFile.getName());
-                    imageData = Files.readAllBytes(cacheFile.toPath());
-                } else {
-                    if ("ai".equals(format) || "pdf".equals(format) || "eps".equals(format)) {
-                        imageData = DesignFileConverter.convertToPng(imageFile, options.imageDpi());
-                    } else {
-                        imageData = DesignFileConverter.convertToPng(imageFile);
-                    }
-
-                    if (isCacheable && imageData != null && imageData.length > 0) {
-                        try {
-                            Files.write(cacheFile.toPath(), imageData);
-                            System.err.println("[INFO]     캐시 저장: " + cacheFile.getName());
-                        } catch (Exception ce) {
-                            System.err.println("[WARN]     캐시 저장 실패: " + ce.getMessage());
-                        }
-                    }
-                }
+                // PSD/TIFF는 DPI와 무관하게 변환되며, AI/PDF/EPS는 imageDpi로 래스터화된다
+                imageData = designFiles.convertToPng(imageFile, options.imageDpi());
                 outputFormat = "png";
             } else {
                 imageData = Files.readAllBytes(imageFile.toPath());
@@ -287,7 +272,7 @@ public class ImageFrameConverter {
                 }
             }
 
-            iImage.base64Data(Base64.getEncoder().encodeToString(imageData));
+            iImage.data(imageData);
             iImage.format(outputFormat);
 
         } catch (IOException e) {
@@ -466,7 +451,7 @@ public class ImageFrameConverter {
 
         try {
             byte[] pngData = createPlaceholderPng(width, height, filename);
-            iImage.base64Data(Base64.getEncoder().encodeToString(pngData));
+            iImage.data(pngData);
             iImage.format("png");
             iImage.pixelWidth(width);
             iImage.pixelHeight(height);
@@ -11,7 +11,6 @@ import kr.dogfoot.hwpxlib.tool.textfit.TextFitter;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.Base64;
 
 /**
  * IDML 텍스트 프레임을 IntermediateFrame으로 변환한다.
@@ -431,7 +430,7 @@ public class TextFrameConverter {
 
         String styleRef = para.appliedParagraphStyle();
         if (styleRef != null) {
-            IDMLStyleDef styleDef = idmlDoc.getParagraphStyle(styleRef);
+            IDMLStyleDef styleDef = idmlDoc.getResolvedParagraphStyle(styleRef);
             if (styleDef != null && styleDef.fontSize() != null) {
                 return styleDef.fontSize();
             }
@@ -546,9 +545,7 @@ public class TextFrameConverter {
         StringBuilder sb = new StringBuilder();
         for (IDMLParagraph para : story.paragraphs()) {
             for (IDMLCharacterRun run : para.characterRuns()) {
-                if (run.content() != null) {
-                    sb.append(run.content());
-                }
+                run.appendContentTo(sb);
             }
         }
         return sb.toString();
@@ -688,7 +685,7 @@ public class TextFrameConverter {
                 IntermediateImage img = new IntermediateImage();
                 img.imageId("inline_tf_" + textFrame.selfId());
                 img.format("png");
-                img.base64Data(Base64.getEncoder().encodeToString(result.pngData()));
+                img.data(result.pngData());
                 img.pixelWidth(result.pixelWidth());
                 img.pixelHeight(result.pixelHeight());
                 img.displayWidth(width);
@@ -807,7 +804,7 @@ public class TextFrameConverter {
                     IntermediateImage img = new IntermediateImage();
                     img.imageId("inline_graphic_" + graphic.selfId());
                     img.format("png");
-                    img.base64Data(Base64.getEncoder().encodeToString(result.pngData()));
+                    img.data(result.pngData());
                     img.pixelWidth(result.pixelWidth());
                     img.pixelHeight(result.pixelHeight());
                     img.displayWidth(width);
@@ -969,8 +966,8 @@ public class TextFrameConverter {
         StringBuilder fullText = new StringBuilder();
         for (IDMLParagraph para : story.paragraphs()) {
             for (IDMLCharacterRun run : para.characterRuns()) {
-                if (!run.isNPFont() && run.content() != null) {
-                    fullText.append(run.content());
+                if (!run.isNPFont()) {
+                    run.appendContentTo(fullText);
                 }
             }
             fullText.append("\n");
@@ -1078,17 +1075,21 @@ public class TextFrameConverter {
         List<IDMLTextFrame> chain = new ArrayList<>();
         chain.add(firstFrame);
 
+        Set<String> visited = new HashSet<>();
+        visited.add(firstFrame.selfId());
+
         IDMLTextFrame current = firstFrame;
         while (current.nextTextFrame() != null
                 && !current.nextTextFrame().isEmpty()
                 && !"n".equals(current.nextTextFrame())) {
             // 먼저 현재 스프레드에서 검색
             IDMLTextFrame next = spread.findTextFrameById(current.nextTextFrame());
-            // 없으면 전체 문서에서 검색
+            // 없으면 전체 문서 인덱스에서 검색
             if (next == null) {
                 next = findTextFrameInDocument(current.nextTextFrame());
             }
-            if (next == null) break;
+            // 순환 연결 방지
+            if (next == null || !visited.add(next.selfId())) break;
             chain.add(next);
             current = next;
         }
@@ -1097,15 +1098,11 @@ public class TextFrameConverter {
     }
 
     /**
-     * 전체 문서에서 TextFrame을 ID로 찾는다.
+     * 전체 문서에서 TextFrame을 ID로 찾는다 (문서 인덱스 사용).
      */
     private IDMLTextFrame findTextFrameInDocument(String frameId) {
         if (frameId == null || "n".equals(frameId)) return null;
-        for (IDMLSpread s : idmlDoc.spreads()) {
-            IDMLTextFrame tf = s.findTextFrameById(frameId);
-            if (tf != null) return tf;
-        }
-        return null;
+        return idmlDoc.index().textFrame(frameId);
     }
 
     /**
@@ -1122,8 +1119,8 @@ public class TextFrameConverter {
         StringBuilder fullText = new StringBuilder();
         for (IDMLParagraph para : story.paragraphs()) {
             for (IDMLCharacterRun run : para.characterRuns()) {
-                if (!run.isNPFont() && run.content() != null) {
-                    fullText.append(run.content());
+                if (!run.isNPFont()) {
+                    run.appendContentTo(fullText);
                 }
             }
             fullText.append("\n");
@@ -1196,8 +1193,8 @@ public class TextFrameConverter {
         StringBuilder fullText = new StringBuilder();
         for (IDMLParagraph para : story.paragraphs()) {
             for (IDMLCharacterRun run : para.characterRuns()) {
-                if (!run.isNPFont() && run.content() != null) {
-                    fullText.append(run.content());
+                if (!run.isNPFont()) {
+                    run.appendContentTo(fullText);
                 }
             }
             fullText.append("\n");
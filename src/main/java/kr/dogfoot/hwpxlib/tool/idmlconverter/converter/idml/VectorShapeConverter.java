@@ -2,15 +2,24 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter.converter.idml;
 
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.CoordinateConverter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLGeometry;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLImageFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLVectorShape;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateFrame;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.util.ColorResolver;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * IDML 벡터 도형을 IntermediateFrame으로 변환한다.
+ *
+ * 인라인 도형은 항상 HWPX 도형으로 내보낸다. 페이지에 놓인 도형은 기본적으로 배경 PNG로
+ * 래스터화되지만, 네이티브 벡터 모드(ConvertOptions.nativeVectorShapes)에서는
+ * selectNativeShapes()가 고른 도형을 convertNative()로 HWPX 사각형/타원/곡선으로 내보낸다.
  */
 public class VectorShapeConverter {
 
@@ -142,6 +151,293 @@ public class VectorShapeConverter {
         }
     }
 
+    /**
+     * 네이티브 벡터 모드에서 HWPX 도형으로 표현할 수 있는지 판단한다.
+     * 전체 불투명도, 구멍이 있는 복합 경로(SubPath 여러 개), 해석할 수 없는 색상,
+     * 회전되었거나 모서리마다 반경이 다른 둥근 사각형은 표현할 수 없다.
+     */
+    public boolean canConvertNatively(IDMLVectorShape shape) {
+        if (shape == null || shape.geometricBounds() == null || shape.itemTransform() == null) {
+            return false;
+        }
+        if (shape.opacity() < 100) return false;
+        if (shape.hasFill() && resolveColorRef(shape.fillColor()) == null) return false;
+        if (shape.hasStroke() && resolveColorRef(shape.strokeColor()) == null) return false;
+        if (shape.hasSubPaths() && shape.subPaths().size() > 1) return false;
+        if (shape.hasRoundedCorners()) {
+            if (shape.shapeType() != IDMLVectorShape.ShapeType.RECTANGLE) return false;
+            if (!isAxisAligned(shape.itemTransform())) return false;
+            double[] radii = shape.cornerRadii();
+            if (radii != null) {
+                for (double r : radii) {
+                    if (Math.abs(r - shape.cornerRadius()) > 0.01) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 렌더링 항목(z-order 순) 중 네이티브 도형으로 내보낼 벡터 도형을 고른다.
+     *
+     * 표현 가능한 도형이라도 위에 놓인 래스터 항목(이미지 또는 래스터로 남는 도형)과
+     * 겹치면 배경에 남긴다. 네이티브 도형은 배경 이미지 위에 놓이므로 그렇지 않으면
+     * 쌓임 순서가 뒤바뀐다.
+     */
+    public Set<IDMLVectorShape> selectNativeShapes(List<IDMLSpread.RenderableItem> items) {
+        Set<IDMLVectorShape> result =
+                Collections.newSetFromMap(new IdentityHashMap<IDMLVectorShape, Boolean>());
+        List<double[]> rasterAbove = new ArrayList<double[]>();
+        for (int i = items.size() - 1; i >= 0; i--) {
+            IDMLSpread.RenderableItem item = items.get(i);
+            double[] box = absoluteBox(item);
+            if (item.type() == IDMLSpread.RenderableItem.Type.VECTOR) {
+                IDMLVectorShape shape = item.vectorShape();
+                if (canConvertNatively(shape) && !overlapsAny(box, rasterAbove)) {
+                    result.add(shape);
+                    continue;
+                }
+            }
+            // 경계를 알 수 없는 항목은 페이지 전체를 덮는 것으로 본다
+            rasterAbove.add(box != null ? box : new double[]{
+                    -Double.MAX_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE});
+        }
+        return result;
+    }
+
+    /**
+     * 페이지에 놓인 벡터 도형을 HWPX 도형 프레임으로 변환한다 (네이티브 벡터 모드).
+     *
+     * 회전되지 않은 사각형/타원은 rectangle/oval로, 그 밖의 경로는 베지어 제어점을 포함한
+     * curve로 내보낸다. 좌표는 itemTransform을 모두 적용한 페이지 상대 좌표이다.
+     *
+     * @return 그릴 것이 없으면 null
+     */
+    public IntermediateFrame convertNative(IDMLVectorShape shape,
+                                           double[] pageBounds, double[] pageTransform,
+                                           int zOrder) {
+        if (!shape.hasFill() && !shape.hasStroke()) return null;
+
+        double[] transform = shape.itemTransform();
+        double[] pageAbs = IDMLGeometry.absoluteTopLeft(pageBounds, pageTransform);
+
+        IDMLVectorShape.SubPath subPath = shape.hasSubPaths() ? shape.subPaths().get(0) : null;
+        List<IDMLVectorShape.PathPoint> points = subPath != null ? subPath.points() : shape.pathPoints();
+        boolean open = subPath != null ? subPath.isOpen() : shape.pathOpen();
+        if (points != null && points.size() == 1) return null;
+
+        IntermediateFrame iFrame = new IntermediateFrame();
+        iFrame.frameId("shape_" + shape.selfId());
+        iFrame.frameType("shape");
+        iFrame.isInline(false);
+        iFrame.zOrder(zOrder);
+
+        IDMLVectorShape.ShapeType type = shape.shapeType();
+        boolean boxShape = isAxisAligned(transform) && (type == IDMLVectorShape.ShapeType.OVAL
+                || type == IDMLVectorShape.ShapeType.RECTANGLE
+                        && (points == null || points.isEmpty() || isBoundsRectangle(shape, points)));
+        if (boxShape) {
+            // 축 정렬 사각형/타원: 경계 상자로 충분하다
+            iFrame.shapeType(type == IDMLVectorShape.ShapeType.OVAL ? "oval" : "rectangle");
+            double[] bounds = shape.geometricBounds();
+            double[] p0 = CoordinateConverter.applyTransform(transform, bounds[1], bounds[0]);
+            double[] p1 = CoordinateConverter.applyTransform(transform, bounds[3], bounds[2]);
+            double left = Math.min(p0[0], p1[0]);
+            double top = Math.min(p0[1], p1[1]);
+            iFrame.x(CoordinateConverter.pointsToHwpunits(left - pageAbs[0]));
+            iFrame.y(CoordinateConverter.pointsToHwpunits(top - pageAbs[1]));
+            iFrame.width(CoordinateConverter.pointsToHwpunits(Math.abs(p1[0] - p0[0])));
+            iFrame.height(CoordinateConverter.pointsToHwpunits(Math.abs(p1[1] - p0[1])));
+            setCornerRadius(iFrame, shape);
+            open = false;
+        } else {
+            if (points == null || points.isEmpty()) {
+                // 경로 점이 없는 회전된 사각형: 네 모서리로 경로를 만든다
+                points = boundsPath(shape.geometricBounds());
+                open = false;
+            }
+            iFrame.shapeType("curve");
+            setCurveSegments(iFrame, points, open, transform, pageAbs);
+        }
+
+        setNativeColors(iFrame, shape, !open);
+        return iFrame;
+    }
+
+    /**
+     * 경로를 HWPX 곡선 세그먼트로 변환한다.
+     * 직선 구간은 LINE 하나, 베지어 구간은 제어 다각형을 따라 CURVE 세 개
+     * (시작점→제어점1→제어점2→끝점)로 표현한다.
+     */
+    private void setCurveSegments(IntermediateFrame iFrame, List<IDMLVectorShape.PathPoint> points,
+                                  boolean open, double[] transform, double[] pageAbs) {
+        // 절대 좌표의 세그먼트 목록 [type, x1, y1, x2, y2]
+        List<double[]> segments = new ArrayList<double[]>();
+        int count = points.size();
+        int last = open ? count - 1 : count;
+        for (int i = 0; i < last; i++) {
+            IDMLVectorShape.PathPoint from = points.get(i);
+            IDMLVectorShape.PathPoint to = points.get((i + 1) % count);
+            double[] a = CoordinateConverter.applyTransform(transform, from.anchorX(), from.anchorY());
+            double[] b = CoordinateConverter.applyTransform(transform, to.anchorX(), to.anchorY());
+            if (from.isStraight() && to.isStraight()) {
+                segments.add(new double[]{0, a[0], a[1], b[0], b[1]});
+            } else {
+                double[] c1 = CoordinateConverter.applyTransform(transform, from.rightX(), from.rightY());
+                double[] c2 = CoordinateConverter.applyTransform(transform, to.leftX(), to.leftY());
+                segments.add(new double[]{1, a[0], a[1], c1[0], c1[1]});
+                segments.add(new double[]{1, c1[0], c1[1], c2[0], c2[1]});
+                segments.add(new double[]{1, c2[0], c2[1], b[0], b[1]});
+            }
+        }
+
+        // 베지어 곡선은 제어점의 볼록 껍질 안에 있으므로 모든 점의 경계 상자를 도형 크기로 쓴다
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (double[] seg : segments) {
+            minX = Math.min(minX, Math.min(seg[1], seg[3]));
+            minY = Math.min(minY, Math.min(seg[2], seg[4]));
+            maxX = Math.max(maxX, Math.max(seg[1], seg[3]));
+            maxY = Math.max(maxY, Math.max(seg[2], seg[4]));
+        }
+
+        List<long[]> relative = new ArrayList<long[]>();
+        for (double[] seg : segments) {
+            relative.add(new long[]{(long) seg[0],
+                    CoordinateConverter.pointsToHwpunits(seg[1] - minX),
+                    CoordinateConverter.pointsToHwpunits(seg[2] - minY),
+                    CoordinateConverter.pointsToHwpunits(seg[3] - minX),
+                    CoordinateConverter.pointsToHwpunits(seg[4] - minY)});
+        }
+        iFrame.curveSegments(relative);
+        iFrame.x(CoordinateConverter.pointsToHwpunits(minX - pageAbs[0]));
+        iFrame.y(CoordinateConverter.pointsToHwpunits(minY - pageAbs[1]));
+        // 수평/수직선도 크기가 0이 되지 않도록
+        iFrame.width(Math.max(1, CoordinateConverter.pointsToHwpunits(maxX - minX)));
+        iFrame.height(Math.max(1, CoordinateConverter.pointsToHwpunits(maxY - minY)));
+    }
+
+    /**
+     * 네이티브 도형의 색과 선 속성을 설정한다.
+     * tint는 InDesign과 같이 흰색과 섞은 불투명 색으로 표현한다.
+     */
+    private void setNativeColors(IntermediateFrame iFrame, IDMLVectorShape shape, boolean closed) {
+        if (closed && shape.hasFill()) {
+            iFrame.fillColor(applyTint(resolveColorRef(shape.fillColor()), shape.fillTint()));
+        }
+        if (shape.hasStroke()) {
+            iFrame.strokeColor(applyTint(resolveColorRef(shape.strokeColor()), shape.strokeTint()));
+            iFrame.strokeWeight(shape.strokeWeight());
+            iFrame.strokeRoundCap(shape.endCap() == IDMLVectorShape.LineCap.ROUND);
+            if (shape.hasDashPattern()) {
+                double dash = shape.dashPattern()[0];
+                iFrame.strokeLineType(dash <= shape.strokeWeight() * 1.5 ? "DOT" : "DASH");
+            }
+        }
+    }
+
+    private static String applyTint(String hex, double tint) {
+        if (hex == null || tint >= 100 || hex.length() != 7) return hex;
+        double t = Math.max(0, tint) / 100.0;
+        int rgb = Integer.parseInt(hex.substring(1), 16);
+        int r = (int) Math.round(255 - (255 - ((rgb >> 16) & 0xff)) * t);
+        int g = (int) Math.round(255 - (255 - ((rgb >> 8) & 0xff)) * t);
+        int b = (int) Math.round(255 - (255 - (rgb & 0xff)) * t);
+        return String.format("#%02X%02X%02X", r, g, b);
+    }
+
+    private static boolean isAxisAligned(double[] transform) {
+        return transform != null && Math.abs(transform[1]) < 1e-6 && Math.abs(transform[2]) < 1e-6;
+    }
+
+    /**
+     * 경로가 geometricBounds의 네 모서리로만 이루어진 직선 사각형인지 확인한다.
+     */
+    private static boolean isBoundsRectangle(IDMLVectorShape shape, List<IDMLVectorShape.PathPoint> points) {
+        if (points.size() != 4) return false;
+        double[] bounds = shape.geometricBounds();
+        for (IDMLVectorShape.PathPoint pt : points) {
+            if (!pt.isStraight()) return false;
+            boolean onX = Math.abs(pt.anchorX() - bounds[1]) < 0.01 || Math.abs(pt.anchorX() - bounds[3]) < 0.01;
+            boolean onY = Math.abs(pt.anchorY() - bounds[0]) < 0.01 || Math.abs(pt.anchorY() - bounds[2]) < 0.01;
+            if (!onX || !onY) return false;
+        }
+        return true;
+    }
+
+    private static List<IDMLVectorShape.PathPoint> boundsPath(double[] bounds) {
+        List<IDMLVectorShape.PathPoint> points = new ArrayList<IDMLVectorShape.PathPoint>();
+        double[][] corners = {{bounds[1], bounds[0]}, {bounds[3], bounds[0]},
+                {bounds[3], bounds[2]}, {bounds[1], bounds[2]}};
+        for (double[] c : corners) {
+            points.add(new IDMLVectorShape.PathPoint(c[0], c[1], c[0], c[1], c[0], c[1]));
+        }
+        return points;
+    }
+
+    /**
+     * 항목의 스프레드 좌표 경계 상자 [minX, minY, maxX, maxY] (선 두께 포함). 알 수 없으면 null.
+     */
+    private static double[] absoluteBox(IDMLSpread.RenderableItem item) {
+        List<double[]> local = new ArrayList<double[]>();
+        double[] transform;
+        double pad = 0;
+        if (item.type() == IDMLSpread.RenderableItem.Type.IMAGE) {
+            IDMLImageFrame frame = item.imageFrame();
+            transform = frame.itemTransform();
+            addCorners(local, frame.geometricBounds());
+        } else {
+            IDMLVectorShape shape = item.vectorShape();
+            transform = shape.itemTransform();
+            addCorners(local, shape.geometricBounds());
+            addPathPoints(local, shape.pathPoints());
+            if (shape.hasSubPaths()) {
+                for (IDMLVectorShape.SubPath subPath : shape.subPaths()) {
+                    addPathPoints(local, subPath.points());
+                }
+            }
+            if (shape.hasStroke()) {
+                pad = shape.strokeWeight() * Math.max(1.0, shape.miterLimit()) / 2;
+            }
+        }
+        if (local.isEmpty() || transform == null) return null;
+
+        double[] box = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (double[] pt : local) {
+            double[] abs = CoordinateConverter.applyTransform(transform, pt[0], pt[1]);
+            box[0] = Math.min(box[0], abs[0] - pad);
+            box[1] = Math.min(box[1], abs[1] - pad);
+            box[2] = Math.max(box[2], abs[0] + pad);
+            box[3] = Math.max(box[3], abs[1] + pad);
+        }
+        return box;
+    }
+
+    private static void addCorners(List<double[]> points, double[] bounds) {
+        if (bounds == null || bounds.length < 4) return;
+        points.add(new double[]{bounds[1], bounds[0]});
+        points.add(new double[]{bounds[3], bounds[2]});
+        points.add(new double[]{bounds[3], bounds[0]});
+        points.add(new double[]{bounds[1], bounds[2]});
+    }
+
+    private static void addPathPoints(List<double[]> points, List<IDMLVectorShape.PathPoint> pathPoints) {
+        if (pathPoints == null) return;
+        for (IDMLVectorShape.PathPoint pt : pathPoints) {
+            points.add(new double[]{pt.anchorX(), pt.anchorY()});
+            points.add(new double[]{pt.leftX(), pt.leftY()});
+            points.add(new double[]{pt.rightX(), pt.rightY()});
+        }
+    }
+
+    private static boolean overlapsAny(double[] box, List<double[]> others) {
+        if (box == null) return !others.isEmpty();
+        for (double[] o : others) {
+            if (box[0] < o[2] && o[0] < box[2] && box[1] < o[3] && o[1] < box[3]) return true;
+        }
+        return false;
+    }
+
     /**
      * 색상 참조를 HEX 색상으로 변환한다.
      */
@@ -0,0 +1,160 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry;
+
+import kr.dogfoot.hwpxlib.object.HWPXFile;
+import kr.dogfoot.hwpxlib.tool.imageinserter.ImageInserter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HWPX BinData 레지스트리.
+ * 같은 바이트의 이미지는 한 번만 BinData 항목으로 등록하고 이후에는 같은 itemId를 반환한다.
+ * 반복된 장식 요소나 로고가 여러 페이지에 배치되어도 문서에는 이미지가 하나만 들어간다.
+ *
+ * section을 병렬로 만들 때는 {@link #forSection()}으로 만든 section용 레지스트리를 쓴다. 이미 등록된
+ * 이미지는 바로 itemId를 받고, 새 이미지는 임시 itemId("?i1" 등)를 받아 모아 둔다. 모은 이미지는
+ * section을 순서대로 완성할 때 {@link #commitSection(Map)}으로 등록하므로, 스레드 수와 관계없이
+ * BinData 항목 순서와 itemId가 section 순서로 정해진다. section에 남은 임시 itemId는 호출자가 바꾼다.
+ */
+public class BinDataRegistry {
+
+    // SHA-256(형식 + 데이터) → 등록된 itemId
+    private final Map<String, String> digestToItemId;
+
+    private final HWPXFile hwpxFile;
+    // section용 레지스트리가 속한 문서 레지스트리 (문서 레지스트리는 null)
+    private final BinDataRegistry document;
+    // section용 레지스트리가 모아 둔 새 이미지 (digest → 임시 itemId와 데이터, 등록 순서대로)
+    private final Map<String, PendingImage> pending;
+    private int reused;
+
+    public BinDataRegistry(HWPXFile hwpxFile) {
+        this.hwpxFile = hwpxFile;
+        this.digestToItemId = new HashMap<>();
+        this.document = null;
+        this.pending = null;
+    }
+
+    private BinDataRegistry(BinDataRegistry document) {
+        this.hwpxFile = document.hwpxFile;
+        this.digestToItemId = document.digestToItemId;
+        this.document = document;
+        this.pending = new LinkedHashMap<>();
+    }
+
+    /**
+     * section 하나를 만드는 동안 쓸 레지스트리를 만든다. 그 section을 만드는 스레드 하나만 쓴다.
+     */
+    public BinDataRegistry forSection() {
+        return new BinDataRegistry(this);
+    }
+
+    /**
+     * section용 레지스트리가 모아 둔 이미지를 등록한다. section 순서대로 한 스레드에서 부른다.
+     * 앞 section이 그 사이에 같은 이미지를 등록했으면 그 항목을 쓴다.
+     *
+     * @param idMap 임시 itemId → 실제 itemId를 더할 맵
+     */
+    public void commitSection(Map<String, String> idMap) {
+        if (document == null) {
+            throw new IllegalStateException("Not a section registry");
+        }
+        synchronized (manifestLock()) {
+            for (Map.Entry<String, PendingImage> entry : pending.entrySet()) {
+                PendingImage image = entry.getValue();
+                String itemId = digestToItemId.get(entry.getKey());
+                if (itemId != null) {
+                    document.reused++;
+                } else {
+                    itemId = ImageInserter.registerImage(hwpxFile, image.data, image.format);
+                    digestToItemId.put(entry.getKey(), itemId);
+                }
+                idMap.put(image.provisionalId, itemId);
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * 이미지를 등록하고 itemId를 반환한다. 같은 이미지가 이미 등록되어 있으면 그 itemId를 반환한다.
+     * 여러 스레드에서 호출해도 된다 (해시 계산은 잠금 밖에서 한다).
+     *
+     * @param imageData 이미지 바이너리 데이터
+     * @param format    이미지 포맷 ("png", "jpg" 등)
+     */
+    public String register(byte[] imageData, String format) {
+        String digest = digest(imageData, format);
+        BinDataRegistry counter = document != null ? document : this;
+        synchronized (manifestLock()) {
+            String itemId = digestToItemId.get(digest);
+            if (itemId != null) {
+                counter.reused++;
+                return itemId;
+            }
+            if (document == null) {
+                itemId = ImageInserter.registerImage(hwpxFile, imageData, format);
+                digestToItemId.put(digest, itemId);
+                return itemId;
+            }
+            PendingImage image = pending.get(digest);
+            if (image != null) {
+                counter.reused++;
+                return image.provisionalId;
+            }
+        }
+        // section용: 등록은 commitSection()에서 한다
+        PendingImage image = new PendingImage("?i" + (pending.size() + 1), imageData, format);
+        pending.put(digest, image);
+        return image.provisionalId;
+    }
+
+    /**
+     * manifest를 고치는 모든 쪽이 함께 쓰는 잠금.
+     * section을 병렬로 만드는 동안 section 항목을 추가하거나 manifest를 읽을 때도 이 잠금을 잡는다.
+     */
+    public Object manifestLock() {
+        return hwpxFile.contentHPFFile();
+    }
+
+    /**
+     * 이미 등록된 항목을 재사용한 횟수.
+     */
+    public int reusedCount() {
+        synchronized (manifestLock()) {
+            return reused;
+        }
+    }
+
+    private static class PendingImage {
+        final String provisionalId;
+        final byte[] data;
+        final String format;
+
+        PendingImage(String provisionalId, byte[] data, String format) {
+            this.provisionalId = provisionalId;
+            this.data = data;
+            this.format = format;
+        }
+    }
+
+    private static String digest(byte[] data, String format) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        md.update(String.valueOf(format).getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(data);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : md.digest()) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+}
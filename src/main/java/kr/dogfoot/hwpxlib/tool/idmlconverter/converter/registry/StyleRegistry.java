@@ -2,6 +2,7 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry;
 
 import kr.dogfoot.hwpxlib.object.HWPXFile;
 import kr.dogfoot.hwpxlib.object.content.header_xml.enumtype.*;
+import kr.dogfoot.hwpxlib.object.content.header_xml.references.BorderFill;
 import kr.dogfoot.hwpxlib.object.content.header_xml.references.CharPr;
 import kr.dogfoot.hwpxlib.object.content.header_xml.references.ParaPr;
 import kr.dogfoot.hwpxlib.object.content.header_xml.references.Style;
@@ -11,12 +12,20 @@ import kr.dogfoot.hwpxlib.object.content.header_xml.enumtype.LineType2;
 import kr.dogfoot.hwpxlib.object.content.header_xml.enumtype.TabItemType;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateStyleDef;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * HWPX 스타일 레지스트리.
  * 단락/문자 스타일 등록 및 ID 매핑을 관리한다.
+ *
+ * 스타일 등록은 section 생성 전에 한 스레드에서 끝난다. section을 병렬로 만드는 동안에는
+ * {@link #forSection()}으로 만든 section용 레지스트리를 쓴다. 이 레지스트리의 add*()는 header에 바로
+ * 넣지 않고 임시 ID("?c1" 등)를 붙여 모아 두므로 다른 section을 기다리지 않는다. 모은 항목은
+ * section을 순서대로 완성할 때 {@link #commitSection(Map)}으로 header에 추가하며, 이때 실제 ID가
+ * 정해지므로 스레드 수와 관계없이 같은 ID가 매겨진다. section에 남은 임시 ID는 호출자가 바꾼다.
  */
 public class StyleRegistry {
 
@@ -43,13 +52,25 @@ public class StyleRegistry {
     private int nextParaPrIndex;
     private int nextStyleIndex;
     private int nextTabPrIndex;
+    private int nextBorderFillIndex;
 
     private final HWPXFile hwpxFile;
     private final FontRegistry fontRegistry;
 
+    // section용 레지스트리가 속한 문서 레지스트리 (문서 레지스트리는 null)
+    private final StyleRegistry document;
+    // section용 레지스트리가 모아 둔 항목 (추가 순서대로)
+    private final List<CharPr> pendingCharPrs;
+    private final List<ParaPr> pendingParaPrs;
+    private final List<BorderFill> pendingBorderFills;
+
     public StyleRegistry(HWPXFile hwpxFile, FontRegistry fontRegistry) {
         this.hwpxFile = hwpxFile;
         this.fontRegistry = fontRegistry;
+        this.document = null;
+        this.pendingCharPrs = null;
+        this.pendingParaPrs = null;
+        this.pendingBorderFills = null;
 
         // 기존 HWPX 파일의 인덱스 파악
         this.nextCharPrIndex = hwpxFile.headerXMLFile().refList().charProperties().count();
@@ -61,6 +82,77 @@ public class StyleRegistry {
             hwpxFile.headerXMLFile().refList().createTabProperties();
         }
         this.nextTabPrIndex = hwpxFile.headerXMLFile().refList().tabProperties().count();
+
+        // BorderFill ID는 1부터 시작한다
+        this.nextBorderFillIndex = hwpxFile.headerXMLFile().refList().borderFills().count() + 1;
+    }
+
+    /**
+     * section용 레지스트리. 조회는 document와 같은 목록을 쓰고, add*()는 항목을 모아 둔다.
+     */
+    private StyleRegistry(StyleRegistry document) {
+        this.hwpxFile = document.hwpxFile;
+        this.fontRegistry = document.fontRegistry;
+        this.document = document;
+        this.pendingCharPrs = new ArrayList<>();
+        this.pendingParaPrs = new ArrayList<>();
+        this.pendingBorderFills = new ArrayList<>();
+        this.paraStyleIdToParaPrId.putAll(document.paraStyleIdToParaPrId);
+        this.paraStyleIdToStyleId.putAll(document.paraStyleIdToStyleId);
+        this.charStyleIdToCharPrId.putAll(document.charStyleIdToCharPrId);
+        this.paraStyleIdToStyleDef.putAll(document.paraStyleIdToStyleDef);
+        this.charStyleIdToStyleDef.putAll(document.charStyleIdToStyleDef);
+        this.paraStyleIdToTabPrId.putAll(document.paraStyleIdToTabPrId);
+    }
+
+    /**
+     * section 하나를 만드는 동안 쓸 레지스트리를 만든다. 스타일 등록이 끝난 후에 부른다.
+     * 만든 레지스트리는 그 section을 만드는 스레드 하나만 쓴다.
+     */
+    public StyleRegistry forSection() {
+        return new StyleRegistry(this);
+    }
+
+    /**
+     * section용 레지스트리가 모아 둔 항목을 header에 추가하고 실제 ID를 매긴다.
+     * section 순서대로 한 스레드에서 부른다. 모아 둔 ParaPr이 참조하는 BorderFill ID는 여기서 바꾸고,
+     * section 본문의 참조는 idMap(임시 ID → 실제 ID)을 받아 호출자가 바꾼다.
+     *
+     * @param idMap 임시 ID → 실제 ID를 더할 맵
+     */
+    public void commitSection(Map<String, String> idMap) {
+        if (document == null) {
+            throw new IllegalStateException("Not a section registry");
+        }
+        synchronized (document) {
+            for (BorderFill borderFill : pendingBorderFills) {
+                String id = String.valueOf(document.nextBorderFillIndex++);
+                idMap.put(borderFill.id(), id);
+                borderFill.id(id);
+                hwpxFile.headerXMLFile().refList().borderFills().add(borderFill);
+            }
+            for (CharPr charPr : pendingCharPrs) {
+                String id = String.valueOf(document.nextCharPrIndex++);
+                idMap.put(charPr.id(), id);
+                charPr.id(id);
+                hwpxFile.headerXMLFile().refList().charProperties().add(charPr);
+            }
+            for (ParaPr paraPr : pendingParaPrs) {
+                String id = String.valueOf(document.nextParaPrIndex++);
+                idMap.put(paraPr.id(), id);
+                paraPr.id(id);
+                if (paraPr.border() != null) {
+                    String borderFillId = idMap.get(paraPr.border().borderFillIDRef());
+                    if (borderFillId != null) {
+                        paraPr.border().borderFillIDRef(borderFillId);
+                    }
+                }
+                hwpxFile.headerXMLFile().refList().paraProperties().add(paraPr);
+            }
+        }
+        pendingBorderFills.clear();
+        pendingCharPrs.clear();
+        pendingParaPrs.clear();
     }
 
     /**
@@ -117,19 +209,59 @@ public class StyleRegistry {
     // ── Getters ──
 
     /**
-     * 다음 CharPr ID를 할당하고 반환한다.
+     * 새 ID를 가진 CharPr을 header에 추가하고 반환한다.
      * 인라인 스타일 오버라이드용 CharPr을 생성할 때 사용한다.
+     * section용 레지스트리에서는 임시 ID를 붙여 모아 둔다.
      */
-    public String nextCharPrId() {
-        return String.valueOf(nextCharPrIndex++);
+    public CharPr addCharPr() {
+        if (document != null) {
+            CharPr charPr = new CharPr();
+            charPr.id("?c" + (pendingCharPrs.size() + 1));
+            pendingCharPrs.add(charPr);
+            return charPr;
+        }
+        synchronized (this) {
+            CharPr charPr = hwpxFile.headerXMLFile().refList().charProperties().addNew();
+            charPr.id(String.valueOf(nextCharPrIndex++));
+            return charPr;
+        }
     }
 
     /**
-     * 다음 ParaPr ID를 할당하고 반환한다.
+     * 새 ID를 가진 ParaPr을 header에 추가하고 반환한다.
      * 인라인 단락 속성 오버라이드용 ParaPr을 생성할 때 사용한다.
+     * section용 레지스트리에서는 임시 ID를 붙여 모아 둔다.
+     */
+    public ParaPr addParaPr() {
+        if (document != null) {
+            ParaPr paraPr = new ParaPr();
+            paraPr.id("?p" + (pendingParaPrs.size() + 1));
+            pendingParaPrs.add(paraPr);
+            return paraPr;
+        }
+        synchronized (this) {
+            ParaPr paraPr = hwpxFile.headerXMLFile().refList().paraProperties().addNew();
+            paraPr.id(String.valueOf(nextParaPrIndex++));
+            return paraPr;
+        }
+    }
+
+    /**
+     * 새 ID를 가진 BorderFill을 header에 추가하고 반환한다.
+     * section용 레지스트리에서는 임시 ID를 붙여 모아 둔다.
      */
-    public String nextParaPrId() {
-        return String.valueOf(nextParaPrIndex++);
+    public BorderFill addBorderFill() {
+        if (document != null) {
+            BorderFill borderFill = new BorderFill();
+            borderFill.id("?b" + (pendingBorderFills.size() + 1));
+            pendingBorderFills.add(borderFill);
+            return borderFill;
+        }
+        synchronized (this) {
+            BorderFill borderFill = hwpxFile.headerXMLFile().refList().borderFills().addNew();
+            borderFill.id(String.valueOf(nextBorderFillIndex++));
+            return borderFill;
+        }
     }
 
     public String getParaPrId(String styleId) {
@@ -1,70 +1,147 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
-import kr.dogfoot.hwpxlib.tool.equationconverter.idml.NPFontGlyphMap;
-
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * IDML CharacterStyleRange — 동일 스타일의 문자 런.
+ *
+ * 서식은 공유되는 IDMLRunFormat 레코드로, 텍스트는 Story의 IDMLTextBuffer 구간으로 보관한다.
  */
-public class IDMLCharacterRun {
-    private String appliedCharacterStyle;
-    private String fontFamily;
-    private Double fontSize;
-    private String fillColor;
-    private String fontStyle;
-    private String position;
-    private String content;
-    private List<IDMLTextFrame> inlineFrames;
+public class IDMLCharacterRun implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private IDMLRunFormat format;
+    private IDMLTextBuffer textBuffer;  // null이면 내용 없음
+    private int textOffset;
+    private int textLength;
+    private List<IDMLTextFrame> inlineFrames;  // 인라인 프레임이 있을 때만 생성
 
     public IDMLCharacterRun() {
-        this.inlineFrames = new ArrayList<IDMLTextFrame>();
+        this.format = IDMLRunFormat.EMPTY;
+    }
+
+    public IDMLRunFormat format() { return format; }
+    public void format(IDMLRunFormat v) { this.format = v != null ? v : IDMLRunFormat.EMPTY; }
+
+    /**
+     * 두 런의 서식이 같은지 확인한다. 서식은 문서의 IDMLFormatPool에서 공유되므로 참조 비교로 끝난다
+     * (풀을 거치지 않고 만든 서식은 내용이 같아도 다르다고 본다).
+     */
+    public boolean sameFormat(IDMLCharacterRun other) {
+        return format == other.format;
     }
 
-    public String appliedCharacterStyle() { return appliedCharacterStyle; }
-    public void appliedCharacterStyle(String v) { this.appliedCharacterStyle = v; }
+    /**
+     * 바로 뒤의 런이 같은 서식이고 Story 버퍼에서 구간이 이어지면 이 런에 합친다.
+     * 인라인 프레임이 있는 런, NP 폰트 런 (수식 기호 단위로 처리), 줄바꿈으로 끝나는 런은 합치지 않는다.
+     *
+     * @return 합쳤으면 true (next는 버려도 된다)
+     */
+    public boolean absorb(IDMLCharacterRun next) {
+        if (!sameFormat(next) || inlineFrames != null || next.inlineFrames != null || isNPFont()) {
+            return false;
+        }
+        if (next.textBuffer == null) {
+            return true;  // 같은 서식의 빈 런
+        }
+        if (textBuffer != next.textBuffer || textOffset + textLength != next.textOffset
+                || (textLength > 0 && textBuffer.charAt(textOffset + textLength - 1) == '\n')) {
+            return false;
+        }
+        textLength += next.textLength;
+        return true;
+    }
+
+    public String appliedCharacterStyle() { return format.appliedCharacterStyle(); }
+    public void appliedCharacterStyle(String v) { this.format = format.withAppliedCharacterStyle(v); }
+
+    public String fontFamily() { return format.fontFamily(); }
+    public void fontFamily(String v) { this.format = format.withFontFamily(v); }
+
+    public Double fontSize() { return format.fontSize(); }
+    public void fontSize(Double v) { this.format = format.withFontSize(v); }
+
+    public String fillColor() { return format.fillColor(); }
+    public void fillColor(String v) { this.format = format.withFillColor(v); }
 
-    public String fontFamily() { return fontFamily; }
-    public void fontFamily(String v) { this.fontFamily = v; }
+    public String fontStyle() { return format.fontStyle(); }
+    public void fontStyle(String v) { this.format = format.withFontStyle(v); }
 
-    public Double fontSize() { return fontSize; }
-    public void fontSize(Double v) { this.fontSize = v; }
+    public String position() { return format.position(); }
+    public void position(String v) { this.format = format.withPosition(v); }
 
-    public String fillColor() { return fillColor; }
-    public void fillColor(String v) { this.fillColor = v; }
+    /**
+     * 내용 문자열. 부를 때마다 버퍼 구간에서 새로 만든다 (런에 보관하지 않는다).
+     * 길이나 문자만 필요하면 contentLength()/appendContentTo()를 쓴다.
+     */
+    public String content() {
+        return textBuffer != null ? textBuffer.substring(textOffset, textLength) : null;
+    }
+
+    public void content(String v) {
+        if (v == null) {
+            this.textBuffer = null;
+            this.textOffset = 0;
+            this.textLength = 0;
+        } else {
+            content(IDMLTextBuffer.of(v), 0, v.length());
+        }
+    }
+
+    /**
+     * Story 텍스트 버퍼의 구간을 내용으로 지정한다.
+     */
+    public void content(IDMLTextBuffer buffer, int offset, int length) {
+        this.textBuffer = buffer;
+        this.textOffset = offset;
+        this.textLength = length;
+    }
 
-    public String fontStyle() { return fontStyle; }
-    public void fontStyle(String v) { this.fontStyle = v; }
+    public boolean hasContent() { return textBuffer != null; }
+    public int contentLength() { return textBuffer != null ? textLength : 0; }
 
-    public String position() { return position; }
-    public void position(String v) { this.position = v; }
+    /**
+     * 내용을 String으로 만들지 않고 StringBuilder에 덧붙인다.
+     */
+    public void appendContentTo(StringBuilder sb) {
+        if (textBuffer != null) {
+            textBuffer.appendTo(sb, textOffset, textLength);
+        }
+    }
 
-    public String content() { return content; }
-    public void content(String v) { this.content = v; }
+    public List<IDMLTextFrame> inlineFrames() {
+        return inlineFrames != null ? inlineFrames : Collections.<IDMLTextFrame>emptyList();
+    }
 
-    public List<IDMLTextFrame> inlineFrames() { return inlineFrames; }
-    public void addInlineFrame(IDMLTextFrame frame) { this.inlineFrames.add(frame); }
+    public void addInlineFrame(IDMLTextFrame frame) {
+        if (inlineFrames == null) {
+            inlineFrames = new ArrayList<IDMLTextFrame>(2);
+        }
+        this.inlineFrames.add(frame);
+    }
 
     /**
      * NP 폰트인지 확인.
      */
     public boolean isNPFont() {
-        return NPFontGlyphMap.extractNPFontName(appliedCharacterStyle) != null;
+        return format.npFontName() != null;
     }
 
     /**
      * NP 폰트 이름 추출.
      */
     public String npFontName() {
-        return NPFontGlyphMap.extractNPFontName(appliedCharacterStyle);
+        return format.npFontName();
     }
 
     public boolean isSubscript() {
-        return "Subscript".equals(position);
+        return "Subscript".equals(format.position());
     }
 
     public boolean isSuperscript() {
-        return "Superscript".equals(position);
+        return "Superscript".equals(format.position());
     }
 }
@@ -1,12 +1,17 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
 import java.util.*;
 
 /**
  * IDML 문서 전체 모델 (메모리 내 표현).
  */
-public class IDMLDocument {
+public class IDMLDocument implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private List<IDMLSpread> spreads;
     private Map<String, IDMLStory> stories;
     private Map<String, IDMLStyleDef> paraStyles;
@@ -15,8 +20,12 @@ public class IDMLDocument {
     private Map<String, String> colors;
     private Set<String> hiddenLayerIds;
     private String basePath;
-    private File tempDir;  // ZIP에서 추출한 임시 디렉토리 (cleanup 대상)
+    private transient File tempDir;  // ZIP에서 추출한 임시 디렉토리 (cleanup 대상)
+    private transient Closeable cacheLease;  // 스냅샷 캐시 항목 사용 표시 (cleanup 때 놓는다)
     private int pageNumberStart;
+    private transient Map<String, IDMLStyleDef> resolvedParaStyles;  // 상속 해결된 스타일 (지연 구축)
+    private transient Map<String, IDMLStyleDef> resolvedCharStyles;
+    private transient IDMLDocumentIndex index;  // ID/관계 인덱스 (지연 구축, 스냅샷에 저장하지 않음)
 
     public IDMLDocument() {
         this.spreads = new ArrayList<IDMLSpread>();
@@ -30,7 +39,10 @@ public class IDMLDocument {
     }
 
     public List<IDMLSpread> spreads() { return spreads; }
-    public void addSpread(IDMLSpread spread) { spreads.add(spread); }
+    public void addSpread(IDMLSpread spread) {
+        spreads.add(spread);
+        index = null;
+    }
 
     public Map<String, IDMLStory> stories() { return stories; }
     public IDMLStory getStory(String storyId) { return stories.get(storyId); }
@@ -38,11 +50,40 @@ public class IDMLDocument {
 
     public Map<String, IDMLStyleDef> paraStyles() { return paraStyles; }
     public IDMLStyleDef getParagraphStyle(String styleRef) { return paraStyles.get(styleRef); }
-    public void putParagraphStyle(String styleRef, IDMLStyleDef style) { paraStyles.put(styleRef, style); }
+    public void putParagraphStyle(String styleRef, IDMLStyleDef style) {
+        paraStyles.put(styleRef, style);
+        resolvedParaStyles = null;
+    }
 
     public Map<String, IDMLStyleDef> charStyles() { return charStyles; }
     public IDMLStyleDef getCharacterStyle(String styleRef) { return charStyles.get(styleRef); }
-    public void putCharacterStyle(String styleRef, IDMLStyleDef style) { charStyles.put(styleRef, style); }
+    public void putCharacterStyle(String styleRef, IDMLStyleDef style) {
+        charStyles.put(styleRef, style);
+        resolvedCharStyles = null;
+    }
+
+    /**
+     * BasedOn 상속이 해결된 단락 스타일 (읽기 전용, 지연 구축).
+     */
+    public synchronized Map<String, IDMLStyleDef> resolvedParaStyles() {
+        if (resolvedParaStyles == null) {
+            resolvedParaStyles = IDMLResolvedStyles.resolve(paraStyles);
+        }
+        return resolvedParaStyles;
+    }
+
+    /**
+     * BasedOn 상속이 해결된 문자 스타일 (읽기 전용, 지연 구축).
+     */
+    public synchronized Map<String, IDMLStyleDef> resolvedCharStyles() {
+        if (resolvedCharStyles == null) {
+            resolvedCharStyles = IDMLResolvedStyles.resolve(charStyles);
+        }
+        return resolvedCharStyles;
+    }
+
+    public IDMLStyleDef getResolvedParagraphStyle(String styleRef) { return resolvedParaStyles().get(styleRef); }
+    public IDMLStyleDef getResolvedCharacterStyle(String styleRef) { return resolvedCharStyles().get(styleRef); }
 
     public Map<String, IDMLFontDef> fonts() { return fonts; }
     public IDMLFontDef getFont(String fontRef) { return fonts.get(fontRef); }
@@ -64,11 +105,32 @@ public class IDMLDocument {
     public File tempDir() { return tempDir; }
     public void tempDir(File v) { this.tempDir = v; }
 
+    void cacheLease(Closeable v) { this.cacheLease = v; }
+
     public int pageNumberStart() { return pageNumberStart; }
     public void pageNumberStart(int v) { this.pageNumberStart = v; }
 
     /**
-     * ZIP에서 추출한 임시 디렉토리가 있으면 삭제한다.
+     * ID/관계 인덱스를 반환한다. 아직 구축되지 않았으면 현재 모델로 구축한다.
+     */
+    public synchronized IDMLDocumentIndex index() {
+        if (index == null) {
+            index = IDMLDocumentIndex.build(this);
+        }
+        return index;
+    }
+
+    /**
+     * 모델을 직접 수정한 후 인덱스를 다시 구축한다.
+     */
+    public synchronized IDMLDocumentIndex rebuildIndex() {
+        index = IDMLDocumentIndex.build(this);
+        return index;
+    }
+
+    /**
+     * ZIP에서 추출한 임시 디렉토리가 있으면 삭제하고, 스냅샷 캐시 항목을 쓰고 있었으면 놓아 준다
+     * (그 전까지 캐시 정리가 basePath를 지우지 않는다).
      * 변환 작업이 완전히 끝난 후 호출해야 한다.
      */
     public void cleanup() {
@@ -76,6 +138,13 @@ public class IDMLDocument {
             deleteDirectory(tempDir);
             tempDir = null;
         }
+        if (cacheLease != null) {
+            try {
+                cacheLease.close();
+            } catch (IOException ignored) {
+            }
+            cacheLease = null;
+        }
     }
 
     private static void deleteDirectory(File dir) {
@@ -0,0 +1,198 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
+
+import java.util.*;
+
+/**
+ * IDMLDocument 전역 인덱스.
+ *
+ * 로드 시점에 한 번 구축하여 다음 조회를 O(1)로 만든다.
+ * - selfId → TextFrame / ImageFrame / VectorShape
+ * - selfId → 소속 Spread / Page
+ * - storyId → 연결 순서대로 정렬된 TextFrame 체인
+ *
+ * 인덱스는 구축 시점의 모델을 반영한다.
+ * 이후 모델에 항목을 추가하면 register 메서드로 등록하거나 IDMLDocument.rebuildIndex()를 호출해야 한다.
+ */
+public class IDMLDocumentIndex {
+    private final Map<String, IDMLTextFrame> textFrames;
+    private final Map<String, IDMLImageFrame> imageFrames;
+    private final Map<String, IDMLVectorShape> vectorShapes;
+    private final Map<String, IDMLSpread> itemToSpread;
+    private final Map<String, IDMLPage> itemToPage;
+    private final Map<String, List<IDMLTextFrame>> storyToFrames;
+
+    private IDMLDocumentIndex() {
+        this.textFrames = new HashMap<String, IDMLTextFrame>();
+        this.imageFrames = new HashMap<String, IDMLImageFrame>();
+        this.vectorShapes = new HashMap<String, IDMLVectorShape>();
+        this.itemToSpread = new HashMap<String, IDMLSpread>();
+        this.itemToPage = new HashMap<String, IDMLPage>();
+        this.storyToFrames = new LinkedHashMap<String, List<IDMLTextFrame>>();
+    }
+
+    /**
+     * 문서의 모든 스프레드를 순회하여 인덱스를 구축한다.
+     */
+    public static IDMLDocumentIndex build(IDMLDocument doc) {
+        IDMLDocumentIndex index = new IDMLDocumentIndex();
+        for (IDMLSpread spread : doc.spreads()) {
+            for (IDMLTextFrame frame : spread.textFrames()) {
+                index.registerTextFrame(frame, spread);
+            }
+            for (IDMLImageFrame frame : spread.imageFrames()) {
+                index.registerImageFrame(frame, spread);
+            }
+            for (IDMLVectorShape shape : spread.vectorShapes()) {
+                index.registerVectorShape(shape, spread);
+            }
+        }
+        index.orderStoryChains();
+        return index;
+    }
+
+    // ── 등록 ──
+
+    /**
+     * 텍스트 프레임을 등록한다. 같은 Story의 체인 끝에 추가되므로
+     * 여러 프레임을 등록한 후에는 체인 순서가 보장되지 않는다 (build()는 정렬까지 수행).
+     */
+    public void registerTextFrame(IDMLTextFrame frame, IDMLSpread spread) {
+        if (frame.selfId() == null) return;
+        if (!textFrames.containsKey(frame.selfId())) {
+            textFrames.put(frame.selfId(), frame);
+        }
+        registerLocation(frame.selfId(), frame.geometricBounds(), frame.itemTransform(), spread);
+
+        String storyId = frame.parentStoryId();
+        if (storyId != null) {
+            List<IDMLTextFrame> frames = storyToFrames.get(storyId);
+            if (frames == null) {
+                frames = new ArrayList<IDMLTextFrame>();
+                storyToFrames.put(storyId, frames);
+            }
+            frames.add(frame);
+        }
+    }
+
+    public void registerImageFrame(IDMLImageFrame frame, IDMLSpread spread) {
+        if (frame.selfId() == null) return;
+        if (!imageFrames.containsKey(frame.selfId())) {
+            imageFrames.put(frame.selfId(), frame);
+        }
+        registerLocation(frame.selfId(), frame.geometricBounds(), frame.itemTransform(), spread);
+    }
+
+    public void registerVectorShape(IDMLVectorShape shape, IDMLSpread spread) {
+        if (shape.selfId() == null) return;
+        if (!vectorShapes.containsKey(shape.selfId())) {
+            vectorShapes.put(shape.selfId(), shape);
+        }
+        registerLocation(shape.selfId(), shape.geometricBounds(), shape.itemTransform(), spread);
+    }
+
+    /**
+     * 항목의 소속 스프레드/페이지를 기록한다.
+     * 같은 ID가 여러 번 등록되면 처음 등록된 위치를 유지한다 (문서 순서상 첫 번째).
+     */
+    private void registerLocation(String selfId, double[] bounds, double[] transform, IDMLSpread spread) {
+        if (itemToSpread.containsKey(selfId)) return;
+        itemToSpread.put(selfId, spread);
+
+        IDMLPage page = findPageOf(bounds, transform, spread);
+        if (page != null) {
+            itemToPage.put(selfId, page);
+        }
+    }
+
+    private static IDMLPage findPageOf(double[] bounds, double[] transform, IDMLSpread spread) {
+        if (bounds == null || transform == null) return null;
+        for (IDMLPage page : spread.pages()) {
+            if (page.geometricBounds() == null || page.itemTransform() == null) continue;
+            if (IDMLGeometry.isFrameOnPage(bounds, transform,
+                    page.geometricBounds(), page.itemTransform())) {
+                return page;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Story별 프레임 목록을 PreviousTextFrame/NextTextFrame 연결 순서로 정렬한다.
+     * 체인의 시작점(이전 프레임이 없거나 인덱스에 없는 프레임)부터 따라가며,
+     * 도달하지 못한 프레임은 문서 순서대로 뒤에 붙인다.
+     */
+    private void orderStoryChains() {
+        for (Map.Entry<String, List<IDMLTextFrame>> entry : storyToFrames.entrySet()) {
+            List<IDMLTextFrame> frames = entry.getValue();
+            if (frames.size() < 2) continue;
+
+            List<IDMLTextFrame> ordered = new ArrayList<IDMLTextFrame>(frames.size());
+            Set<String> visited = new HashSet<String>();
+            for (IDMLTextFrame frame : frames) {
+                if (!isChainHead(frame)) continue;
+
+                IDMLTextFrame current = frame;
+                while (current != null && visited.add(current.selfId())) {
+                    ordered.add(current);
+                    current = textFrame(current.nextTextFrame());
+                }
+            }
+            for (IDMLTextFrame frame : frames) {
+                if (!visited.contains(frame.selfId())) {
+                    visited.add(frame.selfId());
+                    ordered.add(frame);
+                }
+            }
+            entry.setValue(ordered);
+        }
+    }
+
+    private boolean isChainHead(IDMLTextFrame frame) {
+        String prev = frame.previousTextFrame();
+        return isNullRef(prev) || !textFrames.containsKey(prev);
+    }
+
+    private static boolean isNullRef(String id) {
+        return id == null || id.isEmpty() || "n".equals(id);
+    }
+
+    // ── 조회 ──
+
+    public IDMLTextFrame textFrame(String selfId) {
+        return isNullRef(selfId) ? null : textFrames.get(selfId);
+    }
+
+    public IDMLImageFrame imageFrame(String selfId) {
+        return isNullRef(selfId) ? null : imageFrames.get(selfId);
+    }
+
+    public IDMLVectorShape vectorShape(String selfId) {
+        return isNullRef(selfId) ? null : vectorShapes.get(selfId);
+    }
+
+    /**
+     * 항목(텍스트/이미지/벡터)이 속한 스프레드.
+     */
+    public IDMLSpread spreadOf(String selfId) {
+        return isNullRef(selfId) ? null : itemToSpread.get(selfId);
+    }
+
+    /**
+     * 항목의 중심점이 놓인 페이지. 페이지 밖(대지)에 있으면 null.
+     */
+    public IDMLPage pageOf(String selfId) {
+        return isNullRef(selfId) ? null : itemToPage.get(selfId);
+    }
+
+    /**
+     * Story를 표시하는 텍스트 프레임들 (연결 순서).
+     */
+    public List<IDMLTextFrame> storyFrames(String storyId) {
+        List<IDMLTextFrame> frames = storyToFrames.get(storyId);
+        return frames != null ? Collections.unmodifiableList(frames) : Collections.<IDMLTextFrame>emptyList();
+    }
+
+    public int textFrameCount() { return textFrames.size(); }
+    public int imageFrameCount() { return imageFrames.size(); }
+    public int vectorShapeCount() { return vectorShapes.size(); }
+}
@@ -1,9 +1,13 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
+
 /**
  * IDML 폰트 정의.
  */
-public class IDMLFontDef {
+public class IDMLFontDef implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfRef;
     private String fontFamily;
     private String fontStyleName;
@@ -0,0 +1,54 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 로드 중 반복되는 서식 값의 인터닝 풀.
+ *
+ * 스타일 참조, 폰트 이름, 색상 참조 같은 문자열과 크기 값, 문자 런 서식 레코드를
+ * 문서 안에서 하나의 인스턴스로 공유시킨다. 로드가 끝나면 풀은 버려지고
+ * 공유된 인스턴스는 모델이 참조하는 동안만 유지된다.
+ */
+public class IDMLFormatPool {
+    private final Map<String, String> strings = new HashMap<String, String>();
+    private final Map<Double, Double> numbers = new HashMap<Double, Double>();
+    private final Map<IDMLRunFormat, IDMLRunFormat> runFormats = new HashMap<IDMLRunFormat, IDMLRunFormat>();
+
+    public String intern(String value) {
+        if (value == null) return null;
+        String shared = strings.get(value);
+        if (shared == null) {
+            strings.put(value, value);
+            return value;
+        }
+        return shared;
+    }
+
+    public Double intern(Double value) {
+        if (value == null) return null;
+        Double shared = numbers.get(value);
+        if (shared == null) {
+            numbers.put(value, value);
+            return value;
+        }
+        return shared;
+    }
+
+    /**
+     * 서식 조합에 해당하는 공유 레코드를 반환한다.
+     */
+    public IDMLRunFormat runFormat(String appliedCharacterStyle, String fontFamily, Double fontSize,
+                                   String fillColor, String fontStyle, String position) {
+        IDMLRunFormat format = new IDMLRunFormat(intern(appliedCharacterStyle), intern(fontFamily),
+                intern(fontSize), intern(fillColor), intern(fontStyle), intern(position));
+        IDMLRunFormat shared = runFormats.get(format);
+        if (shared == null) {
+            runFormats.put(format, format);
+            return format;
+        }
+        return shared;
+    }
+
+    public int runFormatCount() { return runFormats.size(); }
+}
@@ -1,5 +1,7 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
+
 /**
  * IDML 이미지 프레임 (Rectangle + Image + Link).
  *
@@ -7,7 +9,9 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
  * - 프레임(Rectangle): geometricBounds + itemTransform = 화면에 보이는 영역
  * - 이미지(Image): imageTransform + graphicBounds = 원본 이미지의 위치/스케일
  */
-public class IDMLImageFrame {
+public class IDMLImageFrame implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfId;
     private double[] geometricBounds;    // 프레임의 bounds [top, left, bottom, right]
     private double[] itemTransform;      // 프레임의 transform [a, b, c, d, tx, ty]
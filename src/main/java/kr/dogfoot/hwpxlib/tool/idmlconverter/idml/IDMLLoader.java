@@ -34,8 +34,21 @@ public class IDMLLoader {
 
     /**
      * IDML ZIP 파일을 로드하여 IDMLDocument로 반환한다.
+     * 스냅샷 캐시가 설정되어 있으면 (IDMLSnapshotCache.configure 또는 IDML_CACHE_DIR) 캐시를 거친다.
      */
     public static IDMLDocument load(File idmlFile) throws ConvertException {
+        IDMLSnapshotCache cache = IDMLSnapshotCache.defaultCache();
+        if (cache != null) {
+            return cache.load(idmlFile);
+        }
+        return loadUncached(idmlFile);
+    }
+
+    /**
+     * 스냅샷 캐시를 거치지 않고 임시 디렉토리에 해제해 로드한다.
+     * 캐시 디렉토리를 쓸 수 없을 때 IDMLSnapshotCache도 이 경로로 돌아온다.
+     */
+    static IDMLDocument loadUncached(File idmlFile) throws ConvertException {
         if (!idmlFile.exists()) {
             throw new ConvertException(ConvertException.Phase.LOADING,
                     "IDML file not found: " + idmlFile.getAbsolutePath());
@@ -153,17 +166,21 @@ public class IDMLLoader {
             // 7. Story 로드
             File storiesDir = new File(dir, "Stories");
             if (storiesDir.exists() && storiesDir.isDirectory()) {
+                IDMLFormatPool formatPool = new IDMLFormatPool();
                 for (String storyId : neededStoryIds) {
                     File storyFile = new File(storiesDir, "Story_" + storyId + ".xml");
                     if (storyFile.exists()) {
-                        IDMLStory story = parseStory(parseXML(storyFile), storyId);
+                        IDMLStory story = parseStory(parseXML(storyFile), storyId, formatPool);
                         doc.putStory(storyId, story);
                     }
                 }
             }
 
-            // 8. Story에서 인라인 그래픽(앵커 오브젝트) 추출 및 스프레드에 추가
-            extractInlineGraphicsFromStories(doc, storiesDir, neededStoryIds);
+            // 8. ID/관계 인덱스 구축 (selfId → 프레임/스프레드/페이지, Story → 프레임 체인)
+            IDMLDocumentIndex index = doc.rebuildIndex();
+
+            // 9. Story에서 인라인 그래픽(앵커 오브젝트) 추출 및 스프레드에 추가
+            extractInlineGraphicsFromStories(doc, index, storiesDir, neededStoryIds);
 
         } catch (ConvertException ce) {
             throw ce;
@@ -877,9 +894,10 @@ public class IDMLLoader {
 
     // ===== Story XML 파싱 =====
 
-    private static IDMLStory parseStory(Document storyDoc, String storyId) {
+    private static IDMLStory parseStory(Document storyDoc, String storyId, IDMLFormatPool formatPool) {
         IDMLStory story = new IDMLStory();
         story.selfId(storyId);
+        StoryContext ctx = new StoryContext(formatPool);
 
         // Parse StoryPreference for text direction
         NodeList storyPrefs = storyDoc.getElementsByTagName("StoryPreference");
@@ -895,7 +913,7 @@ public class IDMLLoader {
         NodeList tables = storyDoc.getElementsByTagName("Table");
         for (int i = 0; i < tables.getLength(); i++) {
             Element tableElem = (Element) tables.item(i);
-            IDMLTable table = parseTable(tableElem);
+            IDMLTable table = parseTable(tableElem, ctx);
             if (table != null) {
                 story.addTable(table);
             }
@@ -911,10 +929,11 @@ public class IDMLLoader {
                 continue;
             }
 
-            IDMLParagraph para = parseParagraph(paraRange);
+            IDMLParagraph para = parseParagraph(paraRange, ctx);
             story.addParagraph(para);
         }
 
+        ctx.text.trimToSize();
         return story;
     }
 
@@ -923,7 +942,7 @@ public class IDMLLoader {
     /**
      * Parse IDML Table element.
      */
-    private static IDMLTable parseTable(Element tableElem) {
+    private static IDMLTable parseTable(Element tableElem, StoryContext ctx) {
         IDMLTable table = new IDMLTable();
         table.selfId(tableElem.getAttribute("Self"));
 
@@ -976,7 +995,7 @@ public class IDMLLoader {
                 continue;
             }
 
-            IDMLTableCell cell = parseTableCell(cellElem, cellRow, cellCol);
+            IDMLTableCell cell = parseTableCell(cellElem, cellRow, cellCol, ctx);
 
             // Add cell to the correct row
             IDMLTableRow targetRow = rowMap.get(cellRow);
@@ -1041,7 +1060,7 @@ public class IDMLLoader {
     /**
      * Parse IDML Table Cell (Cell element).
      */
-    private static IDMLTableCell parseTableCell(Element cellElem, int rowIndex, int colIndex) {
+    private static IDMLTableCell parseTableCell(Element cellElem, int rowIndex, int colIndex, StoryContext ctx) {
         IDMLTableCell cell = new IDMLTableCell();
         cell.selfId(cellElem.getAttribute("Self"));
         cell.rowIndex(rowIndex);
@@ -1084,7 +1103,7 @@ public class IDMLLoader {
         for (Element range : cellRanges) {
             List<Element> paraRanges = getChildElements(range, "ParagraphStyleRange");
             for (Element paraRange : paraRanges) {
-                IDMLParagraph para = parseParagraph(paraRange);
+                IDMLParagraph para = parseParagraph(paraRange, ctx);
                 cell.addParagraph(para);
             }
         }
@@ -1092,7 +1111,7 @@ public class IDMLLoader {
         // Also check for direct ParagraphStyleRange children (alternative structure)
         List<Element> directParas = getChildElements(cellElem, "ParagraphStyleRange");
         for (Element paraRange : directParas) {
-            IDMLParagraph para = parseParagraph(paraRange);
+            IDMLParagraph para = parseParagraph(paraRange, ctx);
             cell.addParagraph(para);
         }
 
@@ -1135,28 +1154,29 @@ public class IDMLLoader {
         return border;
     }
 
-    private static IDMLParagraph parseParagraph(Element paraRange) {
+    private static IDMLParagraph parseParagraph(Element paraRange, StoryContext ctx) {
+        IDMLFormatPool pool = ctx.formatPool;
         IDMLParagraph para = new IDMLParagraph();
-        para.appliedParagraphStyle(getAttrOrNull(paraRange, "AppliedParagraphStyle"));
+        para.appliedParagraphStyle(pool.intern(getAttrOrNull(paraRange, "AppliedParagraphStyle")));
 
         // 인라인 단락 속성 (로컬 오버라이드)
-        para.justification(getAttrOrNull(paraRange, "Justification"));
-        para.firstLineIndent(parseDoubleAttr(paraRange, "FirstLineIndent"));
-        para.leftIndent(parseDoubleAttr(paraRange, "LeftIndent"));
-        para.rightIndent(parseDoubleAttr(paraRange, "RightIndent"));
-        para.spaceBefore(parseDoubleAttr(paraRange, "SpaceBefore"));
-        para.spaceAfter(parseDoubleAttr(paraRange, "SpaceAfter"));
-        para.tracking(parseDoubleAttr(paraRange, "Tracking"));
+        para.justification(pool.intern(getAttrOrNull(paraRange, "Justification")));
+        para.firstLineIndent(pool.intern(parseDoubleAttr(paraRange, "FirstLineIndent")));
+        para.leftIndent(pool.intern(parseDoubleAttr(paraRange, "LeftIndent")));
+        para.rightIndent(pool.intern(parseDoubleAttr(paraRange, "RightIndent")));
+        para.spaceBefore(pool.intern(parseDoubleAttr(paraRange, "SpaceBefore")));
+        para.spaceAfter(pool.intern(parseDoubleAttr(paraRange, "SpaceAfter")));
+        para.tracking(pool.intern(parseDoubleAttr(paraRange, "Tracking")));
 
         // 단락 음영 (Paragraph Shading)
         para.shadingOn("true".equalsIgnoreCase(paraRange.getAttribute("ParagraphShadingOn")));
-        para.shadingColor(getAttrOrNull(paraRange, "ParagraphShadingColor"));
-        para.shadingTint(parseDoubleAttr(paraRange, "ParagraphShadingTint"));
-        para.shadingWidth(getAttrOrNull(paraRange, "ParagraphShadingWidth"));
-        para.shadingOffsetLeft(parseDoubleAttr(paraRange, "ParagraphShadingLeftOffset"));
-        para.shadingOffsetRight(parseDoubleAttr(paraRange, "ParagraphShadingRightOffset"));
-        para.shadingOffsetTop(parseDoubleAttr(paraRange, "ParagraphShadingTopOffset"));
-        para.shadingOffsetBottom(parseDoubleAttr(paraRange, "ParagraphShadingBottomOffset"));
+        para.shadingColor(pool.intern(getAttrOrNull(paraRange, "ParagraphShadingColor")));
+        para.shadingTint(pool.intern(parseDoubleAttr(paraRange, "ParagraphShadingTint")));
+        para.shadingWidth(pool.intern(getAttrOrNull(paraRange, "ParagraphShadingWidth")));
+        para.shadingOffsetLeft(pool.intern(parseDoubleAttr(paraRange, "ParagraphShadingLeftOffset")));
+        para.shadingOffsetRight(pool.intern(parseDoubleAttr(paraRange, "ParagraphShadingRightOffset")));
+        para.shadingOffsetTop(pool.intern(parseDoubleAttr(paraRange, "ParagraphShadingTopOffset")));
+        para.shadingOffsetBottom(pool.intern(parseDoubleAttr(paraRange, "ParagraphShadingBottomOffset")));
 
         // Leading은 Properties 안에 있을 수 있음
         Element paraProps = getFirstChildElement(paraRange, "Properties");
@@ -1164,37 +1184,44 @@ public class IDMLLoader {
             String leadingText = getPropertyText(paraProps, "Leading");
             if (leadingText != null && !"Auto".equalsIgnoreCase(leadingText)) {
                 try {
-                    para.leading(Double.parseDouble(leadingText));
+                    para.leading(pool.intern(Double.parseDouble(leadingText)));
                 } catch (NumberFormatException ignored) {}
             }
         }
 
+        // 이어지는 같은 서식의 런은 하나로 합친다 (서식은 풀에서 공유되므로 참조 비교)
         List<Element> charRanges = getChildElements(paraRange, "CharacterStyleRange");
+        IDMLCharacterRun last = null;
         for (Element charRange : charRanges) {
-            IDMLCharacterRun run = parseCharacterRun(charRange);
-            para.addCharacterRun(run);
+            IDMLCharacterRun run = parseCharacterRun(charRange, ctx);
+            if (last == null || !last.absorb(run)) {
+                para.addCharacterRun(run);
+                last = run;
+            }
         }
 
         return para;
     }
 
-    private static IDMLCharacterRun parseCharacterRun(Element charRange) {
+    private static IDMLCharacterRun parseCharacterRun(Element charRange, StoryContext ctx) {
         IDMLCharacterRun run = new IDMLCharacterRun();
-        run.appliedCharacterStyle(getAttrOrNull(charRange, "AppliedCharacterStyle"));
-        run.fontStyle(getAttrOrNull(charRange, "FontStyle"));
-        run.fillColor(getAttrOrNull(charRange, "FillColor"));
-        run.position(getAttrOrNull(charRange, "Position"));
-        run.fontSize(parseDoubleAttr(charRange, "PointSize"));
 
         // Properties 안의 AppliedFont
+        String fontFamily = null;
         Element props = getFirstChildElement(charRange, "Properties");
         if (props != null) {
-            String fontFamily = getPropertyText(props, "AppliedFont");
-            if (fontFamily != null) {
-                run.fontFamily(fontFamily);
-            }
+            fontFamily = getPropertyText(props, "AppliedFont");
         }
 
+        // 서식은 풀에서 공유 레코드로 가져온다
+        run.format(ctx.formatPool.runFormat(
+                getAttrOrNull(charRange, "AppliedCharacterStyle"),
+                fontFamily,
+                parseDoubleAttr(charRange, "PointSize"),
+                getAttrOrNull(charRange, "FillColor"),
+                getAttrOrNull(charRange, "FontStyle"),
+                getAttrOrNull(charRange, "Position")));
+
         // Content 텍스트 수집
         StringBuilder contentBuilder = new StringBuilder();
         NodeList children = charRange.getChildNodes();
@@ -1217,9 +1244,9 @@ public class IDMLLoader {
             }
         }
 
-        String content = contentBuilder.toString();
-        if (!content.isEmpty()) {
-            run.content(content);
+        if (contentBuilder.length() > 0) {
+            int offset = ctx.text.append(contentBuilder);
+            run.content(ctx.text, offset, contentBuilder.length());
         }
 
         return run;
@@ -1232,27 +1259,11 @@ public class IDMLLoader {
      * 해당 Story를 참조하는 TextFrame이 있는 스프레드에 추가한다.
      */
     private static void extractInlineGraphicsFromStories(
-            IDMLDocument doc, File storiesDir, Set<String> neededStoryIds) throws Exception {
+            IDMLDocument doc, IDMLDocumentIndex index,
+            File storiesDir, Set<String> neededStoryIds) throws Exception {
 
         if (storiesDir == null || !storiesDir.exists()) return;
 
-        // Story -> TextFrame 목록 매핑 (하나의 Story가 여러 TextFrame에 걸칠 수 있음)
-        Map<String, List<IDMLTextFrame>> storyToTextFrames = new HashMap<>();
-        Map<String, IDMLSpread> textFrameToSpread = new HashMap<>();
-
-        for (IDMLSpread spread : doc.spreads()) {
-            for (IDMLTextFrame tf : spread.textFrames()) {
-                String storyId = tf.parentStoryId();
-                if (storyId != null) {
-                    if (!storyToTextFrames.containsKey(storyId)) {
-                        storyToTextFrames.put(storyId, new ArrayList<IDMLTextFrame>());
-                    }
-                    storyToTextFrames.get(storyId).add(tf);
-                    textFrameToSpread.put(tf.selfId(), spread);
-                }
-            }
-        }
-
         int[] inlineZOrder = {10000};  // 인라인 그래픽은 높은 z-order 시작
 
         System.err.println("[DEBUG] 인라인 그래픽 추출 시작. 대상 Story 수: " + neededStoryIds.size());
@@ -1279,8 +1290,8 @@ public class IDMLLoader {
             if (inlineGraphics.isEmpty()) continue;
 
             // 이 Story를 참조하는 모든 TextFrame 찾기
-            List<IDMLTextFrame> textFrames = storyToTextFrames.get(storyId);
-            if (textFrames == null || textFrames.isEmpty()) {
+            List<IDMLTextFrame> textFrames = index.storyFrames(storyId);
+            if (textFrames.isEmpty()) {
                 System.err.println("[DEBUG] Story " + storyId + ": TextFrame 없음!");
                 continue;
             }
@@ -1314,7 +1325,7 @@ public class IDMLLoader {
                     if (bestTextFrame == null) continue;
 
                     double[] textFrameTransform = bestTextFrame.itemTransform();
-                    IDMLSpread spread = textFrameToSpread.get(bestTextFrame.selfId());
+                    IDMLSpread spread = index.spreadOf(bestTextFrame.selfId());
                     if (spread == null) continue;
 
                     // 인라인 그래픽 위치 조정 로직:
@@ -1344,6 +1355,7 @@ public class IDMLLoader {
                     vectorShape.isInline(true);
                     vectorShape.parentStoryId(storyId);
                     spread.addVectorShape(vectorShape);
+                    index.registerVectorShape(vectorShape, spread);
                 }
             }
         }
@@ -1492,17 +1504,31 @@ public class IDMLLoader {
     // ===== ZIP 처리 =====
 
     private static File extractZip(File zipFile) throws ConvertException {
+        File tempDir;
         try {
-            File tempDir = File.createTempFile("idml_", "_extract");
+            tempDir = File.createTempFile("idml_", "_extract");
             tempDir.delete();
-            tempDir.mkdirs();
+        } catch (IOException e) {
+            throw new ConvertException(ConvertException.Phase.LOADING,
+                    "Failed to extract IDML ZIP: " + e.getMessage(), e);
+        }
+        extractZipTo(zipFile, tempDir);
+        return tempDir;
+    }
+
+    /**
+     * IDML ZIP을 지정한 디렉토리에 해제한다.
+     */
+    static void extractZipTo(File zipFile, File targetDir) throws ConvertException {
+        try {
+            targetDir.mkdirs();
 
             ZipFile zip = new ZipFile(zipFile);
             try {
                 Enumeration<? extends ZipEntry> entries = zip.entries();
                 while (entries.hasMoreElements()) {
                     ZipEntry entry = entries.nextElement();
-                    File outFile = new File(tempDir, entry.getName());
+                    File outFile = new File(targetDir, entry.getName());
 
                     if (entry.isDirectory()) {
                         outFile.mkdirs();
@@ -1528,8 +1554,6 @@ public class IDMLLoader {
             } finally {
                 zip.close();
             }
-
-            return tempDir;
         } catch (IOException e) {
             throw new ConvertException(ConvertException.Phase.LOADING,
                     "Failed to extract IDML ZIP: " + e.getMessage(), e);
@@ -1745,6 +1769,19 @@ public class IDMLLoader {
         int columnCount = 1;
     }
 
+    /**
+     * Story 파싱 중 공유되는 상태 (서식 인터닝 풀 + Story 텍스트 버퍼).
+     */
+    static class StoryContext {
+        final IDMLFormatPool formatPool;
+        final IDMLTextBuffer text;
+
+        StoryContext(IDMLFormatPool formatPool) {
+            this.formatPool = formatPool;
+            this.text = new IDMLTextBuffer();
+        }
+    }
+
     /**
      * 마스터 스프레드에서 마진 정보를 파싱한다.
      */
@@ -2,10 +2,14 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.CoordinateConverter;
 
+import java.io.Serializable;
+
 /**
  * IDML 페이지.
  */
-public class IDMLPage {
+public class IDMLPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfId;
     private String name;
     private int pageNumber;
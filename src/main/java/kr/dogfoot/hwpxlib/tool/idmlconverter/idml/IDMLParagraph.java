@@ -1,12 +1,15 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * IDML ParagraphStyleRange — 하나의 단락.
  */
-public class IDMLParagraph {
+public class IDMLParagraph implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String appliedParagraphStyle;
     private List<IDMLCharacterRun> characterRuns;
 
@@ -94,9 +97,7 @@ public class IDMLParagraph {
     public String getPlainText() {
         StringBuilder sb = new StringBuilder();
         for (IDMLCharacterRun run : characterRuns) {
-            if (run.content() != null) {
-                sb.append(run.content());
-            }
+            run.appendContentTo(sb);
         }
         return sb.toString();
     }
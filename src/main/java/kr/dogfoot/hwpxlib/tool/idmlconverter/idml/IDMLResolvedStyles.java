@@ -0,0 +1,111 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BasedOn 상속이 해결된 스타일 테이블.
+ *
+ * 각 스타일을 부모부터 한 번씩만 해결하여 (위상 순서) 결과를 메모이즈한다.
+ * BasedOn 순환이 있으면 순환을 닫는 부모 참조를 무시한다.
+ * 부모가 없는 스타일은 원본 객체를 그대로, 상속이 있는 스타일은 병합된 새 객체를 담는다.
+ * 반환된 스타일은 여러 변환기가 공유하므로 수정하면 안 된다.
+ */
+public class IDMLResolvedStyles {
+
+    private IDMLResolvedStyles() {
+    }
+
+    /**
+     * 스타일 맵 전체의 상속을 해결한다. 결과는 원본과 같은 키 순서의 읽기 전용 맵이다.
+     */
+    public static Map<String, IDMLStyleDef> resolve(Map<String, IDMLStyleDef> styles) {
+        Map<String, IDMLStyleDef> resolved = new LinkedHashMap<String, IDMLStyleDef>();
+        for (String key : styles.keySet()) {
+            resolveChain(key, styles, resolved);
+        }
+
+        // 원본 키 순서 유지
+        Map<String, IDMLStyleDef> ordered = new LinkedHashMap<String, IDMLStyleDef>();
+        for (String key : styles.keySet()) {
+            ordered.put(key, resolved.get(key));
+        }
+        return Collections.unmodifiableMap(ordered);
+    }
+
+    /**
+     * key에서 시작해 아직 해결되지 않은 조상 체인을 모은 뒤 가장 위의 조상부터 해결한다.
+     */
+    private static void resolveChain(String key, Map<String, IDMLStyleDef> styles,
+                                     Map<String, IDMLStyleDef> resolved) {
+        if (resolved.containsKey(key)) return;
+
+        List<String> chain = new ArrayList<String>();
+        Set<String> onChain = new HashSet<String>();
+        String current = key;
+        while (current != null && !resolved.containsKey(current) && styles.containsKey(current)
+                && onChain.add(current)) {
+            chain.add(current);
+            String basedOn = styles.get(current).basedOn();
+            current = (basedOn == null || basedOn.isEmpty()) ? null : basedOn;
+        }
+        // 순환으로 멈춘 경우 current는 체인 위의 스타일이므로 부모로 쓰지 않는다
+        boolean cycle = current != null && onChain.contains(current);
+
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            String ref = chain.get(i);
+            IDMLStyleDef style = styles.get(ref);
+            IDMLStyleDef parent = null;
+            if (!(cycle && i == chain.size() - 1)) {
+                String basedOn = style.basedOn();
+                if (basedOn != null && !basedOn.isEmpty()) {
+                    parent = resolved.get(basedOn);
+                }
+            }
+            resolved.put(ref, parent != null ? merge(style, parent) : style);
+        }
+    }
+
+    /**
+     * 부모 속성 위에 자식 속성을 덮어쓴 새 스타일을 만든다.
+     */
+    static IDMLStyleDef merge(IDMLStyleDef style, IDMLStyleDef parent) {
+        IDMLStyleDef merged = new IDMLStyleDef();
+        merged.selfRef(style.selfRef());
+        merged.name(style.name());
+        merged.basedOn(style.basedOn());
+
+        // 부모 속성 먼저 복사, 자식 속성으로 덮어쓰기
+        merged.fontFamily(style.fontFamily() != null ? style.fontFamily() : parent.fontFamily());
+        merged.fontSize(style.fontSize() != null ? style.fontSize() : parent.fontSize());
+        merged.fillColor(style.fillColor() != null ? style.fillColor() : parent.fillColor());
+        merged.fontStyle(style.fontStyle() != null ? style.fontStyle() : parent.fontStyle());
+        merged.bold(style.bold() != null ? style.bold() : parent.bold());
+        merged.italic(style.italic() != null ? style.italic() : parent.italic());
+        merged.textAlignment(style.textAlignment() != null ? style.textAlignment() : parent.textAlignment());
+        merged.firstLineIndent(style.firstLineIndent() != null ? style.firstLineIndent() : parent.firstLineIndent());
+        merged.leftIndent(style.leftIndent() != null ? style.leftIndent() : parent.leftIndent());
+        merged.rightIndent(style.rightIndent() != null ? style.rightIndent() : parent.rightIndent());
+        merged.spaceBefore(style.spaceBefore() != null ? style.spaceBefore() : parent.spaceBefore());
+        merged.spaceAfter(style.spaceAfter() != null ? style.spaceAfter() : parent.spaceAfter());
+        merged.leading(style.leading() != null ? style.leading() : parent.leading());
+        merged.leadingType(style.leadingType() != null ? style.leadingType() : parent.leadingType());
+        merged.autoLeading(style.autoLeading() != null ? style.autoLeading() : parent.autoLeading());
+        merged.tracking(style.tracking() != null ? style.tracking() : parent.tracking());
+        merged.desiredWordSpacing(style.desiredWordSpacing() != null ? style.desiredWordSpacing() : parent.desiredWordSpacing());
+
+        // 탭 정지점 상속
+        if (style.tabStops() != null && !style.tabStops().isEmpty()) {
+            merged.tabStops(style.tabStops());
+        } else if (parent.tabStops() != null) {
+            merged.tabStops(parent.tabStops());
+        }
+
+        return merged;
+    }
+}
@@ -0,0 +1,115 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
+
+import kr.dogfoot.hwpxlib.tool.equationconverter.idml.NPFontGlyphMap;
+
+import java.io.Serializable;
+
+/**
+ * 문자 런의 서식 레코드 (불변).
+ *
+ * 로더는 IDMLFormatPool로 같은 서식 조합을 하나의 인스턴스로 공유시키므로
+ * 같은 문서에서 로드된 런끼리는 참조 비교로 서식 동일 여부를 판단할 수 있다.
+ */
+public final class IDMLRunFormat implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final IDMLRunFormat EMPTY = new IDMLRunFormat(null, null, null, null, null, null);
+
+    private final String appliedCharacterStyle;
+    private final String fontFamily;
+    private final Double fontSize;
+    private final String fillColor;
+    private final String fontStyle;
+    private final String position;
+    private final int hash;
+
+    private transient String npFontName;       // NP 폰트 이름 (지연 계산)
+    private transient volatile boolean npFontResolved;
+
+    public IDMLRunFormat(String appliedCharacterStyle, String fontFamily, Double fontSize,
+                         String fillColor, String fontStyle, String position) {
+        this.appliedCharacterStyle = appliedCharacterStyle;
+        this.fontFamily = fontFamily;
+        this.fontSize = fontSize;
+        this.fillColor = fillColor;
+        this.fontStyle = fontStyle;
+        this.position = position;
+        this.hash = computeHash();
+    }
+
+    public String appliedCharacterStyle() { return appliedCharacterStyle; }
+    public String fontFamily() { return fontFamily; }
+    public Double fontSize() { return fontSize; }
+    public String fillColor() { return fillColor; }
+    public String fontStyle() { return fontStyle; }
+    public String position() { return position; }
+
+    public IDMLRunFormat withAppliedCharacterStyle(String v) {
+        return new IDMLRunFormat(v, fontFamily, fontSize, fillColor, fontStyle, position);
+    }
+
+    public IDMLRunFormat withFontFamily(String v) {
+        return new IDMLRunFormat(appliedCharacterStyle, v, fontSize, fillColor, fontStyle, position);
+    }
+
+    public IDMLRunFormat withFontSize(Double v) {
+        return new IDMLRunFormat(appliedCharacterStyle, fontFamily, v, fillColor, fontStyle, position);
+    }
+
+    public IDMLRunFormat withFillColor(String v) {
+        return new IDMLRunFormat(appliedCharacterStyle, fontFamily, fontSize, v, fontStyle, position);
+    }
+
+    public IDMLRunFormat withFontStyle(String v) {
+        return new IDMLRunFormat(appliedCharacterStyle, fontFamily, fontSize, fillColor, v, position);
+    }
+
+    public IDMLRunFormat withPosition(String v) {
+        return new IDMLRunFormat(appliedCharacterStyle, fontFamily, fontSize, fillColor, fontStyle, v);
+    }
+
+    /**
+     * 문자 스타일에서 추출한 NP 폰트 이름. NP 폰트가 아니면 null.
+     */
+    public String npFontName() {
+        if (!npFontResolved) {
+            npFontName = NPFontGlyphMap.extractNPFontName(appliedCharacterStyle);
+            npFontResolved = true;
+        }
+        return npFontName;
+    }
+
+    private int computeHash() {
+        int h = 17;
+        h = 31 * h + (appliedCharacterStyle != null ? appliedCharacterStyle.hashCode() : 0);
+        h = 31 * h + (fontFamily != null ? fontFamily.hashCode() : 0);
+        h = 31 * h + (fontSize != null ? fontSize.hashCode() : 0);
+        h = 31 * h + (fillColor != null ? fillColor.hashCode() : 0);
+        h = 31 * h + (fontStyle != null ? fontStyle.hashCode() : 0);
+        h = 31 * h + (position != null ? position.hashCode() : 0);
+        return h;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IDMLRunFormat)) return false;
+        IDMLRunFormat other = (IDMLRunFormat) o;
+        return hash == other.hash
+                && eq(appliedCharacterStyle, other.appliedCharacterStyle)
+                && eq(fontFamily, other.fontFamily)
+                && eq(fontSize, other.fontSize)
+                && eq(fillColor, other.fillColor)
+                && eq(fontStyle, other.fontStyle)
+                && eq(position, other.position);
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,569 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConverterVersion;
+
+import java.io.*;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 파싱된 IDMLDocument의 디스크 스냅샷 캐시.
+ *
+ * 같은 IDML 파일에 대해 CLI가 반복 호출될 때 (--analyze, --render-vector, --convert 등)
+ * XML 파싱을 건너뛰고 바이너리 스냅샷을 역직렬화한다.
+ *
+ * 캐시 키는 IDML 파일 내용의 SHA-256, 변환기 빌드 식별자, 스냅샷 형식 버전이다.
+ * 항목 구조:
+ *   <cacheRoot>/<key>/snapshot.bin  — 직렬화된 IDMLDocument
+ *   <cacheRoot>/<key>/idml/         — 해제된 IDML (수식 Story 재파싱, Links 탐색용 basePath)
+ *   <cacheRoot>/<key>/lock          — 사용 중 표시 (공유 파일 잠금)
+ *
+ * 새 항목은 고유한 임시 디렉토리에 해제·파싱·저장한 뒤 항목 이름으로 원자적으로 옮기므로
+ * 동시에 실행된 다른 프로세스가 반쯤 만들어진 항목을 보지 않는다. 손상된 항목은 다른 이름으로
+ * 옮긴 뒤 지운다. 캐시 디렉토리를 쓸 수 없으면 캐시 없이 로드한다.
+ *
+ * 항목 전체 크기가 maxBytes를 넘으면 가장 오래 사용하지 않은 항목부터 지운다 (적중 시 수정 시각 갱신).
+ * 로드한 문서는 cleanup()을 부를 때까지 항목의 lock 파일에 공유 잠금을 잡고 있고 (같은 JVM 안에서는
+ * 참조 수로 센다), 정리는 배타 잠금을 잡을 수 있는 항목만 지우므로 다른 스레드나 프로세스가 변환 중인
+ * 문서의 basePath가 사라지지 않는다. cleanup()을 부르지 않은 문서의 잠금은 프로세스가 끝날 때 풀린다.
+ *
+ * 스냅샷은 idml 모델 클래스와 그 필드가 쓰는 기본 컬렉션만 역직렬화한다 (공유 캐시 디렉토리의
+ * 파일을 믿지 않는다). 다른 클래스가 나오면 손상된 항목으로 보고 다시 파싱한다.
+ *
+ * 캐시에서 로드한 문서는 tempDir이 없으므로 cleanup()이 캐시 디렉토리를 지우지 않는다.
+ */
+public class IDMLSnapshotCache {
+    /** 스냅샷 항목 구조나 로더 동작이 바뀌면 올린다. 모델 클래스 변경은 빌드 식별자가 반영한다. */
+    public static final int FORMAT_VERSION = 1;
+
+    /** 기본 캐시 크기 상한 (1GB) */
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String EXTRACT_DIR = "idml";
+    private static final String LOCK_FILE = "lock";
+    private static final String STAGING_PREFIX = "staging-";
+    private static final String TRASH_PREFIX = "trash-";
+    /** 이보다 오래된 임시 디렉토리는 중단된 프로세스가 남긴 것으로 보고 지운다. */
+    private static final long ABANDONED_MILLIS = 24L * 60 * 60 * 1000;
+
+    /** 스냅샷에서 역직렬화할 수 있는 idml 패키지 밖의 클래스 */
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<String>(java.util.Arrays.asList(
+            "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Double",
+            "java.lang.Enum", "java.lang.Float", "java.lang.Integer", "java.lang.Long", "java.lang.Number",
+            "java.lang.Short", "java.lang.String",
+            "java.util.ArrayList", "java.util.HashMap", "java.util.HashSet",
+            "java.util.LinkedHashMap", "java.util.LinkedHashSet"));
+    private static final String MODEL_PACKAGE = IDMLDocument.class.getPackage().getName() + ".";
+
+    /** 이 JVM에서 사용 중인 항목 (lock 파일 경로 → 잠금). 같은 파일을 두 번 잠글 수 없으므로 참조 수로 센다. */
+    private static final Map<String, Lease> LEASES = new HashMap<String, Lease>();
+
+    private static volatile IDMLSnapshotCache defaultCache = fromEnvironment();
+
+    private final File cacheRoot;
+    private final long maxBytes;
+
+    public IDMLSnapshotCache(File cacheRoot) {
+        this(cacheRoot, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param cacheRoot 캐시 디렉토리
+     * @param maxBytes  항목 전체 크기 상한 (0 이하면 제한 없음)
+     */
+    public IDMLSnapshotCache(File cacheRoot, long maxBytes) {
+        this.cacheRoot = cacheRoot;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * IDMLLoader.load()가 사용하는 전역 캐시. 설정되지 않았으면 null (캐시 미사용).
+     */
+    public static IDMLSnapshotCache defaultCache() { return defaultCache; }
+
+    /**
+     * 전역 캐시 디렉토리를 설정한다. null이면 캐시를 끈다.
+     */
+    public static void configure(File cacheRoot) {
+        configure(cacheRoot, maxBytesFromEnvironment());
+    }
+
+    /**
+     * 전역 캐시 디렉토리와 크기 상한을 설정한다. cacheRoot가 null이면 캐시를 끈다.
+     */
+    public static void configure(File cacheRoot, long maxBytes) {
+        defaultCache = cacheRoot != null ? new IDMLSnapshotCache(cacheRoot, maxBytes) : null;
+    }
+
+    private static IDMLSnapshotCache fromEnvironment() {
+        String dir = System.getenv("IDML_CACHE_DIR");
+        return (dir != null && !dir.isEmpty())
+                ? new IDMLSnapshotCache(new File(dir), maxBytesFromEnvironment()) : null;
+    }
+
+    /**
+     * IDML_CACHE_MAX_MB 환경변수 (없거나 잘못되었으면 기본값).
+     */
+    private static long maxBytesFromEnvironment() {
+        String mb = System.getenv("IDML_CACHE_MAX_MB");
+        if (mb != null && !mb.isEmpty()) {
+            try {
+                return Long.parseLong(mb.trim()) * 1024 * 1024;
+            } catch (NumberFormatException e) {
+                System.err.println("[WARN] IDML_CACHE_MAX_MB 값이 잘못되어 기본값 사용: " + mb);
+            }
+        }
+        return DEFAULT_MAX_BYTES;
+    }
+
+    public File cacheRoot() { return cacheRoot; }
+
+    public long maxBytes() { return maxBytes; }
+
+    /**
+     * 캐시를 거쳐 IDML 파일을 로드한다.
+     * 스냅샷이 있으면 역직렬화하고, 없거나 손상되었으면 파싱 후 스냅샷을 저장한다.
+     * 캐시 디렉토리 입출력이 실패하면 캐시 없이 로드한다.
+     */
+    public IDMLDocument load(File idmlFile) throws ConvertException {
+        if (!idmlFile.exists()) {
+            throw new ConvertException(ConvertException.Phase.LOADING,
+                    "IDML file not found: " + idmlFile.getAbsolutePath());
+        }
+
+        File entryDir;
+        try {
+            entryDir = new File(cacheRoot, cacheKey(idmlFile));
+        } catch (IOException e) {
+            return loadUncached(idmlFile, e);
+        }
+
+        long start = System.currentTimeMillis();
+        IDMLDocument cached = null;
+        Closeable hitLease = acquire(entryDir);
+        if (hitLease != null) {
+            // 잠금을 잡은 뒤에 읽어야 그 사이에 정리되지 않는다
+            cached = readEntry(entryDir);
+            if (cached == null) {
+                closeQuietly(hitLease);
+            }
+        }
+        if (cached != null) {
+            cached.cacheLease(hitLease);
+            entryDir.setLastModified(System.currentTimeMillis());
+            System.err.println("[INFO] IDML 스냅샷 캐시 적중: " + idmlFile.getName()
+                    + " (" + (System.currentTimeMillis() - start) + "ms)");
+            return cached;
+        }
+        // 읽을 수 없는 항목을 다른 문서가 쓰고 있으면 지우지 않고 스냅샷만 새로 쓴다
+        boolean replaceSnapshot = false;
+        if (entryDir.exists()) {
+            System.err.println("[INFO] IDML 스냅샷을 읽을 수 없어 다시 파싱: " + entryDir.getAbsolutePath());
+            replaceSnapshot = !discardIfUnused(entryDir);
+        }
+
+        // 캐시 미스: 고유한 임시 디렉토리에 해제 → 파싱 → 스냅샷 저장 → 항목 이름으로 이동
+        File staging;
+        try {
+            if (!cacheRoot.isDirectory() && !cacheRoot.mkdirs()) {
+                throw new IOException("Cannot create cache directory: " + cacheRoot.getAbsolutePath());
+            }
+            staging = Files.createTempDirectory(cacheRoot.toPath(), STAGING_PREFIX).toFile();
+        } catch (IOException e) {
+            return loadUncached(idmlFile, e);
+        }
+
+        boolean keepStaging = false;
+        try {
+            File stagingExtract = new File(staging, EXTRACT_DIR);
+            try {
+                IDMLLoader.extractZipTo(idmlFile, stagingExtract);
+            } catch (ConvertException e) {
+                return loadUncached(idmlFile, e);
+            }
+
+            IDMLDocument doc = IDMLLoader.loadFromDirectory(stagingExtract);
+            try {
+                writeSnapshot(doc, new File(staging, SNAPSHOT_FILE));
+                // 옮기기 전에 잠가 두므로 (잠금은 파일을 따라간다) 옮긴 직후 다른 프로세스가 지울 수 없다
+                Closeable stagingLease = acquire(staging, entryDir);
+                if (stagingLease == null) {
+                    throw new IOException("Cannot lock cache entry: " + staging.getAbsolutePath());
+                }
+                Closeable lease;
+                if (publish(staging, entryDir)) {
+                    lease = acquire(entryDir);  // 같은 잠금의 참조 수만 늘린다
+                    closeQuietly(stagingLease);
+                } else {
+                    // 다른 프로세스가 먼저 만든 항목이면 그 항목을 잠근다
+                    closeQuietly(stagingLease);
+                    lease = acquire(entryDir);
+                    if (lease != null && !isComplete(entryDir)) {
+                        closeQuietly(lease);
+                        lease = null;
+                    }
+                    if (lease != null && replaceSnapshot) {
+                        try {
+                            Files.move(new File(staging, SNAPSHOT_FILE).toPath(),
+                                    new File(entryDir, SNAPSHOT_FILE).toPath(),
+                                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        } catch (IOException e) {
+                            closeQuietly(lease);
+                            throw e;
+                        }
+                    }
+                }
+                if (lease != null) {
+                    doc.basePath(new File(entryDir, EXTRACT_DIR).getAbsolutePath());
+                    doc.cacheLease(lease);
+                    evict(entryDir);
+                    return doc;
+                }
+                throw new IOException("Cannot publish cache entry: " + entryDir.getAbsolutePath());
+            } catch (IOException e) {
+                // 파싱은 끝났으므로 임시 디렉토리를 문서 소유로 넘긴다 (cleanup()이 지운다)
+                System.err.println("[WARN] IDML 스냅샷 저장 실패, 캐시 없이 진행: " + e.getMessage());
+                doc.tempDir(staging);
+                keepStaging = true;
+                return doc;
+            }
+        } finally {
+            if (!keepStaging) {
+                deleteDirectory(staging);
+            }
+        }
+    }
+
+    private static IDMLDocument loadUncached(File idmlFile, Exception cause) throws ConvertException {
+        System.err.println("[WARN] IDML 스냅샷 캐시를 사용할 수 없어 캐시 없이 로드: " + cause.getMessage());
+        return IDMLLoader.loadUncached(idmlFile);
+    }
+
+    /**
+     * 파일 내용 해시 + 빌드 식별자 + 형식 버전으로 캐시 키를 만든다.
+     */
+    static String cacheKey(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[65536];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                digest.update(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        sb.append('-').append(ConverterVersion.id());
+        sb.append("-v").append(FORMAT_VERSION);
+        return sb.toString();
+    }
+
+    /**
+     * 완성된 항목이면 스냅샷을 읽는다. 없거나 읽을 수 없으면 null.
+     */
+    private static IDMLDocument readEntry(File entryDir) {
+        File snapshotFile = new File(entryDir, SNAPSHOT_FILE);
+        File extractDir = new File(entryDir, EXTRACT_DIR);
+        if (!snapshotFile.isFile() || !new File(extractDir, "designmap.xml").isFile()) {
+            return null;
+        }
+        IDMLDocument doc = readSnapshot(snapshotFile);
+        if (doc != null) {
+            doc.basePath(extractDir.getAbsolutePath());
+        }
+        return doc;
+    }
+
+    private static IDMLDocument readSnapshot(File snapshotFile) {
+        try {
+            ObjectInputStream in = new ModelInputStream(
+                    new BufferedInputStream(new FileInputStream(snapshotFile), 65536));
+            try {
+                return (IDMLDocument) in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            // 클래스 구조 변경(InvalidClassException), 허용되지 않은 클래스 또는 손상된 파일 → 재파싱
+            return null;
+        }
+    }
+
+    /**
+     * idml 모델 클래스와 허용된 기본 클래스만 역직렬화하는 스트림.
+     */
+    static class ModelInputStream extends ObjectInputStream {
+        ModelInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class not allowed in IDML snapshot");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException("Proxy classes not allowed in IDML snapshot");
+        }
+
+        static boolean isAllowed(String name) {
+            // 배열은 원소 타입으로 판단한다 ("[D", "[[I", "[Lkr...IDMLPage;")
+            String element = name;
+            while (element.startsWith("[")) {
+                element = element.substring(1);
+            }
+            if (element.length() != name.length()) {
+                if (element.length() == 1) {
+                    return "ZBCSIJFD".indexOf(element.charAt(0)) >= 0;
+                }
+                if (!element.startsWith("L") || !element.endsWith(";")) {
+                    return false;
+                }
+                element = element.substring(1, element.length() - 1);
+            }
+            return ALLOWED_CLASSES.contains(element)
+                    || (element.startsWith(MODEL_PACKAGE) && element.indexOf('.', MODEL_PACKAGE.length()) < 0);
+        }
+    }
+
+    private static void writeSnapshot(IDMLDocument doc, File snapshotFile) throws IOException {
+        ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(snapshotFile), 65536));
+        try {
+            out.writeObject(doc);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 임시 디렉토리를 항목 이름으로 원자적으로 옮긴다.
+     * 다른 프로세스가 먼저 같은 항목을 만들었으면 false (그 항목을 쓴다, 내용이 같다).
+     */
+    private static boolean publish(File staging, File entryDir) {
+        try {
+            Files.move(staging.toPath(), entryDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isComplete(File entryDir) {
+        return new File(entryDir, SNAPSHOT_FILE).isFile()
+                && new File(entryDir, EXTRACT_DIR + "/designmap.xml").isFile();
+    }
+
+    // ── 사용 중 표시 ──
+
+    /**
+     * 항목 하나에 대한 이 JVM의 공유 잠금.
+     */
+    private static class Lease {
+        final RandomAccessFile file;
+        final FileLock lock;
+        int refs;
+
+        Lease(RandomAccessFile file, FileLock lock) {
+            this.file = file;
+            this.lock = lock;
+        }
+    }
+
+    /**
+     * 항목의 lock 파일에 공유 잠금을 잡는다. 항목이 없거나 잠글 수 없으면 null.
+     */
+    private static Closeable acquire(File entryDir) {
+        return acquire(entryDir, entryDir);
+    }
+
+    /**
+     * @param dir     지금 lock 파일이 있는 디렉토리 (옮기기 전의 임시 디렉토리일 수 있다)
+     * @param entryDir 항목 디렉토리 (이 JVM에서 잠금을 세는 키)
+     */
+    private static Closeable acquire(File dir, File entryDir) {
+        final String key = new File(entryDir, LOCK_FILE).getAbsolutePath();
+        synchronized (LEASES) {
+            Lease lease = LEASES.get(key);
+            if (lease == null) {
+                if (!dir.isDirectory()) {
+                    return null;
+                }
+                RandomAccessFile file = null;
+                try {
+                    file = new RandomAccessFile(new File(dir, LOCK_FILE), "rw");
+                    // 정리 중인 프로세스는 배타 잠금을 잠깐만 잡으므로 기다린다
+                    FileLock lock = file.getChannel().lock(0, Long.MAX_VALUE, true);
+                    lease = new Lease(file, lock);
+                } catch (IOException e) {
+                    closeQuietly(file);
+                    return null;
+                }
+                LEASES.put(key, lease);
+            }
+            lease.refs++;
+        }
+        return new Closeable() {
+            private boolean closed;
+
+            public void close() {
+                synchronized (LEASES) {
+                    if (closed) return;
+                    closed = true;
+                    Lease lease = LEASES.get(key);
+                    if (lease != null && --lease.refs == 0) {
+                        LEASES.remove(key);
+                        closeQuietly(lease.file);  // 잠금도 함께 풀린다
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 아무도 쓰지 않는 항목이면 배타 잠금을 잡은 채 지운다. 사용 중이면 false.
+     */
+    private boolean discardIfUnused(File entryDir) {
+        String key = new File(entryDir, LOCK_FILE).getAbsolutePath();
+        synchronized (LEASES) {
+            if (LEASES.containsKey(key)) {
+                return false;
+            }
+            RandomAccessFile file = null;
+            try {
+                file = new RandomAccessFile(new File(entryDir, LOCK_FILE), "rw");
+                FileLock lock = file.getChannel().tryLock();
+                if (lock == null) {
+                    return false;  // 다른 프로세스가 사용 중
+                }
+                discard(entryDir);
+                return true;
+            } catch (IOException e) {
+                return false;
+            } catch (OverlappingFileLockException e) {
+                return false;
+            } finally {
+                closeQuietly(file);
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 항목을 고유한 이름으로 옮긴 뒤 지운다. 다른 프로세스가 같은 이름으로 새 항목을 만드는 것과 겹치지 않는다.
+     */
+    private void discard(File dir) {
+        File trash = new File(cacheRoot, TRASH_PREFIX + UUID.randomUUID());
+        if (dir.renameTo(trash)) {
+            deleteDirectory(trash);
+        }
+    }
+
+    /**
+     * 전체 크기가 상한을 넘으면 오래 사용하지 않은 항목부터 지운다. 방금 만든 항목과 사용 중인 항목은 남긴다.
+     * 중단된 프로세스가 남긴 임시 디렉토리도 정리한다.
+     */
+    private void evict(File keep) {
+        File[] children = cacheRoot.listFiles();
+        if (children == null) return;
+
+        long now = System.currentTimeMillis();
+        List<File> entries = new ArrayList<File>();
+        for (File child : children) {
+            String name = child.getName();
+            if (name.startsWith(STAGING_PREFIX) || name.startsWith(TRASH_PREFIX)) {
+                if (now - child.lastModified() > ABANDONED_MILLIS) {
+                    deleteDirectory(child);
+                }
+            } else if (child.isDirectory()) {
+                entries.add(child);
+            }
+        }
+        if (maxBytes <= 0) return;
+
+        Collections.sort(entries, new Comparator<File>() {
+            public int compare(File a, File b) {
+                return Long.compare(b.lastModified(), a.lastModified());
+            }
+        });
+        long total = 0;
+        int evicted = 0;
+        for (File entry : entries) {
+            long size = sizeOf(entry);
+            total += size;
+            if (total > maxBytes && !entry.equals(keep) && discardIfUnused(entry)) {
+                total -= size;
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            System.err.println("[INFO] IDML 스냅샷 캐시 정리: " + evicted + "개 항목 삭제");
+        }
+    }
+
+    private static long sizeOf(File file) {
+        if (!file.isDirectory()) {
+            return file.length();
+        }
+        long size = 0;
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                size += sizeOf(f);
+            }
+        }
+        return size;
+    }
+
+    private static void deleteDirectory(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isDirectory()) {
+                    deleteDirectory(f);
+                } else {
+                    f.delete();
+                }
+            }
+        }
+        dir.delete();
+    }
+}
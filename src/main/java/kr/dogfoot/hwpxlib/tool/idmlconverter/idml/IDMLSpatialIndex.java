@@ -0,0 +1,154 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.CoordinateConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 스프레드 항목의 공간 인덱스.
+ *
+ * 페이지 할당 기준은 IDMLGeometry.isFrameOnPage()와 같이 "변환된 중심점이 페이지 영역 안에 있는가"이다.
+ * 항목마다 중심점을 한 번만 계산하여 X 좌표 순으로 정렬해 두고,
+ * 페이지 질의 시 이진 검색으로 X 범위를 좁힌 뒤 Y 범위를 검사한다.
+ * 결과는 원래 목록 순서(문서 순서)를 유지한다.
+ *
+ * @param <T> 인덱스 대상 항목 타입
+ */
+public class IDMLSpatialIndex<T> {
+    /** 항목의 GeometricBounds / ItemTransform 접근자 */
+    public interface Geometry<T> {
+        double[] bounds(T item);
+        double[] transform(T item);
+    }
+
+    private static final double TOLERANCE = 0.1;  // isFrameOnPage와 동일한 허용 오차 (pt)
+
+    private final List<T> items;
+    private final int sourceVersion;
+    private final double[] sortedX;     // 중심 X (오름차순)
+    private final double[] sortedY;     // sortedX와 같은 순서의 중심 Y
+    private final int[] sortedIndex;    // sortedX와 같은 순서의 원래 목록 인덱스
+
+    private IDMLSpatialIndex(List<T> items, int sourceVersion,
+                             double[] sortedX, double[] sortedY, int[] sortedIndex) {
+        this.items = items;
+        this.sourceVersion = sourceVersion;
+        this.sortedX = sortedX;
+        this.sortedY = sortedY;
+        this.sortedIndex = sortedIndex;
+    }
+
+    /**
+     * 항목 목록으로 인덱스를 구축한다. bounds/transform이 없는 항목은 어느 페이지에도 속하지 않는다.
+     *
+     * @param version 목록의 현재 버전 (내용이 바뀌면 달라지는 값, {@link #isStale(int)}에서 비교)
+     */
+    public static <T> IDMLSpatialIndex<T> build(List<T> source, int version, Geometry<T> geometry) {
+        int n = source.size();
+        final double[] cx = new double[n];
+        final double[] cy = new double[n];
+        List<Integer> valid = new ArrayList<Integer>(n);
+
+        for (int i = 0; i < n; i++) {
+            T item = source.get(i);
+            double[] bounds = geometry.bounds(item);
+            double[] transform = geometry.transform(item);
+            if (bounds == null || transform == null) continue;
+
+            double[] center = CoordinateConverter.applyTransform(transform,
+                    (bounds[1] + bounds[3]) / 2.0, (bounds[0] + bounds[2]) / 2.0);
+            cx[i] = center[0];
+            cy[i] = center[1];
+            valid.add(i);
+        }
+
+        Collections.sort(valid, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(cx[a], cx[b]);
+            }
+        });
+
+        int m = valid.size();
+        double[] sortedX = new double[m];
+        double[] sortedY = new double[m];
+        int[] sortedIndex = new int[m];
+        for (int k = 0; k < m; k++) {
+            int i = valid.get(k);
+            sortedX[k] = cx[i];
+            sortedY[k] = cy[i];
+            sortedIndex[k] = i;
+        }
+        return new IDMLSpatialIndex<T>(new ArrayList<T>(source), version, sortedX, sortedY, sortedIndex);
+    }
+
+    /**
+     * 구축 이후 원본 목록이 바뀌었으면 (버전이 다르면) true.
+     * 크기만 비교하면 항목 교체나 삭제 후 추가를 놓친다.
+     */
+    public boolean isStale(int version) {
+        return version != sourceVersion;
+    }
+
+    /**
+     * 중심점이 페이지 영역 안에 있는 항목들을 원래 목록 순서로 반환한다.
+     */
+    public List<T> itemsOnPage(IDMLPage page) {
+        double[] rect = pageRect(page);
+        if (rect == null) return new ArrayList<T>();
+        return itemsInRect(rect[0] - TOLERANCE, rect[1] - TOLERANCE,
+                rect[2] + TOLERANCE, rect[3] + TOLERANCE);
+    }
+
+    /**
+     * 중심점이 [minX, maxX] x [minY, maxY] 안에 있는 항목들을 원래 목록 순서로 반환한다.
+     */
+    public List<T> itemsInRect(double minX, double minY, double maxX, double maxY) {
+        int from = lowerBound(sortedX, minX);
+        int count = 0;
+        int[] hits = new int[Math.max(0, sortedX.length - from)];
+        for (int k = from; k < sortedX.length && sortedX[k] <= maxX; k++) {
+            if (sortedY[k] >= minY && sortedY[k] <= maxY) {
+                hits[count++] = sortedIndex[k];
+            }
+        }
+        Arrays.sort(hits, 0, count);
+
+        List<T> result = new ArrayList<T>(count);
+        for (int k = 0; k < count; k++) {
+            result.add(items.get(hits[k]));
+        }
+        return result;
+    }
+
+    /**
+     * 페이지의 변환된 영역 [minX, minY, maxX, maxY]. bounds/transform이 없으면 null.
+     */
+    public static double[] pageRect(IDMLPage page) {
+        double[] bounds = page.geometricBounds();
+        double[] transform = page.itemTransform();
+        if (bounds == null || transform == null) return null;
+
+        double[] topLeft = CoordinateConverter.applyTransform(transform, bounds[1], bounds[0]);
+        double[] bottomRight = CoordinateConverter.applyTransform(transform, bounds[3], bounds[2]);
+        return new double[]{
+                Math.min(topLeft[0], bottomRight[0]),
+                Math.min(topLeft[1], bottomRight[1]),
+                Math.max(topLeft[0], bottomRight[0]),
+                Math.max(topLeft[1], bottomRight[1])
+        };
+    }
+
+    private static int lowerBound(double[] sorted, double key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -1,16 +1,22 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
-import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.CoordinateConverter;
-
+import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * IDML 스프레드 (2페이지 단위 레이아웃).
  */
-public class IDMLSpread {
+public class IDMLSpread implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     /**
      * 렌더링 가능한 항목 (이미지 또는 벡터).
@@ -45,179 +51,77 @@ public class IDMLSpread {
 
     private String selfId;
     private List<IDMLPage> pages;
-    private List<IDMLTextFrame> textFrames;
-    private List<IDMLImageFrame> imageFrames;
-    private List<IDMLVectorShape> vectorShapes;
+    private TrackedList<IDMLTextFrame> textFrames;
+    private TrackedList<IDMLImageFrame> imageFrames;
+    private TrackedList<IDMLVectorShape> vectorShapes;
+    private transient Map<String, IDMLTextFrame> textFrameById;
+    private transient int textFrameByIdVersion;
+    private transient IDMLSpatialIndex<IDMLTextFrame> textFrameIndex;
+    private transient IDMLSpatialIndex<IDMLImageFrame> imageFrameIndex;
+    private transient IDMLSpatialIndex<IDMLVectorShape> vectorShapeIndex;
+    private transient double[][] pageRects;
 
     public IDMLSpread() {
         this.pages = new ArrayList<IDMLPage>();
-        this.textFrames = new ArrayList<IDMLTextFrame>();
-        this.imageFrames = new ArrayList<IDMLImageFrame>();
-        this.vectorShapes = new ArrayList<IDMLVectorShape>();
+        this.textFrames = new TrackedList<IDMLTextFrame>();
+        this.imageFrames = new TrackedList<IDMLImageFrame>();
+        this.vectorShapes = new TrackedList<IDMLVectorShape>();
     }
 
     public String selfId() { return selfId; }
     public void selfId(String v) { this.selfId = v; }
 
     public List<IDMLPage> pages() { return pages; }
-    public void addPage(IDMLPage page) { pages.add(page); }
+    public void addPage(IDMLPage page) {
+        pages.add(page);
+        pageRects = null;
+    }
 
     public List<IDMLTextFrame> textFrames() { return textFrames; }
-    public void addTextFrame(IDMLTextFrame frame) { textFrames.add(frame); }
+    public void addTextFrame(IDMLTextFrame frame) {
+        textFrames.add(frame);
+        textFrameIndex = null;
+    }
 
     public List<IDMLImageFrame> imageFrames() { return imageFrames; }
-    public void addImageFrame(IDMLImageFrame frame) { imageFrames.add(frame); }
+    public void addImageFrame(IDMLImageFrame frame) {
+        imageFrames.add(frame);
+        imageFrameIndex = null;
+    }
 
     public List<IDMLVectorShape> vectorShapes() { return vectorShapes; }
-    public void addVectorShape(IDMLVectorShape shape) { vectorShapes.add(shape); }
+    public void addVectorShape(IDMLVectorShape shape) {
+        vectorShapes.add(shape);
+        vectorShapeIndex = null;
+    }
 
     /**
      * ID로 텍스트 프레임을 찾는다.
      */
     public IDMLTextFrame findTextFrameById(String id) {
         if (id == null || "n".equals(id)) return null;
-        for (IDMLTextFrame frame : textFrames) {
-            if (id.equals(frame.selfId())) {
-                return frame;
-            }
-        }
-        return null;
+        return textFrameById().get(id);
     }
 
     /**
      * 특정 페이지에 속한 텍스트 프레임 목록.
      */
     public List<IDMLTextFrame> getTextFramesOnPage(IDMLPage page) {
-        List<IDMLTextFrame> result = new ArrayList<IDMLTextFrame>();
-
-        // 페이지 좌표 범위 계산
-        double[] pageBounds = page.geometricBounds();
-        double[] pageTransform = page.itemTransform();
-        double pageMinX = 0, pageMaxX = 0, pageMinY = 0, pageMaxY = 0;
-        if (pageBounds != null && pageTransform != null) {
-            double[] pageTopLeft = CoordinateConverter.applyTransform(pageTransform, pageBounds[1], pageBounds[0]);
-            double[] pageBottomRight = CoordinateConverter.applyTransform(pageTransform, pageBounds[3], pageBounds[2]);
-            pageMinX = Math.min(pageTopLeft[0], pageBottomRight[0]);
-            pageMaxX = Math.max(pageTopLeft[0], pageBottomRight[0]);
-            pageMinY = Math.min(pageTopLeft[1], pageBottomRight[1]);
-            pageMaxY = Math.max(pageTopLeft[1], pageBottomRight[1]);
-        }
-
-        for (IDMLTextFrame frame : textFrames) {
-            if (frame.geometricBounds() != null && frame.itemTransform() != null
-                    && page.geometricBounds() != null && page.itemTransform() != null) {
-
-                // 큰 Y 오프셋인 경우 디버그 로그
-                double ty = frame.itemTransform()[5];
-                if (ty > 1000 || ty < -1000) {
-                    double[] frameBounds = frame.geometricBounds();
-                    double frameCenterX = (frameBounds[1] + frameBounds[3]) / 2.0;
-                    double frameCenterY = (frameBounds[0] + frameBounds[2]) / 2.0;
-                    double[] frameCenter = CoordinateConverter.applyTransform(frame.itemTransform(),
-                            frameCenterX, frameCenterY);
-
-                    boolean isOnPage = IDMLGeometry.isFrameOnPage(
-                            frame.geometricBounds(), frame.itemTransform(),
-                            page.geometricBounds(), page.itemTransform());
-
-                    System.err.println("[DEBUG] 텍스트 페이지 할당: " + frame.selfId()
-                            + " | 페이지 " + page.pageNumber()
-                            + " | 페이지X=[" + CoordinateConverter.fmtInt(pageMinX) + "," + CoordinateConverter.fmtInt(pageMaxX) + "]"
-                            + " Y=[" + CoordinateConverter.fmtInt(pageMinY) + "," + CoordinateConverter.fmtInt(pageMaxY) + "]"
-                            + " | 텍스트(" + CoordinateConverter.fmtInt(frameCenter[0]) + "," + CoordinateConverter.fmtInt(frameCenter[1]) + ")"
-                            + " | 포함=" + isOnPage);
-
-                    if (isOnPage) {
-                        result.add(frame);
-                    }
-                    continue;
-                }
-
-                if (IDMLGeometry.isFrameOnPage(
-                        frame.geometricBounds(), frame.itemTransform(),
-                        page.geometricBounds(), page.itemTransform())) {
-                    result.add(frame);
-                }
-            }
-        }
-        return result;
+        return textFrameIndex().itemsOnPage(page);
     }
 
     /**
      * 특정 페이지에 속한 이미지 프레임 목록.
      */
     public List<IDMLImageFrame> getImageFramesOnPage(IDMLPage page) {
-        List<IDMLImageFrame> result = new ArrayList<IDMLImageFrame>();
-        for (IDMLImageFrame frame : imageFrames) {
-            if (frame.geometricBounds() != null && frame.itemTransform() != null
-                    && page.geometricBounds() != null && page.itemTransform() != null) {
-                if (IDMLGeometry.isFrameOnPage(
-                        frame.geometricBounds(), frame.itemTransform(),
-                        page.geometricBounds(), page.itemTransform())) {
-                    result.add(frame);
-                }
-            }
-        }
-        return result;
+        return imageFrameIndex().itemsOnPage(page);
     }
 
     /**
      * 특정 페이지에 속한 벡터 도형 목록.
      */
     public List<IDMLVectorShape> getVectorShapesOnPage(IDMLPage page) {
-        List<IDMLVectorShape> result = new ArrayList<IDMLVectorShape>();
-
-        // 페이지 좌표 범위 계산
-        double[] pageBounds = page.geometricBounds();
-        double[] pageTransform = page.itemTransform();
-        double pageMinX = 0, pageMaxX = 0, pageMinY = 0, pageMaxY = 0;
-        if (pageBounds != null && pageTransform != null) {
-            double[] pageTopLeft = CoordinateConverter.applyTransform(pageTransform, pageBounds[1], pageBounds[0]);
-            double[] pageBottomRight = CoordinateConverter.applyTransform(pageTransform, pageBounds[3], pageBounds[2]);
-            pageMinX = Math.min(pageTopLeft[0], pageBottomRight[0]);
-            pageMaxX = Math.max(pageTopLeft[0], pageBottomRight[0]);
-            pageMinY = Math.min(pageTopLeft[1], pageBottomRight[1]);
-            pageMaxY = Math.max(pageTopLeft[1], pageBottomRight[1]);
-        }
-
-        for (IDMLVectorShape shape : vectorShapes) {
-            if (shape.geometricBounds() != null && shape.itemTransform() != null
-                    && page.geometricBounds() != null && page.itemTransform() != null) {
-
-                // 큰 Y 오프셋인 경우 디버그 로그
-                double ty = shape.itemTransform()[5];
-                if (ty > 1000 || ty < -1000) {
-                    double[] shapeBounds = shape.geometricBounds();
-                    double shapeCenterX = (shapeBounds[1] + shapeBounds[3]) / 2.0;
-                    double shapeCenterY = (shapeBounds[0] + shapeBounds[2]) / 2.0;
-                    double[] shapeCenter = CoordinateConverter.applyTransform(shape.itemTransform(),
-                            shapeCenterX, shapeCenterY);
-
-                    boolean isOnPage = IDMLGeometry.isFrameOnPage(
-                            shape.geometricBounds(), shape.itemTransform(),
-                            page.geometricBounds(), page.itemTransform());
-
-                    System.err.println("[DEBUG] 벡터 페이지 할당: " + shape.selfId()
-                            + " | 페이지 " + page.pageNumber()
-                            + " | 페이지X=[" + CoordinateConverter.fmtInt(pageMinX) + "," + CoordinateConverter.fmtInt(pageMaxX) + "]"
-                            + " Y=[" + CoordinateConverter.fmtInt(pageMinY) + "," + CoordinateConverter.fmtInt(pageMaxY) + "]"
-                            + " | 벡터(" + CoordinateConverter.fmtInt(shapeCenter[0]) + "," + CoordinateConverter.fmtInt(shapeCenter[1]) + ")"
-                            + " | 포함=" + isOnPage);
-
-                    if (isOnPage) {
-                        result.add(shape);
-                    }
-                    continue;
-                }
-
-                if (IDMLGeometry.isFrameOnPage(
-                        shape.geometricBounds(), shape.itemTransform(),
-                        page.geometricBounds(), page.itemTransform())) {
-                    result.add(shape);
-                }
-            }
-        }
-        return result;
+        return vectorShapeIndex().itemsOnPage(page);
     }
 
     /**
@@ -227,66 +131,16 @@ public class IDMLSpread {
         List<RenderableItem> result = new ArrayList<RenderableItem>();
 
         // 이미지 프레임 추가
-        for (IDMLImageFrame frame : imageFrames) {
-            if (frame.geometricBounds() != null && frame.itemTransform() != null
-                    && page.geometricBounds() != null && page.itemTransform() != null) {
-                if (IDMLGeometry.isFrameOnPage(
-                        frame.geometricBounds(), frame.itemTransform(),
-                        page.geometricBounds(), page.itemTransform())) {
-                    result.add(new RenderableItem(frame));
-                }
-            }
-        }
-
-        // 페이지 범위 계산 (디버그용)
-        double[] pageBounds = page.geometricBounds();
-        double[] pageTransform = page.itemTransform();
-        double pageMinX = 0, pageMaxX = 0, pageMinY = 0, pageMaxY = 0;
-        if (pageBounds != null && pageTransform != null) {
-            double[] pageTopLeft = CoordinateConverter.applyTransform(pageTransform, pageBounds[1], pageBounds[0]);
-            double[] pageBottomRight = CoordinateConverter.applyTransform(pageTransform, pageBounds[3], pageBounds[2]);
-            pageMinX = Math.min(pageTopLeft[0], pageBottomRight[0]);
-            pageMaxX = Math.max(pageTopLeft[0], pageBottomRight[0]);
-            pageMinY = Math.min(pageTopLeft[1], pageBottomRight[1]);
-            pageMaxY = Math.max(pageTopLeft[1], pageBottomRight[1]);
+        for (IDMLImageFrame frame : getImageFramesOnPage(page)) {
+            result.add(new RenderableItem(frame));
         }
 
         // 벡터 도형 추가 (인라인 그래픽은 제외 - HWPX 네이티브 객체로 내보내기 위해)
-        int vectorTotal = 0, vectorOnPage = 0;
-        for (IDMLVectorShape shape : vectorShapes) {
-            vectorTotal++;
-            // 인라인 그래픽은 PNG 배경 렌더링에서 제외 (별도 HWPX 객체로 내보냄)
+        for (IDMLVectorShape shape : getVectorShapesOnPage(page)) {
             if (shape.isInline()) {
                 continue;
             }
-            if (shape.geometricBounds() != null && shape.itemTransform() != null
-                    && page.geometricBounds() != null && page.itemTransform() != null) {
-
-                boolean onPage = IDMLGeometry.isFrameOnPage(
-                        shape.geometricBounds(), shape.itemTransform(),
-                        page.geometricBounds(), page.itemTransform());
-
-                // 특정 인라인 그래픽 디버그 (u38a3 등)
-                String selfId = shape.selfId();
-                if (selfId != null && (selfId.startsWith("u38a") || selfId.startsWith("u38b") || selfId.startsWith("u38d"))) {
-                    double[] shapeBounds = shape.geometricBounds();
-                    double shapeCenterX = (shapeBounds[1] + shapeBounds[3]) / 2.0;
-                    double shapeCenterY = (shapeBounds[0] + shapeBounds[2]) / 2.0;
-                    double[] shapeCenter = CoordinateConverter.applyTransform(shape.itemTransform(),
-                            shapeCenterX, shapeCenterY);
-                    System.err.println("[DEBUG] 렌더링 체크: " + selfId
-                            + " | 페이지 " + page.pageNumber()
-                            + " | 벡터중심(" + CoordinateConverter.fmtInt(shapeCenter[0]) + "," + CoordinateConverter.fmtInt(shapeCenter[1]) + ")"
-                            + " | 페이지범위 X=[" + CoordinateConverter.fmtInt(pageMinX) + "," + CoordinateConverter.fmtInt(pageMaxX) + "]"
-                            + " Y=[" + CoordinateConverter.fmtInt(pageMinY) + "," + CoordinateConverter.fmtInt(pageMaxY) + "]"
-                            + " | onPage=" + onPage);
-                }
-
-                if (onPage) {
-                    vectorOnPage++;
-                    result.add(new RenderableItem(shape));
-                }
-            }
+            result.add(new RenderableItem(shape));
         }
 
         // z-order로 정렬
@@ -305,18 +159,9 @@ public class IDMLSpread {
      */
     public List<IDMLVectorShape> getInlineVectorShapesOnPage(IDMLPage page) {
         List<IDMLVectorShape> result = new ArrayList<IDMLVectorShape>();
-        for (IDMLVectorShape shape : vectorShapes) {
-            if (!shape.isInline()) {
-                continue;
-            }
-            if (shape.geometricBounds() != null && shape.itemTransform() != null
-                    && page.geometricBounds() != null && page.itemTransform() != null) {
-                boolean onPage = IDMLGeometry.isFrameOnPage(
-                        shape.geometricBounds(), shape.itemTransform(),
-                        page.geometricBounds(), page.itemTransform());
-                if (onPage) {
-                    result.add(shape);
-                }
+        for (IDMLVectorShape shape : getVectorShapesOnPage(page)) {
+            if (shape.isInline()) {
+                result.add(shape);
             }
         }
         // z-order로 정렬
@@ -327,4 +172,222 @@ public class IDMLSpread {
         });
         return result;
     }
+
+    /**
+     * 스프레드 좌표 (x, y)를 포함하는 페이지를 찾는다.
+     * 페이지 영역은 좌상단 + GeometricBounds 크기로 판정하며, 포함하는 페이지가 없으면 null.
+     */
+    public IDMLPage findPageContaining(double x, double y) {
+        double[][] rects = pageRects();
+        for (int i = 0; i < rects.length; i++) {
+            double[] r = rects[i];
+            if (r == null) continue;
+            if (x >= r[0] && x <= r[0] + r[2] && y >= r[1] && y <= r[1] + r[3]) {
+                return pages.get(i);
+            }
+        }
+        return null;
+    }
+
+    // ── 공간 인덱스 (지연 구축, 목록이 바뀌면 다시 구축) ──
+
+    /**
+     * ID → 텍스트 프레임 (같은 ID가 여럿이면 먼저 나온 것).
+     * textFrames()로 목록을 직접 바꿔도 목록의 버전이 달라지면 다시 만든다.
+     */
+    private synchronized Map<String, IDMLTextFrame> textFrameById() {
+        if (textFrameById == null || textFrameByIdVersion != textFrames.version()) {
+            Map<String, IDMLTextFrame> map = new HashMap<String, IDMLTextFrame>();
+            for (IDMLTextFrame frame : textFrames) {
+                if (frame.selfId() != null && !map.containsKey(frame.selfId())) {
+                    map.put(frame.selfId(), frame);
+                }
+            }
+            textFrameById = map;
+            textFrameByIdVersion = textFrames.version();
+        }
+        return textFrameById;
+    }
+
+    private synchronized IDMLSpatialIndex<IDMLTextFrame> textFrameIndex() {
+        if (textFrameIndex == null || textFrameIndex.isStale(textFrames.version())) {
+            textFrameIndex = IDMLSpatialIndex.build(textFrames, textFrames.version(), new IDMLSpatialIndex.Geometry<IDMLTextFrame>() {
+                public double[] bounds(IDMLTextFrame item) { return item.geometricBounds(); }
+                public double[] transform(IDMLTextFrame item) { return item.itemTransform(); }
+            });
+        }
+        return textFrameIndex;
+    }
+
+    private synchronized IDMLSpatialIndex<IDMLImageFrame> imageFrameIndex() {
+        if (imageFrameIndex == null || imageFrameIndex.isStale(imageFrames.version())) {
+            imageFrameIndex = IDMLSpatialIndex.build(imageFrames, imageFrames.version(), new IDMLSpatialIndex.Geometry<IDMLImageFrame>() {
+                public double[] bounds(IDMLImageFrame item) { return item.geometricBounds(); }
+                public double[] transform(IDMLImageFrame item) { return item.itemTransform(); }
+            });
+        }
+        return imageFrameIndex;
+    }
+
+    private synchronized IDMLSpatialIndex<IDMLVectorShape> vectorShapeIndex() {
+        if (vectorShapeIndex == null || vectorShapeIndex.isStale(vectorShapes.version())) {
+            vectorShapeIndex = IDMLSpatialIndex.build(vectorShapes, vectorShapes.version(), new IDMLSpatialIndex.Geometry<IDMLVectorShape>() {
+                public double[] bounds(IDMLVectorShape item) { return item.geometricBounds(); }
+                public double[] transform(IDMLVectorShape item) { return item.itemTransform(); }
+            });
+        }
+        return vectorShapeIndex;
+    }
+
+    /**
+     * 페이지별 [좌상단X, 좌상단Y, 폭, 높이] (bounds/transform이 없는 페이지는 null).
+     */
+    private synchronized double[][] pageRects() {
+        if (pageRects == null || pageRects.length != pages.size()) {
+            double[][] rects = new double[pages.size()][];
+            for (int i = 0; i < rects.length; i++) {
+                IDMLPage page = pages.get(i);
+                double[] bounds = page.geometricBounds();
+                double[] transform = page.itemTransform();
+                if (bounds == null || transform == null) continue;
+
+                double[] topLeft = IDMLGeometry.absoluteTopLeft(bounds, transform);
+                rects[i] = new double[]{
+                        topLeft[0], topLeft[1], IDMLGeometry.width(bounds), IDMLGeometry.height(bounds)
+                };
+            }
+            pageRects = rects;
+        }
+        return pageRects;
+    }
+
+    /**
+     * 내용이 바뀔 때마다 버전이 올라가는 목록 (추가, 삭제, 교체 모두).
+     * ArrayList의 modCount와 별도로 세므로 ListIterator.set() 뒤에도 반복을 계속할 수 있다.
+     * 버전은 직렬화하지 않는다 (역직렬화하면 색인도 비어 있다).
+     */
+    static class TrackedList<T> extends ArrayList<T> {
+        private static final long serialVersionUID = 1L;
+
+        private transient int version;
+
+        int version() {
+            return version;
+        }
+
+        @Override
+        public boolean add(T element) {
+            version++;
+            return super.add(element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            version++;
+            super.add(index, element);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends T> c) {
+            version++;
+            return super.addAll(c);
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends T> c) {
+            version++;
+            return super.addAll(index, c);
+        }
+
+        @Override
+        public T set(int index, T element) {
+            version++;
+            return super.set(index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            version++;
+            return super.remove(index);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            version++;
+            return super.remove(o);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            version++;
+            return super.removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            version++;
+            return super.retainAll(c);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super T> filter) {
+            version++;
+            return super.removeIf(filter);
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            version++;
+            super.removeRange(fromIndex, toIndex);
+        }
+
+        @Override
+        public void clear() {
+            version++;
+            super.clear();
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<T> operator) {
+            version++;
+            super.replaceAll(operator);
+        }
+
+        @Override
+        public void sort(Comparator<? super T> c) {
+            version++;
+            super.sort(c);
+        }
+
+        /**
+         * ArrayList의 부분 목록은 set()을 원래 목록을 거치지 않고 처리하므로 감싸서 센다.
+         * (추가/삭제는 원래 목록의 add/remove를 거친다)
+         */
+        @Override
+        public List<T> subList(int fromIndex, int toIndex) {
+            final List<T> view = super.subList(fromIndex, toIndex);
+            return new AbstractList<T>() {
+                public T get(int index) {
+                    return view.get(index);
+                }
+
+                public int size() {
+                    return view.size();
+                }
+
+                public T set(int index, T element) {
+                    version++;
+                    return view.set(index, element);
+                }
+
+                public void add(int index, T element) {
+                    view.add(index, element);
+                }
+
+                public T remove(int index) {
+                    return view.remove(index);
+                }
+            };
+        }
+    }
 }
@@ -1,12 +1,15 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * IDML Story — 텍스트 프레임의 내용.
  */
-public class IDMLStory {
+public class IDMLStory implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfId;
     private List<IDMLParagraph> paragraphs;
     private List<IDMLTable> tables;
@@ -1,9 +1,13 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
+
 /**
  * IDML 스타일 정의 (ParagraphStyle 또는 CharacterStyle).
  */
-public class IDMLStyleDef {
+public class IDMLStyleDef implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfRef;
     private String name;
     private String basedOn;
@@ -36,7 +40,9 @@ public class IDMLStyleDef {
     /**
      * 탭 정지점 정보.
      */
-    public static class TabStop {
+    public static class TabStop implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private Double position;   // 탭 위치 (points)
         private String alignment;  // "LeftAlign", "CenterAlign", "RightAlign", "CharacterAlign"
         private String leader;     // 탭 리더 문자
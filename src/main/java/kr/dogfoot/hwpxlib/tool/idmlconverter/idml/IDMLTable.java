@@ -1,12 +1,15 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * IDML Table element from Story XML.
  */
-public class IDMLTable {
+public class IDMLTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfId;
     private int rowCount;
     private int columnCount;
@@ -1,12 +1,15 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * IDML Table Cell (Cell element).
  */
-public class IDMLTableCell {
+public class IDMLTableCell implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfId;
     private int rowIndex;
     private int columnIndex;
@@ -52,7 +55,9 @@ public class IDMLTableCell {
         this.verticalJustification = "TopAlign";
     }
 
-    public static class CellBorder {
+    public static class CellBorder implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         public String strokeColor;
         public double strokeWeight;
         public String strokeType;  // Solid, Dashed, etc.
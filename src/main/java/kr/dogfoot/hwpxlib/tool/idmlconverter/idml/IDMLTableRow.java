@@ -1,12 +1,15 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * IDML Table Row (Row element).
  */
-public class IDMLTableRow {
+public class IDMLTableRow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfId;
     private int rowIndex;
     private double rowHeight;      // points
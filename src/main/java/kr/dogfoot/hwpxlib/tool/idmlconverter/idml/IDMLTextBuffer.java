@@ -0,0 +1,78 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Story 단위 텍스트 버퍼.
+ *
+ * 문자 런마다 String을 따로 두지 않고 Story의 모든 텍스트를 하나의 char 배열에 이어 붙인 뒤
+ * 런은 (offset, length)로 자신의 구간을 가리킨다.
+ */
+public class IDMLTextBuffer implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private char[] chars;
+    private int length;
+
+    public IDMLTextBuffer() {
+        this(256);
+    }
+
+    public IDMLTextBuffer(int capacity) {
+        this.chars = new char[Math.max(16, capacity)];
+        this.length = 0;
+    }
+
+    private IDMLTextBuffer(char[] chars) {
+        this.chars = chars;
+        this.length = chars.length;
+    }
+
+    /**
+     * 단일 문자열을 담는 버퍼 (문자열 길이에 딱 맞는 배열).
+     */
+    public static IDMLTextBuffer of(String text) {
+        return new IDMLTextBuffer(text.toCharArray());
+    }
+
+    /**
+     * 텍스트를 끝에 추가하고 시작 offset을 반환한다.
+     */
+    public int append(CharSequence text) {
+        int offset = length;
+        int n = text.length();
+        ensureCapacity(length + n);
+        for (int i = 0; i < n; i++) {
+            chars[length++] = text.charAt(i);
+        }
+        return offset;
+    }
+
+    public int length() { return length; }
+
+    public char charAt(int index) { return chars[index]; }
+
+    public String substring(int offset, int count) {
+        return new String(chars, offset, count);
+    }
+
+    public void appendTo(StringBuilder sb, int offset, int count) {
+        sb.append(chars, offset, count);
+    }
+
+    /**
+     * 로드가 끝난 후 남는 용량을 잘라낸다.
+     */
+    public void trimToSize() {
+        if (chars.length != length) {
+            chars = Arrays.copyOf(chars, length);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(required, chars.length * 2));
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
+
 /**
  * IDML TextFrame — 텍스트 프레임 (위치 + Story 참조).
  */
-public class IDMLTextFrame {
+public class IDMLTextFrame implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String selfId;
     private String parentStoryId;
     private double[] geometricBounds;
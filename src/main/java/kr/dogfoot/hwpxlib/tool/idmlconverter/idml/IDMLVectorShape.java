@@ -1,5 +1,6 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.idml;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,7 +8,8 @@ import java.util.List;
  * IDML 벡터 도형 (Rectangle, Polygon, Oval, GraphicLine 등).
  * 이미지를 포함하지 않는 순수 벡터 그래픽.
  */
-public class IDMLVectorShape {
+public class IDMLVectorShape implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     public enum ShapeType {
         RECTANGLE,
@@ -40,7 +42,9 @@ public class IDMLVectorShape {
      * leftDirection = 앵커로 들어오는 방향 핸들
      * rightDirection = 앵커에서 나가는 방향 핸들
      */
-    public static class PathPoint {
+    public static class PathPoint implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private double anchorX;
         private double anchorY;
         private double leftX;
@@ -79,7 +83,9 @@ public class IDMLVectorShape {
      * SubPath: 하나의 연속 경로 (GeometryPathType 하나에 대응).
      * 복합 글리프는 여러 SubPath로 구성됨.
      */
-    public static class SubPath {
+    public static class SubPath implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private List<PathPoint> points;
         private boolean open;  // true = 열린 경로 (선), false = 닫힌 경로 (면)
 
@@ -0,0 +1,73 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import com.google.gson.Gson;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Writer;
+
+/**
+ * 바이너리 → IntermediateDocument 역직렬화. 포맷은 {@link BinarySerializer} 참조.
+ *
+ * 이미지 바이트는 문서와 함께 읽혀 메모리에 보관된다 (IntermediateImage.data()).
+ */
+public class BinaryDeserializer {
+
+    /**
+     * 바이너리를 IntermediateDocument로 역직렬화한다.
+     */
+    public static IntermediateDocument fromBinary(byte[] data) throws ConvertException {
+        if (data == null || data.length == 0) {
+            throw new ConvertException(ConvertException.Phase.JSON_DESERIALIZATION,
+                    "Binary data is null or empty");
+        }
+        return read(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * in에서 바이너리를 읽어 IntermediateDocument로 역직렬화한다. in은 닫지 않는다.
+     */
+    public static IntermediateDocument read(InputStream in) throws ConvertException {
+        try {
+            BinaryJsonReader reader = new BinaryJsonReader(in);
+            Gson gson = JsonDeserializer.gson(reader.blobs());
+            IntermediateDocument doc = gson.fromJson(reader, IntermediateDocument.class);
+            if (doc == null) {
+                throw new ConvertException(ConvertException.Phase.JSON_DESERIALIZATION,
+                        "Failed to deserialize binary: result is null");
+            }
+            reader.expectEnd();
+            return doc;
+        } catch (ConvertException ce) {
+            throw ce;
+        } catch (Exception e) {
+            throw new ConvertException(ConvertException.Phase.JSON_DESERIALIZATION,
+                    "Failed to deserialize binary: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * in의 바이너리를 페이지 단위로 읽는 리더를 만든다. 리더를 닫으면 in도 닫힌다.
+     */
+    public static IntermediatePageReader pageReader(InputStream in) throws ConvertException {
+        BinaryJsonReader reader;
+        try {
+            reader = new BinaryJsonReader(in);
+        } catch (Exception e) {
+            throw new ConvertException(ConvertException.Phase.JSON_DESERIALIZATION,
+                    "Failed to read binary header: " + e.getMessage(), e);
+        }
+        return new IntermediatePageReader(JsonDeserializer.gson(reader.blobs()), reader);
+    }
+
+    /**
+     * 바이너리를 중간 JSON으로 변환한다 (이미지는 인라인 base64).
+     *
+     * @param in  바이너리 입력 (닫지 않는다)
+     * @param out JSON 출력 (닫지 않는다)
+     */
+    public static void toJson(InputStream in, Writer out) throws ConvertException {
+        JsonSerializer.write(read(in), out);
+    }
+}
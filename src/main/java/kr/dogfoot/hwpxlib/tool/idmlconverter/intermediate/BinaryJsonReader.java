@@ -0,0 +1,358 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.BinaryJsonWriter.*;
+
+/**
+ * 중간 바이너리 포맷 읽기. 포맷은 {@link BinaryJsonWriter} 참조.
+ *
+ * Gson의 JsonReader를 상속하므로 JSON 역직렬화에 쓰는 어댑터가 그대로 바이너리를 읽는다.
+ * BLOB 토큰은 어댑터에 보이지 않고 {@link #blobs()}에 모인다.
+ */
+class BinaryJsonReader extends JsonReader {
+
+    private static final Reader UNREADABLE_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final DataInputStream in;
+    private final MemoryBlobStore blobs = new MemoryBlobStore();
+    private final List<String> strings = new ArrayList<String>();
+    private int peeked = -1;
+
+    BinaryJsonReader(InputStream in) throws IOException {
+        super(UNREADABLE_READER);
+        this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 65536));
+
+        byte[] magic = new byte[MAGIC.length];
+        this.in.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("Not an intermediate binary document");
+            }
+        }
+        long version = readVarint();
+        if (version != VERSION) {
+            throw new IOException("Unsupported intermediate binary version: " + version);
+        }
+    }
+
+    /**
+     * 지금까지 읽은 이미지 바이트. 역직렬화된 이미지의 blobRef가 이 저장소를 가리킨다.
+     */
+    BlobStore blobs() { return blobs; }
+
+    /**
+     * 문서 끝 표시까지 읽었는지 확인한다.
+     */
+    void expectEnd() throws IOException {
+        if (peekTag() != END) {
+            throw new IOException("Expected end of document but was " + peek());
+        }
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(BEGIN_ARRAY, JsonToken.BEGIN_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(END_ARRAY, JsonToken.END_ARRAY);
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(BEGIN_OBJECT, JsonToken.BEGIN_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(END_OBJECT, JsonToken.END_OBJECT);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        int tag = peekTag();
+        return tag != END_OBJECT && tag != END_ARRAY && tag != END;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        int tag = peekTag();
+        switch (tag) {
+            case END: return JsonToken.END_DOCUMENT;
+            case BEGIN_OBJECT: return JsonToken.BEGIN_OBJECT;
+            case END_OBJECT: return JsonToken.END_OBJECT;
+            case BEGIN_ARRAY: return JsonToken.BEGIN_ARRAY;
+            case END_ARRAY: return JsonToken.END_ARRAY;
+            case NAME: return JsonToken.NAME;
+            case STRING: return JsonToken.STRING;
+            case TRUE:
+            case FALSE: return JsonToken.BOOLEAN;
+            case NULL: return JsonToken.NULL;
+            case LONG:
+            case DOUBLE:
+            case DOUBLE_INT:
+            case NUMBER: return JsonToken.NUMBER;
+            default:
+                throw new IOException("Invalid binary token: 0x" + Integer.toHexString(tag));
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(NAME, JsonToken.NAME);
+        return readString();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        int tag = peekTag();
+        switch (tag) {
+            case STRING:
+            case NUMBER:
+                peeked = -1;
+                return readString();
+            case LONG:
+                peeked = -1;
+                return Long.toString(unzigzag(readVarint()));
+            case DOUBLE:
+            case DOUBLE_INT:
+                return Double.toString(nextDouble());
+            default:
+                throw unexpected(JsonToken.STRING);
+        }
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        int tag = peekTag();
+        if (tag != TRUE && tag != FALSE) {
+            throw unexpected(JsonToken.BOOLEAN);
+        }
+        peeked = -1;
+        return tag == TRUE;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(NULL, JsonToken.NULL);
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        int tag = peekTag();
+        switch (tag) {
+            case DOUBLE:
+                peeked = -1;
+                return in.readDouble();
+            case DOUBLE_INT:
+            case LONG:
+                peeked = -1;
+                return (double) unzigzag(readVarint());
+            case NUMBER:
+            case STRING:
+                peeked = -1;
+                return Double.parseDouble(readString());
+            default:
+                throw unexpected(JsonToken.NUMBER);
+        }
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        int tag = peekTag();
+        switch (tag) {
+            case LONG:
+            case DOUBLE_INT:
+                peeked = -1;
+                return unzigzag(readVarint());
+            case NUMBER:
+            case STRING: {
+                String s = nextString();
+                try {
+                    return Long.parseLong(s);
+                } catch (NumberFormatException e) {
+                    return toLong(Double.parseDouble(s));
+                }
+            }
+            case DOUBLE:
+                return toLong(nextDouble());
+            default:
+                throw unexpected(JsonToken.NUMBER);
+        }
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long l = nextLong();
+        int i = (int) l;
+        if (i != l) {
+            throw new NumberFormatException("Expected an int but was " + l);
+        }
+        return i;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            int tag = peekTag();
+            switch (tag) {
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    peeked = -1;
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    peeked = -1;
+                    depth--;
+                    break;
+                case NAME:
+                case STRING:
+                case NUMBER:
+                    peeked = -1;
+                    readString();
+                    break;
+                case LONG:
+                case DOUBLE_INT:
+                    peeked = -1;
+                    readVarint();
+                    break;
+                case DOUBLE:
+                    peeked = -1;
+                    in.readDouble();
+                    break;
+                case TRUE:
+                case FALSE:
+                case NULL:
+                    peeked = -1;
+                    break;
+                default:
+                    throw unexpected(JsonToken.BEGIN_OBJECT);
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * 다음 태그를 읽는다 (소비하지 않음). BLOB 토큰은 저장소에 넣고 건너뛴다.
+     */
+    private int peekTag() throws IOException {
+        if (peeked < 0) {
+            int tag = in.read();
+            while (tag == BLOB) {
+                readBlob();
+                tag = in.read();
+            }
+            if (tag < 0) {
+                throw new EOFException("Unexpected end of intermediate binary");
+            }
+            peeked = tag;
+        }
+        return peeked;
+    }
+
+    private void expect(int tag, JsonToken token) throws IOException {
+        if (peekTag() != tag) {
+            throw unexpected(token);
+        }
+        peeked = -1;
+    }
+
+    private IllegalStateException unexpected(JsonToken expected) throws IOException {
+        return new IllegalStateException("Expected " + expected + " but was " + peek());
+    }
+
+    private void readBlob() throws IOException {
+        String ref = readString();
+        byte[] data = new byte[checkLength(readVarint())];
+        in.readFully(data);
+        if (!blobs.contains(ref)) {
+            blobs.write(ref, data);
+        }
+    }
+
+    private String readString() throws IOException {
+        long h = readVarint();
+        int kind = (int) (h & 3);
+        if (kind == STRING_REF) {
+            long index = h >>> 2;
+            if (index >= strings.size()) {
+                throw new IOException("Invalid string table index: " + index);
+            }
+            return strings.get((int) index);
+        }
+        byte[] bytes = new byte[checkLength(h >>> 2)];
+        in.readFully(bytes);
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        if (kind == STRING_NEW) {
+            strings.add(s);
+        } else if (kind != STRING_LITERAL) {
+            throw new IOException("Invalid string header: " + h);
+        }
+        return s;
+    }
+
+    private long readVarint() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int checkLength(long length) throws IOException {
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static long toLong(double d) {
+        long l = (long) d;
+        if (l != d) {
+            throw new NumberFormatException("Expected a long but was " + d);
+        }
+        return l;
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
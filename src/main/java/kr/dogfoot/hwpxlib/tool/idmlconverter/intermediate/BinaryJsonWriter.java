@@ -0,0 +1,291 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 중간 바이너리 포맷 쓰기.
+ *
+ * Gson의 JsonWriter를 상속하므로 JSON 직렬화에 쓰는 어댑터 (IntermediateTypeAdapters, 리플렉션 어댑터)가
+ * 그대로 바이너리 토큰을 쓴다. 포맷:
+ * <pre>
+ * 'H' 'W' 'P' 'I' version(varint)
+ * 토큰* END
+ *
+ * 토큰 = 태그(1바이트) [내용]
+ *   NAME / STRING     문자열
+ *   LONG / DOUBLE_INT zigzag varint (HWPUNIT 좌표 등 정수는 대부분 1~3바이트)
+ *   DOUBLE            IEEE754 8바이트 (big endian)
+ *   NUMBER            문자열 (long/double로 표현할 수 없는 수)
+ *   BLOB              문자열(참조) varint(길이) 바이트 — 이미지 원본 바이트
+ *
+ * 문자열 = varint(h)
+ *   h &amp; 3 == 0 : 문자열 테이블의 (h &gt;&gt; 2)번째 항목
+ *   h &amp; 3 == 1 : UTF-8 (h &gt;&gt; 2)바이트, 테이블에 추가
+ *   h &amp; 3 == 2 : UTF-8 (h &gt;&gt; 2)바이트, 테이블에 추가하지 않음
+ * </pre>
+ * 필드 이름과 짧은 문자열 (스타일/폰트/색상 참조 등)은 테이블에 한 번만 기록된다.
+ * BLOB은 이미지 객체 바로 앞에 한 번만 나오고, 이미지는 참조(blobRef)만 가진다.
+ */
+class BinaryJsonWriter extends JsonWriter {
+
+    static final byte[] MAGIC = {'H', 'W', 'P', 'I'};
+    static final int VERSION = 1;
+
+    static final int END = 0x00;
+    static final int BEGIN_OBJECT = 0x01;
+    static final int END_OBJECT = 0x02;
+    static final int BEGIN_ARRAY = 0x03;
+    static final int END_ARRAY = 0x04;
+    static final int NAME = 0x05;
+    static final int STRING = 0x06;
+    static final int TRUE = 0x07;
+    static final int FALSE = 0x08;
+    static final int NULL = 0x09;
+    static final int LONG = 0x0A;
+    static final int DOUBLE = 0x0B;
+    static final int DOUBLE_INT = 0x0C;
+    static final int NUMBER = 0x0D;
+    static final int BLOB = 0x0E;
+
+    static final int STRING_REF = 0;
+    static final int STRING_NEW = 1;
+    static final int STRING_LITERAL = 2;
+
+    // 테이블에 넣을 문자열 값의 최대 길이 (긴 본문 텍스트는 반복되지 않는다)
+    private static final int MAX_INTERNED_LENGTH = 64;
+    private static final int MAX_TABLE_SIZE = 1 << 20;
+
+    private static final Writer UNWRITABLE_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int counter) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final StreamBlobStore blobs = new StreamBlobStore();
+
+    BinaryJsonWriter(OutputStream out) throws IOException {
+        super(UNWRITABLE_WRITER);
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 65536);
+        this.out.write(MAGIC);
+        writeVarint(VERSION);
+    }
+
+    /**
+     * 이미지 바이트를 스트림에 바로 기록하는 저장소 (JsonSerializer.gson(BlobStore)에 넘긴다).
+     */
+    BlobStore blobs() { return blobs; }
+
+    /**
+     * 문서 끝 표시를 쓰고 flush한다. 스트림은 닫지 않는다.
+     */
+    void finish() throws IOException {
+        out.write(END);
+        out.flush();
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        out.write(BEGIN_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        out.write(END_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        out.write(BEGIN_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        out.write(END_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        out.write(NAME);
+        writeString(name, true);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        out.write(STRING);
+        writeString(value, value.length() <= MAX_INTERNED_LENGTH);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        throw new UnsupportedOperationException("Raw JSON values are not supported in the binary format");
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        out.write(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        out.write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(float value) throws IOException {
+        return value((double) value);
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        long l = (long) value;
+        if (l == value && Math.abs(l) < (1L << 53)
+                && (l != 0 || Double.doubleToRawLongBits(value) == 0)) {
+            out.write(DOUBLE_INT);
+            writeVarint(zigzag(l));
+        } else {
+            out.write(DOUBLE);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (bits >>> shift));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        out.write(LONG);
+        writeVarint(zigzag(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return value(value.doubleValue());
+        }
+        out.write(NUMBER);
+        writeString(value.toString(), false);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeBlob(String ref, byte[] data) throws IOException {
+        out.write(BLOB);
+        writeString(ref, false);
+        writeVarint(data.length);
+        out.write(data);
+    }
+
+    private void writeString(String s, boolean intern) throws IOException {
+        Integer index = strings.get(s);
+        if (index != null) {
+            writeVarint(((long) index << 2) | STRING_REF);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (intern && strings.size() < MAX_TABLE_SIZE) {
+            strings.put(s, strings.size());
+            writeVarint(((long) bytes.length << 2) | STRING_NEW);
+        } else {
+            writeVarint(((long) bytes.length << 2) | STRING_LITERAL);
+        }
+        out.write(bytes);
+    }
+
+    private void writeVarint(long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    /**
+     * put()된 이미지 바이트를 BLOB 토큰으로 바로 쓴다. 같은 내용은 한 번만 쓴다.
+     */
+    private class StreamBlobStore extends BlobStore {
+        private final Set<String> written = new HashSet<String>();
+
+        @Override
+        protected void write(String ref, byte[] data) throws IOException {
+            writeBlob(ref, data);
+            written.add(ref);
+        }
+
+        @Override
+        public byte[] get(String ref) throws IOException {
+            throw new IOException("Binary blob stream is write-only");
+        }
+
+        @Override
+        public boolean contains(String ref) {
+            return written.contains(ref);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import com.google.gson.Gson;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+
+/**
+ * IntermediateDocument → 바이너리 직렬화.
+ *
+ * JSON 스키마 (docs/intermediate-schema.json)와 같은 구조를 토큰 단위로 인코딩한다.
+ * 필드 이름과 스타일/폰트/색상 참조는 문자열 테이블로, HWPUNIT 좌표는 varint로,
+ * 이미지는 base64 없이 원본 바이트로 기록한다 (포맷은 BinaryJsonWriter 참조).
+ * IDML 파싱 단계와 HWPX 생성 단계 사이에서 문서를 넘길 때 사용한다.
+ */
+public class BinarySerializer {
+
+    /**
+     * IntermediateDocument를 바이너리로 직렬화한다.
+     */
+    public static byte[] toBinary(IntermediateDocument doc) throws ConvertException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        write(doc, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * IntermediateDocument를 바이너리로 out에 바로 쓴다. out은 닫지 않는다.
+     */
+    public static void write(IntermediateDocument doc, OutputStream out) throws ConvertException {
+        try {
+            BinaryJsonWriter writer = new BinaryJsonWriter(out);
+            Gson gson = JsonSerializer.gson(writer.blobs());
+            gson.toJson(doc, IntermediateDocument.class, writer);
+            writer.finish();
+        } catch (Exception e) {
+            throw new ConvertException(ConvertException.Phase.JSON_SERIALIZATION,
+                    "Failed to serialize to binary: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 중간 JSON을 바이너리로 변환한다. 인라인 base64 이미지는 원본 바이트로 옮겨진다.
+     *
+     * @param json  JSON 입력 (닫지 않는다)
+     * @param blobs JSON의 이미지 참조를 읽을 저장소 (null이면 인라인 base64만)
+     * @param out   바이너리 출력 (닫지 않는다)
+     */
+    public static void fromJson(Reader json, BlobStore blobs, OutputStream out) throws ConvertException {
+        write(JsonDeserializer.read(json, blobs), out);
+    }
+}
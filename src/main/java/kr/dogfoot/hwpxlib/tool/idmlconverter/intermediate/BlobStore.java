@@ -0,0 +1,86 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 중간 포맷 이미지 바이너리 저장소.
+ *
+ * 이미지 바이트는 내용 해시 참조 ("sha256:&lt;hex&gt;")로 저장되고, 중간 JSON에는 base64 대신
+ * 이 참조만 기록된다. 같은 내용의 이미지는 한 번만 저장된다.
+ *
+ * 구현:
+ * <ul>
+ *   <li>{@link MemoryBlobStore} - 메모리 (한 프로세스 안에서 JSON을 주고받을 때)</li>
+ *   <li>{@link DirectoryBlobStore} - 디렉토리의 파일 (참조별 파일 하나)</li>
+ *   <li>{@link ZipBlobStore} - JSON 옆의 zip 사이드카 파일</li>
+ * </ul>
+ */
+public abstract class BlobStore {
+
+    /** 참조 접두어 */
+    public static final String REF_PREFIX = "sha256:";
+
+    /**
+     * 참조로 데이터를 저장한다. 같은 참조가 이미 있으면 호출되지 않는다.
+     */
+    protected abstract void write(String ref, byte[] data) throws IOException;
+
+    /**
+     * 참조의 데이터를 읽는다.
+     *
+     * @throws IOException 참조가 없거나 읽기 실패
+     */
+    public abstract byte[] get(String ref) throws IOException;
+
+    /**
+     * 참조가 저장되어 있는지 확인한다.
+     */
+    public abstract boolean contains(String ref);
+
+    /**
+     * 데이터를 저장하고 참조를 반환한다. 같은 내용이 이미 있으면 다시 저장하지 않는다.
+     */
+    public synchronized String put(byte[] data) throws IOException {
+        String ref = ref(data);
+        if (!contains(ref)) {
+            write(ref, data);
+        }
+        return ref;
+    }
+
+    /**
+     * 데이터의 내용 해시 참조를 계산한다.
+     */
+    public static String ref(byte[] data) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        StringBuilder sb = new StringBuilder(REF_PREFIX);
+        for (byte b : md.digest(data)) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 참조를 파일/엔트리 이름으로 쓸 수 있는 형태로 바꾼다 ("sha256:ab.." → "ab..").
+     */
+    protected static String entryName(String ref) {
+        if (ref == null || !ref.startsWith(REF_PREFIX)) {
+            throw new IllegalArgumentException("Invalid blob reference: " + ref);
+        }
+        String hex = ref.substring(REF_PREFIX.length());
+        for (int i = 0; i < hex.length(); i++) {
+            char c = hex.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                throw new IllegalArgumentException("Invalid blob reference: " + ref);
+            }
+        }
+        return hex;
+    }
+}
@@ -0,0 +1,59 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 디렉토리 기반 BlobStore. 참조마다 파일 하나 ({@code <hex>.bin})를 쓴다.
+ * 임시 파일에 쓴 후 이름을 바꾸므로 같은 디렉토리를 여러 프로세스가 공유해도 된다.
+ */
+public class DirectoryBlobStore extends BlobStore {
+
+    private final File directory;
+
+    public DirectoryBlobStore(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create blob directory: " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+    }
+
+    public File directory() { return directory; }
+
+    @Override
+    protected void write(String ref, byte[] data) throws IOException {
+        File file = file(ref);
+        File tmp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            Files.write(tmp.toPath(), data);
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    @Override
+    public byte[] get(String ref) throws IOException {
+        File file = file(ref);
+        if (!file.isFile()) {
+            throw new IOException("Blob not found: " + ref + " (" + directory.getAbsolutePath() + ")");
+        }
+        return Files.readAllBytes(file.toPath());
+    }
+
+    @Override
+    public boolean contains(String ref) {
+        return file(ref).isFile();
+    }
+
+    private File file(String ref) {
+        return new File(directory, entryName(ref) + ".bin");
+    }
+}
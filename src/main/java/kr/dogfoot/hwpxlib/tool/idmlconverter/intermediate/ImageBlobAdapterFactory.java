@@ -0,0 +1,56 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * IntermediateImage의 바이트를 BlobStore 참조 또는 인라인 base64로 직렬화하는 Gson 어댑터.
+ * 역직렬화 시에는 이미지에 저장소를 연결해 blobRef를 필요할 때 읽게 한다.
+ * 저장소 없이 blobRef만 있는 이미지를 읽으면 바이트를 찾을 수 없으므로 실패한다.
+ */
+class ImageBlobAdapterFactory implements TypeAdapterFactory {
+
+    private final BlobStore blobs;
+
+    /**
+     * @param blobs null이면 인라인 base64
+     */
+    ImageBlobAdapterFactory(BlobStore blobs) {
+        this.blobs = blobs;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != IntermediateImage.class) return null;
+        final TypeAdapter<IntermediateImage> delegate =
+                gson.getDelegateAdapter(this, TypeToken.get(IntermediateImage.class));
+
+        return (TypeAdapter<T>) new TypeAdapter<IntermediateImage>() {
+            @Override
+            public void write(JsonWriter out, IntermediateImage image) throws IOException {
+                delegate.write(out, image != null ? image.serialForm(blobs) : null);
+            }
+
+            @Override
+            public IntermediateImage read(JsonReader in) throws IOException {
+                IntermediateImage image = delegate.read(in);
+                if (image == null) return null;
+                if (blobs != null) {
+                    image.blobStore(blobs);
+                } else if (image.blobRef() != null && image.base64Data() == null) {
+                    throw new JsonParseException("Image " + image.imageId() + " references "
+                            + image.blobRef() + " but no BlobStore was given");
+                }
+                return image;
+            }
+        };
+    }
+}
@@ -16,6 +16,10 @@ public class IntermediateDocument {
     private List<IntermediateFontDef> fonts;
     private List<IntermediateStyleDef> paragraphStyles;
     private List<IntermediateStyleDef> characterStyles;
+    // 스프레드 모드 관련 (현재 미구현, 컴파일용 스텁)
+    // JSON에서 pages보다 먼저 나오도록 pages 앞에 선언한다 (IntermediatePageReader)
+    private boolean useSpreadMode;
+    private List<IntermediateSpread> spreads = new ArrayList<IntermediateSpread>();
     private List<IntermediatePage> pages;
 
     public IntermediateDocument() {
@@ -51,9 +55,6 @@ public class IntermediateDocument {
     public void addPage(IntermediatePage page) { pages.add(page); }
 
     // 스프레드 모드 관련 (현재 미구현, 컴파일용 스텁)
-    private boolean useSpreadMode;
-    private List<IntermediateSpread> spreads = new ArrayList<IntermediateSpread>();
-
     public boolean useSpreadMode() { return useSpreadMode; }
     public void useSpreadMode(boolean v) { this.useSpreadMode = v; }
     public List<IntermediateSpread> spreads() { return spreads; }
@@ -87,9 +87,12 @@ public class IntermediateFrame {
     private boolean isInline;           // 인라인(앵커) 객체 여부
 
     // 벡터 도형 속성 (frameType이 "shape"인 경우)
-    private String shapeType;           // "rectangle", "oval", "polygon"
+    private String shapeType;           // "rectangle", "oval", "polygon", "curve"
     private List<double[]> pathPoints;  // 폴리곤 경로 점 목록 [x, y]
     private short cornerRatio;          // 둥근 모서리 비율 (0=직각, 20=둥근, 50=반원)
+    private List<long[]> curveSegments; // 곡선 세그먼트 [type(0=LINE,1=CURVE), x1, y1, x2, y2] (HWPUNIT, 도형 내부 좌표)
+    private String strokeLineType;      // 선 종류 (LineType2 이름, null이면 SOLID)
+    private boolean strokeRoundCap;     // 선 끝 모양 둥글게
 
     private List<IntermediateParagraph> paragraphs;
     private IntermediateImage image;
@@ -159,6 +162,15 @@ public class IntermediateFrame {
     public short cornerRatio() { return cornerRatio; }
     public void cornerRatio(short v) { this.cornerRatio = v; }
 
+    public List<long[]> curveSegments() { return curveSegments; }
+    public void curveSegments(List<long[]> v) { this.curveSegments = v; }
+
+    public String strokeLineType() { return strokeLineType; }
+    public void strokeLineType(String v) { this.strokeLineType = v; }
+
+    public boolean strokeRoundCap() { return strokeRoundCap; }
+    public void strokeRoundCap(boolean v) { this.strokeRoundCap = v; }
+
     public List<IntermediateParagraph> paragraphs() { return paragraphs; }
     public void addParagraph(IntermediateParagraph para) { paragraphs.add(para); }
 
@@ -1,7 +1,13 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
 
+import java.io.IOException;
+import java.util.Base64;
+
 /**
  * 중간 포맷 이미지.
+ *
+ * 이미지 바이트는 메모리에 바이트 배열로 보관하고, JSON에는 BlobStore 참조(blobRef) 또는
+ * 이식용 인라인 base64(base64Data)로 기록한다 (JsonSerializer 참조).
  */
 public class IntermediateImage {
     private String imageId;
@@ -11,7 +17,11 @@ public class IntermediateImage {
     private int pixelHeight;
     private long displayWidth;      // HWPUNIT
     private long displayHeight;     // HWPUNIT
-    private String base64Data;
+    private String blobRef;         // BlobStore 참조 ("sha256:...")
+    private String base64Data;      // 인라인 데이터 (이식용)
+
+    private transient byte[] data;
+    private transient BlobStore blobStore;
 
     public String imageId() { return imageId; }
     public void imageId(String v) { this.imageId = v; }
@@ -34,6 +44,77 @@ public class IntermediateImage {
     public long displayHeight() { return displayHeight; }
     public void displayHeight(long v) { this.displayHeight = v; }
 
+    /**
+     * 내용 해시 참조. data(byte[])로 설정한 이미지는 처음 요청할 때 계산한다.
+     */
+    public String blobRef() {
+        if (blobRef == null && data != null) {
+            blobRef = BlobStore.ref(data);
+        }
+        return blobRef;
+    }
+
     public String base64Data() { return base64Data; }
     public void base64Data(String v) { this.base64Data = v; }
+
+    /**
+     * 이미지 바이트를 설정한다. 내용 해시 참조는 blobRef()가 필요할 때 계산한다.
+     */
+    public void data(byte[] v) {
+        this.data = v;
+        this.blobRef = null;
+        this.base64Data = null;
+        this.blobStore = null;
+    }
+
+    /**
+     * 이미지 바이트. 메모리 → 인라인 base64 → BlobStore 순으로 찾는다. 없으면 null.
+     *
+     * @throws IOException BlobStore에서 읽기 실패
+     */
+    public byte[] data() throws IOException {
+        if (data != null) return data;
+        if (base64Data != null) return Base64.getDecoder().decode(base64Data);
+        if (blobRef != null && blobStore != null) return blobStore.get(blobRef);
+        return null;
+    }
+
+    public boolean hasData() {
+        return data != null || base64Data != null || (blobRef != null && blobStore != null);
+    }
+
+    /**
+     * 역직렬화된 이미지의 blobRef를 읽을 저장소를 연결한다.
+     */
+    void blobStore(BlobStore v) { this.blobStore = v; }
+
+    /**
+     * JSON에 기록할 사본을 만든다.
+     *
+     * @param blobs null이면 바이트를 base64로 인라인, 아니면 저장소에 넣고 참조만 기록
+     */
+    IntermediateImage serialForm(BlobStore blobs) throws IOException {
+        IntermediateImage copy = new IntermediateImage();
+        copy.imageId = imageId;
+        copy.originalPath = originalPath;
+        copy.format = format;
+        copy.pixelWidth = pixelWidth;
+        copy.pixelHeight = pixelHeight;
+        copy.displayWidth = displayWidth;
+        copy.displayHeight = displayHeight;
+        copy.blobRef = blobRef();
+
+        if (blobs == null) {
+            if (base64Data != null) {
+                copy.base64Data = base64Data;
+            } else {
+                byte[] bytes = data();
+                copy.base64Data = bytes != null ? Base64.getEncoder().encodeToString(bytes) : null;
+            }
+        } else if (copy.blobRef == null || !blobs.contains(copy.blobRef)) {
+            byte[] bytes = data();
+            if (bytes != null) copy.blobRef = blobs.put(bytes);
+        }
+        return copy;
+    }
 }
@@ -0,0 +1,196 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 중간 JSON을 페이지 단위로 읽는다.
+ *
+ * 생성 시 pages 앞의 필드 (버전, 레이아웃, 폰트, 스타일, 스프레드)를 읽어 {@link #header()}로
+ * 제공하고, 이후 {@link #nextPage()}가 호출될 때마다 페이지를 하나씩 읽는다. 처리한 페이지는
+ * 호출 측이 놓으면 바로 해제되므로 문서 전체를 메모리에 올리지 않고 HWPX로 변환할 수 있다
+ * (IntermediateToHwpxConverter.convert(IntermediatePageReader) 참조).
+ *
+ * JsonSerializer는 pages를 다른 필드 뒤에 쓴다. 이전 버전이 쓴 JSON은 useSpreadMode와 spreads가
+ * pages 뒤에 오므로, useSpreadMode보다 pages가 먼저 나오면 pages를 메모리에 읽어 두고 나머지
+ * 필드까지 읽은 뒤 header()를 제공한다 (이 경우에는 페이지 단위로 메모리를 아끼지 못한다).
+ */
+public class IntermediatePageReader implements IntermediatePageSource, Closeable {
+
+    private final Gson gson;
+    private final JsonReader in;
+    private final TypeAdapter<IntermediatePage> pageAdapter;
+    private final IntermediateDocument header;
+    private boolean inPages;
+    private int pagesRead;
+    // useSpreadMode를 읽었는지 (JsonSerializer는 pages 앞에 항상 쓴다)
+    private boolean sawSpreadMode;
+    // 이전 필드 순서의 JSON에서 미리 읽어 둔 페이지 (null이면 스트림에서 읽는다)
+    private List<IntermediatePage> bufferedPages;
+    private int bufferedIndex;
+
+    public IntermediatePageReader(Reader reader) throws ConvertException {
+        this(reader, null);
+    }
+
+    /**
+     * @param blobs 이미지 참조를 읽을 저장소 (null이면 인라인 base64만)
+     */
+    public IntermediatePageReader(Reader reader, BlobStore blobs) throws ConvertException {
+        this(JsonDeserializer.gson(blobs), reader);
+    }
+
+    private IntermediatePageReader(Gson gson, Reader reader) throws ConvertException {
+        this(gson, gson.newJsonReader(reader));
+    }
+
+    /**
+     * JSON 외의 인코딩 (BinaryDeserializer.pageReader) 에서 사용한다.
+     */
+    IntermediatePageReader(Gson gson, JsonReader in) throws ConvertException {
+        this.gson = gson;
+        this.in = in;
+        this.pageAdapter = gson.getAdapter(IntermediatePage.class);
+        this.header = new IntermediateDocument();
+        try {
+            in.beginObject();
+            readFields();
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * pages를 제외한 문서 필드 (pages 목록은 비어 있다).
+     */
+    public IntermediateDocument header() { return header; }
+
+    /**
+     * 지금까지 읽은 페이지 수.
+     */
+    public int pagesRead() { return pagesRead; }
+
+    /**
+     * 다음 페이지를 읽는다. 더 없으면 null.
+     */
+    @Override
+    public IntermediatePage nextPage() throws ConvertException {
+        try {
+            if (bufferedPages != null) {
+                while (bufferedIndex < bufferedPages.size()) {
+                    IntermediatePage page = bufferedPages.set(bufferedIndex++, null);
+                    if (page != null) {
+                        pagesRead++;
+                        return page;
+                    }
+                }
+                return null;
+            }
+            while (inPages) {
+                if (!in.hasNext()) {
+                    in.endArray();
+                    inPages = false;
+                    readFields();
+                    break;
+                }
+                IntermediatePage page = pageAdapter.read(in);
+                if (page != null) {
+                    pagesRead++;
+                    return page;
+                }
+            }
+            return null;
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * pages 배열을 만나거나 객체가 끝날 때까지 필드를 읽는다.
+     * useSpreadMode보다 pages가 먼저 나오면 pages를 모두 읽어 두고 계속 읽는다.
+     */
+    private void readFields() throws IOException {
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("pages".equals(name)) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                if (!sawSpreadMode) {
+                    bufferedPages = new ArrayList<IntermediatePage>(
+                            readList(new TypeToken<List<IntermediatePage>>() {}));
+                    continue;
+                }
+                in.beginArray();
+                inPages = true;
+                return;
+            }
+            readHeaderField(name);
+        }
+        in.endObject();
+    }
+
+    private void readHeaderField(String name) throws IOException {
+        switch (name) {
+            case "version": header.version(IntermediateTypeAdapters.nextString(in)); break;
+            case "sourceFormat": header.sourceFormat(IntermediateTypeAdapters.nextString(in)); break;
+            case "sourceFile": header.sourceFile(IntermediateTypeAdapters.nextString(in)); break;
+            case "layout": header.layout(gson.getAdapter(DocumentLayout.class).read(in)); break;
+            case "useSpreadMode":
+                header.useSpreadMode(IntermediateTypeAdapters.nextBoolean(in, false));
+                sawSpreadMode = true;
+                break;
+            case "fonts":
+                for (IntermediateFontDef font : readList(new TypeToken<List<IntermediateFontDef>>() {})) {
+                    header.addFont(font);
+                }
+                break;
+            case "paragraphStyles":
+                for (IntermediateStyleDef style : readList(new TypeToken<List<IntermediateStyleDef>>() {})) {
+                    header.addParagraphStyle(style);
+                }
+                break;
+            case "characterStyles":
+                for (IntermediateStyleDef style : readList(new TypeToken<List<IntermediateStyleDef>>() {})) {
+                    header.addCharacterStyle(style);
+                }
+                break;
+            case "spreads":
+                for (IntermediateSpread spread : readList(new TypeToken<List<IntermediateSpread>>() {})) {
+                    header.addSpread(spread);
+                }
+                break;
+            default:
+                in.skipValue();
+                break;
+        }
+    }
+
+    private <T> List<T> readList(TypeToken<List<T>> type) throws IOException {
+        List<T> list = gson.getAdapter(type).read(in);
+        return list != null ? list : Collections.<T>emptyList();
+    }
+
+    private ConvertException failure(Exception e) {
+        return new ConvertException(ConvertException.Phase.JSON_DESERIALIZATION,
+                "Failed to read intermediate JSON (page " + (pagesRead + 1) + "): " + e.getMessage(), e);
+    }
+}
@@ -0,0 +1,14 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
+
+/**
+ * 페이지를 하나씩 공급하는 원천 (JSON/바이너리 리더, 변환 파이프라인 큐 등).
+ */
+public interface IntermediatePageSource {
+
+    /**
+     * 다음 페이지. 더 없으면 null.
+     */
+    IntermediatePage nextPage() throws ConvertException;
+}
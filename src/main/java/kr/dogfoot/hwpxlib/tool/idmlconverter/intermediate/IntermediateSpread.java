@@ -47,7 +47,7 @@ public class IntermediateSpread {
     public void backgroundImage(IntermediateImage v) { this.backgroundImage = v; }
 
     public boolean hasBackgroundImage() {
-        return backgroundImage != null && backgroundImage.base64Data() != null;
+        return backgroundImage != null && backgroundImage.hasData();
     }
 
     /**
@@ -0,0 +1,560 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 중간 포맷에서 개수가 가장 많은 객체 (프레임, 단락, 텍스트 런)의 수작성 Gson 어댑터.
+ *
+ * 리플렉션 어댑터와 같은 필드 이름/순서로 읽고 쓰므로 기존 JSON과 호환된다.
+ * 필드 접근에 리플렉션을 쓰지 않고, JsonWriter/JsonReader 위에서 바로 동작한다.
+ * 알 수 없는 필드는 건너뛴다.
+ */
+class IntermediateTypeAdapters implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        if (raw == IntermediateTextRun.class) {
+            return (TypeAdapter<T>) new TextRunAdapter();
+        }
+        if (raw == IntermediateParagraph.class) {
+            return (TypeAdapter<T>) new ParagraphAdapter(gson.getAdapter(IntermediateTextRun.class),
+                    gson.getAdapter(IntermediateEquation.class));
+        }
+        if (raw == IntermediateFrame.class) {
+            return (TypeAdapter<T>) new FrameAdapter(gson.getAdapter(IntermediateParagraph.class),
+                    gson.getAdapter(IntermediateImage.class), gson.getAdapter(IntermediateTable.class));
+        }
+        return null;
+    }
+
+    // ── 텍스트 런 ──
+
+    static class TextRunAdapter extends TypeAdapter<IntermediateTextRun> {
+        @Override
+        public void write(JsonWriter out, IntermediateTextRun run) throws IOException {
+            if (run == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("characterStyleRef").value(run.characterStyleRef());
+            out.name("text").value(run.text());
+            out.name("bold").value(run.bold());
+            out.name("italic").value(run.italic());
+            out.name("fontSizeHwpunits").value(run.fontSizeHwpunits());
+            out.name("textColor").value(run.textColor());
+            out.name("fontFamily").value(run.fontFamily());
+            out.name("letterSpacing").value(run.letterSpacing());
+            out.endObject();
+        }
+
+        @Override
+        public IntermediateTextRun read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            IntermediateTextRun run = new IntermediateTextRun();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "characterStyleRef": run.characterStyleRef(nextString(in)); break;
+                    case "text": run.text(nextString(in)); break;
+                    case "bold": run.bold(nextBooleanOrNull(in)); break;
+                    case "italic": run.italic(nextBooleanOrNull(in)); break;
+                    case "fontSizeHwpunits": run.fontSizeHwpunits(nextIntegerOrNull(in)); break;
+                    case "textColor": run.textColor(nextString(in)); break;
+                    case "fontFamily": run.fontFamily(nextString(in)); break;
+                    case "letterSpacing": run.letterSpacing(nextShortOrNull(in)); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return run;
+        }
+    }
+
+    // ── 단락 ──
+
+    static class ParagraphAdapter extends TypeAdapter<IntermediateParagraph> {
+        private final TypeAdapter<IntermediateTextRun> runAdapter;
+        private final TypeAdapter<IntermediateEquation> equationAdapter;
+
+        ParagraphAdapter(TypeAdapter<IntermediateTextRun> runAdapter,
+                         TypeAdapter<IntermediateEquation> equationAdapter) {
+            this.runAdapter = runAdapter;
+            this.equationAdapter = equationAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, IntermediateParagraph para) throws IOException {
+            if (para == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("paragraphStyleRef").value(para.paragraphStyleRef());
+            out.name("contentItems");
+            if (para.contentItems() == null) {
+                out.nullValue();
+            } else {
+                out.beginArray();
+                for (IntermediateParagraph.ContentItem item : para.contentItems()) {
+                    out.beginObject();
+                    out.name("textRun");
+                    runAdapter.write(out, item.textRun());
+                    out.name("equation");
+                    equationAdapter.write(out, item.equation());
+                    out.endObject();
+                }
+                out.endArray();
+            }
+            out.name("inlineAlignment").value(para.inlineAlignment());
+            out.name("inlineFirstLineIndent").value(para.inlineFirstLineIndent());
+            out.name("inlineLeftMargin").value(para.inlineLeftMargin());
+            out.name("inlineRightMargin").value(para.inlineRightMargin());
+            out.name("inlineSpaceBefore").value(para.inlineSpaceBefore());
+            out.name("inlineSpaceAfter").value(para.inlineSpaceAfter());
+            out.name("inlineLineSpacing").value(para.inlineLineSpacing());
+            out.name("inlineLetterSpacing").value(para.inlineLetterSpacing());
+            out.name("shadingOn").value(para.shadingOn());
+            out.name("shadingColor").value(para.shadingColor());
+            out.name("shadingTint").value(para.shadingTint());
+            out.name("shadingOffsetLeft").value(para.shadingOffsetLeft());
+            out.name("shadingOffsetRight").value(para.shadingOffsetRight());
+            out.name("shadingOffsetTop").value(para.shadingOffsetTop());
+            out.name("shadingOffsetBottom").value(para.shadingOffsetBottom());
+            out.endObject();
+        }
+
+        @Override
+        public IntermediateParagraph read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            IntermediateParagraph para = new IntermediateParagraph();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "paragraphStyleRef": para.paragraphStyleRef(nextString(in)); break;
+                    case "contentItems": readContentItems(in, para); break;
+                    case "inlineAlignment": para.inlineAlignment(nextString(in)); break;
+                    case "inlineFirstLineIndent": para.inlineFirstLineIndent(nextLongOrNull(in)); break;
+                    case "inlineLeftMargin": para.inlineLeftMargin(nextLongOrNull(in)); break;
+                    case "inlineRightMargin": para.inlineRightMargin(nextLongOrNull(in)); break;
+                    case "inlineSpaceBefore": para.inlineSpaceBefore(nextLongOrNull(in)); break;
+                    case "inlineSpaceAfter": para.inlineSpaceAfter(nextLongOrNull(in)); break;
+                    case "inlineLineSpacing": para.inlineLineSpacing(nextIntegerOrNull(in)); break;
+                    case "inlineLetterSpacing": para.inlineLetterSpacing(nextShortOrNull(in)); break;
+                    case "shadingOn": para.shadingOn(nextBoolean(in, false)); break;
+                    case "shadingColor": para.shadingColor(nextString(in)); break;
+                    case "shadingTint": para.shadingTint(nextDoubleOrNull(in)); break;
+                    case "shadingOffsetLeft": para.shadingOffsetLeft(nextLongOrNull(in)); break;
+                    case "shadingOffsetRight": para.shadingOffsetRight(nextLongOrNull(in)); break;
+                    case "shadingOffsetTop": para.shadingOffsetTop(nextLongOrNull(in)); break;
+                    case "shadingOffsetBottom": para.shadingOffsetBottom(nextLongOrNull(in)); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return para;
+        }
+
+        private void readContentItems(JsonReader in, IntermediateParagraph para) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return;
+            }
+            in.beginArray();
+            while (in.hasNext()) {
+                IntermediateTextRun run = null;
+                IntermediateEquation equation = null;
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if ("textRun".equals(name)) {
+                        run = runAdapter.read(in);
+                    } else if ("equation".equals(name)) {
+                        equation = equationAdapter.read(in);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+                if (run != null) {
+                    para.addRun(run);
+                } else if (equation != null) {
+                    para.addEquation(equation);
+                }
+            }
+            in.endArray();
+        }
+    }
+
+    // ── 프레임 ──
+
+    static class FrameAdapter extends TypeAdapter<IntermediateFrame> {
+        private final TypeAdapter<IntermediateParagraph> paragraphAdapter;
+        private final TypeAdapter<IntermediateImage> imageAdapter;
+        private final TypeAdapter<IntermediateTable> tableAdapter;
+
+        FrameAdapter(TypeAdapter<IntermediateParagraph> paragraphAdapter,
+                     TypeAdapter<IntermediateImage> imageAdapter,
+                     TypeAdapter<IntermediateTable> tableAdapter) {
+            this.paragraphAdapter = paragraphAdapter;
+            this.imageAdapter = imageAdapter;
+            this.tableAdapter = tableAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, IntermediateFrame frame) throws IOException {
+            if (frame == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("frameId").value(frame.frameId());
+            out.name("frameType").value(frame.frameType());
+            out.name("x").value(frame.x());
+            out.name("y").value(frame.y());
+            out.name("width").value(frame.width());
+            out.name("height").value(frame.height());
+            out.name("zOrder").value(frame.zOrder());
+            out.name("isBackgroundImage").value(frame.isBackgroundImage());
+            out.name("borderColor").value(frame.borderColor());
+            out.name("borderWidth").value(frame.borderWidth());
+            out.name("fillColor").value(frame.fillColor());
+            out.name("strokeColor").value(frame.strokeColor());
+            out.name("strokeWeight").value(frame.strokeWeight());
+            out.name("cornerRadius").value(frame.cornerRadius());
+            out.name("cornerRadii"); writeDoubles(out, frame.cornerRadii());
+            out.name("fillTint").value(frame.fillTint());
+            out.name("strokeTint").value(frame.strokeTint());
+            out.name("textFrameFillColor").value(frame.textFrameFillColor());
+            out.name("columnCount").value(frame.columnCount());
+            out.name("columnGutter").value(frame.columnGutter());
+            out.name("insetTop").value(frame.insetTop());
+            out.name("insetLeft").value(frame.insetLeft());
+            out.name("insetBottom").value(frame.insetBottom());
+            out.name("insetRight").value(frame.insetRight());
+            out.name("columnType").value(frame.columnType());
+            out.name("columnFixedWidth").value(frame.columnFixedWidth());
+            out.name("columnWidths"); writeLongs(out, frame.columnWidths());
+            out.name("verticalJustification").value(frame.verticalJustification());
+            out.name("ignoreWrap").value(frame.ignoreWrap());
+            out.name("useColumnRule").value(frame.useColumnRule());
+            out.name("columnRuleWidth").value(frame.columnRuleWidth());
+            out.name("columnRuleType").value(frame.columnRuleType());
+            out.name("columnRuleColor").value(frame.columnRuleColor());
+            out.name("columnRuleTint").value(frame.columnRuleTint());
+            out.name("columnRuleOffset").value(frame.columnRuleOffset());
+            out.name("columnRuleInsetWidth").value(frame.columnRuleInsetWidth());
+            out.name("rotationAngle").value(frame.rotationAngle());
+            out.name("verticalText").value(frame.verticalText());
+            out.name("isInline").value(frame.isInline());
+            out.name("shapeType").value(frame.shapeType());
+            out.name("pathPoints"); writeDoubleList(out, frame.pathPoints());
+            out.name("cornerRatio").value(frame.cornerRatio());
+            out.name("curveSegments"); writeLongList(out, frame.curveSegments());
+            out.name("strokeLineType").value(frame.strokeLineType());
+            out.name("strokeRoundCap").value(frame.strokeRoundCap());
+            out.name("paragraphs");
+            if (frame.paragraphs() == null) {
+                out.nullValue();
+            } else {
+                out.beginArray();
+                for (IntermediateParagraph para : frame.paragraphs()) {
+                    paragraphAdapter.write(out, para);
+                }
+                out.endArray();
+            }
+            out.name("image"); imageAdapter.write(out, frame.image());
+            out.name("table"); tableAdapter.write(out, frame.table());
+            out.endObject();
+        }
+
+        @Override
+        public IntermediateFrame read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            IntermediateFrame frame = new IntermediateFrame();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "frameId": frame.frameId(nextString(in)); break;
+                    case "frameType": frame.frameType(nextString(in)); break;
+                    case "x": frame.x(nextLong(in, frame.x())); break;
+                    case "y": frame.y(nextLong(in, frame.y())); break;
+                    case "width": frame.width(nextLong(in, frame.width())); break;
+                    case "height": frame.height(nextLong(in, frame.height())); break;
+                    case "zOrder": frame.zOrder(nextInt(in, frame.zOrder())); break;
+                    case "isBackgroundImage": frame.isBackgroundImage(nextBoolean(in, frame.isBackgroundImage())); break;
+                    case "borderColor": frame.borderColor(nextString(in)); break;
+                    case "borderWidth": frame.borderWidth(nextDouble(in, frame.borderWidth())); break;
+                    case "fillColor": frame.fillColor(nextString(in)); break;
+                    case "strokeColor": frame.strokeColor(nextString(in)); break;
+                    case "strokeWeight": frame.strokeWeight(nextDouble(in, frame.strokeWeight())); break;
+                    case "cornerRadius": frame.cornerRadius(nextDouble(in, frame.cornerRadius())); break;
+                    case "cornerRadii": frame.cornerRadii(readDoubles(in)); break;
+                    case "fillTint": frame.fillTint(nextDouble(in, frame.fillTint())); break;
+                    case "strokeTint": frame.strokeTint(nextDouble(in, frame.strokeTint())); break;
+                    case "textFrameFillColor": frame.textFrameFillColor(nextString(in)); break;
+                    case "columnCount": frame.columnCount(nextInt(in, frame.columnCount())); break;
+                    case "columnGutter": frame.columnGutter(nextLong(in, frame.columnGutter())); break;
+                    case "insetTop": frame.insetTop(nextLong(in, frame.insetTop())); break;
+                    case "insetLeft": frame.insetLeft(nextLong(in, frame.insetLeft())); break;
+                    case "insetBottom": frame.insetBottom(nextLong(in, frame.insetBottom())); break;
+                    case "insetRight": frame.insetRight(nextLong(in, frame.insetRight())); break;
+                    case "columnType": frame.columnType(nextString(in)); break;
+                    case "columnFixedWidth": frame.columnFixedWidth(nextLong(in, frame.columnFixedWidth())); break;
+                    case "columnWidths": frame.columnWidths(readLongs(in)); break;
+                    case "verticalJustification": frame.verticalJustification(nextString(in)); break;
+                    case "ignoreWrap": frame.ignoreWrap(nextBoolean(in, frame.ignoreWrap())); break;
+                    case "useColumnRule": frame.useColumnRule(nextBoolean(in, frame.useColumnRule())); break;
+                    case "columnRuleWidth": frame.columnRuleWidth(nextLong(in, frame.columnRuleWidth())); break;
+                    case "columnRuleType": frame.columnRuleType(nextString(in)); break;
+                    case "columnRuleColor": frame.columnRuleColor(nextString(in)); break;
+                    case "columnRuleTint": frame.columnRuleTint(nextDouble(in, frame.columnRuleTint())); break;
+                    case "columnRuleOffset": frame.columnRuleOffset(nextLong(in, frame.columnRuleOffset())); break;
+                    case "columnRuleInsetWidth": frame.columnRuleInsetWidth(nextLong(in, frame.columnRuleInsetWidth())); break;
+                    case "rotationAngle": frame.rotationAngle(nextDouble(in, frame.rotationAngle())); break;
+                    case "verticalText": frame.verticalText(nextBoolean(in, frame.verticalText())); break;
+                    case "isInline": frame.isInline(nextBoolean(in, frame.isInline())); break;
+                    case "shapeType": frame.shapeType(nextString(in)); break;
+                    case "pathPoints": frame.pathPoints(readDoubleList(in)); break;
+                    case "cornerRatio": frame.cornerRatio((short) nextInt(in, frame.cornerRatio())); break;
+                    case "curveSegments": frame.curveSegments(readLongList(in)); break;
+                    case "strokeLineType": frame.strokeLineType(nextString(in)); break;
+                    case "strokeRoundCap": frame.strokeRoundCap(nextBoolean(in, frame.strokeRoundCap())); break;
+                    case "paragraphs":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            frame.paragraphs().clear();
+                        } else {
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                frame.addParagraph(paragraphAdapter.read(in));
+                            }
+                            in.endArray();
+                        }
+                        break;
+                    case "image": frame.image(imageAdapter.read(in)); break;
+                    case "table": frame.table(tableAdapter.read(in)); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return frame;
+        }
+    }
+
+    // ── 값 읽기/쓰기 ──
+
+    static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    static long nextLong(JsonReader in, long defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextLong();
+    }
+
+    static int nextInt(JsonReader in, int defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextInt();
+    }
+
+    static double nextDouble(JsonReader in, double defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextDouble();
+    }
+
+    static boolean nextBoolean(JsonReader in, boolean defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextBoolean();
+    }
+
+    static Long nextLongOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+
+    static Integer nextIntegerOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextInt();
+    }
+
+    static Short nextShortOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return (short) in.nextInt();
+    }
+
+    static Double nextDoubleOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextDouble();
+    }
+
+    static Boolean nextBooleanOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextBoolean();
+    }
+
+    static void writeDoubles(JsonWriter out, double[] values) throws IOException {
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (double v : values) {
+            out.value(v);
+        }
+        out.endArray();
+    }
+
+    static void writeLongs(JsonWriter out, long[] values) throws IOException {
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (long v : values) {
+            out.value(v);
+        }
+        out.endArray();
+    }
+
+    static void writeDoubleList(JsonWriter out, List<double[]> list) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (double[] values : list) {
+            writeDoubles(out, values);
+        }
+        out.endArray();
+    }
+
+    static void writeLongList(JsonWriter out, List<long[]> list) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (long[] values : list) {
+            writeLongs(out, values);
+        }
+        out.endArray();
+    }
+
+    static double[] readDoubles(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        double[] values = new double[8];
+        int count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = in.nextDouble();
+        }
+        in.endArray();
+        return Arrays.copyOf(values, count);
+    }
+
+    static long[] readLongs(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        long[] values = new long[8];
+        int count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = in.nextLong();
+        }
+        in.endArray();
+        return Arrays.copyOf(values, count);
+    }
+
+    static List<double[]> readDoubleList(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<double[]> list = new ArrayList<double[]>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(readDoubles(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    static List<long[]> readLongList(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<long[]> list = new ArrayList<long[]>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(readLongs(in));
+        }
+        in.endArray();
+        return list;
+    }
+}
@@ -4,25 +4,55 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
 
+import java.io.Reader;
+import java.io.StringReader;
+
 /**
- * JSON 문자열 → IntermediateDocument 역직렬화.
- * Gson 기반.
+ * JSON → IntermediateDocument 역직렬화.
+ * Gson 기반. 프레임/단락/텍스트 런은 수작성 어댑터(IntermediateTypeAdapters)로 읽는다.
+ *
+ * 페이지를 하나씩 읽으려면 {@link IntermediatePageReader}를 사용한다.
  */
 public class JsonDeserializer {
 
-    private static final Gson GSON = new GsonBuilder()
-            .create();
+    private static final Gson GSON = gson(null);
 
     /**
      * JSON 문자열을 IntermediateDocument로 역직렬화한다.
+     * 이미지는 인라인 base64만 읽을 수 있다. blobRef만 있는 이미지가 있으면 ConvertException.
      */
     public static IntermediateDocument fromJson(String json) throws ConvertException {
+        return fromJson(json, null);
+    }
+
+    /**
+     * JSON 문자열을 IntermediateDocument로 역직렬화한다.
+     * 이미지의 blobRef는 필요할 때 blobs에서 읽는다.
+     */
+    public static IntermediateDocument fromJson(String json, BlobStore blobs) throws ConvertException {
         if (json == null || json.trim().isEmpty()) {
             throw new ConvertException(ConvertException.Phase.JSON_DESERIALIZATION,
                     "JSON string is null or empty");
         }
+        return read(new StringReader(json), blobs);
+    }
+
+    /**
+     * reader에서 JSON을 읽어 IntermediateDocument로 역직렬화한다. reader는 닫지 않는다.
+     */
+    public static IntermediateDocument read(Reader reader) throws ConvertException {
+        return read(reader, null);
+    }
+
+    /**
+     * reader에서 JSON을 읽어 IntermediateDocument로 역직렬화한다. reader는 닫지 않는다.
+     *
+     * @param blobs 이미지 참조를 읽을 저장소 (null이면 인라인 base64만)
+     */
+    public static IntermediateDocument read(Reader reader, BlobStore blobs) throws ConvertException {
+        Gson gson = blobs != null ? gson(blobs) : GSON;
         try {
-            IntermediateDocument doc = GSON.fromJson(json, IntermediateDocument.class);
+            IntermediateDocument doc = gson.fromJson(reader, IntermediateDocument.class);
             if (doc == null) {
                 throw new ConvertException(ConvertException.Phase.JSON_DESERIALIZATION,
                         "Failed to deserialize JSON: result is null");
@@ -35,4 +65,11 @@ public class JsonDeserializer {
                     "Failed to deserialize JSON: " + e.getMessage(), e);
         }
     }
+
+    static Gson gson(BlobStore blobs) {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new ImageBlobAdapterFactory(blobs))
+                .registerTypeAdapterFactory(new IntermediateTypeAdapters())
+                .create();
+    }
 }
@@ -2,46 +2,98 @@ package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertException;
 
+import java.io.StringWriter;
+import java.io.Writer;
+
 /**
- * IntermediateDocument → JSON 문자열 직렬화.
- * Gson 기반.
+ * IntermediateDocument → JSON 직렬화.
+ * Gson 기반. 프레임/단락/텍스트 런은 수작성 어댑터(IntermediateTypeAdapters)로 쓴다.
+ *
+ * 이미지 바이트는 기본적으로 base64로 인라인된다 (JSON 하나로 이식 가능).
+ * BlobStore를 지정하면 바이트는 저장소에 넣고 JSON에는 내용 해시 참조(blobRef)만 기록한다.
+ * 큰 문서는 Writer를 받는 메서드로 문자열을 만들지 않고 바로 스트림에 쓴다.
  */
 public class JsonSerializer {
 
-    private static final Gson GSON = new GsonBuilder()
-            .setPrettyPrinting()
-            .serializeNulls()
-            .disableHtmlEscaping()
-            .create();
-
-    private static final Gson GSON_COMPACT = new GsonBuilder()
-            .serializeNulls()
-            .disableHtmlEscaping()
-            .create();
+    private static final Gson GSON = gson(null);
 
     /**
      * IntermediateDocument를 포맷된 JSON 문자열로 직렬화한다.
      */
     public static String toJson(IntermediateDocument doc) throws ConvertException {
+        return toJson(GSON, doc, true);
+    }
+
+    /**
+     * IntermediateDocument를 압축된(한줄) JSON 문자열로 직렬화한다.
+     */
+    public static String toJsonCompact(IntermediateDocument doc) throws ConvertException {
+        return toJson(GSON, doc, false);
+    }
+
+    /**
+     * IntermediateDocument를 포맷된 JSON 문자열로 직렬화한다. 이미지 바이트는 blobs에 저장된다.
+     */
+    public static String toJson(IntermediateDocument doc, BlobStore blobs) throws ConvertException {
+        return toJson(gson(blobs), doc, true);
+    }
+
+    /**
+     * IntermediateDocument를 압축된(한줄) JSON 문자열로 직렬화한다. 이미지 바이트는 blobs에 저장된다.
+     */
+    public static String toJsonCompact(IntermediateDocument doc, BlobStore blobs) throws ConvertException {
+        return toJson(gson(blobs), doc, false);
+    }
+
+    /**
+     * IntermediateDocument를 압축된 JSON으로 writer에 바로 쓴다. writer는 닫지 않는다.
+     */
+    public static void write(IntermediateDocument doc, Writer writer) throws ConvertException {
+        write(doc, writer, null);
+    }
+
+    /**
+     * IntermediateDocument를 압축된 JSON으로 writer에 바로 쓴다. writer는 닫지 않는다.
+     *
+     * @param blobs 이미지 저장소 (null이면 base64로 인라인)
+     */
+    public static void write(IntermediateDocument doc, Writer writer, BlobStore blobs) throws ConvertException {
+        Gson gson = blobs != null ? gson(blobs) : GSON;
         try {
-            return GSON.toJson(doc);
+            JsonWriter out = gson.newJsonWriter(writer);
+            gson.toJson(doc, IntermediateDocument.class, out);
+            out.flush();
         } catch (Exception e) {
             throw new ConvertException(ConvertException.Phase.JSON_SERIALIZATION,
                     "Failed to serialize to JSON: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * IntermediateDocument를 압축된(한줄) JSON 문자열로 직렬화한다.
-     */
-    public static String toJsonCompact(IntermediateDocument doc) throws ConvertException {
+    private static String toJson(Gson gson, IntermediateDocument doc, boolean pretty) throws ConvertException {
         try {
-            return GSON_COMPACT.toJson(doc);
+            StringWriter sw = new StringWriter();
+            JsonWriter out = gson.newJsonWriter(sw);
+            if (pretty) {
+                out.setIndent("  ");
+            }
+            gson.toJson(doc, IntermediateDocument.class, out);
+            out.flush();
+            return sw.toString();
         } catch (Exception e) {
             throw new ConvertException(ConvertException.Phase.JSON_SERIALIZATION,
                     "Failed to serialize to JSON: " + e.getMessage(), e);
         }
     }
+
+    static Gson gson(BlobStore blobs) {
+        return new GsonBuilder()
+                .serializeNulls()
+                .disableHtmlEscaping()
+                .registerTypeAdapterFactory(new ImageBlobAdapterFactory(blobs))
+                .registerTypeAdapterFactory(new IntermediateTypeAdapters())
+                .create();
+    }
 }
@@ -0,0 +1,36 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 메모리 기반 BlobStore.
+ */
+public class MemoryBlobStore extends BlobStore {
+
+    private final Map<String, byte[]> blobs = new HashMap<String, byte[]>();
+
+    @Override
+    protected synchronized void write(String ref, byte[] data) {
+        blobs.put(ref, data);
+    }
+
+    @Override
+    public synchronized byte[] get(String ref) throws IOException {
+        byte[] data = blobs.get(ref);
+        if (data == null) {
+            throw new IOException("Blob not found: " + ref);
+        }
+        return data;
+    }
+
+    @Override
+    public synchronized boolean contains(String ref) {
+        return blobs.containsKey(ref);
+    }
+
+    public synchronized int size() {
+        return blobs.size();
+    }
+}
@@ -0,0 +1,113 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * zip 사이드카 파일 기반 BlobStore.
+ *
+ * 중간 JSON과 함께 배포할 이미지를 zip 하나로 묶는다. {@link #create(File)}로 연 저장소는
+ * 쓰기 전용이고 (항목을 추가하는 즉시 파일에 기록), {@link #open(File)}으로 연 저장소는
+ * 읽기 전용이다. PNG/JPEG는 이미 압축되어 있으므로 항목은 압축 없이(STORED) 저장한다.
+ */
+public class ZipBlobStore extends BlobStore implements Closeable {
+
+    private final File file;
+    private final ZipOutputStream out;
+    private final ZipFile in;
+    private final Set<String> written;
+
+    private ZipBlobStore(File file, ZipOutputStream out, ZipFile in) {
+        this.file = file;
+        this.out = out;
+        this.in = in;
+        this.written = new HashSet<String>();
+    }
+
+    /**
+     * 새 사이드카 파일을 만든다 (기존 파일은 덮어쓴다). 다 쓴 후 close()해야 한다.
+     */
+    public static ZipBlobStore create(File file) throws IOException {
+        return new ZipBlobStore(file, new ZipOutputStream(new FileOutputStream(file)), null);
+    }
+
+    /**
+     * 기존 사이드카 파일을 읽기 전용으로 연다.
+     */
+    public static ZipBlobStore open(File file) throws IOException {
+        return new ZipBlobStore(file, null, new ZipFile(file));
+    }
+
+    public File file() { return file; }
+
+    @Override
+    protected synchronized void write(String ref, byte[] data) throws IOException {
+        if (out == null) {
+            throw new IOException("Blob sidecar is read-only: " + file.getAbsolutePath());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+
+        ZipEntry entry = new ZipEntry(entryName(ref));
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+        written.add(ref);
+    }
+
+    @Override
+    public synchronized byte[] get(String ref) throws IOException {
+        if (in == null) {
+            throw new IOException("Blob sidecar is write-only: " + file.getAbsolutePath());
+        }
+        ZipEntry entry = in.getEntry(entryName(ref));
+        if (entry == null) {
+            throw new IOException("Blob not found: " + ref + " (" + file.getAbsolutePath() + ")");
+        }
+        InputStream is = in.getInputStream(entry);
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(
+                    entry.getSize() > 0 ? (int) entry.getSize() : 8192);
+            byte[] buf = new byte[65536];
+            int len;
+            while ((len = is.read(buf)) > 0) {
+                baos.write(buf, 0, len);
+            }
+            return baos.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(String ref) {
+        if (in != null) {
+            return in.getEntry(entryName(ref)) != null;
+        }
+        return written.contains(ref);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        if (in != null) {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package kr.dogfoot.hwpxlib.tool.imageinserter;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 디자인 파일 (PSD, AI, EPS, PDF, TIFF) → PNG 변환 결과의 디스크 캐시와 변환 프로세스 풀.
+ *
+ * <p>캐시 키는 원본 파일 내용의 SHA-256, 래스터화 DPI (AI/EPS/PDF만), 변환 도구 버전이다.
+ * 원본 옆에 파일을 쓰지 않으므로 읽기 전용 Links 폴더에서도 동작하고, 이름이 달라도
+ * 내용이 같은 파일은 한 번만 변환한다. 항목은 임시 파일에 쓴 뒤 원자적으로 이름을 바꾸므로
+ * 동시에 실행된 다른 변환기나 스레드가 반쯤 쓰인 PNG를 읽지 않는다.</p>
+ *
+ * <p>외부 프로세스 (ImageMagick, Ghostscript)는 동시에 maxProcesses개까지만 실행한다.
+ * {@link #prefetch(File, int)}로 문서의 디자인 파일을 미리 예약하면 작업자 스레드가 병렬로
+ * 변환해 두고, 렌더링 시 {@link #convertToPng(File, int)}는 진행 중인 변환을 기다려 결과를 받는다.
+ * 같은 파일을 여러 스레드가 동시에 요청해도 한 번만 변환한다.</p>
+ *
+ * <p>디렉토리의 항목 합계가 maxBytes를 넘으면 가장 오래 쓰지 않은 항목부터 지운다
+ * (캐시 적중 시 수정 시각을 갱신한다).</p>
+ *
+ * <p>캐시 디렉토리가 null이면 디스크 캐시 없이 프로세스 풀과 중복 제거만 사용한다.
+ * 변환기마다 인스턴스를 만들어 넘기고, 다 쓰면 {@link #shutdown()}한다.</p>
+ */
+public class DesignFileCache {
+    /** 캐시 항목 형식이나 변환 인자가 바뀌면 올린다. */
+    public static final int FORMAT_VERSION = 1;
+
+    /** 디스크 캐시 기본 최대 크기 (바이트) */
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    private final File directory;
+    private final long maxBytes;
+    private final int maxProcesses;
+    private final Semaphore processPermits;
+    private final ConcurrentHashMap<String, Future<byte[]>> inFlight;
+    private final AtomicInteger hits;
+    private final AtomicInteger conversions;
+    private ExecutorService executor;
+
+    /**
+     * @param directory    캐시 디렉토리 (null이면 디스크 캐시 사용 안 함)
+     * @param maxProcesses 동시에 실행할 변환 프로세스 수
+     */
+    public DesignFileCache(File directory, int maxProcesses) {
+        this(directory, maxProcesses, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param directory    캐시 디렉토리 (null이면 디스크 캐시 사용 안 함)
+     * @param maxProcesses 동시에 실행할 변환 프로세스 수
+     * @param maxBytes     디스크 캐시 최대 크기 (바이트)
+     */
+    public DesignFileCache(File directory, int maxProcesses, long maxBytes) {
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("[WARN] 디자인 파일 캐시 디렉토리를 만들 수 없어 캐시 없이 변환: "
+                    + directory.getAbsolutePath());
+            directory = null;
+        }
+        this.directory = directory;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxProcesses = Math.max(1, maxProcesses);
+        this.processPermits = new Semaphore(this.maxProcesses);
+        this.inFlight = new ConcurrentHashMap<String, Future<byte[]>>();
+        this.hits = new AtomicInteger();
+        this.conversions = new AtomicInteger();
+    }
+
+    /**
+     * 기본 캐시 디렉토리: {@code <java.io.tmpdir>/hwpxlib-design-cache}
+     */
+    public static File defaultDirectory() {
+        return new File(System.getProperty("java.io.tmpdir"), "hwpxlib-design-cache");
+    }
+
+    /**
+     * 이 캐시가 다루는 디자인 파일 형식인지 확인한다.
+     */
+    public static boolean isDesignFile(File file) {
+        String ext = extension(file);
+        return "psd".equals(ext) || "ai".equals(ext) || "eps".equals(ext)
+                || "pdf".equals(ext) || "tiff".equals(ext) || "tif".equals(ext);
+    }
+
+    public File directory() { return directory; }
+
+    public long maxBytes() { return maxBytes; }
+
+    public int maxProcesses() { return maxProcesses; }
+
+    /** 디스크 캐시에서 읽은 횟수 */
+    public int hits() { return hits.get(); }
+
+    /** 외부 도구로 변환한 횟수 */
+    public int conversions() { return conversions.get(); }
+
+    /** 진행 중이거나 아직 가져가지 않은 변환 수 */
+    public int inFlight() { return inFlight.size(); }
+
+    /**
+     * 디자인 파일을 PNG로 변환한다. 캐시에 있으면 읽고, 미리 예약된 변환이 있으면 기다린다.
+     *
+     * @param file 디자인 파일
+     * @param dpi  AI/EPS/PDF 래스터화 해상도 (PSD/TIFF는 무시)
+     * @return PNG 이미지 데이터
+     * @throws IOException 변환 실패 또는 외부 도구 미설치
+     */
+    public byte[] convertToPng(final File file, final int dpi) throws IOException {
+        String id = sourceId(file, dpi);
+        Future<byte[]> future = inFlight.get(id);
+        if (future == null) {
+            FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>() {
+                public byte[] call() throws Exception {
+                    return load(file, dpi);
+                }
+            });
+            future = inFlight.putIfAbsent(id, task);
+            if (future == null) {
+                future = task;
+                task.run();
+            }
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Design file conversion interrupted: " + file.getName(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause != null ? cause.toString() : e.toString(), cause);
+        } finally {
+            // 완료된 결과는 디스크 캐시가 보관하므로 메모리에 남기지 않는다
+            inFlight.remove(id, future);
+        }
+    }
+
+    /**
+     * 디자인 파일 변환을 작업자 풀에 예약한다. 이미 예약되었거나 디자인 파일이 아니면 무시한다.
+     * 끝난 예약은 결과가 디스크 캐시에 있으므로 바로 inFlight에서 뺀다. 디스크 캐시가 없으면
+     * 성공한 결과만 convertToPng()가 가져갈 때까지 남긴다.
+     * 변환 오류는 나중에 convertToPng()를 호출할 때 다시 변환하며 보고된다.
+     */
+    public void prefetch(final File file, final int dpi) {
+        if (file == null || !isDesignFile(file)) return;
+        final String id = sourceId(file, dpi);
+        if (inFlight.containsKey(id)) return;
+
+        FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>() {
+            public byte[] call() throws Exception {
+                return load(file, dpi);
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (directory != null || isCancelled() || failed(this)) {
+                    inFlight.remove(id, this);
+                }
+            }
+        };
+        if (inFlight.putIfAbsent(id, task) == null) {
+            executor().execute(task);
+        }
+    }
+
+    private static boolean failed(Future<byte[]> future) {
+        try {
+            future.get();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * 남은 예약을 취소하고 작업자 스레드를 종료한다.
+     */
+    public synchronized void shutdown() {
+        for (Future<byte[]> future : inFlight.values()) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(maxProcesses, new ConvertThreadFactory());
+        }
+        return executor;
+    }
+
+    private byte[] load(File file, int dpi) throws IOException {
+        File entry = null;
+        if (directory != null) {
+            entry = new File(directory, cacheKey(file, dpi) + ".png");
+            if (entry.isFile() && entry.length() > 0) {
+                try {
+                    byte[] cached = Files.readAllBytes(entry.toPath());
+                    entry.setLastModified(System.currentTimeMillis());  // LRU 순서 갱신
+                    hits.incrementAndGet();
+                    return cached;
+                } catch (NoSuchFileException e) {
+                    // 다른 변환기가 방금 정리했다: 다시 변환한다
+                }
+            }
+        }
+
+        byte[] pngData;
+        try {
+            processPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Design file conversion interrupted: " + file.getName(), e);
+        }
+        try {
+            pngData = DesignFileConverter.convertToPng(file, dpi);
+        } finally {
+            processPermits.release();
+        }
+        conversions.incrementAndGet();
+
+        if (entry != null && pngData != null && pngData.length > 0) {
+            writeEntry(entry, pngData);
+            trim(entry);
+        }
+        return pngData;
+    }
+
+    /**
+     * 디렉토리의 항목 합계가 maxBytes 이하가 될 때까지 가장 오래 쓰지 않은 항목을 지운다.
+     * 방금 쓴 keep 항목은 남긴다. 같은 디렉토리를 쓰는 여러 변환기가 함께 정리해도 되도록
+     * 지우기 실패는 무시한다.
+     */
+    private synchronized void trim(File keep) {
+        File[] files = directory.listFiles(new FileFilter() {
+            public boolean accept(File f) {
+                return f.isFile() && f.getName().endsWith(".png");
+            }
+        });
+        if (files == null) return;
+        long total = 0;
+        final long[] modified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            total += files[i].length();
+            modified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        if (total <= maxBytes) return;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Long.compare(modified[a], modified[b]);
+            }
+        });
+        for (int i = 0; i < order.length && total > maxBytes; i++) {
+            File f = files[order[i]];
+            if (f.equals(keep)) continue;
+            long size = f.length();
+            if (f.delete()) {
+                total -= size;
+            }
+        }
+    }
+
+    /**
+     * 임시 파일에 쓴 후 원자적으로 이름을 바꾼다. 저장 실패는 변환을 막지 않는다.
+     */
+    private void writeEntry(File entry, byte[] pngData) {
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(entry.getName(), ".tmp", directory);
+            Files.write(tmp.toPath(), pngData);
+            try {
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[WARN] 디자인 파일 캐시 저장 실패: " + e.getMessage());
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * 파일 내용 해시 + DPI + 도구 버전 + 형식 버전으로 캐시 키를 만든다.
+     */
+    static String cacheKey(File file, int dpi) throws IOException {
+        MessageDigest digest = sha256();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[65536];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                digest.update(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        appendHex(sb, digest.digest(), 32);
+        sb.append('-').append(dpiPart(file, dpi));
+        sb.append('-');
+        appendHex(sb, sha256().digest(
+                DesignFileConverter.toolVersion(file).getBytes(StandardCharsets.UTF_8)), 4);
+        sb.append("-v").append(FORMAT_VERSION);
+        return sb.toString();
+    }
+
+    /**
+     * 진행 중인 변환을 찾는 키 (경로, 수정 시각, DPI). 내용 해시는 작업자에서 계산한다.
+     */
+    private static String sourceId(File file, int dpi) {
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (IOException e) {
+            path = file.getAbsolutePath();
+        }
+        return path + '|' + file.lastModified() + '|' + dpiPart(file, dpi);
+    }
+
+    /**
+     * 래스터화 DPI가 결과에 영향을 주는 벡터 형식만 DPI를 키에 넣는다.
+     */
+    private static String dpiPart(File file, int dpi) {
+        String ext = extension(file);
+        if ("ai".equals(ext) || "eps".equals(ext) || "pdf".equals(ext)) {
+            return dpi + "dpi";
+        }
+        return "raster";
+    }
+
+    private static MessageDigest sha256() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+    }
+
+    private static void appendHex(StringBuilder sb, byte[] bytes, int count) {
+        for (int i = 0; i < count && i < bytes.length; i++) {
+            sb.append(String.format("%02x", bytes[i] & 0xff));
+        }
+    }
+
+    private static String extension(File file) {
+        String name = file.getName();
+        int dotIdx = name.lastIndexOf('.');
+        return dotIdx >= 0 ? name.substring(dotIdx + 1).toLowerCase() : "";
+    }
+
+    private static class ConvertThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "design-convert-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
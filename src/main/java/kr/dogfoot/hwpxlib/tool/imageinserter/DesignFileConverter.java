@@ -3,6 +3,7 @@ package kr.dogfoot.hwpxlib.tool.imageinserter;
 import kr.dogfoot.hwpxlib.object.HWPXFile;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Run;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Picture;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -31,6 +32,9 @@ import java.util.concurrent.TimeUnit;
  * byte[] pngData = DesignFileConverter.convertAiToPng(new File("logo.ai"), 300);
  * }</pre>
  *
+ * <p>insertInline* 메서드는 ImageInserter와 같이 IdAllocator를 받는 오버로드가 있다. 한 문서에 여러 이미지를
+ * 넣을 때는 문서의 할당기 하나를 모든 호출에 넘긴다.</p>
+ *
  * <p>외부 도구가 설치되어 있지 않으면 {@link IOException}을 발생시킨다.
  * {@link #isImageMagickAvailable()}, {@link #isGhostscriptAvailable()}로 사전 확인 가능.</p>
  */
@@ -42,6 +46,8 @@ public class DesignFileConverter {
     private static volatile Boolean imageMagickAvailable;
     private static volatile Boolean ghostscriptAvailable;
     private static volatile String imageMagickCommand;
+    private static volatile String imageMagickVersion;
+    private static volatile String ghostscriptVersion;
 
     private DesignFileConverter() {
     }
@@ -78,13 +84,17 @@ public class DesignFileConverter {
         if (imageMagickAvailable != null) {
             return;
         }
-        if (tryCommand("magick", "--version")) {
+        String version = tryCommand("magick", "--version");
+        if (version != null) {
             imageMagickCommand = "magick";
+            imageMagickVersion = version;
             imageMagickAvailable = true;
             return;
         }
-        if (tryCommand("convert", "--version")) {
+        version = tryCommand("convert", "--version");
+        if (version != null) {
             imageMagickCommand = "convert";
+            imageMagickVersion = version;
             imageMagickAvailable = true;
             return;
         }
@@ -95,26 +105,61 @@ public class DesignFileConverter {
         if (ghostscriptAvailable != null) {
             return;
         }
-        ghostscriptAvailable = tryCommand("gs", "--version");
+        ghostscriptVersion = tryCommand("gs", "--version");
+        ghostscriptAvailable = ghostscriptVersion != null;
     }
 
-    private static boolean tryCommand(String... command) {
+    /**
+     * 명령을 실행해 성공하면 출력의 첫 줄 (버전 문자열)을, 실패하면 null을 반환한다.
+     */
+    private static String tryCommand(String... command) {
         try {
             ProcessBuilder pb = new ProcessBuilder(command);
             pb.redirectErrorStream(true);
             Process process = pb.start();
-            drainStream(process.getInputStream());
+            byte[] output = readAllBytes(process.getInputStream());
             boolean finished = process.waitFor(5, TimeUnit.SECONDS);
             if (!finished) {
                 process.destroyForcibly();
-                return false;
+                return null;
             }
-            return process.exitValue() == 0;
+            if (process.exitValue() != 0) {
+                return null;
+            }
+            String text = new String(output).trim();
+            int eol = text.indexOf('\n');
+            return eol >= 0 ? text.substring(0, eol).trim() : text;
         } catch (IOException e) {
-            return false;
+            return null;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            return false;
+            return null;
+        }
+    }
+
+    /**
+     * 디자인 파일을 변환할 도구와 그 버전을 나타내는 문자열.
+     * 도구가 바뀌면 변환 결과도 달라질 수 있으므로 {@link DesignFileCache}의 캐시 키에 포함된다.
+     *
+     * @param inputFile 디자인 파일 (확장자로 도구를 정한다)
+     * @return 예: {@code "gs 10.02.1"}, 도구가 없으면 {@code "none"}
+     */
+    public static String toolVersion(File inputFile) {
+        String ext = getExtension(inputFile).toLowerCase();
+        switch (ext) {
+            case "psd":
+                return isImageMagickAvailable() ? "magick " + imageMagickVersion : "none";
+            case "ai":
+            case "pdf":
+            case "eps":
+                return isGhostscriptAvailable() ? "gs " + ghostscriptVersion : "none";
+            case "tiff":
+            case "tif":
+                // Java ImageIO를 먼저 시도하고 실패하면 ImageMagick을 쓴다
+                return "java " + System.getProperty("java.specification.version")
+                        + (isImageMagickAvailable() ? " / magick " + imageMagickVersion : "");
+            default:
+                return "none";
         }
     }
 
@@ -462,9 +507,22 @@ public class DesignFileConverter {
     public static Picture insertInlineFromDesignFile(
             HWPXFile hwpxFile, Run run, File designFile,
             long displayWidth, long displayHeight) throws IOException {
+        return insertInlineFromDesignFile(hwpxFile, run, designFile, displayWidth, displayHeight,
+                ImageInserter.SHARED_IDS);
+    }
+
+    /**
+     * 디자인 파일을 PNG로 변환한 후 인라인 이미지로 삽입한다. 도형 ID는 ids에서 받는다.
+     *
+     * @param ids 문서의 ID 할당기
+     * @see #insertInlineFromDesignFile(HWPXFile, Run, File, long, long)
+     */
+    public static Picture insertInlineFromDesignFile(
+            HWPXFile hwpxFile, Run run, File designFile,
+            long displayWidth, long displayHeight, IdAllocator ids) throws IOException {
         byte[] pngData = convertToPng(designFile);
         return ImageInserter.insertInlineFromBytes(
-                hwpxFile, run, pngData, "png", displayWidth, displayHeight);
+                hwpxFile, run, pngData, "png", displayWidth, displayHeight, ids);
     }
 
     /**
@@ -481,9 +539,21 @@ public class DesignFileConverter {
     public static Picture insertInlineFromPSD(
             HWPXFile hwpxFile, Run run, File psdFile,
             long displayWidth, long displayHeight) throws IOException {
+        return insertInlineFromPSD(hwpxFile, run, psdFile, displayWidth, displayHeight, ImageInserter.SHARED_IDS);
+    }
+
+    /**
+     * PSD 파일을 PNG로 변환한 후 인라인 이미지로 삽입한다. 도형 ID는 ids에서 받는다.
+     *
+     * @param ids 문서의 ID 할당기
+     * @see #insertInlineFromPSD(HWPXFile, Run, File, long, long)
+     */
+    public static Picture insertInlineFromPSD(
+            HWPXFile hwpxFile, Run run, File psdFile,
+            long displayWidth, long displayHeight, IdAllocator ids) throws IOException {
         byte[] pngData = convertPsdToPng(psdFile);
         return ImageInserter.insertInlineFromBytes(
-                hwpxFile, run, pngData, "png", displayWidth, displayHeight);
+                hwpxFile, run, pngData, "png", displayWidth, displayHeight, ids);
     }
 
     /**
@@ -500,9 +570,7 @@ public class DesignFileConverter {
     public static Picture insertInlineFromAI(
             HWPXFile hwpxFile, Run run, File aiFile,
             long displayWidth, long displayHeight) throws IOException {
-        byte[] pngData = convertAiToPng(aiFile);
-        return ImageInserter.insertInlineFromBytes(
-                hwpxFile, run, pngData, "png", displayWidth, displayHeight);
+        return insertInlineFromAI(hwpxFile, run, aiFile, DEFAULT_AI_DPI, displayWidth, displayHeight);
     }
 
     /**
@@ -521,9 +589,21 @@ public class DesignFileConverter {
     public static Picture insertInlineFromAI(
             HWPXFile hwpxFile, Run run, File aiFile, int dpi,
             long displayWidth, long displayHeight) throws IOException {
+        return insertInlineFromAI(hwpxFile, run, aiFile, dpi, displayWidth, displayHeight, ImageInserter.SHARED_IDS);
+    }
+
+    /**
+     * AI 파일을 지정 DPI로 PNG로 변환한 후 인라인 이미지로 삽입한다. 도형 ID는 ids에서 받는다.
+     *
+     * @param ids 문서의 ID 할당기
+     * @see #insertInlineFromAI(HWPXFile, Run, File, int, long, long)
+     */
+    public static Picture insertInlineFromAI(
+            HWPXFile hwpxFile, Run run, File aiFile, int dpi,
+            long displayWidth, long displayHeight, IdAllocator ids) throws IOException {
         byte[] pngData = convertAiToPng(aiFile, dpi);
         return ImageInserter.insertInlineFromBytes(
-                hwpxFile, run, pngData, "png", displayWidth, displayHeight);
+                hwpxFile, run, pngData, "png", displayWidth, displayHeight, ids);
     }
 
     // ── Java 네이티브 변환 ──
@@ -592,16 +672,6 @@ public class DesignFileConverter {
         return buffer.toByteArray();
     }
 
-    private static void drainStream(InputStream is) {
-        try {
-            byte[] buf = new byte[1024];
-            while (is.read(buf) != -1) {
-                // discard
-            }
-        } catch (IOException ignored) {
-        }
-    }
-
     private static String getExtension(File file) {
         String name = file.getName();
         int dotIdx = name.lastIndexOf('.');
@@ -618,5 +688,7 @@ public class DesignFileConverter {
         imageMagickAvailable = null;
         ghostscriptAvailable = null;
         imageMagickCommand = null;
+        imageMagickVersion = null;
+        ghostscriptVersion = null;
     }
 }
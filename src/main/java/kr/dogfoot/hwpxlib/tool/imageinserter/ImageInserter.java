@@ -7,6 +7,7 @@ import kr.dogfoot.hwpxlib.object.content.header_xml.enumtype.ImageEffect;
 import kr.dogfoot.hwpxlib.object.content.section_xml.enumtype.*;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Run;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Picture;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -14,7 +15,6 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * HWPX 문서에 이미지를 삽입하는 유틸리티 클래스.
@@ -37,10 +37,19 @@ import java.util.concurrent.atomic.AtomicLong;
  * ImageInserter.insertInline(run1, itemId, 200, 150, 8000L, 6000L);
  * ImageInserter.insertInline(run2, itemId, 200, 150, 4000L, 3000L);
  * }</pre>
+ *
+ * <p>IdAllocator를 받지 않는 메서드는 프로세스 공용 할당기에서 도형 ID를 받는다. 공용 할당기는
+ * 변환기가 쓰는 구간({@link IdAllocator#DEFAULT_SHAPE_ID_BASE}부터) 아래의
+ * {@link #SHARED_SHAPE_ID_BASE}부터 매기므로 변환기가 만든 문서에 삽입해도 ID가 겹치지 않지만,
+ * 문서마다 같은 ID를 얻으려면 문서의 IdAllocator를 넘긴다.</p>
  */
 public class ImageInserter {
 
-    private static final AtomicLong ID_COUNTER = new AtomicLong(System.currentTimeMillis() % 1000000);
+    // 공용 할당기의 도형 ID 시작값 (변환기 구간 앞의 4,000,000개)
+    public static final long SHARED_SHAPE_ID_BASE = 1000000L;
+
+    // IdAllocator를 받지 않는 호출이 쓰는 공용 할당기 (도형 ID만 쓴다)
+    static final IdAllocator SHARED_IDS = new IdAllocator(IdAllocator.DEFAULT_PARA_ID_BASE, SHARED_SHAPE_ID_BASE);
 
     // ── 이미지 등록 ──
 
@@ -101,7 +110,20 @@ public class ImageInserter {
     public static Picture insertInline(Run run, String itemId,
                                        int pixelWidth, int pixelHeight,
                                        long displayWidth, long displayHeight) {
-        return buildInlinePicture(run, itemId, pixelWidth, pixelHeight, displayWidth, displayHeight);
+        return insertInline(run, itemId, pixelWidth, pixelHeight, displayWidth, displayHeight, SHARED_IDS);
+    }
+
+    /**
+     * 등록된 이미지를 참조하는 인라인 Picture를 Run에 추가한다. 도형 ID는 ids에서 받는다.
+     *
+     * @param ids 문서의 ID 할당기
+     * @see #insertInline(Run, String, int, int, long, long)
+     */
+    public static Picture insertInline(Run run, String itemId,
+                                       int pixelWidth, int pixelHeight,
+                                       long displayWidth, long displayHeight,
+                                       IdAllocator ids) {
+        return buildInlinePicture(run, itemId, pixelWidth, pixelHeight, displayWidth, displayHeight, ids);
     }
 
     /**
@@ -120,9 +142,22 @@ public class ImageInserter {
     public static Picture insertInlineFromBytes(HWPXFile hwpxFile, Run run,
                                                 byte[] imageData, String format,
                                                 long displayWidth, long displayHeight) throws IOException {
+        return insertInlineFromBytes(hwpxFile, run, imageData, format, displayWidth, displayHeight, SHARED_IDS);
+    }
+
+    /**
+     * byte[] 이미지 데이터를 등록하고 인라인 Picture를 Run에 추가한다. 도형 ID는 ids에서 받는다.
+     *
+     * @param ids 문서의 ID 할당기
+     * @see #insertInlineFromBytes(HWPXFile, Run, byte[], String, long, long)
+     */
+    public static Picture insertInlineFromBytes(HWPXFile hwpxFile, Run run,
+                                                byte[] imageData, String format,
+                                                long displayWidth, long displayHeight,
+                                                IdAllocator ids) throws IOException {
         String itemId = registerImage(hwpxFile, imageData, format);
         int[] size = detectPixelSize(imageData);
-        return buildInlinePicture(run, itemId, size[0], size[1], displayWidth, displayHeight);
+        return buildInlinePicture(run, itemId, size[0], size[1], displayWidth, displayHeight, ids);
     }
 
     /**
@@ -140,11 +175,24 @@ public class ImageInserter {
     public static Picture insertInlineFromFile(HWPXFile hwpxFile, Run run,
                                                File imageFile,
                                                long displayWidth, long displayHeight) throws IOException {
+        return insertInlineFromFile(hwpxFile, run, imageFile, displayWidth, displayHeight, SHARED_IDS);
+    }
+
+    /**
+     * 파일 시스템의 이미지를 등록하고 인라인 Picture를 Run에 추가한다. 도형 ID는 ids에서 받는다.
+     *
+     * @param ids 문서의 ID 할당기
+     * @see #insertInlineFromFile(HWPXFile, Run, File, long, long)
+     */
+    public static Picture insertInlineFromFile(HWPXFile hwpxFile, Run run,
+                                               File imageFile,
+                                               long displayWidth, long displayHeight,
+                                               IdAllocator ids) throws IOException {
         byte[] data = Files.readAllBytes(imageFile.toPath());
         String format = detectFormat(imageFile);
         String itemId = registerImage(hwpxFile, data, format);
         int[] size = detectPixelSize(data);
-        return buildInlinePicture(run, itemId, size[0], size[1], displayWidth, displayHeight);
+        return buildInlinePicture(run, itemId, size[0], size[1], displayWidth, displayHeight, ids);
     }
 
     // ── 내부 헬퍼 ──
@@ -214,15 +262,12 @@ public class ImageInserter {
         return new int[]{img.getWidth(), img.getHeight()};
     }
 
-    private static String nextUniqueId() {
-        return String.valueOf(5000000 + ID_COUNTER.incrementAndGet());
-    }
-
     private static Picture buildInlinePicture(Run run, String itemId,
                                               int pixelW, int pixelH,
-                                              long displayW, long displayH) {
+                                              long displayW, long displayH,
+                                              IdAllocator ids) {
         Picture pic = run.addNewPicture();
-        String picId = nextUniqueId();
+        String picId = ids.nextShapeId();
 
         // ShapeObject
         pic.idAnd(picId).zOrderAnd(0)
@@ -234,7 +279,7 @@ public class ImageInserter {
         // ShapeComponent
         pic.hrefAnd("");
         pic.groupLevelAnd((short) 0);
-        pic.instidAnd(nextUniqueId());
+        pic.instidAnd(ids.nextShapeId());
         pic.reverseAnd(false);
 
         pic.createOffset();
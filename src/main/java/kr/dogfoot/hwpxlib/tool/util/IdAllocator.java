@@ -0,0 +1,108 @@
+package kr.dogfoot.hwpxlib.tool.util;
+
+/**
+ * 문서 하나에서 쓰는 단락(Para) ID와 도형(ShapeObject) ID 할당기.
+ *
+ * 문서마다 새로 만들어 쓰므로 같은 입력은 항상 같은 ID를 얻고, 한 JVM에서 여러 문서를 동시에 만들어도
+ * ID가 서로 영향을 주지 않는다.
+ *
+ * section을 병렬로 만들 때는 {@link #forSection(int)}으로 section마다 고정된 ID 구간을 나누어 주므로
+ * 스레드 수나 완료 순서와 관계없이 같은 ID가 매겨진다. 이 경우 문서 할당기에서 직접 ID를 받지 않는다
+ * (첫 구간과 겹친다). 구간을 다 쓴 section은 공용 영역에서 이어 받는데, {@link #sectionOrder}를
+ * 지정하면 앞 section이 모두 끝난 후에 받으므로 공용 영역의 ID도 section 순서로 매겨진다.
+ */
+public class IdAllocator {
+    public static final long DEFAULT_PARA_ID_BASE = 1000000000L;
+    public static final long DEFAULT_SHAPE_ID_BASE = 5000000L;
+
+    // section 하나에 예약하는 ID 개수와 구간을 나누어 줄 최대 section 수
+    public static final long SECTION_BLOCK = 1L << 16;
+    public static final int MAX_BLOCK_SECTIONS = 1 << 15;
+
+    private final long paraIdBase;
+    private final long shapeIdBase;
+    private final long paraIdLimit;
+    private final long shapeIdLimit;
+    private long lastParaId;
+    private long lastShapeId;
+    // 구간을 다 쓴 section이 이어서 받는 공용 할당기 (모든 구간 뒤에 위치)
+    private IdAllocator overflow;
+    // 공용 영역을 section 순서대로 쓰게 하는 순번 (null이면 기다리지 않음)
+    private SectionOrder sectionOrder;
+    // section 할당기의 section 번호 (문서 할당기는 -1)
+    private final int sectionIndex;
+
+    public IdAllocator() {
+        this(DEFAULT_PARA_ID_BASE, DEFAULT_SHAPE_ID_BASE);
+    }
+
+    public IdAllocator(long paraIdBase, long shapeIdBase) {
+        this(paraIdBase, shapeIdBase, Long.MAX_VALUE, Long.MAX_VALUE, null, null, -1);
+    }
+
+    private IdAllocator(long paraIdBase, long shapeIdBase, long paraIdLimit, long shapeIdLimit,
+                        IdAllocator overflow, SectionOrder sectionOrder, int sectionIndex) {
+        this.paraIdBase = paraIdBase;
+        this.shapeIdBase = shapeIdBase;
+        this.paraIdLimit = paraIdLimit;
+        this.shapeIdLimit = shapeIdLimit;
+        this.lastParaId = paraIdBase;
+        this.lastShapeId = shapeIdBase;
+        this.overflow = overflow;
+        this.sectionOrder = sectionOrder;
+        this.sectionIndex = sectionIndex;
+    }
+
+    /**
+     * 이후 forSection()으로 만든 할당기가 공용 영역에서 ID를 받을 때 따를 순번을 지정한다.
+     */
+    public synchronized void sectionOrder(SectionOrder sectionOrder) {
+        this.sectionOrder = sectionOrder;
+    }
+
+    /**
+     * index번째 section 전용 할당기. section마다 SECTION_BLOCK개씩의 구간을 쓰며,
+     * 구간을 다 쓰거나 MAX_BLOCK_SECTIONS 이후의 section은 공용 영역에서 받는다.
+     * 할당기는 그 section을 만드는 스레드 하나만 쓴다.
+     */
+    public synchronized IdAllocator forSection(int index) {
+        if (overflow == null) {
+            long blocks = MAX_BLOCK_SECTIONS * SECTION_BLOCK;
+            overflow = new IdAllocator(paraIdBase + blocks, shapeIdBase + blocks);
+        }
+        if (index < 0 || index >= MAX_BLOCK_SECTIONS) {
+            // 빈 구간: 모든 ID를 공용 영역에서 받는다
+            return new IdAllocator(paraIdBase, shapeIdBase, paraIdBase, shapeIdBase,
+                    overflow, sectionOrder, index);
+        }
+        long paraStart = paraIdBase + index * SECTION_BLOCK;
+        long shapeStart = shapeIdBase + index * SECTION_BLOCK;
+        return new IdAllocator(paraStart, shapeStart,
+                paraStart + SECTION_BLOCK, shapeStart + SECTION_BLOCK, overflow, sectionOrder, index);
+    }
+
+    public synchronized String nextParaId() {
+        if (lastParaId + 1 >= paraIdLimit) {
+            awaitOverflowTurn();
+            return overflow.nextParaId();
+        }
+        return String.valueOf(++lastParaId);
+    }
+
+    public synchronized String nextShapeId() {
+        if (lastShapeId + 1 >= shapeIdLimit) {
+            awaitOverflowTurn();
+            return overflow.nextShapeId();
+        }
+        return String.valueOf(++lastShapeId);
+    }
+
+    /**
+     * 공용 영역을 쓰기 전에 앞 section이 모두 끝나기를 기다린다 (공용 할당기의 잠금 밖에서).
+     */
+    private void awaitOverflowTurn() {
+        if (sectionOrder != null && sectionIndex >= 0) {
+            sectionOrder.awaitTurn(sectionIndex);
+        }
+    }
+}
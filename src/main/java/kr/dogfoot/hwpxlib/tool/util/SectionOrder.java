@@ -0,0 +1,45 @@
+package kr.dogfoot.hwpxlib.tool.util;
+
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+
+/**
+ * section을 병렬로 만들 때 앞 section이 모두 끝나기를 기다리게 하는 순번.
+ *
+ * 작업자 스레드는 section을 다 만들면 (실패해도) {@link #end(int)}를 부른다.
+ * {@link #awaitTurn(int)}는 앞 section이 모두 끝날 때까지 기다리므로, 문서 공용 영역에서 받는 ID처럼
+ * 완료 순서가 아니라 section 순서로 정해야 하는 값에만 쓴다. 기다리는 동안 다른 section이 필요로 하는
+ * 잠금을 잡고 있으면 안 된다.
+ */
+public class SectionOrder {
+    private final BitSet ended = new BitSet();
+    // 이 번호 앞의 section은 모두 끝났다
+    private int turn;
+
+    /**
+     * index번째 section이 끝났다 (실패한 경우에도 부른다).
+     */
+    public synchronized void end(int index) {
+        ended.set(index);
+        while (ended.get(turn)) {
+            turn++;
+        }
+        notifyAll();
+    }
+
+    /**
+     * index 앞의 section이 모두 끝날 때까지 기다린다.
+     *
+     * @throws CancellationException 기다리는 중에 인터럽트되면 (인터럽트 상태는 유지한다)
+     */
+    public synchronized void awaitTurn(int index) {
+        while (turn < index) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for section " + turn);
+            }
+        }
+    }
+}
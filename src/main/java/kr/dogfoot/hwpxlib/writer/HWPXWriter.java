@@ -7,6 +7,7 @@ import kr.dogfoot.hwpxlib.object.HWPXFile;
 import kr.dogfoot.hwpxlib.object.chart.ChartXMLFile;
 import kr.dogfoot.hwpxlib.object.common.HWPXObject;
 import kr.dogfoot.hwpxlib.object.content.context_hpf.ManifestItem;
+import kr.dogfoot.hwpxlib.object.content.section_xml.SectionXMLFile;
 import kr.dogfoot.hwpxlib.object.etc.UnparsedXMLFile;
 import kr.dogfoot.hwpxlib.object.metainf.RootFile;
 import kr.dogfoot.hwpxlib.writer.common.ElementWriterManager;
@@ -19,6 +20,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -42,13 +45,32 @@ public class HWPXWriter {
         return baos.toByteArray();
     }
 
+    /**
+     * 파트 단위 쓰기를 시작한다. 고정 파트(mimetype, version.xml, META-INF)를 먼저 쓴다.
+     * 이후 {@link #writeSection}, {@link #writeAttachedFile}로 완성된 파트를 바로 쓰고 메모리에서 놓을 수 있다.
+     * 마지막에 {@link #finish()}가 content.hpf, header.xml 등 나머지 파트를 쓰고 스트림을 닫는다.
+     */
+    public static HWPXWriter open(HWPXFile hwpxFile, OutputStream os) throws Exception {
+        HWPXWriter writer = new HWPXWriter(hwpxFile);
+        writer.createZIPFile(os);
+        writer.mineType();
+        writer.version_xml();
+        writer.META_INF_manifest_xml();
+        writer.META_INF_container_xml();
+        writer.opened = true;
+        return writer;
+    }
+
     private final HWPXFile hwpxFile;
     private ElementWriterManager elementWriterManager;
     private ZipOutputStream zos;
+    private final Set<String> writtenEntries;
+    private boolean opened;
 
     public HWPXWriter(HWPXFile hwpxFile) {
         this.hwpxFile = hwpxFile;
         elementWriterManager = new ElementWriterManager();
+        writtenEntries = new HashSet<String>();
     }
 
     public void createZIPFile(OutputStream outputStream) {
@@ -67,6 +89,51 @@ public class HWPXWriter {
         unparsedXMLFiles();
     }
 
+    /**
+     * 완성된 섹션을 바로 쓴다. finish()는 이 섹션을 다시 쓰지 않는다.
+     */
+    public void writeSection(String href, SectionXMLFile section) throws IOException {
+        writeChild(ElementWriterSort.Section, section);
+        putIntoZip(href, xsb().toString(), StandardCharsets.UTF_8);
+        writtenEntries.add(href);
+    }
+
+    /**
+     * 첨부 파일 (BinData 등)을 바로 쓴다. finish()는 이 파일을 다시 쓰지 않는다.
+     */
+    public void writeAttachedFile(ManifestItem item) throws IOException {
+        if (item.attachedFile() == null) {
+            return;
+        }
+        putIntoZip(item.href(), item.attachedFile().data());
+        writtenEntries.add(item.href());
+    }
+
+    /**
+     * 아직 쓰지 않은 파트를 모두 쓰고 스트림을 닫는다.
+     */
+    public void finish() throws Exception {
+        if (!opened) {
+            throw new IllegalStateException("HWPXWriter was not opened for part writing");
+        }
+        content_hpf();
+        contentFiles();
+        chartFiles();
+        etcContainedFile();
+        unparsedXMLFiles();
+        close();
+    }
+
+    /**
+     * 파트 단위 쓰기를 중단하고 스트림을 닫는다. 쓰다 만 파일은 호출 측이 지운다.
+     */
+    public void abort() {
+        try {
+            close();
+        } catch (IOException ignored) {
+        }
+    }
+
     private void mineType() throws IOException {
         putIntoZip(ZipEntryName.MineType,
                 MineTypes.HWPX,
@@ -130,6 +197,9 @@ public class HWPXWriter {
         }
 
         for (ManifestItem item : hwpxFile.contentHPFFile().manifest().items()) {
+            if (writtenEntries.contains(item.href())) {
+                continue;
+            }
             if (item.id().equals(FileIDs.Settings)) {
                 writeChild(ElementWriterSort.Settings, hwpxFile.settingsXMLFile());
                 putIntoZip(item.href(), xsb().toString(), StandardCharsets.UTF_8);
@@ -6,6 +6,8 @@ import kr.dogfoot.hwpxlib.object.common.EnumGetStr;
 import kr.dogfoot.hwpxlib.writer.common.ElementWriter;
 
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
 import java.util.Stack;
 
 public class XMLStringBuilder {
@@ -20,15 +22,17 @@ public class XMLStringBuilder {
     private static final String TrueValue = "1";
     private static final String FalseValue = "0";
     private static final String NameSpacePrefix = "xmlns:";
-    private static DecimalFormat floatFormat = new DecimalFormat("#.######");
 
     private final StringBuilder sb;
     private final Stack<ElementInfo> elementStack;
+    // DecimalFormat은 스레드 안전하지 않으므로 빌더마다 따로 둔다. 소수점은 로캘과 무관하게 '.'
+    private final DecimalFormat floatFormat;
 
     public XMLStringBuilder() {
         sb = new StringBuilder()
                 .append(Prefix);
         elementStack = new Stack<ElementInfo>();
+        floatFormat = new DecimalFormat("#.######", DecimalFormatSymbols.getInstance(Locale.ROOT));
     }
 
     
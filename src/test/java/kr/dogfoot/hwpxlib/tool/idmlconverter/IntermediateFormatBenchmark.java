@@ -0,0 +1,176 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * 중간 포맷 JSON / 바이너리 크기와 처리량 비교.
+ *
+ * 사용법:
+ *   java ... IntermediateFormatBenchmark [intermediate.json | 페이지 수] [반복 횟수]
+ *
+ * JSON 파일을 주면 그 문서를, 숫자를 주면 해당 페이지 수의 합성 문서를 사용한다 (기본 200페이지).
+ */
+public class IntermediateFormatBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        IntermediateDocument doc;
+        String source = args.length > 0 ? args[0] : "200";
+        if (new File(source).isFile()) {
+            Reader reader = new InputStreamReader(Files.newInputStream(new File(source).toPath()),
+                    StandardCharsets.UTF_8);
+            try {
+                doc = JsonDeserializer.read(reader);
+            } finally {
+                reader.close();
+            }
+        } else {
+            doc = syntheticDocument(Integer.parseInt(source));
+        }
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        byte[] json = toJson(doc);
+        byte[] binary = BinarySerializer.toBinary(doc);
+        System.out.println("pages: " + doc.pages().size() + ", iterations: " + iterations);
+        System.out.printf("size      json %,12d bytes   binary %,12d bytes (%.1f%%)%n",
+                json.length, binary.length, 100.0 * binary.length / json.length);
+
+        // 워밍업
+        for (int i = 0; i < 3; i++) {
+            toJson(doc);
+            BinarySerializer.toBinary(doc);
+            fromJson(json);
+            BinaryDeserializer.fromBinary(binary);
+        }
+
+        long jsonWrite = 0, binaryWrite = 0, jsonRead = 0, binaryRead = 0;
+        for (int i = 0; i < iterations; i++) {
+            long t0 = System.nanoTime();
+            toJson(doc);
+            long t1 = System.nanoTime();
+            BinarySerializer.toBinary(doc);
+            long t2 = System.nanoTime();
+            fromJson(json);
+            long t3 = System.nanoTime();
+            BinaryDeserializer.fromBinary(binary);
+            long t4 = System.nanoTime();
+            jsonWrite += t1 - t0;
+            binaryWrite += t2 - t1;
+            jsonRead += t3 - t2;
+            binaryRead += t4 - t3;
+        }
+        print("write", iterations, jsonWrite, binaryWrite, json.length);
+        print("read", iterations, jsonRead, binaryRead, json.length);
+    }
+
+    private static void print(String label, int iterations, long jsonNanos, long binaryNanos, int jsonBytes) {
+        double jsonMs = jsonNanos / 1e6 / iterations;
+        double binaryMs = binaryNanos / 1e6 / iterations;
+        System.out.printf("%-9s json %9.2f ms (%6.1f MB/s)   binary %9.2f ms   x%.2f%n",
+                label, jsonMs, jsonBytes / 1048576.0 / (jsonMs / 1000), binaryMs, jsonMs / binaryMs);
+    }
+
+    private static byte[] toJson(IntermediateDocument doc) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
+        JsonSerializer.write(doc, writer);
+        return baos.toByteArray();
+    }
+
+    private static IntermediateDocument fromJson(byte[] json) throws Exception {
+        return JsonDeserializer.read(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 페이지마다 본문 텍스트 프레임 3개와 이미지 프레임 1개를 가진 문서.
+     */
+    private static IntermediateDocument syntheticDocument(int pageCount) {
+        Random random = new Random(42);
+        IntermediateDocument doc = new IntermediateDocument();
+        doc.sourceFormat("IDML");
+        doc.sourceFile("benchmark.idml");
+
+        String[] colors = {"#000000", "#231F20", "#E60012", "#0068B7"};
+        for (int i = 0; i < 8; i++) {
+            IntermediateStyleDef style = new IntermediateStyleDef();
+            style.id("pstyle_" + i);
+            style.name("Body " + i);
+            style.type("paragraph");
+            style.fontFamily("KoPubWorld Batang");
+            style.fontSizeHwpunits(900 + i * 100);
+            style.textColor(colors[i % colors.length]);
+            doc.addParagraphStyle(style);
+        }
+
+        byte[][] images = new byte[4][];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = new byte[32 * 1024];
+            random.nextBytes(images[i]);
+        }
+
+        for (int p = 0; p < pageCount; p++) {
+            IntermediatePage page = new IntermediatePage();
+            page.pageNumber(p + 1);
+            page.pageWidth(59528);
+            page.pageHeight(84188);
+
+            for (int f = 0; f < 3; f++) {
+                IntermediateFrame frame = new IntermediateFrame();
+                frame.frameId("u" + Integer.toHexString(p * 16 + f));
+                frame.frameType("text");
+                frame.x(5669 + f * 17000);
+                frame.y(5669 + random.nextInt(20000));
+                frame.width(16000);
+                frame.height(40000 + random.nextInt(20000));
+                frame.zOrder(f);
+                for (int i = 0; i < 6; i++) {
+                    IntermediateParagraph para = new IntermediateParagraph();
+                    para.paragraphStyleRef("pstyle_" + random.nextInt(8));
+                    for (int r = 0; r < 3; r++) {
+                        IntermediateTextRun run = new IntermediateTextRun();
+                        run.characterStyleRef("cstyle_" + random.nextInt(4));
+                        run.text("본문 텍스트 " + p + "-" + f + "-" + i + "-" + r
+                                + " 중간 포맷 처리량 측정을 위한 문장입니다.");
+                        run.textColor(colors[random.nextInt(colors.length)]);
+                        run.fontSizeHwpunits(1000);
+                        para.addRun(run);
+                    }
+                    frame.addParagraph(para);
+                }
+                page.addFrame(frame);
+            }
+
+            IntermediateFrame imageFrame = new IntermediateFrame();
+            imageFrame.frameId("u" + Integer.toHexString(p * 16 + 9));
+            imageFrame.frameType("image");
+            imageFrame.x(5669);
+            imageFrame.y(60000);
+            imageFrame.width(20000);
+            imageFrame.height(15000);
+            imageFrame.zOrder(3);
+            IntermediateImage image = new IntermediateImage();
+            image.imageId("img_" + p);
+            image.format("jpeg");
+            image.pixelWidth(800);
+            image.pixelHeight(600);
+            image.displayWidth(20000);
+            image.displayHeight(15000);
+            image.data(images[p % images.length]);
+            imageFrame.image(image);
+            page.addFrame(imageFrame);
+
+            doc.addPage(page);
+        }
+        return doc;
+    }
+}
@@ -528,7 +528,7 @@ public class MinimalHwpxTest {
                     pageImages++;
                     imageTotal++;
                     IntermediateImage img = frame.image();
-                    boolean hasData = img != null && img.base64Data() != null;
+                    boolean hasData = img != null && img.hasData();
                     if (hasData) imageWithData++;
 
                     System.out.println("  [IMAGE] " + frame.frameId());
@@ -538,8 +538,7 @@ public class MinimalHwpxTest {
                         System.out.println("    originalPath: " + img.originalPath());
                         System.out.println("    format: " + img.format());
                         System.out.println("    pixel: " + img.pixelWidth() + "x" + img.pixelHeight());
-                        System.out.println("    base64Data: " + (img.base64Data() != null ?
-                                img.base64Data().length() + " chars" : "NULL"));
+                        System.out.println("    blobRef: " + (img.blobRef() != null ? img.blobRef() : "NULL"));
                     }
                 }
                 if (pageImages == 0) {
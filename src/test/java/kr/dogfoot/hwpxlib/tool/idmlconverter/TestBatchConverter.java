@@ -0,0 +1,191 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestBatchConverter {
+
+    @Test
+    public void testJobsFromManifestAndDirectory() throws Exception {
+        File dir = Files.createTempDirectory("batch_test").toFile();
+        try {
+            new File(dir, "b.idml").createNewFile();
+            new File(dir, "a.IDML").createNewFile();
+            new File(dir, "notes.txt").createNewFile();
+
+            List<BatchConverter.Job> jobs = BatchConverter.jobsFrom(dir, null);
+            Assert.assertEquals(2, jobs.size());
+            Assert.assertEquals(new File(dir, "a.IDML").getPath(), jobs.get(0).input());
+            Assert.assertEquals(new File(dir, "a.hwpx").getPath(), jobs.get(0).output());
+
+            File manifest = new File(dir, "jobs.txt");
+            FileOutputStream fos = new FileOutputStream(manifest);
+            fos.write("# comment\n\nb.idml\na.IDML\tout/first.hwpx\n".getBytes("UTF-8"));
+            fos.close();
+
+            File outDir = new File(dir, "converted");
+            jobs = BatchConverter.jobsFrom(manifest, outDir);
+            Assert.assertEquals(2, jobs.size());
+            Assert.assertEquals(new File(outDir, "b.hwpx").getPath(), jobs.get(0).output());
+            Assert.assertEquals(new File(dir.getAbsoluteFile(), "out/first.hwpx").getPath(), jobs.get(1).output());
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testFailuresAreIsolated() throws Exception {
+        File dir = Files.createTempDirectory("batch_test").toFile();
+        try {
+            List<BatchConverter.Job> jobs = java.util.Arrays.asList(
+                    new BatchConverter.Job(new File(dir, "missing1.idml").getPath(), new File(dir, "1.hwpx").getPath()),
+                    new BatchConverter.Job(new File(dir, "missing2.idml").getPath(), new File(dir, "2.hwpx").getPath()));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            BatchConverter.Summary summary = new BatchConverter(ConvertOptions.defaults(), 2, 0,
+                    new PrintStream(baos, true, "UTF-8")).run(jobs);
+
+            Assert.assertEquals(2, summary.total());
+            Assert.assertEquals(2, summary.failed());
+            String[] lines = baos.toString("UTF-8").trim().split("\n");
+            Assert.assertEquals(3, lines.length);
+            Assert.assertTrue(lines[0].contains("\"status\": \"failed\""));
+            Assert.assertTrue(lines[2].startsWith("{\"type\": \"batch_complete\", \"total\": 2"));
+        } finally {
+            dir.delete();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testTimedOutWorkerFreesSlotWhenItStops() throws Exception {
+        File dir = Files.createTempDirectory("batch_test").toFile();
+        try {
+            final File slowOutput = new File(dir, "slow.hwpx");
+            File fastOutput = new File(dir, "fast.hwpx");
+            List<BatchConverter.Job> jobs = java.util.Arrays.asList(
+                    new BatchConverter.Job(new File(dir, "slow.idml").getPath(), slowOutput.getPath()),
+                    new BatchConverter.Job(new File(dir, "fast.idml").getPath(), fastOutput.getPath()));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+            // 첫 파일은 interrupt되면 멈추므로 자리가 두 번째 파일에 넘어간다
+            BatchConverter batch = new BatchConverter(ConvertOptions.defaults(), 1, 200,
+                    new PrintStream(baos, true, "UTF-8")) {
+                @Override
+                ConvertResult convert(Job job) throws ConvertException {
+                    touch(job.output());
+                    if (job.output().equals(slowOutput.getPath())) {
+                        try {
+                            Thread.sleep(60000);
+                        } catch (InterruptedException e) {
+                            throw new ConvertException(ConvertException.Phase.PARSING, "Conversion cancelled");
+                        }
+                    }
+                    return new ConvertResult();
+                }
+            };
+            BatchConverter.Summary summary = batch.run(jobs);
+
+            Assert.assertEquals(1, summary.succeeded());
+            Assert.assertEquals(1, summary.timedOut());
+            Assert.assertTrue(fastOutput.exists());
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testRunawayWorkerKeepsSlotAndLateResultIsDiscarded() throws Exception {
+        final File dir = Files.createTempDirectory("batch_test").toFile();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch lateReturned = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        try {
+            final File slowOutput = new File(dir, "slow.hwpx");
+            File fastOutput = new File(dir, "fast.hwpx");
+            List<BatchConverter.Job> jobs = java.util.Arrays.asList(
+                    new BatchConverter.Job(new File(dir, "slow.idml").getPath(), slowOutput.getPath()),
+                    new BatchConverter.Job(new File(dir, "fast.idml").getPath(), fastOutput.getPath()));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+            // 자리가 하나뿐이고 첫 파일이 interrupt를 무시하므로, 제한 시간이 한 번 더 지나면
+            // 두 번째 파일은 시작하지 않고 failed로 보고한다
+            BatchConverter batch = new BatchConverter(ConvertOptions.defaults(), 1, 200,
+                    new PrintStream(baos, true, "UTF-8")) {
+                @Override
+                ConvertResult convert(Job job) {
+                    touch(job.output());
+                    if (job.output().equals(slowOutput.getPath())) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            interrupted.set(true);
+                        }
+                        // interrupt를 무시하고 계속 실행되다가 늦게 출력을 쓰고 끝난다
+                        while (release.getCount() > 0) {
+                            try {
+                                release.await();
+                            } catch (InterruptedException ignored) {
+                            }
+                        }
+                        touch(job.output());
+                        lateReturned.countDown();
+                    }
+                    return new ConvertResult();
+                }
+            };
+            BatchConverter.Summary summary = batch.run(jobs);
+
+            Assert.assertEquals(0, summary.succeeded());
+            Assert.assertEquals(1, summary.failed());
+            Assert.assertEquals(1, summary.timedOut());
+            String[] lines = baos.toString("UTF-8").trim().split("\n");
+            Assert.assertEquals(3, lines.length);
+            Assert.assertTrue(lines[0].startsWith("{\"type\": \"file\", \"index\": 0"));
+            Assert.assertTrue(lines[0].contains("\"status\": \"timeout\""));
+            Assert.assertTrue(lines[1].contains("\"status\": \"failed\""));
+            Assert.assertTrue(lines[1].contains("No worker available"));
+            Assert.assertFalse(slowOutput.exists());
+            Assert.assertFalse(fastOutput.exists());
+
+            // 늦게 끝난 결과는 보고하지 않고 출력 파일을 다시 지운다
+            release.countDown();
+            Assert.assertTrue(lateReturned.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(interrupted.get());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (slowOutput.exists() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertFalse(slowOutput.exists());
+            Assert.assertEquals(3, baos.toString("UTF-8").trim().split("\n").length);
+        } finally {
+            release.countDown();
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    private static void touch(String path) {
+        try {
+            new FileOutputStream(path).close();
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+
+public class TestConversionHttpServer {
+
+    @Test(timeout = 30000)
+    public void testLoopbackAndQueryAllowlist() throws Exception {
+        File workDir = Files.createTempDirectory("http_test").toFile();
+        ConversionJobQueue queue = new ConversionJobQueue(4, 1, 1, 1L << 30, 4);
+        ConversionHttpServer server = new ConversionHttpServer(0, queue, workDir, 2);
+        server.start();
+        try {
+            Assert.assertTrue(server.address().getAddress().isLoopbackAddress());
+
+            // 서버의 경로나 스레드 수를 바꾸는 옵션은 본문을 받기 전에 거절한다
+            String[] rejected = {"links-directory=/etc", "incremental=/tmp/x", "design-cache=/tmp/x",
+                    "render-threads=64", "design-processes=64", "section-threads=64", "pipeline=8",
+                    "max-rasters=64", "image-cache-mb=4096"};
+            for (String query : rejected) {
+                Assert.assertEquals(query, 400, post(server, "/jobs?" + query));
+            }
+            Assert.assertEquals(400, post(server, "/convert?include-images&render-threads=64"));
+
+            // 잘못된 값과 범위를 벗어난 DPI도 400
+            Assert.assertEquals(400, post(server, "/jobs?png-filter=bogus"));
+            Assert.assertEquals(400, post(server, "/jobs?vector-dpi=0"));
+            Assert.assertEquals(400, post(server, "/jobs?vector-dpi=100000"));
+
+            // 본문이 너무 크면 413이고 받던 파일은 남지 않는다
+            server.maxUploadBytes(1);
+            Assert.assertEquals(413, post(server, "/jobs"));
+            File[] files = workDir.listFiles();
+            Assert.assertTrue(files == null || files.length == 0);
+        } finally {
+            server.stop();
+            workDir.delete();
+        }
+    }
+
+    private static int post(ConversionHttpServer server, String path) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection)
+                new URL("http://" + server.address().getHostString() + ":" + server.port() + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        OutputStream out = connection.getOutputStream();
+        out.write(new byte[]{'P', 'K'});
+        out.close();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class TestConversionJobQueue {
+
+    @Test
+    public void testEstimateFromSpreads() throws Exception {
+        File idml = createIdml("<Rectangle Self=\"r1\"/>");
+        try {
+            ConversionJobQueue.Estimate raster = ConversionJobQueue.Estimate.of(idml, ConvertOptions.defaults());
+            Assert.assertEquals(2, raster.pages());
+            Assert.assertEquals(ConversionJobQueue.ResourceClass.RASTER, raster.resourceClass());
+
+            // DPI가 낮을수록 추정치가 작아진다
+            ConversionJobQueue.Estimate lowDpi = ConversionJobQueue.Estimate.of(idml,
+                    ConvertOptions.defaults().vectorDpi(150));
+            Assert.assertTrue(lowDpi.bytes() < raster.bytes());
+
+            // 벡터를 도형으로 내보내면 렌더링할 것이 없다
+            ConversionJobQueue.Estimate text = ConversionJobQueue.Estimate.of(idml,
+                    ConvertOptions.defaults().nativeVectorShapes(true));
+            Assert.assertEquals(ConversionJobQueue.ResourceClass.TEXT, text.resourceClass());
+            Assert.assertTrue(text.bytes() < raster.bytes());
+        } finally {
+            idml.delete();
+        }
+    }
+
+    @Test
+    public void testEstimateSaturatesInsteadOfOverflowing() {
+        long bytes = ConversionJobQueue.Estimate.bytes(100000, 1e9, 1e9, Long.MAX_VALUE / 2,
+                ConversionJobQueue.ResourceClass.RASTER, true, ConvertOptions.defaults().vectorDpi(Integer.MAX_VALUE));
+        Assert.assertTrue(bytes > 0);
+        Assert.assertTrue(bytes >= Long.MAX_VALUE / 2);
+    }
+
+    @Test
+    public void testRejectsJobOverBudget() throws Exception {
+        File idml = createIdml("");
+        ConversionJobQueue queue = new ConversionJobQueue(4, 1, 1, 1024, 4);
+        try {
+            queue.submit(idml, new File(idml.getPath() + ".hwpx"), ConvertOptions.defaults(), false, false);
+            Assert.fail("expected rejection");
+        } catch (ConversionJobQueue.RejectedException e) {
+            Assert.assertTrue(e.tooLarge());
+            Assert.assertFalse(idml.exists());
+            Assert.assertTrue(queue.metricsJson().contains("\"rejected_too_large\": 1"));
+        } finally {
+            queue.close();
+            idml.delete();
+        }
+    }
+
+    private static File createIdml(String spreadContent) throws Exception {
+        File file = File.createTempFile("estimate", ".idml");
+        ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file));
+        zos.putNextEntry(new ZipEntry("Spreads/Spread_u1.xml"));
+        zos.write(("<Spread Self=\"u1\">"
+                + "<Page Self=\"p1\" GeometricBounds=\"0 0 841.88 595.27\"/>"
+                + "<Page Self=\"p2\" GeometricBounds=\"0 0 841.88 595.27\"/>"
+                + spreadContent + "</Spread>").getBytes("UTF-8"));
+        zos.closeEntry();
+        zos.close();
+        return file;
+    }
+}
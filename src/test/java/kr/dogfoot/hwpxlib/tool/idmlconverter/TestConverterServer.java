@@ -0,0 +1,156 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestConverterServer {
+
+    @Test
+    public void testErrorsAndShutdown() throws Exception {
+        String input = "not json\n"
+                + "{\"jsonrpc\": \"2.0\", \"id\": 1, \"method\": \"nope\"}\n"
+                + "{\"jsonrpc\": \"2.0\", \"id\": 2, \"method\": \"render-image\", \"params\": {\"path\": \"x.idml\"}}\n"
+                + "{\"jsonrpc\": \"2.0\", \"id\": 5, \"method\": null}\n"
+                + "{\"jsonrpc\": \"2.0\", \"id\": 6, \"method\": {\"name\": \"convert\"}}\n"
+                + "{\"jsonrpc\": \"2.0\", \"id\": 7, \"method\": [\"convert\"]}\n"
+                + "{\"jsonrpc\": \"2.0\", \"id\": \"s\", \"method\": \"shutdown\"}\n"
+                + "{\"jsonrpc\": \"2.0\", \"id\": 4, \"method\": \"nope\"}\n";
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new ConverterServer(2, 2, new PrintStream(baos, true, "UTF-8"))
+                .run(new ByteArrayInputStream(input.getBytes("UTF-8")));
+
+        // 응답은 끝나는 순서대로 나오므로 id로 찾는다
+        Map<String, JsonObject> responses = new HashMap<String, JsonObject>();
+        for (String line : baos.toString("UTF-8").trim().split("\n")) {
+            JsonObject response = JsonParser.parseString(line).getAsJsonObject();
+            responses.put(response.get("id").toString(), response);
+        }
+        Assert.assertEquals(7, responses.size());
+        Assert.assertEquals(ConverterServer.PARSE_ERROR, errorCode(responses.get("null")));
+        Assert.assertEquals(ConverterServer.METHOD_NOT_FOUND, errorCode(responses.get("1")));
+        Assert.assertEquals(ConverterServer.INVALID_PARAMS, errorCode(responses.get("2")));
+        // 문자열이 아닌 method에도 서버가 멈추지 않고 뒤 요청을 처리한다
+        Assert.assertEquals(ConverterServer.INVALID_REQUEST, errorCode(responses.get("5")));
+        Assert.assertEquals(ConverterServer.INVALID_REQUEST, errorCode(responses.get("6")));
+        Assert.assertEquals(ConverterServer.INVALID_REQUEST, errorCode(responses.get("7")));
+        Assert.assertTrue(responses.get("\"s\"").get("result").isJsonNull());
+    }
+
+    @Test
+    public void testDocumentCacheIsLeastRecentlyUsed() throws Exception {
+        File dir = Files.createTempDirectory("serve_test").toFile();
+        try {
+            File a = touch(new File(dir, "a.idml"));
+            File b = touch(new File(dir, "b.idml"));
+            File c = touch(new File(dir, "c.idml"));
+
+            ConverterServer.DocumentCache cache = new ConverterServer.DocumentCache(2);
+            ConverterServer.CachedDocument first = cache.get(a.getPath());
+            cache.get(b.getPath());
+            Assert.assertSame(first, cache.get(a.getPath()));
+            cache.get(c.getPath());  // b가 밀려난다
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals(1, cache.hits());
+
+            cache.get(a.getPath());
+            Assert.assertEquals(2, cache.hits());
+            cache.get(b.getPath());
+            Assert.assertEquals(4, cache.misses());
+
+            // 파일이 바뀌면 다시 읽는다
+            FileOutputStream fos = new FileOutputStream(b, true);
+            fos.write(1);
+            fos.close();
+            ConverterServer.CachedDocument reloaded = cache.get(b.getPath());
+            Assert.assertEquals(5, cache.misses());
+            Assert.assertSame(reloaded, cache.get(b.getPath()));
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testReadersShareDocumentAndConvertWaitsInQueue() throws Exception {
+        File dir = Files.createTempDirectory("serve_test").toFile();
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        try {
+            ConverterServer.DocumentCache cache = new ConverterServer.DocumentCache(2);
+            ConverterServer.CachedDocument entry = cache.get(touch(new File(dir, "a.idml")).getPath());
+            final CountDownLatch readersStarted = new CountDownLatch(2);
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch allDone = new CountDownLatch(4);
+            final List<String> order = new CopyOnWriteArrayList<String>();
+
+            // 읽기 두 개가 작업자 두 개를 모두 쓰는 동안 convert와 그 뒤의 읽기는 대기열에서 기다린다
+            for (final String name : new String[]{"read1", "read2"}) {
+                entry.submit(new Runnable() {
+                    public void run() {
+                        readersStarted.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException ignored) {
+                        }
+                        order.add(name);
+                        allDone.countDown();
+                    }
+                }, false, workers);
+            }
+            Assert.assertTrue(readersStarted.await(10, TimeUnit.SECONDS));
+            entry.submit(record(order, "convert", allDone), true, workers);
+            entry.submit(record(order, "read3", allDone), false, workers);
+            Thread.sleep(100);
+            Assert.assertTrue(order.isEmpty());
+
+            release.countDown();
+            Assert.assertTrue(allDone.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(4, order.size());
+            Assert.assertEquals("convert", order.get(2));
+            Assert.assertEquals("read3", order.get(3));
+            cache.clear();
+        } finally {
+            workers.shutdownNow();
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    private static Runnable record(final List<String> order, final String name, final CountDownLatch done) {
+        return new Runnable() {
+            public void run() {
+                order.add(name);
+                done.countDown();
+            }
+        };
+    }
+
+    private static int errorCode(JsonObject response) {
+        return response.getAsJsonObject("error").get("code").getAsInt();
+    }
+
+    private static File touch(File file) throws Exception {
+        new FileOutputStream(file).close();
+        return file;
+    }
+}
@@ -0,0 +1,145 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.DecodedImageCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestDecodedImageCache {
+    // 100x100 ARGB = 40,000 바이트
+    private static final long IMAGE_BYTES = 100 * 100 * 4;
+
+    @Test
+    public void testRepeatedImageDecodedOnce() throws Exception {
+        DecodedImageCache cache = new DecodedImageCache(IMAGE_BYTES * 4);
+        CountingLoader loader = new CountingLoader();
+        File logo = tempFile("logo");
+
+        BufferedImage first = cache.get(logo, 150, loader);
+        for (int i = 0; i < 299; i++) {
+            Assert.assertSame(first, cache.get(logo, 150, loader));
+        }
+
+        Assert.assertEquals(1, loader.count);
+        Assert.assertEquals(299, cache.stats().hits());
+        Assert.assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    public void testDpiIsPartOfKey() throws Exception {
+        DecodedImageCache cache = new DecodedImageCache(IMAGE_BYTES * 4);
+        CountingLoader loader = new CountingLoader();
+        File logo = tempFile("logo");
+
+        cache.get(logo, 150, loader);
+        cache.get(logo, 300, loader);
+        Assert.assertEquals(2, loader.count);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        DecodedImageCache cache = new DecodedImageCache(IMAGE_BYTES * 2);
+        CountingLoader loader = new CountingLoader();
+        File a = tempFile("imgA");
+        File b = tempFile("imgB");
+        File c = tempFile("imgC");
+
+        cache.get(a, 150, loader);
+        cache.get(b, 150, loader);
+        cache.get(a, 150, loader);      // a 최근 사용
+        cache.get(c, 150, loader);      // b 제거
+        Assert.assertEquals(3, loader.count);
+        Assert.assertEquals(1, cache.stats().evictions());
+        Assert.assertEquals(IMAGE_BYTES * 2, cache.stats().peakBytes());
+
+        cache.get(a, 150, loader);
+        Assert.assertEquals(3, loader.count);
+        cache.get(b, 150, loader);
+        Assert.assertEquals(4, loader.count);
+    }
+
+    @Test
+    public void testZeroBudgetDisablesCache() throws Exception {
+        DecodedImageCache cache = new DecodedImageCache(0);
+        CountingLoader loader = new CountingLoader();
+        File logo = tempFile("logo");
+
+        cache.get(logo, 150, loader);
+        cache.get(logo, 150, loader);
+        Assert.assertEquals(2, loader.count);
+        Assert.assertEquals(0, cache.stats().entries());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentRequestsShareUncachedResult() throws Exception {
+        // 예산보다 큰 이미지는 캐시하지 않지만 디코딩 중에 온 요청은 결과를 받는다
+        final DecodedImageCache cache = new DecodedImageCache(IMAGE_BYTES / 2);
+        final File logo = tempFile("logo");
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger loads = new AtomicInteger();
+        final DecodedImageCache.Loader loader = new DecodedImageCache.Loader() {
+            public BufferedImage load() throws IOException {
+                loads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+            }
+        };
+
+        final BufferedImage[] results = new BufferedImage[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        results[index] = cache.get(logo, 150, loader);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        while (cache.stats().hits() + cache.stats().misses() < threads.length) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(1, loads.get());
+        for (BufferedImage result : results) {
+            Assert.assertSame(results[0], result);
+        }
+        Assert.assertEquals(0, cache.stats().entries());
+
+        // 끝난 뒤의 요청은 다시 디코딩한다
+        cache.get(logo, 150, new CountingLoader());
+        Assert.assertEquals(2, cache.stats().misses());
+    }
+
+    private static File tempFile(String prefix) throws IOException {
+        File f = File.createTempFile(prefix, ".png");
+        f.deleteOnExit();
+        return f;
+    }
+
+    private static class CountingLoader implements DecodedImageCache.Loader {
+        int count;
+
+        public BufferedImage load() {
+            count++;
+            return new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        }
+    }
+}
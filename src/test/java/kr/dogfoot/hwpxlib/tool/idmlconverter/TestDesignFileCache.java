@@ -0,0 +1,118 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.imageinserter.DesignFileCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+
+public class TestDesignFileCache {
+
+    @Test
+    public void testConvertedPngReusedAcrossInstances() throws Exception {
+        File dir = Files.createTempDirectory("design_cache_test").toFile();
+        File cacheDir = new File(dir, "cache");
+        File links = new File(dir, "Links");
+        links.mkdirs();
+        try {
+            File tiff = new File(dir, "logo.tif");
+            writeTiff(tiff, 0xff336699);
+            File linkedTiff = new File(links, "logo.tif");
+            Files.copy(tiff.toPath(), linkedTiff.toPath());
+
+            DesignFileCache first = new DesignFileCache(cacheDir, 2);
+            first.prefetch(linkedTiff, 300);
+            byte[] png = first.convertToPng(linkedTiff, 300);
+            Assert.assertEquals(1, first.conversions());
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+            Assert.assertEquals(0xff336699, decoded.getRGB(3, 3));
+            first.shutdown();
+
+            // 이름이 다르더라도 내용이 같으면 캐시 적중
+            DesignFileCache second = new DesignFileCache(cacheDir, 1);
+            Assert.assertArrayEquals(png, second.convertToPng(tiff, 72));
+            Assert.assertEquals(1, second.hits());
+            Assert.assertEquals(0, second.conversions());
+
+            // 원본 옆에는 캐시 파일을 쓰지 않는다
+            Assert.assertEquals(1, links.list().length);
+
+            // 내용이 바뀌면 다시 변환
+            writeTiff(tiff, 0xffcc0000);
+            byte[] changed = second.convertToPng(tiff, 72);
+            Assert.assertEquals(1, second.conversions());
+            Assert.assertEquals(0xffcc0000, ImageIO.read(new ByteArrayInputStream(changed)).getRGB(0, 0));
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void testFinishedPrefetchLeavesInFlight() throws Exception {
+        File dir = Files.createTempDirectory("design_cache_test").toFile();
+        try {
+            File tiff = new File(dir, "logo.tif");
+            writeTiff(tiff, 0xff336699);
+            DesignFileCache cache = new DesignFileCache(new File(dir, "cache"), 1);
+            cache.prefetch(tiff, 300);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (cache.inFlight() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, cache.inFlight());
+
+            cache.convertToPng(tiff, 300);
+            Assert.assertEquals(1, cache.hits());   // 결과는 디스크 캐시에서 읽는다
+            cache.shutdown();
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesTrimmed() throws Exception {
+        File dir = Files.createTempDirectory("design_cache_test").toFile();
+        File cacheDir = new File(dir, "cache");
+        try {
+            File a = new File(dir, "a.tif");
+            File b = new File(dir, "b.tif");
+            writeTiff(a, 0xff336699);
+            writeTiff(b, 0xffcc0000);
+            DesignFileCache cache = new DesignFileCache(cacheDir, 1, 1);
+            cache.convertToPng(a, 72);
+            Assert.assertEquals(1, cacheDir.list().length);
+            File entryA = cacheDir.listFiles()[0];
+            entryA.setLastModified(System.currentTimeMillis() - 60000);
+
+            cache.convertToPng(b, 72);
+            Assert.assertFalse(entryA.exists());
+            Assert.assertEquals(1, cacheDir.list().length);
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void writeTiff(File file, int argb) throws Exception {
+        BufferedImage img = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                img.setRGB(x, y, argb);
+            }
+        }
+        Assert.assertTrue("TIFF writer required", ImageIO.write(img, "tiff", file));
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,36 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLFormatPool;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLRunFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIDMLFormatPool {
+
+    @Test
+    public void testRunFormatsAreShared() {
+        IDMLFormatPool pool = new IDMLFormatPool();
+        IDMLRunFormat a = pool.runFormat("CharacterStyle/A", "Noto", 10.0, "Color/Black", "Bold", null);
+        IDMLRunFormat b = pool.runFormat(new String("CharacterStyle/A"), new String("Noto"), 10.0,
+                new String("Color/Black"), new String("Bold"), null);
+        IDMLRunFormat c = pool.runFormat("CharacterStyle/A", "Noto", 11.0, "Color/Black", "Bold", null);
+
+        Assert.assertSame(a, b);
+        Assert.assertNotSame(a, c);
+        Assert.assertEquals(2, pool.runFormatCount());
+
+        // 서로 다른 레코드도 같은 문자열 인스턴스를 공유한다
+        Assert.assertSame(a.fontFamily(), c.fontFamily());
+        Assert.assertSame(a.fillColor(), c.fillColor());
+    }
+
+    @Test
+    public void testInternStringsAndNumbers() {
+        IDMLFormatPool pool = new IDMLFormatPool();
+        String first = pool.intern(new String("Paragraph/Body"));
+        Assert.assertSame(first, pool.intern(new String("Paragraph/Body")));
+        Assert.assertSame(pool.intern(Double.valueOf(12.5)), pool.intern(Double.valueOf(12.5)));
+        Assert.assertNull(pool.intern((String) null));
+        Assert.assertNull(pool.intern((Double) null));
+    }
+}
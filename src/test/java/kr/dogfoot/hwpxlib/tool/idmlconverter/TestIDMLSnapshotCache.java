@@ -0,0 +1,200 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSnapshotCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class TestIDMLSnapshotCache {
+
+    private File workDir;
+    private File cacheRoot;
+
+    @Before
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("snapshot-cache-test").toFile();
+        cacheRoot = new File(workDir, "cache");
+    }
+
+    @After
+    public void tearDown() {
+        deleteDirectory(workDir);
+    }
+
+    @Test
+    public void testSecondLoadHitsSnapshot() throws Exception {
+        File idml = createIdml("a", 2);
+        IDMLSnapshotCache cache = new IDMLSnapshotCache(cacheRoot);
+
+        IDMLDocument first = cache.load(idml);
+        Assert.assertEquals(2, first.totalPageCount());
+        File entry = onlyEntry();
+        Assert.assertEquals(new File(entry, "idml").getAbsolutePath(), first.basePath());
+        Assert.assertNull(first.tempDir());
+
+        // 적중하면 항목을 다시 만들지 않으므로 표식 파일이 남는다
+        File marker = new File(entry, "marker");
+        Assert.assertTrue(marker.createNewFile());
+        IDMLDocument second = cache.load(idml);
+        Assert.assertEquals(2, second.totalPageCount());
+        Assert.assertEquals(first.basePath(), second.basePath());
+        Assert.assertTrue(marker.exists());
+    }
+
+    @Test
+    public void testCorruptOrStaleSnapshotIsReparsed() throws Exception {
+        File idml = createIdml("a", 3);
+        IDMLSnapshotCache cache = new IDMLSnapshotCache(cacheRoot);
+        cache.load(idml);
+        File snapshot = new File(onlyEntry(), "snapshot.bin");
+
+        Files.write(snapshot.toPath(), new byte[]{1, 2, 3});
+        Assert.assertEquals(3, cache.load(idml).totalPageCount());
+
+        // 다른 형식의 객체가 들어 있어도 다시 파싱한다
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(snapshot));
+        out.writeObject("not a document");
+        out.close();
+        Assert.assertEquals(3, cache.load(idml).totalPageCount());
+
+        // 다시 쓴 스냅샷은 적중한다
+        File marker = new File(onlyEntry(), "marker");
+        Assert.assertTrue(marker.createNewFile());
+        Assert.assertEquals(3, cache.load(idml).totalPageCount());
+        Assert.assertTrue(marker.exists());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedEntries() throws Exception {
+        File a = createIdml("a", 1);
+        File b = createIdml("b", 1);
+        IDMLSnapshotCache cache = new IDMLSnapshotCache(cacheRoot, 1);
+
+        cache.load(a).cleanup();
+        File entryA = onlyEntry();
+        IDMLDocument docB = cache.load(b);
+
+        // 상한이 항목 하나보다 작으면 방금 만든 항목만 남는다
+        File entryB = onlyEntry();
+        Assert.assertFalse(entryA.exists());
+        Assert.assertEquals(new File(entryB, "idml").getAbsolutePath(), docB.basePath());
+    }
+
+    @Test
+    public void testEntryInUseIsNotEvicted() throws Exception {
+        File a = createIdml("a", 1);
+        File b = createIdml("b", 1);
+        IDMLSnapshotCache cache = new IDMLSnapshotCache(cacheRoot, 1);
+
+        // a를 변환하는 동안 b를 로드해도 a의 basePath는 남는다
+        IDMLDocument docA = cache.load(a);
+        IDMLDocument docB = cache.load(b);
+        Assert.assertTrue(new File(docA.basePath(), "designmap.xml").isFile());
+        Assert.assertTrue(new File(docB.basePath(), "designmap.xml").isFile());
+
+        // 다 쓰고 나면 다음 정리 때 지운다
+        docA.cleanup();
+        docB.cleanup();
+        cache.load(createIdml("c", 1)).cleanup();
+        Assert.assertFalse(new File(docA.basePath()).exists());
+        Assert.assertFalse(new File(docB.basePath()).exists());
+    }
+
+    @Test
+    public void testSnapshotWithForeignClassIsReparsed() throws Exception {
+        File idml = createIdml("a", 2);
+        IDMLSnapshotCache cache = new IDMLSnapshotCache(cacheRoot);
+        cache.load(idml).cleanup();
+        File snapshot = new File(onlyEntry(), "snapshot.bin");
+
+        // 모델이 아닌 직렬화 가능 클래스는 역직렬화하지 않는다 (readObject가 불리지 않는다)
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(snapshot));
+        out.writeObject(new Probe());
+        out.close();
+        Probe.deserialized = false;
+        IDMLDocument doc = cache.load(idml);
+        Assert.assertEquals(2, doc.totalPageCount());
+        Assert.assertFalse(Probe.deserialized);
+        doc.cleanup();
+    }
+
+    static class Probe implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+        static volatile boolean deserialized;
+
+        private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            deserialized = true;
+        }
+    }
+
+    @Test
+    public void testFallsBackWithoutCacheDirectory() throws Exception {
+        File idml = createIdml("a", 2);
+        Assert.assertTrue(cacheRoot.createNewFile());  // 디렉토리를 만들 수 없다
+
+        IDMLDocument doc = new IDMLSnapshotCache(cacheRoot).load(idml);
+        Assert.assertEquals(2, doc.totalPageCount());
+        Assert.assertNotNull(doc.tempDir());
+        doc.cleanup();
+    }
+
+    private File onlyEntry() {
+        List<File> entries = new ArrayList<File>();
+        File[] children = cacheRoot.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    entries.add(child);
+                }
+            }
+        }
+        Assert.assertEquals(1, entries.size());
+        return entries.get(0);
+    }
+
+    private File createIdml(String name, int pages) throws Exception {
+        File file = new File(workDir, name + ".idml");
+        ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file));
+        zos.putNextEntry(new ZipEntry("designmap.xml"));
+        zos.write(("<Document xmlns:idPkg=\"http://ns.adobe.com/AdobeInDesign/idml/1.0/packaging\" Self=\"d\">"
+                + "<idPkg:Spread src=\"Spreads/Spread_" + name + ".xml\"/></Document>").getBytes("UTF-8"));
+        zos.closeEntry();
+        zos.putNextEntry(new ZipEntry("Spreads/Spread_" + name + ".xml"));
+        StringBuilder spread = new StringBuilder("<Spread Self=\"" + name + "\">");
+        for (int i = 0; i < pages; i++) {
+            spread.append("<Page Self=\"").append(name).append(i)
+                    .append("\" GeometricBounds=\"0 0 841.88 595.27\"/>");
+        }
+        spread.append("</Spread>");
+        zos.write(spread.toString().getBytes("UTF-8"));
+        zos.closeEntry();
+        zos.close();
+        return file;
+    }
+
+    private static void deleteDirectory(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isDirectory()) {
+                    deleteDirectory(f);
+                } else {
+                    f.delete();
+                }
+            }
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,225 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLGeometry;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLImageFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLTextFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLVectorShape;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+public class TestIDMLSpread {
+    private static final double[] IDENTITY = {1, 0, 0, 1, 0, 0};
+
+    private IDMLSpread spread;
+    private IDMLPage left;
+    private IDMLPage right;
+
+    @Before
+    public void setUp() {
+        spread = new IDMLSpread();
+        spread.selfId("sp1");
+        // 좌우 페이지: 스프레드 중심(0,0) 기준 [-600,0] / [0,600] x [-400,400]
+        left = page("p1", 1, -600);
+        right = page("p2", 2, 0);
+        spread.addPage(left);
+        spread.addPage(right);
+    }
+
+    @Test
+    public void testFramesAssignedByCenter() {
+        spread.addTextFrame(textFrame("t1", -500, -300, 100, 100, "s1"));
+        spread.addTextFrame(textFrame("t2", 100, 100, 100, 100, "s1"));
+        spread.addTextFrame(textFrame("t3", -50, 0, 80, 40, "s2"));     // 중심 x=-10 → 왼쪽
+        spread.addTextFrame(textFrame("t4", 700, 0, 100, 100, "s3"));   // 대지
+
+        assertIds(spread.getTextFramesOnPage(left), "t1", "t3");
+        assertIds(spread.getTextFramesOnPage(right), "t2");
+    }
+
+    @Test
+    public void testIndexInvalidatedOnAdd() {
+        spread.addVectorShape(shape("v1", 50, 50, 0, false));
+        Assert.assertEquals(1, spread.getVectorShapesOnPage(right).size());
+
+        spread.addVectorShape(shape("v2", 60, 60, 0, false));
+        Assert.assertEquals(2, spread.getVectorShapesOnPage(right).size());
+    }
+
+    @Test
+    public void testFindTextFrameByIdFollowsListChanges() {
+        IDMLTextFrame t1 = textFrame("t1", 0, 0, 10, 10, "s1");
+        spread.addTextFrame(t1);
+        Assert.assertSame(t1, spread.findTextFrameById("t1"));
+
+        // 목록을 직접 바꿔도 (크기가 같아도) 새 프레임을 찾는다
+        IDMLTextFrame t2 = textFrame("t2", 0, 0, 10, 10, "s1");
+        spread.textFrames().set(0, t2);
+        Assert.assertNull(spread.findTextFrameById("t1"));
+        Assert.assertSame(t2, spread.findTextFrameById("t2"));
+
+        spread.textFrames().remove(0);
+        spread.textFrames().add(t1);
+        Assert.assertNull(spread.findTextFrameById("t2"));
+        Assert.assertSame(t1, spread.findTextFrameById("t1"));
+    }
+
+    @Test
+    public void testListIteratorSetKeepsIterating() {
+        spread.addTextFrame(textFrame("t1", 0, 0, 10, 10, "s1"));
+        spread.addTextFrame(textFrame("t2", 0, 0, 10, 10, "s1"));
+        Assert.assertNotNull(spread.findTextFrameById("t1"));
+
+        ListIterator<IDMLTextFrame> it = spread.textFrames().listIterator();
+        it.next();
+        it.set(textFrame("t3", 0, 0, 10, 10, "s1"));
+        Assert.assertEquals("t2", it.next().selfId());
+        Assert.assertNull(spread.findTextFrameById("t1"));
+        Assert.assertNotNull(spread.findTextFrameById("t3"));
+
+        spread.textFrames().subList(0, 1).set(0, textFrame("t4", 0, 0, 10, 10, "s1"));
+        Assert.assertNotNull(spread.findTextFrameById("t4"));
+    }
+
+    @Test
+    public void testPageIndexFollowsReplacement() {
+        spread.addTextFrame(textFrame("t1", 100, 100, 100, 100, "s1"));
+        spread.addVectorShape(shape("v1", 50, 50, 0, false));
+        spread.addImageFrame(imageFrame("i1", 50, 50));
+        Assert.assertEquals(1, spread.getTextFramesOnPage(right).size());
+        Assert.assertEquals(1, spread.getVectorShapesOnPage(right).size());
+        Assert.assertEquals(1, spread.getImageFramesOnPage(right).size());
+
+        // 크기가 같아도 바뀐 항목을 반영한다
+        spread.textFrames().set(0, textFrame("t2", -500, 100, 100, 100, "s1"));
+        spread.vectorShapes().set(0, shape("v2", -300, 0, 0, false));
+        spread.imageFrames().remove(0);
+        spread.imageFrames().add(imageFrame("i2", -300, 0));
+        assertIds(spread.getTextFramesOnPage(left), "t2");
+        Assert.assertEquals("v2", spread.getVectorShapesOnPage(left).get(0).selfId());
+        Assert.assertEquals("i2", spread.getImageFramesOnPage(left).get(0).selfId());
+        Assert.assertTrue(spread.getTextFramesOnPage(right).isEmpty());
+        Assert.assertTrue(spread.getVectorShapesOnPage(right).isEmpty());
+        Assert.assertTrue(spread.getImageFramesOnPage(right).isEmpty());
+    }
+
+    @Test
+    public void testRenderableAndInlineSeparation() {
+        spread.addVectorShape(shape("v1", 50, 50, 3, false));
+        spread.addVectorShape(shape("v2", 60, 60, 1, false));
+        spread.addVectorShape(shape("v3", 70, 70, 2, true));
+
+        List<IDMLSpread.RenderableItem> items = spread.getRenderableItemsOnPage(right);
+        Assert.assertEquals(2, items.size());
+        Assert.assertEquals("v2", items.get(0).vectorShape().selfId());
+        Assert.assertEquals("v1", items.get(1).vectorShape().selfId());
+
+        List<IDMLVectorShape> inline = spread.getInlineVectorShapesOnPage(right);
+        Assert.assertEquals(1, inline.size());
+        Assert.assertEquals("v3", inline.get(0).selfId());
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextDouble() * 1600 - 800;
+            double y = random.nextDouble() * 1000 - 500;
+            spread.addVectorShape(shape("v" + i, x, y, i, false));
+        }
+
+        for (IDMLPage page : new IDMLPage[]{left, right}) {
+            List<IDMLVectorShape> indexed = spread.getVectorShapesOnPage(page);
+            int k = 0;
+            for (IDMLVectorShape shape : spread.vectorShapes()) {
+                if (IDMLGeometry.isFrameOnPage(shape.geometricBounds(), shape.itemTransform(),
+                        page.geometricBounds(), page.itemTransform())) {
+                    Assert.assertSame(shape, indexed.get(k++));
+                }
+            }
+            Assert.assertEquals(k, indexed.size());
+        }
+    }
+
+    @Test
+    public void testFindPageContaining() {
+        Assert.assertSame(left, spread.findPageContaining(-300, 0));
+        Assert.assertSame(right, spread.findPageContaining(300, 0));
+        Assert.assertNull(spread.findPageContaining(900, 0));
+    }
+
+    @Test
+    public void testDocumentIndex() {
+        IDMLTextFrame t1 = textFrame("t1", 100, 100, 100, 100, "s1");
+        IDMLTextFrame t2 = textFrame("t2", -500, 100, 100, 100, "s1");
+        // 문서 순서는 t1, t2이지만 연결 순서는 t2 → t1
+        t2.nextTextFrame("t1");
+        t1.previousTextFrame("t2");
+        spread.addTextFrame(t1);
+        spread.addTextFrame(t2);
+
+        IDMLDocument doc = new IDMLDocument();
+        doc.addSpread(spread);
+
+        Assert.assertSame(t1, doc.index().textFrame("t1"));
+        Assert.assertNull(doc.index().textFrame("n"));
+        Assert.assertSame(spread, doc.index().spreadOf("t2"));
+        Assert.assertSame(right, doc.index().pageOf("t1"));
+        Assert.assertSame(left, doc.index().pageOf("t2"));
+
+        List<IDMLTextFrame> chain = doc.index().storyFrames("s1");
+        Assert.assertEquals(2, chain.size());
+        Assert.assertSame(t2, chain.get(0));
+        Assert.assertSame(t1, chain.get(1));
+    }
+
+    private static IDMLPage page(String id, int number, double x) {
+        IDMLPage page = new IDMLPage();
+        page.selfId(id);
+        page.pageNumber(number);
+        page.geometricBounds(new double[]{0, 0, 800, 600});
+        page.itemTransform(new double[]{1, 0, 0, 1, x, -400});
+        return page;
+    }
+
+    private static IDMLTextFrame textFrame(String id, double x, double y, double w, double h, String storyId) {
+        IDMLTextFrame frame = new IDMLTextFrame();
+        frame.selfId(id);
+        frame.parentStoryId(storyId);
+        frame.geometricBounds(new double[]{y, x, y + h, x + w});
+        frame.itemTransform(IDENTITY);
+        return frame;
+    }
+
+    private static IDMLImageFrame imageFrame(String id, double cx, double cy) {
+        IDMLImageFrame frame = new IDMLImageFrame();
+        frame.selfId(id);
+        frame.geometricBounds(new double[]{cy - 5, cx - 5, cy + 5, cx + 5});
+        frame.itemTransform(IDENTITY);
+        return frame;
+    }
+
+    private static IDMLVectorShape shape(String id, double cx, double cy, int zOrder, boolean inline) {
+        IDMLVectorShape shape = new IDMLVectorShape();
+        shape.selfId(id);
+        shape.geometricBounds(new double[]{cy - 5, cx - 5, cy + 5, cx + 5});
+        shape.itemTransform(IDENTITY);
+        shape.zOrder(zOrder);
+        shape.isInline(inline);
+        return shape;
+    }
+
+    private static void assertIds(List<IDMLTextFrame> frames, String... ids) {
+        Assert.assertEquals(ids.length, frames.size());
+        for (int i = 0; i < ids.length; i++) {
+            Assert.assertEquals(ids[i], frames.get(i).selfId());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLCharacterRun;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLFormatPool;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLRunFormat;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLTextBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIDMLTextBuffer {
+
+    @Test
+    public void testRunsSliceStoryBuffer() {
+        IDMLTextBuffer buffer = new IDMLTextBuffer(4);
+        int first = buffer.append("가나다");
+        int second = buffer.append("");
+        int third = buffer.append("Hello, world");
+        buffer.trimToSize();
+
+        Assert.assertEquals(0, first);
+        Assert.assertEquals(3, second);
+        Assert.assertEquals(3, third);
+        Assert.assertEquals(15, buffer.length());
+
+        IDMLCharacterRun a = run(buffer, first, 3);
+        IDMLCharacterRun b = run(buffer, third, 12);
+        Assert.assertEquals("가나다", a.content());
+        Assert.assertEquals("Hello, world", b.content());
+        Assert.assertEquals(12, b.contentLength());
+
+        StringBuilder sb = new StringBuilder("[");
+        a.appendContentTo(sb);
+        b.appendContentTo(sb);
+        Assert.assertEquals("[가나다Hello, world", sb.toString());
+    }
+
+    @Test
+    public void testContentFollowsRange() {
+        IDMLTextBuffer buffer = IDMLTextBuffer.of("abcdef");
+        Assert.assertEquals(6, buffer.length());
+        IDMLCharacterRun run = run(buffer, 2, 3);
+        Assert.assertEquals("cde", run.content());
+
+        // 구간을 바꾸면 새 내용을 만든다
+        run.content(buffer, 0, 2);
+        Assert.assertEquals("ab", run.content());
+
+        run.content("xyz");
+        Assert.assertEquals("xyz", run.content());
+        run.content((String) null);
+        Assert.assertNull(run.content());
+        Assert.assertFalse(run.hasContent());
+        Assert.assertEquals(0, run.contentLength());
+    }
+
+    @Test
+    public void testAbsorbAdjacentRunsWithSameFormat() {
+        IDMLFormatPool pool = new IDMLFormatPool();
+        IDMLRunFormat body = pool.runFormat(null, "Noto", 10.0, null, null, null);
+        IDMLRunFormat bold = pool.runFormat(null, "Noto", 10.0, null, "Bold", null);
+        IDMLTextBuffer buffer = new IDMLTextBuffer();
+        buffer.append("ab\ncdef");
+
+        IDMLCharacterRun a = run(buffer, 0, 3);
+        IDMLCharacterRun b = run(buffer, 3, 2);
+        IDMLCharacterRun c = run(buffer, 5, 1);
+        IDMLCharacterRun d = run(buffer, 6, 2);
+        a.format(body);
+        b.format(pool.runFormat(null, "Noto", 10.0, null, null, null));
+        c.format(body);
+        d.format(bold);
+
+        // 줄바꿈으로 끝나는 런 뒤에는 합치지 않는다
+        Assert.assertTrue(a.sameFormat(b));
+        Assert.assertFalse(a.absorb(b));
+        Assert.assertTrue(b.absorb(c));
+        Assert.assertEquals("cde", b.content());
+        Assert.assertFalse(b.absorb(d));
+
+        // 풀을 거치지 않은 서식은 내용이 같아도 합치지 않는다
+        IDMLCharacterRun e = run(buffer, 6, 2);
+        e.format(IDMLRunFormat.EMPTY.withFontStyle("Bold").withFontFamily("Noto").withFontSize(10.0));
+        Assert.assertFalse(d.sameFormat(e));
+    }
+
+    private static IDMLCharacterRun run(IDMLTextBuffer buffer, int offset, int length) {
+        IDMLCharacterRun run = new IDMLCharacterRun();
+        run.content(buffer, offset, length);
+        return run;
+    }
+}
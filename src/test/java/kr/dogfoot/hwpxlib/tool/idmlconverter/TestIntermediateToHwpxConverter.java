@@ -1,13 +1,31 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter;
 
 import kr.dogfoot.hwpxlib.object.HWPXFile;
+import kr.dogfoot.hwpxlib.object.content.context_hpf.Meta;
 import kr.dogfoot.hwpxlib.object.content.section_xml.SectionXMLFile;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Para;
+import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Run;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IntermediateToHwpxConverter;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.*;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
+import kr.dogfoot.hwpxlib.tool.util.SectionOrder;
+import kr.dogfoot.hwpxlib.writer.HWPXWriter;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
 public class TestIntermediateToHwpxConverter {
 
     // ── 헬퍼 ──
@@ -342,4 +360,265 @@ public class TestIntermediateToHwpxConverter {
         Assert.assertTrue(hwpx.headerXMLFile().refList().styles().count() > 0);
         Assert.assertTrue(hwpx.sectionXMLFileList().count() > 0);
     }
+
+    // ── 테스트: section 병렬 생성 ──
+
+    @Test
+    public void testConvert_ParallelSections() throws ConvertException {
+        IntermediateDocument doc = createMinimalDoc();
+        for (int i = 1; i <= 40; i++) {
+            IntermediatePage page = createPageWithText(i, "Page " + i);
+            // 런 오버라이드 → 페이지마다 CharPr 추가
+            IntermediateTextRun run = page.frames().get(0).paragraphs().get(0).runs().get(0);
+            run.bold(true);
+            run.fontSizeHwpunits(1000 + i);
+            // 페이지마다 새 이미지, 세 페이지마다 같은 이미지 → BinData 등록
+            page.addFrame(createImageFrame(i % 3 == 0 ? 0 : i));
+            doc.addPage(page);
+        }
+
+        ConvertResult sequential = IntermediateToHwpxConverter.convert(doc, 1);
+        ConvertResult parallel = IntermediateToHwpxConverter.convert(doc, 4);
+
+        Assert.assertEquals(sequential.pagesConverted(), parallel.pagesConverted());
+        Assert.assertEquals(sequential.framesConverted(), parallel.framesConverted());
+        HWPXFile expected = sequential.hwpxFile();
+        HWPXFile actual = parallel.hwpxFile();
+        Assert.assertEquals(expected.sectionXMLFileList().count(), actual.sectionXMLFileList().count());
+        Assert.assertEquals(expected.contentHPFFile().manifest().count(), actual.contentHPFFile().manifest().count());
+        Assert.assertEquals(expected.headerXMLFile().refList().charProperties().count(),
+                actual.headerXMLFile().refList().charProperties().count());
+
+        // manifest (BinData, section) 순서와 항목 ID는 완료 순서가 아니라 section 순서를 따른다
+        for (int i = 0; i < expected.contentHPFFile().manifest().count(); i++) {
+            Assert.assertEquals(expected.contentHPFFile().manifest().get(i).id(),
+                    actual.contentHPFFile().manifest().get(i).id());
+            Assert.assertEquals(expected.contentHPFFile().manifest().get(i).href(),
+                    actual.contentHPFFile().manifest().get(i).href());
+        }
+        for (int i = 0; i < expected.headerXMLFile().refList().charProperties().count(); i++) {
+            Assert.assertEquals(expected.headerXMLFile().refList().charProperties().get(i).height(),
+                    actual.headerXMLFile().refList().charProperties().get(i).height());
+        }
+        Assert.assertEquals(sequential.imagesShared(), parallel.imagesShared());
+
+        // header 목록 순서와 ID 순서가 일치해야 한다
+        for (int i = 0; i < actual.headerXMLFile().refList().charProperties().count(); i++) {
+            Assert.assertEquals(String.valueOf(i), actual.headerXMLFile().refList().charProperties().get(i).id());
+        }
+        // section 순서는 페이지 순서를 따른다
+        int sectionIndex = 0;
+        for (int i = 0; i < actual.contentHPFFile().spine().count(); i++) {
+            String idref = actual.contentHPFFile().spine().get(i).idref();
+            if (idref.startsWith("section")) {
+                Assert.assertEquals("section" + sectionIndex++, idref);
+            }
+        }
+        Assert.assertEquals(40, sectionIndex);
+    }
+
+    @Test
+    public void testConvert_ReproducibleIds() throws ConvertException {
+        IntermediateDocument doc = createMinimalDoc();
+        for (int i = 1; i <= 12; i++) {
+            doc.addPage(createPageWithText(i, "Page " + i));
+        }
+
+        List<String> first = paraIds(IntermediateToHwpxConverter.convert(doc, 1).hwpxFile());
+        List<String> second = paraIds(IntermediateToHwpxConverter.convert(doc, 1).hwpxFile());
+        List<String> parallel = paraIds(IntermediateToHwpxConverter.convert(doc, 4).hwpxFile());
+
+        // 변환마다 같은 ID, 스레드 수와 무관
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first, parallel);
+        Assert.assertEquals(first.size(), new HashSet<String>(first).size());
+    }
+
+    @Test
+    public void testConvert_ReproducibleBytes() throws Exception {
+        IntermediateDocument doc = createMinimalDoc();
+        for (int i = 1; i <= 30; i++) {
+            IntermediatePage page = createPageWithText(i, "Page " + i);
+            IntermediateTextRun run = page.frames().get(0).paragraphs().get(0).runs().get(0);
+            run.italic(i % 2 == 0);
+            run.fontSizeHwpunits(1200 + i % 5);
+            page.addFrame(createImageFrame(i % 4 == 0 ? 0 : i));
+            doc.addPage(page);
+        }
+
+        // header.xml, content.hpf, section XML 모두 스레드 수와 무관하게 같은 바이트 (생성 시각 메타데이터 제외)
+        Map<String, byte[]> sequential = zipEntries(
+                HWPXWriter.toBytes(withoutDates(IntermediateToHwpxConverter.convert(doc, 1).hwpxFile())));
+        for (int round = 0; round < 3; round++) {
+            Map<String, byte[]> parallel = zipEntries(
+                    HWPXWriter.toBytes(withoutDates(IntermediateToHwpxConverter.convert(doc, 4).hwpxFile())));
+            Assert.assertEquals(sequential.keySet(), parallel.keySet());
+            for (String name : sequential.keySet()) {
+                Assert.assertArrayEquals(name, sequential.get(name), parallel.get(name));
+            }
+        }
+        Assert.assertTrue(sequential.containsKey("Contents/header.xml"));
+        Assert.assertTrue(sequential.containsKey("Contents/section29.xml"));
+    }
+
+    @Test(timeout = 30000)
+    public void testConvert_SectionsBuildConcurrently() throws Exception {
+        IntermediateDocument doc = createMinimalDoc();
+        final CountDownLatch secondRegistered = new CountDownLatch(1);
+        final boolean[] overlapped = new boolean[1];
+
+        // 첫 section의 이미지는 둘째 section이 새 이미지를 등록할 때까지 기다린다 (section을 차례로 만들면 멈춘다)
+        IntermediatePage first = createPageWithText(1, "Page 1");
+        IntermediateFrame gate = createImageFrame(1);
+        gate.image(new IntermediateImage() {
+            @Override
+            public boolean hasData() {
+                return true;
+            }
+
+            @Override
+            public byte[] data() throws IOException {
+                try {
+                    overlapped[0] = secondRegistered.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return new byte[]{(byte) 0x89, 'P', 'N', 'G', 1};
+            }
+        });
+        first.addFrame(gate);
+        doc.addPage(first);
+
+        IntermediatePage second = createPageWithText(2, "Page 2");
+        second.frames().get(0).paragraphs().get(0).runs().get(0).bold(true);
+        second.addFrame(createImageFrame(2));
+        IntermediateFrame signal = createImageFrame(3);
+        signal.zOrder(1);
+        signal.image(new IntermediateImage() {
+            @Override
+            public boolean hasData() {
+                return true;
+            }
+
+            @Override
+            public byte[] data() {
+                secondRegistered.countDown();
+                return new byte[]{(byte) 0x89, 'P', 'N', 'G', 3};
+            }
+        });
+        second.addFrame(signal);
+        doc.addPage(second);
+
+        ConvertResult result = IntermediateToHwpxConverter.convert(doc, 2);
+
+        Assert.assertTrue("sections were built one after another", overlapped[0]);
+        // 임시 ID는 모두 실제 ID로 바뀐다
+        HWPXFile hwpx = result.hwpxFile();
+        int charPrCount = hwpx.headerXMLFile().refList().charProperties().count();
+        for (SectionXMLFile section : hwpx.sectionXMLFileList().items()) {
+            for (Para para : section.paras()) {
+                for (Run run : para.runs()) {
+                    Assert.assertTrue(run.charPrIDRef(), Integer.parseInt(run.charPrIDRef()) < charPrCount);
+                }
+            }
+        }
+        String xml = new String(zipEntries(HWPXWriter.toBytes(hwpx)).get("Contents/section1.xml"), "UTF-8");
+        Assert.assertFalse(xml, xml.contains("\"?"));
+        Assert.assertEquals(3, result.imagesConverted());
+    }
+
+    @Test(timeout = 30000)
+    public void testIdOverflowFollowsSectionOrder() throws Exception {
+        final IdAllocator ids = new IdAllocator();
+        final SectionOrder order = new SectionOrder();
+        ids.sectionOrder(order);
+        IdAllocator first = ids.forSection(0);
+        final IdAllocator second = ids.forSection(1);
+
+        // 뒤 section이 먼저 구간을 다 써도 공용 영역은 앞 section이 끝난 후에 받는다
+        final String[] secondOverflow = new String[1];
+        Thread worker = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    for (long i = 1; i < IdAllocator.SECTION_BLOCK; i++) {
+                        second.nextParaId();
+                    }
+                    secondOverflow[0] = second.nextParaId();
+                } finally {
+                    order.end(1);
+                }
+            }
+        });
+        worker.start();
+        Thread.sleep(200);
+        Assert.assertNull(secondOverflow[0]);
+
+        for (long i = 1; i < IdAllocator.SECTION_BLOCK; i++) {
+            first.nextParaId();
+        }
+        String firstOverflow = first.nextParaId();
+        order.end(0);
+        worker.join();
+
+        Assert.assertEquals(Long.parseLong(firstOverflow) + 1, Long.parseLong(secondOverflow[0]));
+    }
+
+    /**
+     * content.hpf의 생성/수정 시각 메타데이터를 고정값으로 바꾼다 (변환 시각에 따라 달라진다).
+     */
+    private static HWPXFile withoutDates(HWPXFile hwpxFile) {
+        for (Meta meta : hwpxFile.contentHPFFile().metaData().metas()) {
+            if ("CreatedDate".equals(meta.name()) || "ModifiedDate".equals(meta.name())
+                    || "date".equals(meta.name())) {
+                meta.text("");
+            }
+        }
+        return hwpxFile;
+    }
+
+    private static Map<String, byte[]> zipEntries(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new TreeMap<String, byte[]>();
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip));
+        ZipEntry entry;
+        byte[] buffer = new byte[8192];
+        while ((entry = zis.getNextEntry()) != null) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            int n;
+            while ((n = zis.read(buffer)) != -1) {
+                bos.write(buffer, 0, n);
+            }
+            entries.put(entry.getName(), bos.toByteArray());
+        }
+        return entries;
+    }
+
+    private static IntermediateFrame createImageFrame(int seed) {
+        IntermediateFrame frame = new IntermediateFrame();
+        frame.frameId("img_frame_" + seed);
+        frame.frameType("image");
+        frame.x(5669);
+        frame.y(60000);
+        frame.width(20000);
+        frame.height(15000);
+        IntermediateImage image = new IntermediateImage();
+        image.imageId("img_" + seed);
+        image.format("png");
+        image.pixelWidth(8);
+        image.pixelHeight(6);
+        image.displayWidth(20000);
+        image.displayHeight(15000);
+        image.data(new byte[]{(byte) 0x89, 'P', 'N', 'G', (byte) seed, (byte) (seed >> 8)});
+        frame.image(image);
+        return frame;
+    }
+
+    private static List<String> paraIds(HWPXFile hwpxFile) {
+        List<String> ids = new ArrayList<String>();
+        for (SectionXMLFile section : hwpxFile.sectionXMLFileList().items()) {
+            for (Para para : section.paras()) {
+                ids.add(para.id());
+            }
+        }
+        return ids;
+    }
 }
@@ -310,6 +310,173 @@ public class TestJsonSerialization {
         Assert.assertEquals("iVBORw0KGgoAAAANSUhEUg==", img.base64Data());
     }
 
+    @Test
+    public void testImageBlobReferences() throws Exception {
+        byte[] bytes = new byte[]{(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+        IntermediateDocument original = createSampleDocument();
+        original.pages().get(0).frames().get(1).image().data(bytes);
+
+        // 저장소를 지정하면 JSON에는 참조만 남는다
+        MemoryBlobStore blobs = new MemoryBlobStore();
+        String json = JsonSerializer.toJson(original, blobs);
+        Assert.assertFalse(json.contains("\"base64Data\": \""));
+        Assert.assertEquals(1, blobs.size());
+
+        IntermediateImage img = JsonDeserializer.fromJson(json, blobs).pages().get(0).frames().get(1).image();
+        Assert.assertEquals(BlobStore.ref(bytes), img.blobRef());
+        Assert.assertArrayEquals(bytes, img.data());
+
+        // 기본 직렬화는 이식용 인라인 base64
+        String inline = JsonSerializer.toJson(original);
+        IntermediateImage inlined = JsonDeserializer.fromJson(inline).pages().get(0).frames().get(1).image();
+        Assert.assertArrayEquals(bytes, inlined.data());
+
+        // zip 사이드카
+        java.io.File sidecar = java.io.File.createTempFile("intermediate", ".zip");
+        try {
+            ZipBlobStore out = ZipBlobStore.create(sidecar);
+            String zipped = JsonSerializer.toJsonCompact(original, out);
+            out.close();
+            ZipBlobStore in = ZipBlobStore.open(sidecar);
+            try {
+                IntermediateImage fromZip = JsonDeserializer.fromJson(zipped, in)
+                        .pages().get(0).frames().get(1).image();
+                Assert.assertArrayEquals(bytes, fromZip.data());
+            } finally {
+                in.close();
+            }
+        } finally {
+            sidecar.delete();
+        }
+    }
+
+    @Test(expected = ConvertException.class)
+    public void testBlobReferenceWithoutStoreFails() throws Exception {
+        IntermediateDocument original = createSampleDocument();
+        original.pages().get(0).frames().get(1).image().data(new byte[]{1, 2, 3});
+        String json = JsonSerializer.toJson(original, new MemoryBlobStore());
+
+        // 참조만 있는 이미지를 저장소 없이 읽으면 이미지를 조용히 잃지 않고 실패한다
+        JsonDeserializer.fromJson(json);
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        IntermediateDocument original = createSampleDocument();
+        original.addPage(original.pages().get(0));
+
+        // Writer 출력은 압축 직렬화와 같다
+        java.io.StringWriter sw = new java.io.StringWriter();
+        JsonSerializer.write(original, sw);
+        Assert.assertEquals(JsonSerializer.toJsonCompact(original), sw.toString());
+
+        IntermediateDocument restored = JsonDeserializer.read(new java.io.StringReader(sw.toString()));
+        Assert.assertEquals(2, restored.pages().size());
+        Assert.assertEquals("본문 텍스트",
+                restored.pages().get(1).frames().get(0).paragraphs().get(0).runs().get(0).text());
+
+        // 페이지 단위 읽기
+        IntermediatePageReader reader = new IntermediatePageReader(new java.io.StringReader(sw.toString()));
+        try {
+            Assert.assertEquals("1.0", reader.header().version());
+            Assert.assertEquals(0, reader.header().pages().size());
+            Assert.assertFalse(reader.header().fonts().isEmpty());
+
+            IntermediatePage page;
+            int count = 0;
+            while ((page = reader.nextPage()) != null) {
+                Assert.assertEquals(2, page.frames().size());
+                count++;
+            }
+            Assert.assertEquals(2, count);
+            Assert.assertEquals(2, reader.pagesRead());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testStreamingOldFieldOrder() throws Exception {
+        IntermediateDocument original = createSampleDocument();
+        original.addPage(original.pages().get(0));
+        original.useSpreadMode(true);
+        IntermediateSpread spread = new IntermediateSpread();
+        spread.spreadId("sp1");
+        original.addSpread(spread);
+
+        // 이전 버전은 useSpreadMode와 spreads를 pages 뒤에 썼다
+        com.google.gson.JsonObject current = com.google.gson.JsonParser
+                .parseString(JsonSerializer.toJsonCompact(original)).getAsJsonObject();
+        com.google.gson.JsonObject old = new com.google.gson.JsonObject();
+        for (java.util.Map.Entry<String, com.google.gson.JsonElement> e : current.entrySet()) {
+            if (!"useSpreadMode".equals(e.getKey()) && !"spreads".equals(e.getKey())) {
+                old.add(e.getKey(), e.getValue());
+            }
+        }
+        old.add("useSpreadMode", current.get("useSpreadMode"));
+        old.add("spreads", current.get("spreads"));
+
+        IntermediatePageReader reader = new IntermediatePageReader(new java.io.StringReader(old.toString()));
+        try {
+            Assert.assertTrue(reader.header().useSpreadMode());
+            Assert.assertEquals(1, reader.header().spreads().size());
+            Assert.assertEquals("sp1", reader.header().spreads().get(0).spreadId());
+            int count = 0;
+            IntermediatePage page;
+            while ((page = reader.nextPage()) != null) {
+                Assert.assertEquals(2, page.frames().size());
+                count++;
+            }
+            Assert.assertEquals(2, count);
+            Assert.assertEquals(2, reader.pagesRead());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testBinaryRoundtrip() throws Exception {
+        byte[] bytes = new byte[]{(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+        IntermediateDocument original = createSampleDocument();
+        original.pages().get(0).frames().get(1).image().data(bytes);
+        original.addPage(original.pages().get(0));
+        String json = JsonSerializer.toJson(original);
+
+        // JSON → 바이너리 → JSON 무손실
+        byte[] binary = BinarySerializer.toBinary(original);
+        IntermediateDocument restored = BinaryDeserializer.fromBinary(binary);
+        Assert.assertEquals(json, JsonSerializer.toJson(restored));
+        Assert.assertArrayEquals(bytes, restored.pages().get(1).frames().get(1).image().data());
+        Assert.assertTrue(binary.length < JsonSerializer.toJsonCompact(original).length() / 2);
+
+        java.io.ByteArrayOutputStream fromJson = new java.io.ByteArrayOutputStream();
+        BinarySerializer.fromJson(new java.io.StringReader(json), null, fromJson);
+        java.io.StringWriter back = new java.io.StringWriter();
+        BinaryDeserializer.toJson(new java.io.ByteArrayInputStream(fromJson.toByteArray()), back);
+        Assert.assertEquals(JsonSerializer.toJsonCompact(original), back.toString());
+
+        // 페이지 단위 읽기
+        IntermediatePageReader reader = BinaryDeserializer.pageReader(new java.io.ByteArrayInputStream(binary));
+        try {
+            Assert.assertEquals("IDML", reader.header().sourceFormat());
+            Assert.assertEquals("pstyle_0", reader.header().paragraphStyles().get(0).id());
+            int count = 0;
+            IntermediatePage page;
+            while ((page = reader.nextPage()) != null) {
+                Assert.assertArrayEquals(bytes, page.frames().get(1).image().data());
+                count++;
+            }
+            Assert.assertEquals(2, count);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = ConvertException.class)
+    public void testBinaryInvalid() throws Exception {
+        BinaryDeserializer.fromBinary(JsonSerializer.toJsonCompact(createSampleDocument()).getBytes("UTF-8"));
+    }
+
     @Test
     public void testEmptyDocument() throws Exception {
         IntermediateDocument doc = new IntermediateDocument();
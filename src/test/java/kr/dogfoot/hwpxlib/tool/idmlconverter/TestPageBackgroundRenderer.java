@@ -0,0 +1,51 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IDMLPageRenderer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.PageBackgroundRenderer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestPageBackgroundRenderer {
+
+    @Test
+    public void testRastersInFlightAreBounded() throws Exception {
+        IDMLDocument doc = new IDMLDocument();
+        for (int i = 0; i < 10; i++) {
+            IDMLSpread spread = new IDMLSpread();
+            spread.selfId("sp" + i);
+            IDMLPage page = new IDMLPage();
+            page.selfId("p" + i);
+            page.geometricBounds(new double[]{0, 0, 842, 595});
+            page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+            spread.addPage(page);
+            doc.addSpread(spread);
+        }
+
+        ConvertOptions options = ConvertOptions.defaults().vectorDpi(36).renderThreads(2);
+        Assert.assertEquals(4, options.maxRastersInFlight());
+
+        PageBackgroundRenderer renderer = new PageBackgroundRenderer(doc, options);
+        try {
+            for (IDMLSpread spread : doc.spreads()) {
+                renderer.submit(spread, spread.pages().get(0));
+            }
+            Assert.assertEquals(4, renderer.rastersInFlight());
+
+            int remaining = 10;
+            for (IDMLSpread spread : doc.spreads()) {
+                List<IDMLPageRenderer.RenderResult> results = renderer.await(spread, spread.pages().get(0));
+                Assert.assertEquals(1, results.size());
+                remaining--;
+                // 결과를 하나 가져갈 때마다 다음 페이지 하나만 시작한다
+                Assert.assertEquals(Math.min(4, remaining), renderer.rastersInFlight());
+            }
+        } finally {
+            renderer.shutdown();
+        }
+    }
+}
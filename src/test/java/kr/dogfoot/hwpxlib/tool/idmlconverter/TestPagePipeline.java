@@ -0,0 +1,192 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.PagePipeline;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLVectorShape;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class TestPagePipeline {
+
+    private File workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("pipeline-test").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = workDir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        workDir.delete();
+    }
+
+    @Test(timeout = 60000)
+    public void testSameOutputAsThreePhaseConversion() throws Exception {
+        IDMLDocument doc = createDocument(3);
+        File plain = new File(workDir, "plain.hwpx");
+        File pipelined = new File(workDir, "pipelined.hwpx");
+
+        IDMLToHwpxConverter.convert(doc, "test.idml", plain.getPath(),
+                ConvertOptions.defaults().sectionThreads(1), ProgressReporter.NONE);
+        ConvertResult result = IDMLToHwpxConverter.convert(doc, "test.idml", pipelined.getPath(),
+                ConvertOptions.defaults().sectionThreads(1).pipelineDepth(2), ProgressReporter.NONE);
+
+        // 항목 순서는 다르지만 (section을 먼저 쓴다) 이름과 내용은 같다
+        Map<String, byte[]> expected = entries(plain);
+        Map<String, byte[]> actual = entries(pipelined);
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        for (String name : expected.keySet()) {
+            Assert.assertArrayEquals(name, expected.get(name), actual.get(name));
+        }
+        Assert.assertTrue(expected.containsKey("Contents/section2.xml"));
+        Assert.assertNull(result.hwpxFile());
+    }
+
+    @Test(timeout = 60000)
+    public void testIntermediateFailureRemovesOutput() throws Exception {
+        IDMLDocument doc = createDocument(4);
+        // 첫 페이지는 section까지 진행된 후 두 번째 페이지에서 실패한다
+        doc.spreads().get(1).pages().get(0).geometricBounds(null);
+        File output = new File(workDir, "out.hwpx");
+
+        try {
+            IDMLToHwpxConverter.convert(doc, "test.idml", output.getPath(),
+                    ConvertOptions.defaults().sectionThreads(1).pipelineDepth(1), ProgressReporter.NONE);
+            Assert.fail("ConvertException expected");
+        } catch (ConvertException e) {
+            Assert.assertEquals(ConvertException.Phase.PARSING, e.phase());
+        }
+        Assert.assertFalse(output.exists());
+        assertStagesStopped();
+    }
+
+    @Test(timeout = 60000)
+    public void testWriterFailureClosesOutput() throws Exception {
+        IDMLDocument doc = createDocument(4);
+        FailingOutputStream out = new FailingOutputStream("Contents/section1.xml");
+
+        try {
+            PagePipeline.convert(doc, ConvertOptions.defaults().sectionThreads(1).pipelineDepth(1),
+                    "test.idml", out);
+            Assert.fail("ConvertException expected");
+        } catch (ConvertException e) {
+            Assert.assertEquals(ConvertException.Phase.HWPX_GENERATION, e.phase());
+        }
+        Assert.assertTrue(out.closed);
+        assertStagesStopped();
+    }
+
+    private static void assertStagesStopped() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            Assert.assertFalse(thread.getName(), thread.getName().startsWith("idml-pipeline-"));
+        }
+    }
+
+    private static IDMLDocument createDocument(int pageCount) {
+        IDMLDocument doc = new IDMLDocument();
+        for (int i = 0; i < pageCount; i++) {
+            IDMLSpread spread = new IDMLSpread();
+            spread.selfId("sp" + i);
+            IDMLPage page = new IDMLPage();
+            page.selfId("p" + i);
+            page.geometricBounds(new double[]{0, 0, 842, 595});
+            page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+            spread.addPage(page);
+
+            IDMLVectorShape shape = new IDMLVectorShape();
+            shape.selfId("r" + i);
+            shape.shapeType(IDMLVectorShape.ShapeType.RECTANGLE);
+            shape.geometricBounds(new double[]{100, 100, 200 + i * 10, 300});
+            shape.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+            shape.fillColor("Color/Black");
+            spread.addVectorShape(shape);
+            doc.addSpread(spread);
+        }
+        return doc;
+    }
+
+    private static Map<String, byte[]> entries(File zip) throws IOException {
+        Map<String, byte[]> entries = new TreeMap<String, byte[]>();
+        ZipInputStream zis = new ZipInputStream(new FileInputStream(zip));
+        try {
+            ZipEntry entry;
+            byte[] buffer = new byte[8192];
+            while ((entry = zis.getNextEntry()) != null) {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                int n;
+                while ((n = zis.read(buffer)) != -1) {
+                    bos.write(buffer, 0, n);
+                }
+                Assert.assertFalse("duplicate entry " + entry.getName(), entries.containsKey(entry.getName()));
+                entries.put(entry.getName(), bos.toByteArray());
+            }
+        } finally {
+            zis.close();
+        }
+        return entries;
+    }
+
+    /**
+     * 지정한 zip 항목 이름이 쓰이면 실패하는 스트림.
+     */
+    private static class FailingOutputStream extends OutputStream {
+        private final byte[] trigger;
+        private boolean closed;
+
+        FailingOutputStream(String entryName) throws IOException {
+            this.trigger = entryName.getBytes("UTF-8");
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("closed");
+            }
+            if (contains(b, off, len)) {
+                throw new IOException("disk full");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private boolean contains(byte[] b, int off, int len) {
+            outer:
+            for (int i = off; i + trigger.length <= off + len; i++) {
+                for (int j = 0; j < trigger.length; j++) {
+                    if (b[i + j] != trigger[j]) continue outer;
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
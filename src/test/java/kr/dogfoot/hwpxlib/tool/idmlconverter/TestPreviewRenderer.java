@@ -0,0 +1,129 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IDMLPageRenderer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLVectorShape;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestPreviewRenderer {
+
+    @Test
+    public void testPreviewsFitBoxAndStreamInOrder() {
+        IDMLDocument doc = new IDMLDocument();
+        IDMLSpread spread = new IDMLSpread();
+        spread.selfId("sp1");
+        IDMLPage page = new IDMLPage();
+        page.selfId("p1");
+        page.geometricBounds(new double[]{0, 0, 842, 595});
+        page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        spread.addPage(page);
+        spread.addVectorShape(rectangle("r1", 100, 100, 400, 200));
+        doc.addSpread(spread);
+
+        final List<String> order = new ArrayList<String>();
+        final List<IDMLPageRenderer.RenderResult> results = new ArrayList<IDMLPageRenderer.RenderResult>();
+        int count = new IDMLPageRenderer(doc, 300).previewBox(128).renderPreviews(null,
+                new IDMLPageRenderer.PreviewListener() {
+                    public void preview(IDMLPageRenderer.PreviewKind kind, String id, IDMLPage p,
+                                        IDMLPageRenderer.RenderResult result) {
+                        order.add(kind + ":" + id);
+                        results.add(result);
+                    }
+                });
+
+        Assert.assertEquals(2, count);
+        Assert.assertEquals("PAGE:p1", order.get(0));
+        Assert.assertEquals("VECTOR:r1", order.get(1));
+        // 긴 변이 미리보기 크기에 맞춰진다 (300DPI였다면 3508px)
+        Assert.assertEquals(128, results.get(0).pixelHeight());
+        Assert.assertTrue(results.get(1).pixelWidth() <= 128);
+        // 위치 정보는 여전히 points 단위
+        Assert.assertEquals(842, results.get(0).height(), 1e-9);
+    }
+
+    @Test
+    public void testDefaultPreviewBoxDoesNotLeak() throws Exception {
+        IDMLDocument doc = new IDMLDocument();
+        IDMLSpread spread = new IDMLSpread();
+        IDMLPage page = new IDMLPage();
+        page.selfId("p1");
+        page.geometricBounds(new double[]{0, 0, 842, 595});
+        page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        spread.addPage(page);
+        doc.addSpread(spread);
+
+        IDMLPageRenderer renderer = new IDMLPageRenderer(doc, 72);
+        renderer.renderPreviews(null, new IDMLPageRenderer.PreviewListener() {
+            public void preview(IDMLPageRenderer.PreviewKind kind, String id, IDMLPage p,
+                                IDMLPageRenderer.RenderResult result) {
+                Assert.assertEquals(IDMLPageRenderer.DEFAULT_PREVIEW_BOX, result.pixelHeight());
+            }
+        });
+        // 미리보기가 끝나면 원래 해상도로 렌더링한다
+        Assert.assertEquals(842, renderer.renderPageImage(spread, page, null, false).pixelHeight());
+    }
+
+    @Test
+    public void testPageTilesFitPreviewBox() throws Exception {
+        IDMLDocument doc = new IDMLDocument();
+        IDMLSpread spread = new IDMLSpread();
+        IDMLPage page = new IDMLPage();
+        page.selfId("p1");
+        page.geometricBounds(new double[]{0, 0, 842, 595});
+        page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        spread.addPage(page);
+        doc.addSpread(spread);
+
+        List<IDMLPageRenderer.RenderResult> tiles = new IDMLPageRenderer(doc, 300).previewBox(128)
+                .renderPageTiles(spread, page, null, true);
+        Assert.assertEquals(1, tiles.size());
+        Assert.assertEquals(128, tiles.get(0).pixelHeight());
+        Assert.assertEquals(842, tiles.get(0).height(), 1e-6);
+    }
+
+    @Test
+    public void testPreviewStrokeFollowsPreviewScale() throws Exception {
+        IDMLDocument doc = new IDMLDocument();
+        IDMLSpread spread = new IDMLSpread();
+        IDMLPage page = new IDMLPage();
+        page.selfId("p1");
+        page.geometricBounds(new double[]{0, 0, 842, 595});
+        page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        spread.addPage(page);
+        IDMLVectorShape frame = rectangle("r1", 100, 100, 400, 600);
+        frame.fillColor("Swatch/None");
+        frame.strokeColor("Color/Black");
+        frame.strokeWeight(10);
+        spread.addVectorShape(frame);
+        doc.addSpread(spread);
+
+        byte[] png = new IDMLPageRenderer(doc, 300).previewBox(128).renderPage(spread, page, null, false);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        // 미리보기 스케일 128/842에서 10pt 선은 약 1.5px (300DPI 스케일이면 약 42px)
+        int column = image.getWidth() / 2;
+        int inked = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            if ((image.getRGB(column, y) >>> 24) != 0) inked++;
+        }
+        Assert.assertTrue("inked rows: " + inked, inked > 0 && inked <= 6);
+    }
+
+    private static IDMLVectorShape rectangle(String id, double left, double top, double width, double height) {
+        IDMLVectorShape shape = new IDMLVectorShape();
+        shape.selfId(id);
+        shape.shapeType(IDMLVectorShape.ShapeType.RECTANGLE);
+        shape.geometricBounds(new double[]{top, left, top + height, left + width});
+        shape.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        shape.fillColor("Color/Black");
+        return shape;
+    }
+}
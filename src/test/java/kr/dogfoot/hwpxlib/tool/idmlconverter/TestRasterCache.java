@@ -0,0 +1,60 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.object.HWPXFile;
+import kr.dogfoot.hwpxlib.tool.blankfilemaker.BlankFileMaker;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.IDMLPageRenderer;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.RasterCache;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.registry.BinDataRegistry;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLVectorShape;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRasterCache {
+
+    @Test
+    public void testRepeatedShapeRenderedOnce() throws Exception {
+        RasterCache cache = new RasterCache(RasterCache.DEFAULT_BUDGET_BYTES);
+        IDMLPageRenderer renderer = new IDMLPageRenderer(new IDMLDocument(), 150).rasterCache(cache);
+        IDMLPage page = new IDMLPage();
+        page.geometricBounds(new double[]{0, 0, 800, 600});
+        page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+
+        // 같은 장식이 위치만 다르게 두 번 배치됨
+        IDMLPageRenderer.RenderResult first = renderer.renderVectorToPng(ornament(100, 100, "Black"), page);
+        IDMLPageRenderer.RenderResult second = renderer.renderVectorToPng(ornament(300, 420, "Black"), page);
+        Assert.assertSame(first.pngData(), second.pngData());
+        Assert.assertEquals(420 - 4, second.y(), 1e-9);
+        Assert.assertEquals(1, cache.hits());
+
+        // 색이 다르면 다시 렌더링
+        IDMLPageRenderer.RenderResult white = renderer.renderVectorToPng(ornament(100, 100, "Paper"), page);
+        Assert.assertNotSame(first.pngData(), white.pngData());
+        Assert.assertEquals(2, cache.misses());
+
+        // 같은 바이트는 하나의 BinData 항목을 공유한다
+        HWPXFile hwpxFile = BlankFileMaker.make();
+        BinDataRegistry binData = new BinDataRegistry(hwpxFile);
+        String id1 = binData.register(first.pngData(), "png");
+        String id2 = binData.register(second.pngData(), "png");
+        String id3 = binData.register(white.pngData(), "png");
+        Assert.assertEquals(id1, id2);
+        Assert.assertNotEquals(id1, id3);
+        Assert.assertEquals(1, binData.reusedCount());
+    }
+
+    private static IDMLVectorShape ornament(double left, double top, String color) {
+        IDMLVectorShape shape = new IDMLVectorShape();
+        shape.selfId("orn");
+        shape.shapeType(IDMLVectorShape.ShapeType.POLYGON);
+        shape.geometricBounds(new double[]{top, left, top + 40, left + 60});
+        shape.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        shape.addPathPoint(new IDMLVectorShape.PathPoint(left, top + 40, left, top + 40, left + 20, top));
+        shape.addPathPoint(new IDMLVectorShape.PathPoint(left + 60, top + 40, left + 40, top, left + 60, top + 40));
+        shape.fillColor("Color/" + color);
+        shape.strokeColor("Color/Black");
+        shape.strokeWeight(2);
+        return shape;
+    }
+}
@@ -0,0 +1,51 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.RasterEncoder;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.StreamingPngWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+
+public class TestRasterEncoder {
+
+    @Test
+    public void testOpaquePhotoEncodedAsJpeg() throws Exception {
+        BufferedImage photo = noise(200, 150, true);
+
+        RasterEncoder.Encoded encoded = new RasterEncoder().encode(photo);
+        Assert.assertEquals("jpg", encoded.format());
+        Assert.assertEquals(RasterEncoder.ENCODING_JPEG, encoded.encoding());
+        Assert.assertNotNull(ImageIO.read(new ByteArrayInputStream(encoded.data())));
+
+        encoded = new RasterEncoder().jpegForPhotos(false).encode(photo);
+        Assert.assertEquals("png", encoded.format());
+    }
+
+    @Test
+    public void testTransparentRasterStaysPng() throws Exception {
+        BufferedImage overlay = noise(200, 150, false);
+
+        RasterEncoder.Encoded encoded = new RasterEncoder().encode(overlay);
+        Assert.assertEquals("png", encoded.format());
+        Assert.assertEquals(StreamingPngWriter.ENCODING_RGBA, encoded.encoding());
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(encoded.data()));
+        Assert.assertEquals(overlay.getRGB(10, 20), decoded.getRGB(10, 20));
+    }
+
+    private static BufferedImage noise(int width, int height, boolean opaque) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(3);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = opaque || x > 20 ? 0xff : 0x80;
+                image.setRGB(x, y, (alpha << 24) | (random.nextInt() & 0xffffff));
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,151 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.SpreadCache;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.*;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateImage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediatePage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestSpreadCache {
+
+    @Test
+    public void testEntryRoundTripAndStateCheck() throws Exception {
+        File dir = Files.createTempDirectory("spread_cache_test").toFile();
+        try {
+            IDMLDocument doc = createDoc();
+            IDMLSpread spread = doc.spreads().get(0);
+            SpreadCache cache = new SpreadCache(dir, doc, ConvertOptions.defaults());
+            Assert.assertFalse(cache.contains(spread, 0));
+
+            IntermediatePage page = new IntermediatePage();
+            page.pageNumber(1);
+            page.pageWidth(59528);
+            page.pageHeight(84188);
+            IntermediateFrame bg = new IntermediateFrame();
+            bg.frameId("page_background_1");
+            bg.frameType("image");
+            IntermediateImage image = new IntermediateImage();
+            image.imageId("page_bg_1");
+            image.format("png");
+            image.data(new byte[]{1, 2, 3, 4});
+            bg.image(image);
+            page.addFrame(bg);
+
+            cache.put(spread, 0, "stories=[]", new SpreadCache.Entry(page,
+                    Arrays.asList("u10"), Collections.<String>emptyList(), Arrays.asList("경고")));
+            Assert.assertTrue(cache.contains(spread, 0));
+
+            // 다른 인스턴스 (다음 변환)에서 같은 입력이면 적중
+            IDMLDocument nextDoc = createDoc();
+            SpreadCache next = new SpreadCache(dir, nextDoc, ConvertOptions.defaults());
+            IDMLSpread sameSpread = nextDoc.spreads().get(0);
+            SpreadCache.Entry entry = next.get(sameSpread, 0, "stories=[]");
+            Assert.assertNotNull(entry);
+            Assert.assertEquals(1, next.hits());
+            Assert.assertEquals(Arrays.asList("u10"), entry.processedStories());
+            Assert.assertEquals(Arrays.asList("경고"), entry.warnings());
+            Assert.assertArrayEquals(new byte[]{1, 2, 3, 4},
+                    entry.page().frames().get(0).image().data());
+
+            // 시작 상태가 다르면 쓰지 않는다
+            Assert.assertNull(next.get(sameSpread, 0, "stories=[u1]"));
+            Assert.assertEquals(1, next.misses());
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void testStaleEntriesTrimmedPastMaxBytes() throws Exception {
+        File dir = Files.createTempDirectory("spread_cache_test").toFile();
+        try {
+            IDMLDocument before = createDoc();
+            IDMLDocument after = createDoc();
+            after.getStory("u20").addParagraph(new IDMLParagraph());
+            IntermediatePage page = new IntermediatePage();
+            page.pageNumber(1);
+
+            SpreadCache first = new SpreadCache(dir, before, ConvertOptions.defaults(), 1);
+            first.put(before.spreads().get(1), 0, "stories=[]", new SpreadCache.Entry(page,
+                    Collections.<String>emptyList(), Collections.<String>emptyList(), Collections.<String>emptyList()));
+            Assert.assertTrue(first.contains(before.spreads().get(1), 0));
+
+            // 입력이 바뀌어 키가 달라지면 새 항목을 저장하고, 상한을 넘은 이전 항목은 지운다
+            SpreadCache second = new SpreadCache(dir, after, ConvertOptions.defaults(), 1);
+            second.put(after.spreads().get(1), 0, "stories=[]", new SpreadCache.Entry(page,
+                    Collections.<String>emptyList(), Collections.<String>emptyList(), Collections.<String>emptyList()));
+            Assert.assertTrue(second.contains(after.spreads().get(1), 0));
+            Assert.assertFalse(first.contains(before.spreads().get(1), 0));
+            Assert.assertEquals(1, dir.listFiles().length);
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void testKeyFollowsReferencedInputs() throws Exception {
+        File dir = Files.createTempDirectory("spread_cache_test").toFile();
+        try {
+            IDMLDocument before = createDoc();
+            IDMLDocument after = createDoc();
+            // 두 번째 스프레드의 Story만 수정
+            after.getStory("u20").addParagraph(new IDMLParagraph());
+
+            SpreadCache a = new SpreadCache(dir, before, ConvertOptions.defaults());
+            SpreadCache b = new SpreadCache(dir, after, ConvertOptions.defaults());
+            Assert.assertEquals(a.spreadKey(before.spreads().get(0)), b.spreadKey(after.spreads().get(0)));
+            Assert.assertNotEquals(a.spreadKey(before.spreads().get(1)), b.spreadKey(after.spreads().get(1)));
+
+            // 출력에 영향을 주는 옵션이 바뀌면 모든 키가 바뀐다 (스레드 수는 영향 없음)
+            SpreadCache dpi = new SpreadCache(dir, before, ConvertOptions.defaults().vectorDpi(150));
+            SpreadCache threads = new SpreadCache(dir, before, ConvertOptions.defaults().renderThreads(7));
+            Assert.assertNotEquals(a.spreadKey(before.spreads().get(0)), dpi.spreadKey(before.spreads().get(0)));
+            Assert.assertEquals(a.spreadKey(before.spreads().get(0)), threads.spreadKey(before.spreads().get(0)));
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static IDMLDocument createDoc() {
+        IDMLDocument doc = new IDMLDocument();
+        for (int i = 1; i <= 2; i++) {
+            IDMLSpread spread = new IDMLSpread();
+            spread.selfId("spread" + i);
+            IDMLPage page = new IDMLPage();
+            page.selfId("page" + i);
+            spread.addPage(page);
+
+            String storyId = "u" + (i * 10);
+            IDMLTextFrame frame = new IDMLTextFrame();
+            frame.selfId("tf" + i);
+            frame.parentStoryId(storyId);
+            frame.geometricBounds(new double[]{0, 0, 100, 200});
+            frame.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+            spread.addTextFrame(frame);
+            doc.addSpread(spread);
+
+            IDMLStory story = new IDMLStory();
+            story.selfId(storyId);
+            story.addParagraph(new IDMLParagraph());
+            doc.putStory(storyId, story);
+        }
+        return doc;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
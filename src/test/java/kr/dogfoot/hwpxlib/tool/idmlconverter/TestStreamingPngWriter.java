@@ -0,0 +1,123 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.StreamingPngWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class TestStreamingPngWriter {
+
+    @Test
+    public void testBandedRowsRoundTrip() throws Exception {
+        int width = 97;
+        int height = 130;
+        int[] argb = new int[width * height];
+        Random random = new Random(7);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // 그라데이션 + 노이즈 + 투명 영역: 모든 필터가 선택될 수 있는 입력
+                int alpha = x < 10 ? 0 : (x * 255 / width);
+                int noise = random.nextInt(8);
+                argb[y * width + x] = (alpha << 24) | ((x * 2 + noise) & 0xff) << 16
+                        | ((y * 3) & 0xff) << 8 | (random.nextInt(256) & 0xff);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingPngWriter png = new StreamingPngWriter(out, width, height);
+        for (int top = 0; top < height; top += 32) {
+            int rows = Math.min(32, height - top);
+            png.writeRows(argb, top * width, width, rows);
+        }
+        png.finish();
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(width, decoded.getWidth());
+        Assert.assertEquals(height, decoded.getHeight());
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int expected = argb[y * width + x];
+                int actual = decoded.getRGB(x, y);
+                if ((expected >>> 24) == 0) {
+                    Assert.assertEquals(0, actual >>> 24);
+                } else {
+                    Assert.assertEquals("pixel " + x + "," + y, expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPaletteTrialSpillsToTempFile() throws Exception {
+        int width = 200;
+        int height = 120;
+        int[] argb = new int[width * height];
+        Random random = new Random(3);
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = 0xff000000 | (random.nextInt(200) * 0x010101);
+        }
+        File dir = Files.createTempDirectory("png-spill").toFile();
+        try {
+            ByteArrayOutputStream inMemory = new ByteArrayOutputStream();
+            StreamingPngWriter expected = new StreamingPngWriter(inMemory, width, height, 6,
+                    StreamingPngWriter.Filter.ADAPTIVE, true);
+            expected.writeRows(argb, 0, width, height);
+            expected.finish();
+
+            ByteArrayOutputStream spilled = new ByteArrayOutputStream();
+            StreamingPngWriter png = new StreamingPngWriter(spilled, width, height, 6,
+                    StreamingPngWriter.Filter.ADAPTIVE, true)
+                    .spillThreshold(1024)
+                    .spillDirectory(dir);
+            png.writeRows(argb, 0, width, height);
+            Assert.assertEquals(2, dir.list().length);  // RGBA, 인덱스 스트림 모두 파일로
+            png.finish();
+
+            Assert.assertEquals(0, dir.list().length);
+            Assert.assertEquals(expected.encoding(), png.encoding());
+            Assert.assertArrayEquals(inMemory.toByteArray(), spilled.toByteArray());
+        } finally {
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testFewColorsWrittenAsPalette() throws Exception {
+        int width = 64;
+        int height = 40;
+        int[] colors = {0x00000000, 0xffff0000, 0x8000ff00, 0xff0000ff};
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = colors[(i / 7) % colors.length];
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingPngWriter png = new StreamingPngWriter(out, width, height, 9,
+                StreamingPngWriter.Filter.ADAPTIVE, true);
+        png.writeRows(argb, 0, width, height);
+        png.finish();
+        Assert.assertEquals(StreamingPngWriter.ENCODING_PALETTE, png.encoding());
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertEquals(argb[y * width + x], decoded.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testIncompleteImageRejected() throws Exception {
+        StreamingPngWriter png = new StreamingPngWriter(new ByteArrayOutputStream(), 4, 4);
+        png.writeRows(new int[16], 0, 4, 2);
+        png.finish();
+    }
+}
@@ -1,6 +1,8 @@
 package kr.dogfoot.hwpxlib.tool.idmlconverter;
 
 import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.StyleMapper;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLResolvedStyles;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLStyleDef;
 import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateStyleDef;
 import org.junit.Assert;
@@ -202,6 +204,61 @@ public class TestStyleMapper {
         Assert.assertEquals("pstyle_1", outStyles.get(1).id());
     }
 
+    // ── IDMLResolvedStyles ──
+
+    @Test
+    public void testResolvedStyles_InheritsThroughChain() {
+        Map<String, IDMLStyleDef> idmlStyles = new LinkedHashMap<String, IDMLStyleDef>();
+        // 자식이 부모보다 먼저 나와도 해결되어야 한다
+        idmlStyles.put("ParagraphStyle/C", styleDef("ParagraphStyle/C", "ParagraphStyle/B", null, null));
+        idmlStyles.put("ParagraphStyle/B", styleDef("ParagraphStyle/B", "ParagraphStyle/A", null, "Arial"));
+        idmlStyles.put("ParagraphStyle/A", styleDef("ParagraphStyle/A", null, 12.0, "Dotum"));
+
+        Map<String, IDMLStyleDef> resolved = IDMLResolvedStyles.resolve(idmlStyles);
+
+        Assert.assertEquals(Arrays.asList("ParagraphStyle/C", "ParagraphStyle/B", "ParagraphStyle/A"),
+                new ArrayList<String>(resolved.keySet()));
+        Assert.assertEquals(Double.valueOf(12.0), resolved.get("ParagraphStyle/C").fontSize());
+        Assert.assertEquals("Arial", resolved.get("ParagraphStyle/C").fontFamily());
+        Assert.assertSame(idmlStyles.get("ParagraphStyle/A"), resolved.get("ParagraphStyle/A"));
+    }
+
+    @Test
+    public void testResolvedStyles_CycleSafe() {
+        Map<String, IDMLStyleDef> idmlStyles = new LinkedHashMap<String, IDMLStyleDef>();
+        idmlStyles.put("ParagraphStyle/A", styleDef("ParagraphStyle/A", "ParagraphStyle/B", 10.0, null));
+        idmlStyles.put("ParagraphStyle/B", styleDef("ParagraphStyle/B", "ParagraphStyle/A", null, "Arial"));
+        idmlStyles.put("ParagraphStyle/S", styleDef("ParagraphStyle/S", "ParagraphStyle/S", 9.0, null));
+
+        Map<String, IDMLStyleDef> resolved = IDMLResolvedStyles.resolve(idmlStyles);
+
+        Assert.assertEquals(3, resolved.size());
+        Assert.assertEquals("Arial", resolved.get("ParagraphStyle/A").fontFamily());
+        Assert.assertEquals(Double.valueOf(9.0), resolved.get("ParagraphStyle/S").fontSize());
+    }
+
+    @Test
+    public void testResolvedStyles_CachedOnDocument() {
+        IDMLDocument doc = new IDMLDocument();
+        doc.putParagraphStyle("ParagraphStyle/A", styleDef("ParagraphStyle/A", null, 11.0, null));
+        doc.putParagraphStyle("ParagraphStyle/B", styleDef("ParagraphStyle/B", "ParagraphStyle/A", null, null));
+
+        Assert.assertSame(doc.resolvedParaStyles(), doc.resolvedParaStyles());
+        Assert.assertEquals(Double.valueOf(11.0), doc.getResolvedParagraphStyle("ParagraphStyle/B").fontSize());
+
+        doc.putParagraphStyle("ParagraphStyle/A", styleDef("ParagraphStyle/A", null, 14.0, null));
+        Assert.assertEquals(Double.valueOf(14.0), doc.getResolvedParagraphStyle("ParagraphStyle/B").fontSize());
+    }
+
+    private static IDMLStyleDef styleDef(String selfRef, String basedOn, Double fontSize, String fontFamily) {
+        IDMLStyleDef style = new IDMLStyleDef();
+        style.selfRef(selfRef);
+        style.basedOn(basedOn);
+        style.fontSize(fontSize);
+        style.fontFamily(fontFamily);
+        return style;
+    }
+
     // ── resolveColor ──
 
     @Test
@@ -0,0 +1,83 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.converter.idml.VectorShapeConverter;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLImageFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLVectorShape;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.intermediate.IntermediateFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.util.ColorResolver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class TestVectorShapeConverter {
+    private static final double[] PAGE_BOUNDS = {0, 0, 800, 600};
+    private static final double[] IDENTITY = {1, 0, 0, 1, 0, 0};
+
+    private final VectorShapeConverter converter = new VectorShapeConverter(new ColorResolver(new IDMLDocument()));
+
+    @Test
+    public void testCurvedPathKeepsControlPoints() {
+        IDMLVectorShape shape = shape("wave", IDMLVectorShape.ShapeType.POLYGON, 0, 0, 100, 50);
+        shape.pathOpen(true);
+        shape.addPathPoint(new IDMLVectorShape.PathPoint(0, 50, 0, 50, 30, 0));
+        shape.addPathPoint(new IDMLVectorShape.PathPoint(100, 50, 70, 0, 100, 50));
+
+        IntermediateFrame frame = converter.convertNative(shape, PAGE_BOUNDS, IDENTITY, 3);
+        Assert.assertEquals("curve", frame.shapeType());
+        Assert.assertNull(frame.fillColor());   // 열린 경로는 채우지 않는다
+        Assert.assertEquals(3, frame.curveSegments().size());
+        long[] first = frame.curveSegments().get(0);
+        Assert.assertArrayEquals(new long[]{1, 0, 5000, 3000, 0}, first);
+        Assert.assertEquals(10000, frame.width());
+        Assert.assertEquals(5000, frame.height());
+    }
+
+    @Test
+    public void testRotatedRectangleBecomesPolygonalCurve() {
+        IDMLVectorShape shape = shape("box", IDMLVectorShape.ShapeType.RECTANGLE, 0, 0, 10, 10);
+        shape.itemTransform(new double[]{0, 1, -1, 0, 100, 100});   // 90도 회전
+
+        IntermediateFrame frame = converter.convertNative(shape, PAGE_BOUNDS, IDENTITY, 0);
+        Assert.assertEquals("curve", frame.shapeType());
+        Assert.assertEquals(4, frame.curveSegments().size());
+        Assert.assertEquals(9000, frame.x());
+        Assert.assertEquals(10000, frame.y());
+    }
+
+    @Test
+    public void testShapeUnderImageStaysRaster() {
+        IDMLVectorShape under = shape("under", IDMLVectorShape.ShapeType.RECTANGLE, 0, 0, 100, 100);
+        IDMLVectorShape beside = shape("beside", IDMLVectorShape.ShapeType.RECTANGLE, 300, 300, 400, 400);
+        IDMLVectorShape translucent = shape("glass", IDMLVectorShape.ShapeType.RECTANGLE, 500, 0, 600, 100);
+        translucent.opacity(50);
+        IDMLImageFrame image = new IDMLImageFrame();
+        image.geometricBounds(new double[]{50, 50, 150, 150});
+        image.itemTransform(IDENTITY);
+
+        List<IDMLSpread.RenderableItem> items = new ArrayList<IDMLSpread.RenderableItem>();
+        items.add(new IDMLSpread.RenderableItem(under));
+        items.add(new IDMLSpread.RenderableItem(beside));
+        items.add(new IDMLSpread.RenderableItem(translucent));
+        items.add(new IDMLSpread.RenderableItem(image));
+
+        Set<IDMLVectorShape> natives = converter.selectNativeShapes(items);
+        Assert.assertFalse(natives.contains(under));
+        Assert.assertTrue(natives.contains(beside));
+        Assert.assertFalse(natives.contains(translucent));
+    }
+
+    private static IDMLVectorShape shape(String id, IDMLVectorShape.ShapeType type,
+                                         double left, double top, double right, double bottom) {
+        IDMLVectorShape shape = new IDMLVectorShape();
+        shape.selfId(id);
+        shape.shapeType(type);
+        shape.geometricBounds(new double[]{top, left, bottom, right});
+        shape.fillColor("#336699");
+        return shape;
+    }
+}
@@ -0,0 +1,99 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.ConvertOptions;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLImageFrame;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLVectorShape;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+public class TestBandedRendering {
+
+    @Test
+    public void testBandingIsOnByDefault() {
+        Assert.assertEquals(1024, ConvertOptions.defaults().renderBandHeight());
+    }
+
+    @Test
+    public void testBandsDecodeImageOnceWithoutCache() throws Exception {
+        File png = File.createTempFile("band-image", ".png");
+        try {
+            BufferedImage source = new BufferedImage(60, 100, BufferedImage.TYPE_INT_RGB);
+            ImageIO.write(source, "png", png);
+
+            IDMLDocument doc = new IDMLDocument();
+            IDMLSpread spread = new IDMLSpread();
+            spread.selfId("sp1");
+            IDMLPage page = new IDMLPage();
+            page.selfId("p1");
+            page.geometricBounds(new double[]{0, 0, 200, 120});
+            page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+            spread.addPage(page);
+            IDMLImageFrame frame = new IDMLImageFrame();
+            frame.selfId("img");
+            frame.geometricBounds(new double[]{0, 0, 200, 120});
+            frame.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+            frame.graphicBounds(new double[]{0, 0, 120, 200});
+            frame.linkResourceURI("file://" + png.getAbsolutePath());
+            spread.addImageFrame(frame);
+            doc.addSpread(spread);
+
+            DecodedImageCache cache = new DecodedImageCache(0);
+            new IDMLPageRenderer(doc, 72, cache).bandHeight(7).renderPage(spread, page, null, false);
+
+            Assert.assertEquals(1, cache.stats().misses());
+        } finally {
+            png.delete();
+        }
+    }
+
+    @Test
+    public void testBandsMatchWholePage() throws Exception {
+        IDMLDocument doc = new IDMLDocument();
+        IDMLSpread spread = new IDMLSpread();
+        spread.selfId("sp1");
+        IDMLPage page = new IDMLPage();
+        page.selfId("p1");
+        page.geometricBounds(new double[]{0, 0, 200, 120});
+        page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        spread.addPage(page);
+        spread.addVectorShape(rectangle("top", 10, 4, 50, 10));
+        spread.addVectorShape(rectangle("across", 30, 20, 60, 90));   // 여러 띠에 걸침
+        spread.addVectorShape(rectangle("bottom", 70, 180, 40, 16));
+        doc.addSpread(spread);
+
+        BufferedImage whole = decode(new IDMLPageRenderer(doc, 72).renderPage(spread, page, null, false));
+        BufferedImage banded = decode(new IDMLPageRenderer(doc, 72).bandHeight(7)
+                .renderPage(spread, page, null, false));
+
+        Assert.assertEquals(whole.getWidth(), banded.getWidth());
+        Assert.assertEquals(whole.getHeight(), banded.getHeight());
+        for (int y = 0; y < whole.getHeight(); y++) {
+            for (int x = 0; x < whole.getWidth(); x++) {
+                Assert.assertEquals("pixel " + x + "," + y, whole.getRGB(x, y), banded.getRGB(x, y));
+            }
+        }
+        Assert.assertNotEquals(0, banded.getRGB(40, 100) >>> 24);  // across가 아래쪽 띠에도 그려졌다
+    }
+
+    private static BufferedImage decode(byte[] png) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+
+    private static IDMLVectorShape rectangle(String id, double left, double top, double width, double height) {
+        IDMLVectorShape shape = new IDMLVectorShape();
+        shape.selfId(id);
+        shape.shapeType(IDMLVectorShape.ShapeType.RECTANGLE);
+        shape.geometricBounds(new double[]{top, left, top + height, left + width});
+        shape.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        shape.fillColor("Color/Black");
+        return shape;
+    }
+}
@@ -0,0 +1,75 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+public class TestImageRegionDecode {
+
+    private File imageFile;
+    private BufferedImage full;
+
+    @Before
+    public void setUp() throws Exception {
+        // 픽셀마다 다른 색: 잘못된 위치를 읽으면 바로 드러난다
+        BufferedImage source = new BufferedImage(97, 61, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                source.setRGB(x, y, (x * 2 << 16) | (y * 4 << 8) | ((x * 7 + y * 13) & 0xff));
+            }
+        }
+        imageFile = File.createTempFile("region", ".png");
+        ImageIO.write(source, "png", imageFile);
+        full = ImageIO.read(imageFile);
+    }
+
+    @After
+    public void tearDown() {
+        imageFile.delete();
+    }
+
+    @Test
+    public void testRegionMatchesFullDecode() throws Exception {
+        assertMatchesFull(new Rectangle(10, 5, 40, 30), 1, 1);
+    }
+
+    @Test
+    public void testSubsampledRegionMatchesFullDecode() throws Exception {
+        assertMatchesFull(new Rectangle(3, 7, 90, 50), 3, 2);
+        assertMatchesFull(new Rectangle(0, 0, 97, 61), 4, 4);
+    }
+
+    @Test
+    public void testSourceRegionAndStepFollowOutputScale() {
+        // 원본 97x61을 출력에서 1/4 크기로 그리고, 출력의 (0,0)-(10,5)만 보인다
+        AffineTransform toOutput = AffineTransform.getScaleInstance(0.25, 0.25);
+        Rectangle region = IDMLPageRenderer.sourceRegion(toOutput, new Rectangle(0, 0, 10, 5), 97, 61);
+        Assert.assertEquals(new Rectangle(0, 0, 42, 22), region);
+        Assert.assertEquals(4, IDMLPageRenderer.subsampling(toOutput.getScaleX(), toOutput.getShearY()));
+
+        // 확대해서 그리면 건너뛰지 않는다
+        Assert.assertEquals(1, IDMLPageRenderer.subsampling(2.0, 0));
+        // 보이는 부분이 원본 밖이면 null
+        Assert.assertNull(IDMLPageRenderer.sourceRegion(AffineTransform.getTranslateInstance(500, 500),
+                new Rectangle(0, 0, 10, 10), 97, 61));
+    }
+
+    private void assertMatchesFull(Rectangle region, int subX, int subY) throws Exception {
+        BufferedImage decoded = IDMLPageRenderer.readImageRegion(imageFile, region, subX, subY);
+        Assert.assertEquals((region.width + subX - 1) / subX, decoded.getWidth());
+        Assert.assertEquals((region.height + subY - 1) / subY, decoded.getHeight());
+        for (int j = 0; j < decoded.getHeight(); j++) {
+            for (int i = 0; i < decoded.getWidth(); i++) {
+                Assert.assertEquals("pixel " + i + "," + j,
+                        full.getRGB(region.x + i * subX, region.y + j * subY), decoded.getRGB(i, j));
+            }
+        }
+    }
+}
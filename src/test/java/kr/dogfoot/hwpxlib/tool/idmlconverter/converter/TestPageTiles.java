@@ -0,0 +1,81 @@
+package kr.dogfoot.hwpxlib.tool.idmlconverter.converter;
+
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLDocument;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLPage;
+import kr.dogfoot.hwpxlib.tool.idmlconverter.idml.IDMLSpread;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestPageTiles {
+    private static final int GAP = (int) Math.ceil(IDMLPageRenderer.TILE_MERGE_GAP_PT);  // 72DPI
+
+    @Test
+    public void testBoxesWithinGapAreMerged() {
+        Rectangle a = new Rectangle(0, 0, 100, 100);
+        Rectangle near = new Rectangle(100 + GAP, 0, 50, 50);        // 간격이 정확히 36pt
+        Rectangle far = new Rectangle(100, 300, 50, 50);             // 아래로 200pt 떨어짐
+
+        List<Rectangle> tiles = IDMLPageRenderer.mergeTiles(Arrays.asList(a, near, far),
+                GAP, IDMLPageRenderer.MAX_TILES);
+        Assert.assertEquals(2, tiles.size());
+        Assert.assertEquals(new Rectangle(0, 0, 150 + GAP, 100), tiles.get(0));
+        Assert.assertEquals(far, tiles.get(1));
+
+        // 간격보다 1pt 멀면 따로 남는다
+        Rectangle apart = new Rectangle(100 + GAP + 1, 0, 50, 50);
+        Assert.assertEquals(2, IDMLPageRenderer.mergeTiles(Arrays.asList(a, apart),
+                GAP, IDMLPageRenderer.MAX_TILES).size());
+    }
+
+    @Test
+    public void testMergeIsTransitiveAndSorted() {
+        // c는 a와 멀지만 b를 통해 이어진다
+        Rectangle c = new Rectangle(140, 0, 40, 40);
+        Rectangle a = new Rectangle(0, 0, 40, 40);
+        Rectangle b = new Rectangle(70, 0, 40, 40);
+        Rectangle below = new Rectangle(0, 500, 10, 10);
+        Rectangle right = new Rectangle(400, 500, 10, 10);
+
+        List<Rectangle> tiles = IDMLPageRenderer.mergeTiles(Arrays.asList(right, c, below, a, b),
+                GAP, IDMLPageRenderer.MAX_TILES);
+        Assert.assertEquals(Arrays.asList(new Rectangle(0, 0, 180, 40), below, right), tiles);
+    }
+
+    @Test
+    public void testTooManyTilesCollapseToUnion() {
+        List<Rectangle> boxes = new ArrayList<Rectangle>();
+        for (int i = 0; i <= IDMLPageRenderer.MAX_TILES; i++) {
+            boxes.add(new Rectangle(i * 100, i * 100, 10, 10));
+        }
+        List<Rectangle> tiles = IDMLPageRenderer.mergeTiles(boxes, GAP, IDMLPageRenderer.MAX_TILES);
+        int last = IDMLPageRenderer.MAX_TILES * 100 + 10;
+        Assert.assertEquals(Arrays.asList(new Rectangle(0, 0, last, last)), tiles);
+
+        // 상한과 같으면 합치지 않는다
+        boxes.remove(boxes.size() - 1);
+        Assert.assertEquals(IDMLPageRenderer.MAX_TILES,
+                IDMLPageRenderer.mergeTiles(boxes, GAP, IDMLPageRenderer.MAX_TILES).size());
+    }
+
+    @Test
+    public void testEmptyInput() throws Exception {
+        Assert.assertTrue(IDMLPageRenderer.mergeTiles(new ArrayList<Rectangle>(), GAP,
+                IDMLPageRenderer.MAX_TILES).isEmpty());
+
+        // 그릴 항목이 없는 페이지는 타일이 없다
+        IDMLDocument doc = new IDMLDocument();
+        IDMLSpread spread = new IDMLSpread();
+        IDMLPage page = new IDMLPage();
+        page.selfId("p1");
+        page.geometricBounds(new double[]{0, 0, 842, 595});
+        page.itemTransform(new double[]{1, 0, 0, 1, 0, 0});
+        spread.addPage(page);
+        doc.addSpread(spread);
+        Assert.assertTrue(new IDMLPageRenderer(doc, 72).renderPageTiles(spread, page, null, false).isEmpty());
+    }
+}
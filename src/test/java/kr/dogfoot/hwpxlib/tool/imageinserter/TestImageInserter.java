@@ -9,6 +9,7 @@ import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Para;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.Run;
 import kr.dogfoot.hwpxlib.object.content.section_xml.paragraph.object.Picture;
 import kr.dogfoot.hwpxlib.tool.blankfilemaker.BlankFileMaker;
+import kr.dogfoot.hwpxlib.tool.util.IdAllocator;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -216,6 +217,23 @@ public class TestImageInserter {
         Assert.assertTrue("JPEG ManifestItem should be registered", found);
     }
 
+    @Test
+    public void testInsertInlineFromBytesUsesAllocator() throws IOException {
+        byte[] pngData = createDummyPng(20, 10);
+        IdAllocator ids = new IdAllocator(0L, 700L);
+
+        Picture pic = ImageInserter.insertInlineFromBytes(
+                hwpxFile, createRun(), pngData, "png", 2000L, 1000L, ids);
+        Assert.assertEquals("701", pic.id());
+
+        // 할당기를 넘기지 않으면 변환기의 도형 ID 구간 아래의 공용 구간에서 받는다
+        Picture shared = ImageInserter.insertInlineFromBytes(
+                hwpxFile, createRun(), pngData, "png", 2000L, 1000L);
+        long sharedId = Long.parseLong(shared.id());
+        Assert.assertTrue(sharedId > ImageInserter.SHARED_SHAPE_ID_BASE);
+        Assert.assertTrue(sharedId < IdAllocator.DEFAULT_SHAPE_ID_BASE);
+    }
+
     @Test
     public void testAutoPixelDetection() throws IOException {
         byte[] pngData = createDummyPng(400, 250);
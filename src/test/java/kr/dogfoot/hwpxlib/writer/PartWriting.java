@@ -0,0 +1,48 @@
+package kr.dogfoot.hwpxlib.writer;
+
+import kr.dogfoot.hwpxlib.object.HWPXFile;
+import kr.dogfoot.hwpxlib.reader.HWPXReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class PartWriting {
+    @Test
+    public void SectionsFirst() throws Exception {
+        HWPXFile hwpxFile = HWPXReader.fromFilepath("testFile/reader_writer/MultiColumn.hwpx");
+        Map<String, String> expected = entries(HWPXWriter.toBytes(hwpxFile));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        HWPXWriter writer = HWPXWriter.open(hwpxFile, baos);
+        writer.writeSection("Contents/section0.xml", hwpxFile.sectionXMLFileList().get(0));
+        hwpxFile.sectionXMLFileList().get(0).removeAllParas();
+        writer.finish();
+        Map<String, String> actual = entries(baos.toByteArray());
+
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static Map<String, String> entries(byte[] zip) throws IOException {
+        Map<String, String> entries = new TreeMap<String, String>();
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip));
+        ZipEntry entry;
+        byte[] buffer = new byte[2048];
+        while ((entry = zis.getNextEntry()) != null) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            int length;
+            while ((length = zis.read(buffer)) != -1) {
+                bos.write(buffer, 0, length);
+            }
+            Assert.assertFalse("duplicate entry " + entry.getName(), entries.containsKey(entry.getName()));
+            entries.put(entry.getName(), new String(bos.toByteArray(), "ISO-8859-1"));
+        }
+        return entries;
+    }
+}